@@ -0,0 +1,122 @@
+package comp303.fivehundred.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import comp303.fivehundred.ai.AdvancedPlayingStrategy;
+import comp303.fivehundred.engine.GameEngine;
+import comp303.fivehundred.model.Hand;
+import comp303.fivehundred.model.Trick;
+import comp303.fivehundred.util.Card;
+import comp303.fivehundred.util.Card.Suit;
+import comp303.fivehundred.util.SplitMixRandom;
+
+/**
+ * AdvancedPlayingStrategy.play() in the first trick of a deal, for the player in second, third and last position. In
+ * second and third position, the strategy looks for a card that cannot be beaten, which exercises canBeBeat().
+ *
+ * @author Jake Shamash
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AdvancedPlayingBenchmark
+{
+	@Param({ "SPADES", "NONE" })
+	private String aTrumpName;
+
+	@Param({ "1", "2", "3" })
+	private int aCardsPlayed;
+
+	private AdvancedPlayingStrategy[] aStrategies;
+	private Hand[] aHands;
+	private Trick[] aTricks;
+	private int aNext;
+
+	/**
+	 * Builds the tricks, and one strategy per deal. The strategy learns about the cards already in the trick through
+	 * the same events the engine sends during a game. The first call to play() removes the cards of the hand from the
+	 * cards left, so it is made here; later calls with the same hand and trick do not change the strategy.
+	 */
+	@Setup
+	public void setUp()
+	{
+		Suit lTrump = Deals.trump(aTrumpName);
+		Hand[][] lHands = Deals.hands();
+		ScriptedEngine lEngine = new ScriptedEngine(lTrump);
+		aStrategies = new AdvancedPlayingStrategy[Deals.NUM_DEALS];
+		aHands = new Hand[Deals.NUM_DEALS];
+		aTricks = new Trick[Deals.NUM_DEALS];
+		for (int i = 0; i < Deals.NUM_DEALS; i++)
+		{
+			aStrategies[i] = new AdvancedPlayingStrategy(new SplitMixRandom(Deals.SEED + i));
+			aHands[i] = lHands[i][aCardsPlayed];
+			aTricks[i] = Deals.trick(lHands[i], lTrump, aCardsPlayed);
+			int lPlayer = 0;
+			for (Card lCard : aTricks[i])
+			{
+				lEngine.aSuitLed = aTricks[i].getSuitLed();
+				aStrategies[i].onCardPlayed(lEngine, lPlayer, lCard);
+				lPlayer++;
+			}
+			aStrategies[i].play(aTricks[i], aHands[i]);
+		}
+	}
+
+	/**
+	 * @return The card played in the next deal.
+	 */
+	@Benchmark
+	public Object play()
+	{
+		int lDeal = aNext++ & Deals.MASK;
+		return aStrategies[lDeal].play(aTricks[lDeal], aHands[lDeal]);
+	}
+
+	/**
+	 * Reports the state of a first trick led by player 0, as a real engine would while that trick is played.
+	 */
+	private static final class ScriptedEngine extends GameEngine
+	{
+		private final Suit aTrump;
+		private Suit aSuitLed;
+
+		ScriptedEngine(Suit pTrump)
+		{
+			super(new String[] { "North", "East", "South", "West" }, new int[] { BASIC_AI, BASIC_AI, BASIC_AI, BASIC_AI });
+			aTrump = pTrump;
+		}
+
+		@Override
+		public int getTrickLeader()
+		{
+			return 0;
+		}
+
+		@Override
+		public Suit getSuitLed()
+		{
+			return aSuitLed;
+		}
+
+		@Override
+		public Suit getTrumpSuit()
+		{
+			return aTrump;
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package comp303.fivehundred.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import comp303.fivehundred.ai.AdvancedBiddingStrategy;
+import comp303.fivehundred.ai.BasicBiddingStrategy;
+import comp303.fivehundred.ai.HandEvaluator;
+import comp303.fivehundred.model.Bid;
+import comp303.fivehundred.model.Hand;
+import comp303.fivehundred.util.Card.Suit;
+
+/**
+ * BasicBiddingStrategy.selectBid() and AdvancedBiddingStrategy.selectBid() for the third player to bid, after a pass
+ * and a bid of 6 spades. The hands repeat, so the shared HandEvaluator answers from its cache; the uncached variant
+ * uses an evaluator too small to keep them.
+ *
+ * @author Jake Shamash
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BiddingBenchmark
+{
+	private static final int NUM_PLAYERS = 4;
+	private static final int SIX = 6;
+	private static final int THIRD_PLAYER = 2;
+	private static final int TINY_CACHE = 16;
+
+	private BasicBiddingStrategy aStrategy;
+	private BasicBiddingStrategy aUncached;
+	private AdvancedBiddingStrategy aAdvanced;
+	private Hand[][] aHands;
+	private Bid[] aPreviousBids;
+	private int aNext;
+
+	/**
+	 * Deals the hands and records the previous bids.
+	 */
+	@Setup
+	public void setUp()
+	{
+		aStrategy = new BasicBiddingStrategy();
+		aUncached = new BasicBiddingStrategy(new HandEvaluator(TINY_CACHE));
+		aAdvanced = new AdvancedBiddingStrategy();
+		aHands = Deals.hands();
+		aPreviousBids = new Bid[NUM_PLAYERS];
+		aPreviousBids[0] = new Bid();
+		aPreviousBids[1] = new Bid(SIX, Suit.SPADES);
+	}
+
+	/**
+	 * @return The bid of the third player of the next deal.
+	 */
+	@Benchmark
+	public Object selectBid()
+	{
+		return aStrategy.selectBid(aPreviousBids, aHands[aNext++ & Deals.MASK][THIRD_PLAYER]);
+	}
+
+	/**
+	 * @return The bid of the third player of the next deal, evaluating the hand every time.
+	 */
+	@Benchmark
+	public Object selectBidUncached()
+	{
+		return aUncached.selectBid(aPreviousBids, aHands[aNext++ & Deals.MASK][THIRD_PLAYER]);
+	}
+
+	/**
+	 * @return The bid of the advanced strategy for the third player of the next deal.
+	 */
+	@Benchmark
+	public Object selectBidAdvanced()
+	{
+		return aAdvanced.selectBid(aPreviousBids, aHands[aNext++ & Deals.MASK][THIRD_PLAYER]);
+	}
+}
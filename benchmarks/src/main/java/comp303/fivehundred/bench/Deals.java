@@ -0,0 +1,112 @@
+package comp303.fivehundred.bench;
+
+import comp303.fivehundred.model.Bid;
+import comp303.fivehundred.model.Hand;
+import comp303.fivehundred.model.Trick;
+import comp303.fivehundred.util.Card.Suit;
+import comp303.fivehundred.util.Deck;
+import comp303.fivehundred.util.SplitMixRandom;
+
+/**
+ * Reproducible inputs shared by the benchmarks. Every benchmark cycles through a fixed set of deals so that the branch
+ * predictor cannot learn a single hand, while every run of the benchmarks sees exactly the same cards.
+ *
+ * @author Jake Shamash
+ */
+final class Deals
+{
+	/**
+	 * The number of deals each benchmark cycles through. A power of two, so that the next index is a mask.
+	 */
+	static final int NUM_DEALS = 64;
+
+	/**
+	 * The mask that wraps an index around NUM_DEALS.
+	 */
+	static final int MASK = NUM_DEALS - 1;
+
+	/**
+	 * The seed of the generator used to shuffle the deals.
+	 */
+	static final long SEED = 303;
+
+	private static final int NUM_PLAYERS = 4;
+	private static final int CARDS_IN_HAND = 10;
+	private static final int TRICKS_BID = 7;
+
+	/**
+	 * Prevent this class from being instantiated.
+	 */
+	private Deals()
+	{
+	}
+
+	/**
+	 * Deals NUM_DEALS rounds from a deck shuffled with SEED.
+	 *
+	 * @return hands[deal][player], the 10 cards dealt to each player.
+	 */
+	static Hand[][] hands()
+	{
+		Hand[][] lHands = new Hand[NUM_DEALS][NUM_PLAYERS];
+		Deck lDeck = new Deck(new SplitMixRandom(SEED));
+		for (int i = 0; i < NUM_DEALS; i++)
+		{
+			lDeck.shuffle();
+			for (int lPlayer = 0; lPlayer < NUM_PLAYERS; lPlayer++)
+			{
+				lHands[i][lPlayer] = new Hand();
+				for (int lCard = 0; lCard < CARDS_IN_HAND; lCard++)
+				{
+					lHands[i][lPlayer].add(lDeck.draw());
+				}
+			}
+		}
+		return lHands;
+	}
+
+	/**
+	 * Parses the name of a trump suit used as a JMH parameter.
+	 *
+	 * @param pName
+	 *            The name of a Suit, or "NONE" for no trump.
+	 * @return The suit, or null for no trump.
+	 */
+	static Suit trump(String pName)
+	{
+		if (pName.equals("NONE"))
+		{
+			return null;
+		}
+		return Suit.valueOf(pName);
+	}
+
+	/**
+	 * Builds the first trick of a deal: player 0 leads their first card, and every other player plays their first
+	 * legal card.
+	 *
+	 * @param pHands
+	 *            The hands of the 4 players.
+	 * @param pTrump
+	 *            The trump suit, null for no trump.
+	 * @param pCards
+	 *            The number of cards to play in the trick, between 0 and 4.
+	 * @return The trick.
+	 */
+	static Trick trick(Hand[] pHands, Suit pTrump, int pCards)
+	{
+		Trick lTrick = new Trick(new Bid(TRICKS_BID, pTrump));
+		for (int lPlayer = 0; lPlayer < pCards; lPlayer++)
+		{
+			if (lTrick.size() == 0)
+			{
+				lTrick.add(pHands[lPlayer].getFirst());
+			}
+			else
+			{
+				lTrick.add(pHands[lPlayer].playableCards(lTrick.getSuitLed(), pTrump).getFirst());
+			}
+		}
+		return lTrick;
+	}
+}
@@ -0,0 +1,85 @@
+package comp303.fivehundred.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import comp303.fivehundred.model.Hand;
+import comp303.fivehundred.util.CardList;
+import comp303.fivehundred.util.Deck;
+import comp303.fivehundred.util.SplitMixRandom;
+
+/**
+ * Shuffling and dealing, as done by GameEngine.deal() at the start of every round.
+ *
+ * @author Jake Shamash
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DeckBenchmark
+{
+	private static final int NUM_PLAYERS = 4;
+	private static final int CARDS_IN_HAND = 10;
+
+	private Deck aDeck;
+
+	/**
+	 * Creates the deck reused by every invocation.
+	 */
+	@Setup
+	public void setUp()
+	{
+		aDeck = new Deck(new SplitMixRandom(Deals.SEED));
+	}
+
+	/**
+	 * @return The next card drawn from a freshly shuffled deck.
+	 */
+	@Benchmark
+	public Object shuffle()
+	{
+		aDeck.shuffle();
+		return aDeck.draw();
+	}
+
+	/**
+	 * Shuffles the deck and deals 4 hands and the widow.
+	 *
+	 * @param pBlackhole
+	 *            Consumes the hands.
+	 */
+	@Benchmark
+	public void shuffleAndDeal(Blackhole pBlackhole)
+	{
+		aDeck.shuffle();
+		for (int i = 0; i < NUM_PLAYERS; i++)
+		{
+			Hand lHand = new Hand();
+			for (int j = 0; j < CARDS_IN_HAND; j++)
+			{
+				lHand.add(aDeck.draw());
+			}
+			pBlackhole.consume(lHand);
+		}
+		CardList lWidow = new CardList();
+		while (aDeck.size() > 0)
+		{
+			lWidow.add(aDeck.draw());
+		}
+		pBlackhole.consume(lWidow);
+	}
+}
@@ -0,0 +1,95 @@
+package comp303.fivehundred.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import comp303.fivehundred.ai.DoubleDummySolver;
+import comp303.fivehundred.ai.PlayoutState;
+import comp303.fivehundred.model.Hand;
+import comp303.fivehundred.util.CardSet;
+
+/**
+ * DoubleDummySolver on endings of aTricks tricks, made of the first cards of every hand of the deals. The table is
+ * cleared before every solve, so that each one measures a cold search. The nodes per second and the table hit rate
+ * are printed at the end of every iteration.
+ *
+ * @author Jake Shamash
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DoubleDummyBenchmark
+{
+	private static final int NUM_PLAYERS = 4;
+	private static final int TABLE_BITS = 14;
+
+	@Param({ "4", "5", "6" })
+	private int aTricks;
+
+	@Param({ "HEARTS", "NONE" })
+	private String aTrumpName;
+
+	private PlayoutState[] aEndings;
+	private DoubleDummySolver aSolver;
+	private int aNext;
+
+	/**
+	 * Builds the endings.
+	 */
+	@Setup
+	public void setUp()
+	{
+		Hand[][] lHands = Deals.hands();
+		aEndings = new PlayoutState[Deals.NUM_DEALS];
+		for (int i = 0; i < Deals.NUM_DEALS; i++)
+		{
+			aEndings[i] = new PlayoutState();
+			aEndings[i].reset(Deals.trump(aTrumpName), 0, 0, 0);
+			for (int lPlayer = 0; lPlayer < NUM_PLAYERS; lPlayer++)
+			{
+				long lHand = CardSet.EMPTY;
+				for (int lCard = 0; lCard < aTricks; lCard++)
+				{
+					lHand |= CardSet.of(lHands[i][lPlayer].get(lCard));
+				}
+				aEndings[i].setHand(lPlayer, lHand);
+			}
+		}
+		aSolver = new DoubleDummySolver(TABLE_BITS);
+	}
+
+	/**
+	 * Prints the search statistics of the iteration.
+	 */
+	@TearDown
+	public void tearDown()
+	{
+		System.out.println(aSolver.getStatistics());
+		aSolver.resetStatistics();
+	}
+
+	/**
+	 * @return The tricks of team 0 in the next ending.
+	 */
+	@Benchmark
+	public int solve()
+	{
+		aSolver.clear();
+		return aSolver.solve(aEndings[aNext++ & Deals.MASK], 0);
+	}
+}
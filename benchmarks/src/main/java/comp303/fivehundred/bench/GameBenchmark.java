@@ -0,0 +1,81 @@
+package comp303.fivehundred.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import comp303.fivehundred.engine.Driver;
+import comp303.fivehundred.engine.GameEngine;
+import comp303.fivehundred.engine.GameStatistics;
+import comp303.fivehundred.engine.Metrics;
+import comp303.fivehundred.util.SplitMixRandom;
+
+/**
+ * Complete games between robot players, with the statistics observer attached as in Driver. Each invocation plays the
+ * game of the next seed, so the measured mix of games is the same on every run. With metrics, the engine also times
+ * every phase and decision, which measures the cost of leaving the instrumentation on.
+ *
+ * @author Jake Shamash
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class GameBenchmark
+{
+	@Param({ "BASIC", "ADVANCED", "MIXED" })
+	private String aPlayers;
+
+	@Param({ "false", "true" })
+	private boolean aMetrics;
+
+	private GameEngine aEngine;
+	private long aGame;
+
+	/**
+	 * Creates the engine and its robot players.
+	 */
+	@Setup
+	public void setUp()
+	{
+		String[] lNames = { "North", "East", "South", "West" };
+		int[] lTypes = { GameEngine.BASIC_AI, GameEngine.BASIC_AI, GameEngine.BASIC_AI, GameEngine.BASIC_AI };
+		if (aPlayers.equals("ADVANCED"))
+		{
+			lTypes = new int[] { GameEngine.ADVANCED_AI, GameEngine.ADVANCED_AI, GameEngine.ADVANCED_AI, GameEngine.ADVANCED_AI };
+		}
+		else if (aPlayers.equals("MIXED"))
+		{
+			lTypes = new int[] { GameEngine.BASIC_AI, GameEngine.ADVANCED_AI, GameEngine.BASIC_AI, GameEngine.ADVANCED_AI };
+		}
+		aEngine = new GameEngine(lNames, lTypes, new SplitMixRandom(Deals.SEED));
+		aEngine.addListener(new GameStatistics());
+		if (aMetrics)
+		{
+			aEngine.setMetrics(new Metrics());
+		}
+	}
+
+	/**
+	 * @return The engine, after playing one game.
+	 */
+	@Benchmark
+	public Object playGame()
+	{
+		aEngine.setSeed(SplitMixRandom.streamSeed(Deals.SEED, aGame++));
+		Driver.playGame(aEngine);
+		return aEngine;
+	}
+}
@@ -0,0 +1,66 @@
+package comp303.fivehundred.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import comp303.fivehundred.model.Hand;
+import comp303.fivehundred.util.Card.Suit;
+
+/**
+ * Hand.playableCards(), called by every strategy for every card played.
+ *
+ * @author Jake Shamash
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HandBenchmark
+{
+	@Param({ "SPADES", "HEARTS", "NONE" })
+	private String aTrumpName;
+
+	private Suit aTrump;
+	private Hand[][] aHands;
+	private Suit[] aLed;
+	private int aNext;
+
+	/**
+	 * Deals the hands and chooses the suit led for each of them.
+	 */
+	@Setup
+	public void setUp()
+	{
+		aTrump = Deals.trump(aTrumpName);
+		aHands = Deals.hands();
+		aLed = new Suit[Deals.NUM_DEALS];
+		for (int i = 0; i < Deals.NUM_DEALS; i++)
+		{
+			// Player 0 leads their first card.
+			aLed[i] = aHands[i][0].getFirst().getEffectiveSuit(aTrump);
+		}
+	}
+
+	/**
+	 * @return The cards player 1 can play on the lead of player 0.
+	 */
+	@Benchmark
+	public Object playableCards()
+	{
+		int lDeal = aNext++ & Deals.MASK;
+		return aHands[lDeal][1].playableCards(aLed[lDeal], aTrump);
+	}
+}
@@ -0,0 +1,75 @@
+package comp303.fivehundred.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import comp303.fivehundred.ai.PlayoutState;
+import comp303.fivehundred.model.Hand;
+import comp303.fivehundred.util.Card.Suit;
+
+/**
+ * Rollouts of complete rounds with PlayoutState, the inner loop of MonteCarloPlayingStrategy. The throughput is the
+ * number of playouts per millisecond.
+ *
+ * @author Jake Shamash
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PlayoutBenchmark
+{
+	private static final int NUM_PLAYERS = 4;
+
+	@Param({ "SPADES", "NONE" })
+	private String aTrumpName;
+
+	private PlayoutState[] aDeals;
+	private PlayoutState aState;
+	private int aNext;
+
+	/**
+	 * Sets up every deal with player 0 to lead.
+	 */
+	@Setup
+	public void setUp()
+	{
+		Suit lTrump = Deals.trump(aTrumpName);
+		Hand[][] lHands = Deals.hands();
+		aDeals = new PlayoutState[Deals.NUM_DEALS];
+		for (int i = 0; i < Deals.NUM_DEALS; i++)
+		{
+			aDeals[i] = new PlayoutState();
+			aDeals[i].reset(lTrump, 0, 0, 0);
+			for (int lPlayer = 0; lPlayer < NUM_PLAYERS; lPlayer++)
+			{
+				aDeals[i].setHand(lPlayer, lHands[i][lPlayer].getMask());
+			}
+		}
+		aState = new PlayoutState();
+	}
+
+	/**
+	 * @return The tricks won by team 0 when the next deal is played out.
+	 */
+	@Benchmark
+	public int playOut()
+	{
+		aState.copyFrom(aDeals[aNext++ & Deals.MASK]);
+		aState.playOut();
+		return aState.getTricks(0);
+	}
+}
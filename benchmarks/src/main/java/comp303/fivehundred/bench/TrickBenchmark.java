@@ -0,0 +1,74 @@
+package comp303.fivehundred.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import comp303.fivehundred.model.Hand;
+import comp303.fivehundred.model.Trick;
+import comp303.fivehundred.util.Card.Suit;
+
+/**
+ * Trick.highest() and Trick.winnerIndex() on complete tricks, as computed by the engine at the end of every trick.
+ *
+ * @author Jake Shamash
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TrickBenchmark
+{
+	private static final int CARDS_IN_TRICK = 4;
+
+	@Param({ "SPADES", "HEARTS", "NONE" })
+	private String aTrumpName;
+
+	private Trick[] aTricks;
+	private int aNext;
+
+	/**
+	 * Plays the first trick of every deal.
+	 */
+	@Setup
+	public void setUp()
+	{
+		Suit lTrump = Deals.trump(aTrumpName);
+		Hand[][] lHands = Deals.hands();
+		aTricks = new Trick[Deals.NUM_DEALS];
+		for (int i = 0; i < Deals.NUM_DEALS; i++)
+		{
+			aTricks[i] = Deals.trick(lHands[i], lTrump, CARDS_IN_TRICK);
+		}
+	}
+
+	/**
+	 * @return The highest card of the next trick.
+	 */
+	@Benchmark
+	public Object highest()
+	{
+		return aTricks[aNext++ & Deals.MASK].highest();
+	}
+
+	/**
+	 * @return The index of the winner of the next trick.
+	 */
+	@Benchmark
+	public int winnerIndex()
+	{
+		return aTricks[aNext++ & Deals.MASK].winnerIndex();
+	}
+}
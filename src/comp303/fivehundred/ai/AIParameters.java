@@ -0,0 +1,288 @@
+package comp303.fivehundred.ai;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Properties;
+
+import comp303.fivehundred.engine.GameEngine;
+
+/**
+ * The constants of the heuristics of the basic and advanced robots, as one immutable vector of parameters. The
+ * defaults are the values the strategies were written with; ParameterTuner searches for better ones and saves them
+ * with store(), in the format of java.util.Properties.
+ *
+ * Integer parameters are stored as doubles, so that a tuner can move them continuously, and rounded when they are
+ * used.
+ *
+ * @author Jake Shamash
+ */
+public final class AIParameters
+{
+	/**
+	 * The parameters, with their default value, their range and the AI level that uses them.
+	 */
+	public enum Parameter
+	{
+		/** The bidding points of the high joker, in BasicBiddingStrategy. */
+		HIGH_JOKER_POINTS(5, 0, 10, true, GameEngine.BASIC_AI),
+		/** The bidding points of the low joker. */
+		LOW_JOKER_POINTS(4, 0, 10, true, GameEngine.BASIC_AI),
+		/** The bidding points of an ace of the suit. */
+		ACE_POINTS(3, 0, 10, true, GameEngine.BASIC_AI),
+		/** The bidding points of a king of the suit. */
+		KING_POINTS(2, 0, 10, true, GameEngine.BASIC_AI),
+		/** The bidding points of a queen of the suit. */
+		QUEEN_POINTS(1, 0, 10, true, GameEngine.BASIC_AI),
+		/** The bidding points of a jack of the suit, and of the left bower. */
+		JACK_POINTS(2, 0, 10, true, GameEngine.BASIC_AI),
+		/** The hand score below which AdvancedBiddingStrategy passes. */
+		MIN_BID_SCORE(10, 0, 30, true, GameEngine.ADVANCED_AI),
+		/** The hand score from which AdvancedBiddingStrategy considers bidding no trump. */
+		MIN_NO_TRUMP_SCORE(18, 0, 40, true, GameEngine.ADVANCED_AI),
+		/** The probability that AdvancedPlayingStrategy plays low when it cannot win a trick its partner led. */
+		PARTNER_LED_LOW_PROBABILITY(0.5, 0, 1, false, GameEngine.ADVANCED_AI),
+		/** The probability that AdvancedPlayingStrategy plays low when it plays second and cannot win. */
+		SECOND_HAND_LOW_PROBABILITY(0.7, 0, 1, false, GameEngine.ADVANCED_AI);
+
+		private final double aDefault;
+		private final double aMin;
+		private final double aMax;
+		private final boolean aInteger;
+		private final int aLevel;
+
+		private Parameter(double pDefault, double pMin, double pMax, boolean pInteger, int pLevel)
+		{
+			aDefault = pDefault;
+			aMin = pMin;
+			aMax = pMax;
+			aInteger = pInteger;
+			aLevel = pLevel;
+		}
+
+		/**
+		 * @return The value the strategies were written with.
+		 */
+		public double getDefault()
+		{
+			return aDefault;
+		}
+
+		/**
+		 * @return The smallest allowed value.
+		 */
+		public double getMin()
+		{
+			return aMin;
+		}
+
+		/**
+		 * @return The largest allowed value.
+		 */
+		public double getMax()
+		{
+			return aMax;
+		}
+
+		/**
+		 * @return True if the value is rounded to an integer when it is used.
+		 */
+		public boolean isInteger()
+		{
+			return aInteger;
+		}
+
+		/**
+		 * @return The AI level, as defined in GameEngine, whose strategies use this parameter.
+		 */
+		public int getLevel()
+		{
+			return aLevel;
+		}
+
+		/**
+		 * @return The key of the parameter in a properties file.
+		 */
+		public String getKey()
+		{
+			return name().toLowerCase(Locale.ROOT).replace('_', '.');
+		}
+	}
+
+	/**
+	 * The default parameters.
+	 */
+	public static final AIParameters DEFAULTS = defaults();
+
+	private static final int EVALUATOR_CAPACITY = 1 << 12;
+	private static final int POINT_PARAMETERS = Parameter.JACK_POINTS.ordinal() + 1;
+
+	private final double[] aValues;
+	private HandEvaluator aEvaluator; // Created on first use
+
+	/**
+	 * Creates parameters from their values.
+	 *
+	 * @param pValues
+	 *            The values of the parameters, indexed by the ordinal of Parameter. Values out of the range of their
+	 *            parameter are clamped to it.
+	 * @pre pValues.length == Parameter.values().length
+	 */
+	public AIParameters(double[] pValues)
+	{
+		assert pValues.length == Parameter.values().length;
+		aValues = new double[pValues.length];
+		for (Parameter lParameter : Parameter.values())
+		{
+			int i = lParameter.ordinal();
+			aValues[i] = Math.min(lParameter.getMax(), Math.max(lParameter.getMin(), pValues[i]));
+		}
+	}
+
+	private static AIParameters defaults()
+	{
+		double[] lValues = new double[Parameter.values().length];
+		for (Parameter lParameter : Parameter.values())
+		{
+			lValues[lParameter.ordinal()] = lParameter.getDefault();
+		}
+		return new AIParameters(lValues);
+	}
+
+	/**
+	 * Reads parameters written by store(). Missing parameters take their default value, unknown keys are ignored.
+	 *
+	 * @param pIn
+	 *            The reader of the properties. It is not closed.
+	 * @return The parameters read.
+	 * @throws IOException
+	 *             if pIn cannot be read.
+	 * @throws AIException
+	 *             if a value is not a number.
+	 */
+	public static AIParameters load(Reader pIn) throws IOException
+	{
+		Properties lProperties = new Properties();
+		lProperties.load(pIn);
+		double[] lValues = DEFAULTS.toArray();
+		for (Parameter lParameter : Parameter.values())
+		{
+			String lValue = lProperties.getProperty(lParameter.getKey());
+			if (lValue != null)
+			{
+				try
+				{
+					lValues[lParameter.ordinal()] = Double.parseDouble(lValue.trim());
+				}
+				catch (NumberFormatException e)
+				{
+					throw new AIException("Invalid value of " + lParameter.getKey() + ": " + lValue, e);
+				}
+			}
+		}
+		return new AIParameters(lValues);
+	}
+
+	/**
+	 * Writes the parameters in the format of java.util.Properties, with all the digits of their values.
+	 *
+	 * @param pOut
+	 *            The writer of the properties. It is flushed, not closed.
+	 * @param pComment
+	 *            A comment written at the top, or null.
+	 * @throws IOException
+	 *             if pOut cannot be written.
+	 */
+	public void store(Writer pOut, String pComment) throws IOException
+	{
+		if (pComment != null)
+		{
+			pOut.write("# " + pComment + System.lineSeparator());
+		}
+		// Properties.store() would sort the keys in hash order: keep the order of the enum instead.
+		for (Parameter lParameter : Parameter.values())
+		{
+			pOut.write(lParameter.getKey() + "=" + get(lParameter) + System.lineSeparator());
+		}
+		pOut.flush();
+	}
+
+	/**
+	 * @param pParameter
+	 *            A parameter.
+	 * @return Its value.
+	 */
+	public double get(Parameter pParameter)
+	{
+		return aValues[pParameter.ordinal()];
+	}
+
+	/**
+	 * @param pParameter
+	 *            A parameter.
+	 * @return Its value, rounded to the nearest integer.
+	 */
+	public int getInt(Parameter pParameter)
+	{
+		return (int) Math.round(aValues[pParameter.ordinal()]);
+	}
+
+	/**
+	 * @return A copy of the values, indexed by the ordinal of Parameter.
+	 */
+	public double[] toArray()
+	{
+		return aValues.clone();
+	}
+
+	/**
+	 * @return The evaluator of the hands with the points of these parameters. It is shared by all the strategies that
+	 *         use these parameters, and is the shared HandEvaluator when the points are the default ones.
+	 */
+	public synchronized HandEvaluator getEvaluator()
+	{
+		if (aEvaluator == null)
+		{
+			aEvaluator = HandEvaluator.shared();
+			for (int i = 0; i < POINT_PARAMETERS; i++)
+			{
+				Parameter lParameter = Parameter.values()[i];
+				if (getInt(lParameter) != DEFAULTS.getInt(lParameter))
+				{
+					aEvaluator = new HandEvaluator(EVALUATOR_CAPACITY, this);
+					break;
+				}
+			}
+		}
+		return aEvaluator;
+	}
+
+	@Override
+	public boolean equals(Object pObject)
+	{
+		return pObject instanceof AIParameters && Arrays.equals(aValues, ((AIParameters) pObject).aValues);
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return Arrays.hashCode(aValues);
+	}
+
+	@Override
+	public String toString()
+	{
+		StringBuilder lOut = new StringBuilder();
+		for (Parameter lParameter : Parameter.values())
+		{
+			if (lOut.length() > 0)
+			{
+				lOut.append(", ");
+			}
+			lOut.append(lParameter.getKey()).append('=').append(String.format(Locale.ROOT, "%.4f", get(lParameter)));
+		}
+		return lOut.toString();
+	}
+}
@@ -1,142 +1,436 @@
 package comp303.fivehundred.ai;
 
-import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
 
 import comp303.fivehundred.model.Bid;
 import comp303.fivehundred.model.Hand;
 import comp303.fivehundred.util.Card;
-import comp303.fivehundred.util.Card.ByRankComparator;
 import comp303.fivehundred.util.Card.Suit;
 import comp303.fivehundred.util.CardList;
+import comp303.fivehundred.util.CardRanking;
+import comp303.fivehundred.util.CardSet;
+import comp303.fivehundred.util.SplitMixRandom;
 
 /**
- * Advanced AI to select cards to exchange.
- * @author Jake Shamash
+ * Advanced AI to select cards to exchange. With the widow, the contract holder has 16 cards and keeps 10 of them: the
+ * strategy scores all 8008 ways to keep 10 cards and discards the rest of the best one. The score of the cards kept
+ * counts, with the trump of the contract:
+ * - the controls: a card scores more when fewer of the unseen cards beat it in its suit;
+ * - the trump length;
+ * - in a trump contract, the short side suits, which let the hand ruff: voids, singletons and doubletons.
+ * The values of the 16 cards are computed once per decision, so that scoring a set of cards kept only adds up the
+ * values of its cards and counts the cards of each suit in its mask. The sets are scored in parallel on a
+ * ForkJoinPool.
+ *
+ * Optionally, the best few sets are refined by rollouts: the 30 unseen cards are dealt to the other three players
+ * several times, each deal is played out with the heuristic of PlayoutState for each of the sets, and the set that
+ * takes the most tricks on the same deals is kept. The rollouts stop early when they run out of time, and then compare
+ * the candidates on the deals played out so far; with no deal played out, the set with the best score is kept. The
+ * time limit only covers the rollouts: the scoring always scores all the sets, which takes a fraction of a
+ * millisecond. Without a time limit, the discards only depend on the random number generator of the strategy, so
+ * RobotPlayer uses none: the default number of rollouts also takes well under a millisecond per exchange.
  *
+ * @author Jake Shamash
  */
 public class AdvancedCardExchangeStrategy implements ICardExchangeStrategy
 {
+	/**
+	 * The default number of sets of cards refined by rollouts.
+	 */
+	public static final int DEFAULT_CANDIDATES = 4;
+
+	/**
+	 * The default number of deals played out for each of them.
+	 */
+	public static final int DEFAULT_SAMPLES = 32;
+
+	private static final int NUM_PLAYERS = 4;
+	private static final int NUM_SUITS = 4;
+	private static final int HAND_SIZE = 10;
+	private static final int WIDOW_SIZE = 6;
+	private static final int EXCHANGE_SIZE = HAND_SIZE + WIDOW_SIZE;
+	private static final int TRUMP_WEIGHT = 8;
+	// The value of a card kept, by the number of unseen cards that beat it in its suit. 0 when more cards beat it.
+	private static final int[] CONTROL_WEIGHTS = {12, 6, 3};
+	// The value of a side suit in a trump contract, by the number of cards kept in it. 0 for longer suits.
+	private static final int[] SHORTNESS_WEIGHTS = {5, 3, 1};
+	// Scores break ties with the sum of CardRanking.order() of the cards kept, which is below 2^TIE_BITS.
+	private static final int TIE_BITS = 10;
+	private static final int PATTERNS_PER_TASK = 1024;
+	private static final int SAMPLES_PER_TASK = 8;
+	private static final long NANOS_PER_MILLI = 1000000L;
+
+	// The sets of cards kept: the masks of 16 bits with 10 bits set, over the positions of the cards in the hand.
+	private static final int[] PATTERNS = patterns();
+
+	private final Random aRandom;
+	private final int aCandidates;
+	private final int aSamples;
+	private final long aTimeLimit; // In nanoseconds, 0 for no limit
+	private final ForkJoinPool aPool;
+
+	private int aLastSamples;
+
+	/**
+	 * Creates a strategy that only scores the sets of cards kept, running on the common pool.
+	 */
+	public AdvancedCardExchangeStrategy()
+	{
+		this(null, 1, 0, 0, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Creates a strategy that refines the best sets with the default number of rollouts, running on the common pool.
+	 *
+	 * @param pRandom
+	 *            The random number generator to use.
+	 * @pre pRandom != null
+	 */
+	public AdvancedCardExchangeStrategy(Random pRandom)
+	{
+		this(pRandom, DEFAULT_CANDIDATES, DEFAULT_SAMPLES, 0, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Creates a strategy with a given budget per exchange.
+	 *
+	 * @param pRandom
+	 *            The random number generator to use. Can be null if pSamples is 0.
+	 * @param pCandidates
+	 *            The number of best sets of cards refined by rollouts.
+	 * @param pSamples
+	 *            The number of deals played out for each of them. 0 to keep the set with the best score.
+	 * @param pTimeLimitMillis
+	 *            The time after which the rollouts stop, in milliseconds, counted from the start of the exchange. 0
+	 *            for no limit.
+	 * @param pPool
+	 *            The pool on which the sets are scored and the deals are played out.
+	 * @pre pPool != null && (pRandom != null || pSamples == 0)
+	 * @pre pCandidates > 0 && pSamples >= 0 && pTimeLimitMillis >= 0
+	 */
+	public AdvancedCardExchangeStrategy(Random pRandom, int pCandidates, int pSamples, long pTimeLimitMillis,
+			ForkJoinPool pPool)
+	{
+		assert pPool != null && (pRandom != null || pSamples == 0);
+		assert pCandidates > 0 && pSamples >= 0 && pTimeLimitMillis >= 0;
+		aRandom = pRandom;
+		aCandidates = pCandidates;
+		aSamples = pSamples;
+		aTimeLimit = pTimeLimitMillis * NANOS_PER_MILLI;
+		aPool = pPool;
+	}
 
 	@Override
 	public CardList selectCardsToDiscard(Bid[] pBids, int pIndex, Hand pHand)
 	{
-		final int lWidowSize = 6;
-		int toDiscard = lWidowSize;
-		CardList discard = new CardList();
-		Suit trump = Bid.max(pBids).getSuit();
-
-		ArrayList<CardList> suits = new ArrayList<CardList>();
-		suits.add(pHand.cardsOf(Suit.SPADES, trump));
-		suits.add(pHand.cardsOf(Suit.CLUBS, trump));
-		suits.add(pHand.cardsOf(Suit.DIAMONDS, trump));
-		suits.add(pHand.cardsOf(Suit.HEARTS, trump));
-
-		if (trump != null)
+		assert pHand.size() == EXCHANGE_SIZE;
+		Exchange lExchange = new Exchange(pHand.getMask(), Bid.max(pBids).getSuit(), pIndex, System.nanoTime());
+		aPool.invoke(new Scoring(lExchange, 0, PATTERNS.length));
+		int[] lCandidates = best(lExchange.aScores, Math.min(aCandidates, PATTERNS.length));
+
+		int lBest = lCandidates[0];
+		aLastSamples = 0;
+		if (aSamples > 0 && lCandidates.length > 1)
+		{
+			lExchange.aCandidates = lCandidates;
+			lExchange.aSeed = aRandom.nextLong();
+			lExchange.aSampler = new DealSampler(CardSet.ALL & ~lExchange.aHand, lExchange.sizes(), new long[NUM_PLAYERS]);
+			long[] lTricks = aPool.invoke(new Rollouts(lExchange, 0, aSamples));
+			long lBestTricks = lTricks[0];
+			for (int i = 1; i < lCandidates.length; i++)
+			{
+				if (lTricks[i] > lBestTricks)
+				{
+					lBestTricks = lTricks[i];
+					lBest = lCandidates[i];
+				}
+			}
+			aLastSamples = (int) lTricks[lCandidates.length];
+		}
+
+		CardList lDiscards = new CardList();
+		for (long lRest = lExchange.aHand & ~lExchange.kept(lBest); lRest != CardSet.EMPTY; lRest &= lRest - 1)
+		{
+			lDiscards.add(Card.ofOrdinal(Long.numberOfTrailingZeros(lRest)));
+		}
+		return lDiscards;
+	}
+
+	/**
+	 * @return The number of deals the last call to selectCardsToDiscard() played out, 0 if it did not refine its
+	 *         choice by rollouts.
+	 */
+	public int getLastSamples()
+	{
+		return aLastSamples;
+	}
+
+	/*
+	 * The indices of the pCount best scores, best first. Equal scores keep the order of PATTERNS.
+	 */
+	private static int[] best(int[] pScores, int pCount)
+	{
+		int[] lBest = new int[pCount];
+		int lSize = 0;
+		for (int lIndex = 0; lIndex < pScores.length; lIndex++)
+		{
+			int lPosition = lSize;
+			while (lPosition > 0 && pScores[lIndex] > pScores[lBest[lPosition - 1]])
+			{
+				lPosition--;
+			}
+			if (lPosition < pCount)
+			{
+				int lLast = Math.min(lSize, pCount - 1);
+				System.arraycopy(lBest, lPosition, lBest, lPosition + 1, lLast - lPosition);
+				lBest[lPosition] = lIndex;
+				lSize = Math.min(lSize + 1, pCount);
+			}
+		}
+		return lBest;
+	}
+
+	private static int[] patterns()
+	{
+		int[] lPatterns = new int[choose(EXCHANGE_SIZE, HAND_SIZE)];
+		int lCount = 0;
+		for (int lPattern = 0; lPattern < 1 << EXCHANGE_SIZE; lPattern++)
 		{
-			final int lLeastCardStart = 100;
-			// Don't discard trumps
-			suits.remove(trump.ordinal());
+			if (Integer.bitCount(lPattern) == HAND_SIZE)
+			{
+				lPatterns[lCount++] = lPattern;
+			}
+		}
+		return lPatterns;
+	}
+
+	private static int choose(int pN, int pK)
+	{
+		long lResult = 1;
+		for (int i = 1; i <= pK; i++)
+		{
+			lResult = lResult * (pN - pK + i) / i;
+		}
+		return (int) lResult;
+	}
+
+	/*
+	 * Everything the scoring and the rollouts of one exchange share. The rollout fields are set before the rollouts
+	 * start, and never change afterwards.
+	 */
+	private final class Exchange
+	{
+		private final long aHand;
+		private final Suit aTrump;
+		private final int aHolder;
+		private final long aStart; // System.nanoTime() when the exchange started
+		private final int[] aOrdinals = new int[EXCHANGE_SIZE]; // The cards of the hand, by position
+		private final int[] aWeights = new int[EXCHANGE_SIZE]; // Their values, tie break included
+		private final int[] aSideSuits = new int[NUM_SUITS]; // The positions of the cards of each side suit
+		private final int[] aScores = new int[PATTERNS.length];
+		private int[] aCandidates;
+		private long aSeed;
+		private DealSampler aSampler; // Never used directly: each task samples with its own copy
 
-			for (int i = 0; i < toDiscard; i++)
+		Exchange(long pHand, Suit pTrump, int pHolder, long pStart)
+		{
+			aHand = pHand;
+			aTrump = pTrump;
+			aHolder = pHolder;
+			aStart = pStart;
+			int lTrumpState = CardSet.trumpIndex(pTrump);
+			long lUnseen = CardSet.ALL & ~pHand;
+			long lTrumps = CardSet.trumps(pTrump);
+			int lPosition = 0;
+			for (long lRest = pHand; lRest != CardSet.EMPTY; lRest &= lRest - 1)
 			{
-				int leastCards = lLeastCardStart;
-				CardList minSuit = null;
-				int minIndex = -1;
+				int lOrdinal = Long.numberOfTrailingZeros(lRest);
+				Card lCard = Card.ofOrdinal(lOrdinal);
+				aOrdinals[lPosition] = lOrdinal;
 
-				// Get index of suit with fewest cards.
-				for (CardList clist : suits)
+				// The unseen cards that beat this card in a trick of its suit.
+				int lValue = 0;
+				long lSuit = lTrumps;
+				if ((lTrumps & (1L << lOrdinal)) == 0)
 				{
-					if (clist.size() < leastCards)
+					Suit lEffective = lCard.getEffectiveSuit(pTrump);
+					lSuit = CardSet.suit(lEffective, pTrump);
+					if (pTrump != null)
 					{
-						minSuit = clist;
-						leastCards = minSuit.size();
+						aSideSuits[lEffective.ordinal()] |= 1 << lPosition;
 					}
 				}
-
-				// minIndex is the suit with the fewest cards.
-				minIndex = suits.indexOf(minSuit);
-				if (leastCards < toDiscard)
+				else if (pTrump != null)
 				{
-					// Throw out the entire suit
-					for (Card c : minSuit)
-					{
-						discard.add(c);
-						toDiscard--;
-					}
-					suits.remove(minIndex);
+					lValue = TRUMP_WEIGHT;
 				}
-				else
+				int lBeaten = CardSet.size(lUnseen & lSuit & CardRanking.higher(lTrumpState, lCard));
+				if (lBeaten < CONTROL_WEIGHTS.length)
 				{
-					CardList sorted = minSuit.sort(new ByRankComparator());
-					// Discard just the lowest cards of the suit.
-					for (Card c : sorted)
-					{
-						if (c.getRank().ordinal() <= lWidowSize && toDiscard > 0)
-						{
-							minSuit.remove(c);
-							discard.add(c);
-							toDiscard--;
-						}
-					}
+					lValue += CONTROL_WEIGHTS[lBeaten];
 				}
+				aWeights[lPosition] = (lValue << TIE_BITS) + CardRanking.order(lTrumpState, lCard);
+				lPosition++;
 			}
 		}
-		else
+
+		int score(int pPattern)
 		{
-			/* In no trump, we want to remove low cards from each suit. */
-			for (int i = 0; i < toDiscard; i++)
+			int lScore = 0;
+			for (int lRest = pPattern; lRest != 0; lRest &= lRest - 1)
 			{
-				if (toDiscard <= 0)
-				{
-					break;
-				}
-				for (CardList clist : suits)
+				lScore += aWeights[Integer.numberOfTrailingZeros(lRest)];
+			}
+			if (aTrump != null)
+			{
+				for (int lSuit = 0; lSuit < NUM_SUITS; lSuit++)
 				{
-					if (clist.size() > 0)
+					int lLength = Integer.bitCount(pPattern & aSideSuits[lSuit]);
+					if (lSuit != aTrump.ordinal() && lLength < SHORTNESS_WEIGHTS.length)
 					{
-						CardList sorted = clist.sort(new ByRankComparator());
-						Card lowest = sorted.getFirst();
-						if (lowest.getRank().ordinal() <= lWidowSize && toDiscard > 0)
-						{
-							clist.remove(lowest);
-							discard.add(lowest);
-							toDiscard--;
-						}
+						lScore += SHORTNESS_WEIGHTS[lLength] << TIE_BITS;
 					}
 				}
 			}
+			return lScore;
 		}
 
-		while (toDiscard > 0)
+		long kept(int pIndex)
 		{
-			if (trump != null)
+			long lKept = CardSet.EMPTY;
+			for (int lRest = PATTERNS[pIndex]; lRest != 0; lRest &= lRest - 1)
 			{
-				// We may need to discard trump cards
-				suits.add(pHand.cardsOf(trump, trump));
+				lKept |= 1L << aOrdinals[Integer.numberOfTrailingZeros(lRest)];
 			}
-			CardList lowest = new CardList();
-			// We have to start discarding valuable cards.
-			for (CardList clist : suits)
+			return lKept;
+		}
+
+		int[] sizes()
+		{
+			int[] lSizes = new int[NUM_PLAYERS];
+			for (int i = 0; i < NUM_PLAYERS; i++)
 			{
-				if (clist.size() > 0)
+				if (i != aHolder)
 				{
-					clist.sort(new ByRankComparator());
-					lowest.add(clist.getFirst());
-					clist.remove(clist.getFirst());
+					lSizes[i] = HAND_SIZE;
 				}
 			}
-			lowest.sort(new ByRankComparator());
+			return lSizes;
+		}
+
+		boolean outOfTime()
+		{
+			return aTimeLimit > 0 && System.nanoTime() - aStart > aTimeLimit;
+		}
+	}
+
+	/*
+	 * Scores the sets of cards kept numbered pFirst to pLast - 1, splitting the range between several tasks if it is
+	 * large.
+	 */
+	private static final class Scoring extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final Exchange aExchange;
+		private final int aFirst;
+		private final int aLast;
+
+		Scoring(Exchange pExchange, int pFirst, int pLast)
+		{
+			aExchange = pExchange;
+			aFirst = pFirst;
+			aLast = pLast;
+		}
 
-			while (toDiscard > 0 && lowest.size() > 0)
+		@Override
+		protected void compute()
+		{
+			if (aLast - aFirst > PATTERNS_PER_TASK)
+			{
+				int lMiddle = (aFirst + aLast) >>> 1;
+				invokeAll(new Scoring(aExchange, aFirst, lMiddle), new Scoring(aExchange, lMiddle, aLast));
+				return;
+			}
+			for (int i = aFirst; i < aLast; i++)
 			{
-				discard.add(lowest.getFirst());
-				lowest.remove(lowest.getFirst());
-				toDiscard--;
+				aExchange.aScores[i] = aExchange.score(PATTERNS[i]);
 			}
 		}
-
-		assert toDiscard == 0;
-		return discard;
 	}
 
+	/*
+	 * Plays out the deals numbered pFirst to pLast - 1 with each candidate set of cards kept, splitting the range
+	 * between several tasks if it is large. Returns the tricks taken by the team of the contract holder with each
+	 * candidate, followed by the number of deals played out. Deal number i is always sampled with the same seed, so
+	 * the result does not depend on how the range was split.
+	 */
+	private static final class Rollouts extends RecursiveTask<long[]>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final Exchange aExchange;
+		private final int aFirst;
+		private final int aLast;
+
+		Rollouts(Exchange pExchange, int pFirst, int pLast)
+		{
+			aExchange = pExchange;
+			aFirst = pFirst;
+			aLast = pLast;
+		}
+
+		@Override
+		protected long[] compute()
+		{
+			if (aLast - aFirst > SAMPLES_PER_TASK)
+			{
+				int lMiddle = (aFirst + aLast) >>> 1;
+				Rollouts lLeft = new Rollouts(aExchange, aFirst, lMiddle);
+				lLeft.fork();
+				long[] lTricks = new Rollouts(aExchange, lMiddle, aLast).compute();
+				long[] lLeftTricks = lLeft.join();
+				for (int i = 0; i < lTricks.length; i++)
+				{
+					lTricks[i] += lLeftTricks[i];
+				}
+				return lTricks;
+			}
+
+			int[] lCandidates = aExchange.aCandidates;
+			long[] lKept = new long[lCandidates.length];
+			for (int i = 0; i < lCandidates.length; i++)
+			{
+				lKept[i] = aExchange.kept(lCandidates[i]);
+			}
+			long[] lTricks = new long[lCandidates.length + 1];
+			DealSampler lSampler = aExchange.aSampler.copy();
+			SplitMixRandom lRandom = new SplitMixRandom();
+			PlayoutState lDeal = new PlayoutState();
+			PlayoutState lState = new PlayoutState();
+			int lTeam = aExchange.aHolder % 2;
+			for (int lSample = aFirst; lSample < aLast && !aExchange.outOfTime(); lSample++)
+			{
+				lRandom.setSeed(SplitMixRandom.streamSeed(aExchange.aSeed, lSample));
+				lDeal.reset(null, 0, 0, 0);
+				lSampler.sample(lRandom, lDeal);
+				for (int i = 0; i < lCandidates.length; i++)
+				{
+					lState.reset(aExchange.aTrump, aExchange.aHolder, 0, 0);
+					for (int lSeat = 0; lSeat < NUM_PLAYERS; lSeat++)
+					{
+						lState.setHand(lSeat, lDeal.getHand(lSeat));
+					}
+					lState.setHand(aExchange.aHolder, lKept[i]);
+					lState.playOut();
+					lTricks[i] += lState.getTricks(lTeam);
+				}
+				lTricks[lCandidates.length]++;
+			}
+			return lTricks;
+		}
+	}
 }
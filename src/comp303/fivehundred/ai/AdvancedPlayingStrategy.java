@@ -1,10 +1,8 @@
 package comp303.fivehundred.ai;
 
-import java.util.Comparator;
-import java.util.Observable;
-import java.util.Observer;
 import java.util.Random;
 
+import comp303.fivehundred.engine.GameAdapter;
 import comp303.fivehundred.engine.GameEngine;
 import comp303.fivehundred.model.Hand;
 import comp303.fivehundred.model.Trick;
@@ -14,7 +12,8 @@ import comp303.fivehundred.util.Card.BySuitComparator;
 import comp303.fivehundred.util.Card.BySuitNoTrumpComparator;
 import comp303.fivehundred.util.Card.Suit;
 import comp303.fivehundred.util.CardList;
-import comp303.fivehundred.util.Deck;
+import comp303.fivehundred.util.CardRanking;
+import comp303.fivehundred.util.CardSet;
 
 /**
  * Advanced AI playing strategy.
@@ -22,19 +21,51 @@ import comp303.fivehundred.util.Deck;
  * @author Jake Shamash
  * 
  */
-public class AdvancedPlayingStrategy implements IPlayingStrategy, Observer
+public class AdvancedPlayingStrategy extends GameAdapter implements IPlayingStrategy
 {
 	private boolean[][] aSuits; // aSuits[player][suit]
-	private CardList aCardsLeft;
+	private long aCardsLeft; // The cards not seen yet, as a CardSet mask
 	private int aTrickLeader;
 	private boolean aFirstTrick;
+	private final Random aRandom;
+	private final double aPartnerLedLowProbability;
+	private final double aSecondHandLowProbability;
 
 	/**
 	 * Constructor.
 	 */
 	public AdvancedPlayingStrategy()
 	{
+		this(new Random());
+	}
+
+	/**
+	 * Creates a strategy that draws its random decisions from pRandom.
+	 * 
+	 * @param pRandom
+	 *            The random number generator to use.
+	 * @pre pRandom != null
+	 */
+	public AdvancedPlayingStrategy(Random pRandom)
+	{
+		this(pRandom, AIParameters.DEFAULTS);
+	}
+
+	/**
+	 * Creates a strategy whose probabilities of playing low are those of pParameters.
+	 * 
+	 * @param pRandom
+	 *            The random number generator to use.
+	 * @param pParameters
+	 *            The parameters of the robot.
+	 * @pre pRandom != null
+	 */
+	public AdvancedPlayingStrategy(Random pRandom, AIParameters pParameters)
+	{
+		aPartnerLedLowProbability = pParameters.get(AIParameters.Parameter.PARTNER_LED_LOW_PROBABILITY);
+		aSecondHandLowProbability = pParameters.get(AIParameters.Parameter.SECOND_HAND_LOW_PROBABILITY);
 		aSuits = new boolean[4][4];
+		aRandom = pRandom;
 
 		newGame();
 	}
@@ -50,12 +81,7 @@ public class AdvancedPlayingStrategy implements IPlayingStrategy, Observer
 			}
 		}
 
-		Deck deck = new Deck();
-		aCardsLeft = new CardList();
-		while (deck.size() > 0)
-		{
-			aCardsLeft.add(deck.draw());
-		}
+		aCardsLeft = CardSet.ALL;
 
 		aTrickLeader = -1;
 		aFirstTrick = true;
@@ -70,13 +96,17 @@ public class AdvancedPlayingStrategy implements IPlayingStrategy, Observer
 		/* If this is the first trick, remove the cards from the player's hand from aCardsLeft. */
 		if (aFirstTrick)
 		{
-			for (Card c : pHand)
-			{
-				aCardsLeft.remove(c);
-			}
+			aCardsLeft &= ~pHand.getMask();
 			aFirstTrick = false;
 		}
 
+		/* The cards that can legally follow, computed once for the whole decision. */
+		long legal = CardSet.EMPTY;
+		if (pTrick.size() > 0)
+		{
+			legal = pHand.playableMask(pTrick.getSuitLed(), pTrick.getTrumpSuit());
+		}
+
 		/*
 		 * Case 1: leading trick. The strategy here is to play the highest playable card, since this will either take
 		 * the trick or force other players to play their high cards, making later tricks easier to win.
@@ -129,18 +159,18 @@ public class AdvancedPlayingStrategy implements IPlayingStrategy, Observer
 			/* If my partner is winning the trick, I can play garbage */
 			if (pTrick.winnerIndex() == 1)
 			{
-				toPlay = playLow(pHand, pTrick, 1.0);
+				toPlay = playLow(pHand, pTrick, legal, 1.0);
 			}
 			/* If not, I should try to win */
 			else
 			{
 				/* Play lowest playable card that would win */
-				toPlay = playToWin(pHand, pTrick);
+				toPlay = playToWin(pHand, pTrick, legal);
 
 				/* If I don't have any winning cards, play low. */
 				if (toPlay == null)
 				{
-					toPlay = playLow(pHand, pTrick, 1.0);
+					toPlay = playLow(pHand, pTrick, legal, 1.0);
 				}
 			}
 		}
@@ -154,16 +184,15 @@ public class AdvancedPlayingStrategy implements IPlayingStrategy, Observer
 			if (pTrick.winnerIndex() == 0 &&
 					!canBeBeat(partnerCard, myIndex, pTrick.getTrumpSuit(), pTrick.getSuitLed()))
 			{
-				toPlay = playLow(pHand, pTrick, 1.0);
+				toPlay = playLow(pHand, pTrick, legal, 1.0);
 			}
 			/* Otherwise, I must try to win the trick */
 			else
 			{
-				final double lProb = 0.5;
-				toPlay = playToWin(pHand, pTrick);
+				toPlay = playToWin(pHand, pTrick, legal);
 				if (toPlay == null)
 				{
-					toPlay = playLow(pHand, pTrick, lProb);
+					toPlay = playLow(pHand, pTrick, legal, aPartnerLedLowProbability);
 				}
 			}
 		}
@@ -171,15 +200,14 @@ public class AdvancedPlayingStrategy implements IPlayingStrategy, Observer
 		else
 		{
 			/* Try to win */
-			toPlay = playToWin(pHand, pTrick);
+			toPlay = playToWin(pHand, pTrick, legal);
 
 			/*
 			 * If we can't find a card that is guaranteed to win the trick, play garbage.
 			 */
 			if (toPlay == null)
 			{
-				final double lProb = 0.7;
-				toPlay = playLow(pHand, pTrick, lProb);
+				toPlay = playLow(pHand, pTrick, legal, aSecondHandLowProbability);
 			}
 		}
 
@@ -187,10 +215,10 @@ public class AdvancedPlayingStrategy implements IPlayingStrategy, Observer
 	}
 
 	/* Returns the lowest playable card that is guaranteed to win, or null if no such card exists. */
-	private Card playToWin(Hand pHand, Trick pTrick)
+	private Card playToWin(Hand pHand, Trick pTrick, long pPlayable)
 	{
 		int myIndex = (aTrickLeader + pTrick.size()) % 4;
-		CardList playable = pHand.playableCards(pTrick.getSuitLed(), pTrick.getTrumpSuit());
+		CardList playable = pHand.filter(pPlayable);
 		if (pTrick.getTrumpSuit() == null)
 		{
 			playable = playable.sort(new BySuitNoTrumpComparator());
@@ -213,38 +241,25 @@ public class AdvancedPlayingStrategy implements IPlayingStrategy, Observer
 	}
 
 	/* Play low with probability pProbability, but play high with probability (1 - pProbability). */
-	private Card playLow(Hand pHand, Trick pTrick, double pProbability)
+	private Card playLow(Hand pHand, Trick pTrick, long pPlayable, double pProbability)
 	{
 		// Possible improvements: favour weaker suits.
 		double prob = pProbability;
-		CardList cList = pHand.playableCards(pTrick.getSuitLed(), pTrick.getTrumpSuit());
-		if (pTrick.getTrumpSuit() == null)
-		{
-			cList = cList.sort(new BySuitNoTrumpComparator());
-		}
-		else
-		{
-			cList = cList.sort(new BySuitComparator(pTrick.getTrumpSuit()));
-		}
-
-		cList = cList.sort(new ByRankComparator());
+		// ByRankComparator is a total order, so the list does not need to be sorted by suit first.
+		CardList cList = pHand.filter(pPlayable).sort(new ByRankComparator());
 
 		// If I don't have any cards that can win, definitely play lowest!
 		boolean mightWin = false;
-		for (Card c : cList)
+		for (long rest = pPlayable; rest != CardSet.EMPTY && !mightWin; rest &= rest - 1)
 		{
-			if (pTrick.wouldWin(c))
-			{
-				mightWin = true;
-			}
+			mightWin = pTrick.wouldWin(CardSet.first(rest));
 		}
 		if (!mightWin)
 		{
 			prob = 1;
 		}
 
-		Random r = new Random();
-		if (r.nextDouble() <= prob)
+		if (aRandom.nextDouble() <= prob)
 		{
 			return cList.getFirst();
 		}
@@ -273,11 +288,7 @@ public class AdvancedPlayingStrategy implements IPlayingStrategy, Observer
 			{
 				return false;
 			}
-			if (aCardsLeft.contains(new Card(Card.Joker.HIGH)))
-			{
-				return true;
-			}
-			return false;
+			return CardSet.contains(aCardsLeft, Card.valueOf(Card.Joker.HIGH));
 		}
 
 		/*
@@ -285,43 +296,29 @@ public class AdvancedPlayingStrategy implements IPlayingStrategy, Observer
 		 */
 		if (pTrump != null)
 		{
-			CardList remainingTrumps = aCardsLeft.cardsOf(pTrump, pTrump);
-			remainingTrumps = remainingTrumps.merge(aCardsLeft.getJokers());
-			Comparator<Card> comp = new BySuitComparator(pTrump);
+			long higherTrumps = aCardsLeft & CardSet.trumps(pTrump) & CardRanking.higher(CardSet.trumpIndex(pTrump), pCard);
 			for (int i = (pCardIndex + 1) % 4; i != aTrickLeader; i = (i + 1) % 4)
 			{
-				if (aSuits[i][pTrump.ordinal()])
+				if (aSuits[i][pTrump.ordinal()] && higherTrumps != CardSet.EMPTY)
 				{
-					for (Card c : remainingTrumps)
-					{
-						if (comp.compare(c, pCard) > 0)
-						{
-							return true;
-						}
-					}
+					return true;
 				}
 			}
 		}
 
 		/* In no trump, if there are any jokers left, this card can be beat. */
-		if (pTrump == null && aCardsLeft.hasJoker())
+		if (pTrump == null && (aCardsLeft & CardSet.JOKERS) != CardSet.EMPTY)
 		{
 			return true;
 		}
 
 		/* Lastly, if any player can follow the suit led with a card higher than pCard, pCard can be beat. */
-		CardList canFollow = aCardsLeft.cardsOf(pSuitLed, pTrump);
+		long higherFollow = aCardsLeft & CardSet.suit(pSuitLed, pTrump) & CardRanking.higherRank(pCard);
 		for (int i = (pCardIndex + 1) % 4; i != aTrickLeader; i = (i + 1) % 4)
 		{
-			if (aSuits[i][pSuitLed.ordinal()])
+			if (aSuits[i][pSuitLed.ordinal()] && higherFollow != CardSet.EMPTY)
 			{
-				for (Card c : canFollow)
-				{
-					if (c.compareTo(pCard) > 0)
-					{
-						return true;
-					}
-				}
+				return true;
 			}
 		}
 
@@ -329,54 +326,45 @@ public class AdvancedPlayingStrategy implements IPlayingStrategy, Observer
 	}
 
 	@Override
-	public void update(Observable pObservable, Object pObject)
+	public void onCardPlayed(GameEngine pEngine, int pPlayer, Card pCard)
 	{
-		GameEngine engine = (GameEngine) pObservable;
-		Integer eventType = (Integer) pObject;
+		aTrickLeader = pEngine.getTrickLeader();
+		Suit suitLed = pEngine.getSuitLed(); // null if joker.
+		Suit trumpSuit = pEngine.getTrumpSuit();
+		Suit cardSuit;
 
-		if (eventType == GameEngine.SINGLE_PLAY_EVENT)
-		{
-			aTrickLeader = engine.getTrickLeader();
-			int player = engine.getTurn();
-			Suit suitLed = engine.getSuitLed(); // null if joker.
-			Card cardPlayed = engine.getLastCardPlayed();
-			Suit trumpSuit = engine.getTrumpSuit();
-			Suit cardSuit;
+		aCardsLeft &= ~CardSet.of(pCard);
 
-			aCardsLeft.remove(cardPlayed);
+		// Joker was led => counts as trump suit
+		if (suitLed == null && trumpSuit != null)
+		{
+			suitLed = trumpSuit;
+		}
 
-			// Joker was led => counts as trump suit
-			if (suitLed == null && trumpSuit != null)
+		// If the player led the trick, they could have played any card.
+		if (pPlayer != aTrickLeader)
+		{
+			// Jokers count as trumps when playing with trump
+			if (pCard.isJoker() && trumpSuit != null)
 			{
-				suitLed = trumpSuit;
+				cardSuit = trumpSuit;
 			}
-
-			// If the player led the trick, they could have played any card.
-			if (player != aTrickLeader)
+			// Note: cardSuit will be null if joker was played with no trump.
+			else
 			{
-				// Jokers count as trumps when playing with trump
-				if (cardPlayed.isJoker() && trumpSuit != null)
-				{
-					cardSuit = trumpSuit;
-				}
-				// Note: cardSuit will be null if joker was played with no trump.
-				else
-				{
-					cardSuit = cardPlayed.getEffectiveSuit(trumpSuit);
-				}
-				if (suitLed != null && cardSuit != suitLed)
-				{
-					// Couldn't follow suit
-					aSuits[player][suitLed.ordinal()] = false;
-				}
-
+				cardSuit = pCard.getEffectiveSuit(trumpSuit);
+			}
+			if (suitLed != null && cardSuit != suitLed)
+			{
+				// Couldn't follow suit
+				aSuits[pPlayer][suitLed.ordinal()] = false;
 			}
 		}
-		if (eventType == GameEngine.DEAL_EVENT)
-		{
-			newGame();
-		}
-
 	}
 
-}
\ No newline at end of file
+	@Override
+	public void onDeal(GameEngine pEngine, int pDealer)
+	{
+		newGame();
+	}
+}
@@ -1,14 +1,7 @@
 package comp303.fivehundred.ai;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Map;
-
 import comp303.fivehundred.model.Bid;
 import comp303.fivehundred.model.Hand;
-import comp303.fivehundred.util.Card;
-import comp303.fivehundred.util.Card.Joker;
-import comp303.fivehundred.util.Card.Rank;
 import comp303.fivehundred.util.Card.Suit;
 
 /**
@@ -20,7 +13,7 @@ import comp303.fivehundred.util.Card.Suit;
  */
 public class BasicBiddingStrategy implements IBiddingStrategy
 {
-	private Map<Rank, Integer> aMap = new HashMap<Rank, Integer>();
+	private final HandEvaluator aEvaluator;
 	private int aHPoints = 0;
 	private int aSPoints = 0;
 	private int aDPoints = 0;
@@ -31,41 +24,29 @@ public class BasicBiddingStrategy implements IBiddingStrategy
 	private int aCCards = 0;
 	
 	/**
-	 * Create a new BasicBiddingStrategy and set up a map that describes how points should be assigned to different cards.
+	 * Create a new BasicBiddingStrategy that evaluates hands with the shared HandEvaluator.
 	 */
 	public BasicBiddingStrategy()
 	{
-		ArrayList<Rank> aList = new ArrayList<Rank>();
-		
-		final int lZeroSet = 7;
-		final int lJackPosition = 7;
-		final int lQueenPosition = 8;
-		final int lKingPosition = 9;
-		final int lAcePosition = 10;
-		
-		// Create a list of ranks
-		for (Rank lRank : Rank.values())
-		{
-			aList.add(lRank);	
-		}
-		
-		// Assign 0 to all ranks from 4 to 10
-		for (int i = 0; i < lZeroSet; i++)
-		{
-			aMap.put(aList.get(i), 0);
-		}
-		
-		// Assign 2 for jacks
-		aMap.put(aList.get(lJackPosition), 2);
-		
-		// Assign 1 for queens
-		aMap.put(aList.get(lQueenPosition), 1);
-		
-		// Assign 2 for kings
-		aMap.put(aList.get(lKingPosition), 2);
-		
-		// Assign 3 for aces
-		aMap.put(aList.get(lAcePosition), 3);
+		this(HandEvaluator.shared());
+	}
+
+	/**
+	 * Create a new BasicBiddingStrategy that gives the honours the points of pParameters.
+	 * @param pParameters The parameters of the robot.
+	 */
+	public BasicBiddingStrategy(AIParameters pParameters)
+	{
+		this(pParameters.getEvaluator());
+	}
+
+	/**
+	 * Create a new BasicBiddingStrategy.
+	 * @param pEvaluator The evaluator that computes and caches the points of the hands.
+	 */
+	public BasicBiddingStrategy(HandEvaluator pEvaluator)
+	{
+		aEvaluator = pEvaluator;
 	}
 	
 	@Override
@@ -117,54 +98,14 @@ public class BasicBiddingStrategy implements IBiddingStrategy
 	 */
 	public void calculateSuitPoints(Hand pHand, Bid[] pPreviousBids)
 	{
-		final int lHighJokerVal = 5;
-		final int lLowJokerVal = 4;
-		
 		int lIndex = getIndex(pPreviousBids);
-		int jokerPoints = 0;
-		
-		for(Card card : pHand)
-		{
-			if (card.isJoker()) // Establish points by jokers
-			{
-				if (card.getJokerValue().equals(Joker.HIGH))
-				{
-					jokerPoints += lHighJokerVal;
-				}
-				else 
-				{
-					jokerPoints += lLowJokerVal;
-				}
-			}
-			else // Calculate points for each suit
-			{
-				if (card.getEffectiveSuit(Suit.HEARTS).equals(Suit.HEARTS))
-				{
-					aHPoints += aMap.get(card.getRank());
-				}
-				
-				if (card.getEffectiveSuit(Suit.SPADES).equals(Suit.SPADES))
-				{
-					aSPoints += aMap.get(card.getRank());
-				}
-				
-				if (card.getEffectiveSuit(Suit.DIAMONDS).equals(Suit.DIAMONDS))
-				{
-					aDPoints += aMap.get(card.getRank());
-				}
-				
-				if (card.getEffectiveSuit(Suit.CLUBS).equals(Suit.CLUBS))
-				{
-					aCPoints += aMap.get(card.getRank());
-				}
-			}
-		}
 		
-		// Add joker points to all suits
-		aHPoints += jokerPoints;
-		aSPoints += jokerPoints;
-		aDPoints += jokerPoints;
-		aCPoints += jokerPoints;
+		// Points of the honours of each suit if it were trump, including the left bower, plus the jokers.
+		HandEvaluator.Evaluation lEvaluation = aEvaluator.evaluate(pHand.getMask());
+		aHPoints += lEvaluation.getPoints(Suit.HEARTS);
+		aSPoints += lEvaluation.getPoints(Suit.SPADES);
+		aDPoints += lEvaluation.getPoints(Suit.DIAMONDS);
+		aCPoints += lEvaluation.getPoints(Suit.CLUBS);
 		
 		// Add points if there are many cards of a suit
 		suitIsLong();
@@ -235,42 +176,12 @@ public class BasicBiddingStrategy implements IBiddingStrategy
 	 */
 	public void suitCounts(Hand pHand)
 	{
-		int jokerCards = 0;
-		
-		for(Card card:pHand)
-		{
-			if(card.isJoker()) // Count how many jokers are in the hand.
-			{
-				jokerCards++;
-			}
-			else
-			{
-				if(card.getEffectiveSuit(Suit.HEARTS).equals(Suit.HEARTS))
-				{
-					aHCards++;
-				}
-				
-				if(card.getEffectiveSuit(Suit.CLUBS).equals(Suit.CLUBS))
-				{
-					aCCards++;
-				}
-				
-				if(card.getEffectiveSuit(Suit.DIAMONDS).equals(Suit.DIAMONDS))
-				{
-					aDCards++;
-				}
-				
-				if(card.getEffectiveSuit(Suit.SPADES).equals(Suit.SPADES))
-				{
-					aSCards++;
-				}
-			}
-		}
-		
-		aHCards += jokerCards;
-		aCCards += jokerCards;
-		aDCards += jokerCards;
-		aSCards += jokerCards;
+		// Count the cards of each suit if it were trump, including the left bower and the jokers.
+		HandEvaluator.Evaluation lEvaluation = aEvaluator.evaluate(pHand.getMask());
+		aHCards += lEvaluation.getTrumpCount(Suit.HEARTS);
+		aCCards += lEvaluation.getTrumpCount(Suit.CLUBS);
+		aDCards += lEvaluation.getTrumpCount(Suit.DIAMONDS);
+		aSCards += lEvaluation.getTrumpCount(Suit.SPADES);
 	}
 	
 	/**
@@ -1,11 +1,14 @@
 package comp303.fivehundred.ai;
 
+import java.util.Random;
+
 import comp303.fivehundred.model.Hand;
 import comp303.fivehundred.model.Trick;
 import comp303.fivehundred.util.Card;
 import comp303.fivehundred.util.Card.Joker;
 import comp303.fivehundred.util.Card.Suit;
 import comp303.fivehundred.util.CardList;
+import comp303.fivehundred.util.CardSet;
 
 /**
  * If leading, picks a card at random except jokers if playing in no trump.
@@ -18,6 +21,25 @@ import comp303.fivehundred.util.CardList;
  */
 public class BasicPlayingStrategy implements IPlayingStrategy
 {
+	private final Random aRandom;
+	
+	/**
+	 * Creates a strategy that uses its own random number generator.
+	 */
+	public BasicPlayingStrategy()
+	{
+		this(new Random());
+	}
+	
+	/**
+	 * Creates a strategy that picks its random leads from pRandom.
+	 * @param pRandom The random number generator to use.
+	 * @pre pRandom != null
+	 */
+	public BasicPlayingStrategy(Random pRandom)
+	{
+		aRandom = pRandom;
+	}
 
 	@Override
 	public Card play(Trick pTrick, Hand pHand)
@@ -59,18 +81,9 @@ public class BasicPlayingStrategy implements IPlayingStrategy
 	 */
 	public Card leadingPlay(Hand pHand, Suit pTrump)
 	{
-		CardList leadable;
-		
 		// Select a card at random except jokers if in no trump.
-		if (pTrump == null)
-		{
-			leadable = pHand.canLead(true);
-		}
-		else
-		{
-			leadable = pHand.canLead(false);
-		}
-		return leadable.random();
+		long leadable = pHand.leadMask(pTrump == null);
+		return CardSet.get(leadable, aRandom.nextInt(CardSet.size(leadable)));
 	}
 	
 	/**
@@ -107,12 +120,9 @@ public class BasicPlayingStrategy implements IPlayingStrategy
 		Hand ofSuit = new Hand();
 		CardList ofTrump = new CardList();
 		
-		for (Card lCard : pHand)
+		for (long lRest = followMask(pHand, pLed, pTrump); lRest != CardSet.EMPTY; lRest &= lRest - 1)
 		{
-			if (!lCard.isJoker() && lCard.getEffectiveSuit(pTrump).equals(pLed))
-			{
-				ofSuit.add(lCard);
-			}
+			ofSuit.add(CardSet.first(lRest));
 		}
 		
 		ofTrump = pHand.getTrumpCards(pTrump);
@@ -134,9 +144,9 @@ public class BasicPlayingStrategy implements IPlayingStrategy
 				}
 			}
 			
-			for (Card lCard : pHand.playableCards(pLed, pTrump))
+			for (long lRest = pHand.playableMask(pLed, pTrump); lRest != CardSet.EMPTY; lRest &= lRest - 1)
 			{
-				playable.add(lCard);
+				playable.add(CardSet.first(lRest));
 			}
 			return playable.selectLowest(pTrump);
 		}
@@ -162,17 +172,9 @@ public class BasicPlayingStrategy implements IPlayingStrategy
 	 */
 	public Card suitFollowPlay(Card pHighest, Hand pHand, Suit pLed, Suit pTrump)
 	{
-		CardList ofSuit = new CardList();
+		CardList ofSuit = pHand.filter(followMask(pHand, pLed, pTrump));
 		CardList ofTrump = pHand.getTrumpCards(pTrump);
 		
-		for (Card lCard : pHand)
-		{
-			if (!lCard.isJoker() && lCard.getEffectiveSuit(pTrump).equals(pLed))
-			{
-				ofSuit.add(lCard);
-			}
-		}
-		
 		// Play the lowest suit following card that can win, otherwise play the lowest suit following card
 		if (ofSuit.size() != 0)
 		{
@@ -221,4 +223,12 @@ public class BasicPlayingStrategy implements IPlayingStrategy
 		
 		return winnable.selectLowest(pTrump);
 	}
-}
\ No newline at end of file
+	
+	/*
+	 * The cards of pHand, other than jokers, whose effective suit is pLed.
+	 */
+	private static long followMask(Hand pHand, Suit pLed, Suit pTrump)
+	{
+		return pHand.getMask() & CardSet.suit(pLed, pTrump) & CardSet.NON_JOKERS;
+	}
+}
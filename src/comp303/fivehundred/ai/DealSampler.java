@@ -0,0 +1,179 @@
+package comp303.fivehundred.ai;
+
+import java.util.Random;
+
+import comp303.fivehundred.util.CardSet;
+
+/**
+ * Deals the cards that a player has not seen to the other seats, at random but consistently with what the player
+ * knows: how many cards each seat holds and which suits each seat has shown out of. The cards discarded by the
+ * contract holder are out of play; when the player does not know them, they are dealt to a pseudo-seat.
+ *
+ * A sampler keeps its scratch arrays, so sampling allocates nothing. An instance must not be shared between threads.
+ *
+ * @author Jake Shamash
+ */
+class DealSampler
+{
+	private static final int NUM_PLAYERS = 4;
+	private static final int DISCARDS = NUM_PLAYERS; // The pseudo-seat of the unknown discards
+	private static final int NUM_SEATS = NUM_PLAYERS + 1;
+	private static final int MAX_ATTEMPTS = 16;
+
+	private final long aUnseen;
+	private final int[] aSizes = new int[NUM_SEATS];
+	private final long[] aVoids = new long[NUM_SEATS];
+
+	private final int[] aCards;				// The unseen cards, most constrained first
+	private final int[] aRemaining = new int[NUM_SEATS];
+	private final long[] aDealt = new long[NUM_SEATS];
+
+	/**
+	 * Creates a sampler.
+	 *
+	 * @param pUnseen
+	 *            The cards whose location is unknown.
+	 * @param pSizes
+	 *            The number of unknown cards held by each of the 4 seats. 0 for the seat of the player.
+	 * @param pVoids
+	 *            For each of the 4 seats, the cards that seat cannot hold.
+	 * @pre The sizes add up to at most CardSet.size(pUnseen). The rest of the unseen cards are discards.
+	 */
+	DealSampler(long pUnseen, int[] pSizes, long[] pVoids)
+	{
+		aUnseen = pUnseen;
+		int lTotal = 0;
+		for (int i = 0; i < NUM_PLAYERS; i++)
+		{
+			aSizes[i] = pSizes[i];
+			aVoids[i] = pVoids[i];
+			lTotal += pSizes[i];
+		}
+		aSizes[DISCARDS] = CardSet.size(pUnseen) - lTotal;
+		assert aSizes[DISCARDS] >= 0;
+		aCards = new int[CardSet.size(pUnseen)];
+	}
+
+	/**
+	 * @return A sampler with the same constraints as this one and its own scratch arrays.
+	 */
+	DealSampler copy()
+	{
+		return new DealSampler(aUnseen, aSizes, aVoids);
+	}
+
+	/**
+	 * Deals the unseen cards. Tries to honour the voids of every seat; if the random choices keep running into a dead
+	 * end, the voids are ignored for this deal.
+	 *
+	 * @param pRandom
+	 *            The source of randomness.
+	 * @param pState
+	 *            The state whose hands receive the cards. The hands of seats with no unknown cards are not modified.
+	 */
+	void sample(Random pRandom, PlayoutState pState)
+	{
+		boolean lDealt = false;
+		for (int lAttempt = 0; lAttempt < MAX_ATTEMPTS && !lDealt; lAttempt++)
+		{
+			lDealt = deal(pRandom, true);
+		}
+		if (!lDealt)
+		{
+			deal(pRandom, false);
+		}
+		for (int i = 0; i < NUM_PLAYERS; i++)
+		{
+			if (aSizes[i] > 0)
+			{
+				pState.setHand(i, aDealt[i]);
+			}
+		}
+	}
+
+	/*
+	 * Deals the cards that can go to the fewest seats first, each to a random seat that can hold it, with a
+	 * probability proportional to the room left in that seat. Returns false if a card has nowhere to go.
+	 */
+	private boolean deal(Random pRandom, boolean pHonourVoids)
+	{
+		int lCount = 0;
+		for (int lOptions = 1; lOptions <= NUM_SEATS; lOptions++)
+		{
+			int lFirst = lCount;
+			for (long lRest = aUnseen; lRest != CardSet.EMPTY; lRest &= lRest - 1)
+			{
+				if (options(lRest & -lRest, pHonourVoids) == lOptions)
+				{
+					aCards[lCount++] = Long.numberOfTrailingZeros(lRest);
+				}
+			}
+			// Shuffle the cards with the same number of options, so that no seat gets the low ordinals first.
+			for (int i = lCount - 1; i > lFirst; i--)
+			{
+				int lOther = lFirst + pRandom.nextInt(i - lFirst + 1);
+				int lCard = aCards[i];
+				aCards[i] = aCards[lOther];
+				aCards[lOther] = lCard;
+			}
+		}
+		if (lCount < aCards.length)
+		{
+			return false; // Some card cannot go anywhere
+		}
+
+		for (int i = 0; i < NUM_SEATS; i++)
+		{
+			aRemaining[i] = aSizes[i];
+			aDealt[i] = CardSet.EMPTY;
+		}
+		for (int lCard : aCards)
+		{
+			long lBit = 1L << lCard;
+			int lRoom = 0;
+			for (int i = 0; i < NUM_SEATS; i++)
+			{
+				if (canHold(i, lBit, pHonourVoids))
+				{
+					lRoom += aRemaining[i];
+				}
+			}
+			if (lRoom == 0)
+			{
+				return false;
+			}
+			int lPick = pRandom.nextInt(lRoom);
+			int lSeat = 0;
+			while (!canHold(lSeat, lBit, pHonourVoids) || lPick >= aRemaining[lSeat])
+			{
+				if (canHold(lSeat, lBit, pHonourVoids))
+				{
+					lPick -= aRemaining[lSeat];
+				}
+				lSeat++;
+			}
+			aDealt[lSeat] |= lBit;
+			aRemaining[lSeat]--;
+		}
+		return true;
+	}
+
+	// The number of seats that could receive the card pBit.
+	private int options(long pBit, boolean pHonourVoids)
+	{
+		int lOptions = 0;
+		for (int i = 0; i < NUM_SEATS; i++)
+		{
+			if (aSizes[i] > 0 && (!pHonourVoids || (aVoids[i] & pBit) == 0))
+			{
+				lOptions++;
+			}
+		}
+		return lOptions;
+	}
+
+	private boolean canHold(int pSeat, long pBit, boolean pHonourVoids)
+	{
+		return !pHonourVoids || (aVoids[pSeat] & pBit) == 0;
+	}
+}
@@ -0,0 +1,444 @@
+package comp303.fivehundred.ai;
+
+import comp303.fivehundred.util.Card;
+import comp303.fivehundred.util.Card.Suit;
+import comp303.fivehundred.util.CardRanking;
+import comp303.fivehundred.util.CardSet;
+import comp303.fivehundred.util.SplitMixRandom;
+
+/**
+ * Computes the number of tricks each team takes from a PlayoutState when every player sees every card and plays
+ * perfectly ("double dummy"). The search is an alpha-beta minimax over the cards played, where team 0 maximizes its
+ * tricks and team 1 minimizes them, with three refinements:
+ * - Equivalent cards are searched once: two cards of the same effective suit in the same hand are equivalent if no
+ * card between them is still in play.
+ * - At the start of every trick, the position is looked up in a transposition table indexed by a Zobrist hash of the
+ * hands, the leader and the trump. The table keeps bounds on the tricks left for team 0 and the best card found.
+ * - Moves are ordered: the card from the table first, then the greedy choice of PlayoutState, then the most valuable
+ * cards.
+ *
+ * The transposition table survives between calls, so solving many related positions is faster than solving them
+ * separately. A solver is not thread-safe: each thread needs its own.
+ *
+ * @author Jake Shamash
+ */
+public class DoubleDummySolver
+{
+	/**
+	 * The default size of the transposition table, as a power of two.
+	 */
+	public static final int DEFAULT_TABLE_BITS = 16;
+
+	private static final int NUM_PLAYERS = 4;
+	private static final int MAX_TRICKS = 10;
+	private static final int MAX_DEPTH = MAX_TRICKS * NUM_PLAYERS + 1;
+	private static final int MAX_MOVES = MAX_TRICKS;
+	private static final int BYTE = 8;
+	private static final int BYTE_MASK = 0xFF;
+	private static final int MOVE_SHIFT = 16;
+	private static final long ZOBRIST_SEED = 500;
+	private static final double NANOS_PER_SECOND = 1e9;
+	private static final double PERCENT = 100.0;
+
+	// Zobrist keys: one per card and seat holding it, one per leader and one per trump state.
+	private static final long[][] CARD_KEYS = new long[NUM_PLAYERS][CardSet.NUM_CARDS];
+	private static final long[] LEADER_KEYS = new long[NUM_PLAYERS];
+	private static final long[] TRUMP_KEYS = new long[CardSet.NUM_TRUMP_STATES];
+
+	// VALUE[trump state][ordinal] orders the cards of each effective suit; ABOVE[trump state][ordinal] contains the
+	// cards of the same effective suit with a higher value.
+	private static final int[][] VALUE = new int[CardSet.NUM_TRUMP_STATES][CardSet.NUM_CARDS];
+	private static final long[][] ABOVE = new long[CardSet.NUM_TRUMP_STATES][CardSet.NUM_CARDS];
+
+	static
+	{
+		SplitMixRandom lRandom = new SplitMixRandom(ZOBRIST_SEED);
+		for (int lSeat = 0; lSeat < NUM_PLAYERS; lSeat++)
+		{
+			for (int lOrdinal = 0; lOrdinal < CardSet.NUM_CARDS; lOrdinal++)
+			{
+				CARD_KEYS[lSeat][lOrdinal] = lRandom.nextLong();
+			}
+			LEADER_KEYS[lSeat] = lRandom.nextLong();
+		}
+		for (int lState = 0; lState < CardSet.NUM_TRUMP_STATES; lState++)
+		{
+			TRUMP_KEYS[lState] = lRandom.nextLong();
+			Suit lTrump = CardSet.trumpOf(lState);
+			for (int lOrdinal = 0; lOrdinal < CardSet.NUM_CARDS; lOrdinal++)
+			{
+				Card lCard = Card.ofOrdinal(lOrdinal);
+				VALUE[lState][lOrdinal] = CardRanking.power(lState, CardRanking.ledState(lCard), lCard);
+			}
+			for (int lOrdinal = 0; lOrdinal < CardSet.NUM_CARDS; lOrdinal++)
+			{
+				Card lCard = Card.ofOrdinal(lOrdinal);
+				long lSuit = CardSet.suit(lCard.getEffectiveSuit(lTrump), lTrump);
+				for (long lRest = lSuit; lRest != CardSet.EMPTY; lRest &= lRest - 1)
+				{
+					int lOther = Long.numberOfTrailingZeros(lRest);
+					if (VALUE[lState][lOther] > VALUE[lState][lOrdinal])
+					{
+						ABOVE[lState][lOrdinal] |= 1L << lOther;
+					}
+				}
+			}
+		}
+	}
+
+	// Transposition table: the key of the position, and its bounds and best card packed as
+	// lower | upper << 8 | (ordinal + 1) << 16, where the bounds are tricks left for team 0.
+	private final long[] aKeys;
+	private final int[] aEntries;
+	private final int aMask;
+
+	// Search stack, preallocated so that the search allocates nothing.
+	private final PlayoutState[] aStates = new PlayoutState[MAX_DEPTH];
+	private final long[] aHashes = new long[MAX_DEPTH]; // The Zobrist hash of the hands at each depth
+	private final int[][] aMoves = new int[MAX_DEPTH][MAX_MOVES];
+
+	private long aNodes;
+	private long aProbes;
+	private long aHits;
+	private long aNanos;
+
+	/**
+	 * Creates a solver with a transposition table of the default size.
+	 */
+	public DoubleDummySolver()
+	{
+		this(DEFAULT_TABLE_BITS);
+	}
+
+	/**
+	 * Creates a solver.
+	 *
+	 * @param pTableBits
+	 *            The transposition table has 2^pTableBits entries.
+	 * @pre pTableBits > 0 && pTableBits < 31
+	 */
+	public DoubleDummySolver(int pTableBits)
+	{
+		assert pTableBits > 0 && pTableBits < Integer.SIZE - 1;
+		aKeys = new long[1 << pTableBits];
+		aEntries = new int[1 << pTableBits];
+		aMask = (1 << pTableBits) - 1;
+		for (int i = 0; i < MAX_DEPTH; i++)
+		{
+			aStates[i] = new PlayoutState();
+		}
+	}
+
+	/**
+	 * Computes the tricks that a team takes from a position if everyone plays perfectly.
+	 *
+	 * @param pState
+	 *            The position. It is not modified.
+	 * @param pTeam
+	 *            The team, 0 or 1.
+	 * @return The number of tricks left in pState, including the current one, that pTeam takes.
+	 * @pre pState.getTricksLeft() <= 10
+	 */
+	public int solve(PlayoutState pState, int pTeam)
+	{
+		long lStart = System.nanoTime();
+		aStates[0].copyFrom(pState);
+		long lHash = 0;
+		for (int lSeat = 0; lSeat < NUM_PLAYERS; lSeat++)
+		{
+			for (long lRest = pState.getHand(lSeat); lRest != CardSet.EMPTY; lRest &= lRest - 1)
+			{
+				lHash ^= CARD_KEYS[lSeat][Long.numberOfTrailingZeros(lRest)];
+			}
+		}
+		aHashes[0] = lHash;
+
+		int lLeft = pState.getTricksLeft();
+		int lTricks = search(0, pState.getTricks(0) - 1, pState.getTricks(0) + lLeft + 1) - pState.getTricks(0);
+		aNanos += System.nanoTime() - lStart;
+		if (pTeam == 0)
+		{
+			return lTricks;
+		}
+		return lLeft - lTricks;
+	}
+
+	/*
+	 * Returns the number of tricks team 0 has at the end of the round, with fail-soft alpha-beta bounds.
+	 */
+	private int search(int pDepth, int pAlpha, int pBeta)
+	{
+		PlayoutState lState = aStates[pDepth];
+		aNodes++;
+		int lTricks = lState.getTricks(0);
+		if (lState.isOver())
+		{
+			return lTricks;
+		}
+		int lLeft = lState.getTricksLeft();
+		if (lTricks >= pBeta)
+		{
+			return lTricks;
+		}
+		if (lTricks + lLeft <= pAlpha)
+		{
+			return lTricks + lLeft;
+		}
+
+		int lAlpha = pAlpha;
+		int lBeta = pBeta;
+		int lSlot = -1;
+		long lKey = 0;
+		int lTableMove = -1;
+		if (lState.getCardsInTrick() == 0)
+		{
+			lKey = aHashes[pDepth] ^ LEADER_KEYS[lState.getTurn()] ^ TRUMP_KEYS[lState.getTrumpState()];
+			lSlot = (int) (lKey ^ (lKey >>> Integer.SIZE)) & aMask;
+			aProbes++;
+			if (aKeys[lSlot] == lKey && aEntries[lSlot] != 0)
+			{
+				aHits++;
+				int lEntry = aEntries[lSlot];
+				int lLower = lTricks + (lEntry & BYTE_MASK);
+				int lUpper = lTricks + ((lEntry >>> BYTE) & BYTE_MASK);
+				if (lLower >= lBeta || lLower == lUpper)
+				{
+					return lLower;
+				}
+				if (lUpper <= lAlpha)
+				{
+					return lUpper;
+				}
+				lAlpha = Math.max(lAlpha, lLower);
+				lBeta = Math.min(lBeta, lUpper);
+				lTableMove = (lEntry >>> MOVE_SHIFT) - 1;
+			}
+		}
+
+		int lCount = generate(pDepth, lTableMove);
+		boolean lMaximize = lState.getTurn() % 2 == 0;
+		int lBest;
+		if (lMaximize)
+		{
+			lBest = -1;
+		}
+		else
+		{
+			lBest = MAX_TRICKS + 1;
+		}
+		int lBestMove = aMoves[pDepth][0];
+		int lCardTurn = lState.getTurn();
+		PlayoutState lChild = aStates[pDepth + 1];
+		for (int i = 0; i < lCount && lAlpha < lBeta; i++)
+		{
+			int lMove = aMoves[pDepth][i];
+			lChild.copyFrom(lState);
+			lChild.play(lMove);
+			aHashes[pDepth + 1] = aHashes[pDepth] ^ CARD_KEYS[lCardTurn][lMove];
+			int lValue = search(pDepth + 1, lAlpha, lBeta);
+			if (lMaximize && lValue > lBest)
+			{
+				lBest = lValue;
+				lBestMove = lMove;
+				lAlpha = Math.max(lAlpha, lValue);
+			}
+			else if (!lMaximize && lValue < lBest)
+			{
+				lBest = lValue;
+				lBestMove = lMove;
+				lBeta = Math.min(lBeta, lValue);
+			}
+		}
+
+		if (lSlot >= 0)
+		{
+			store(lSlot, lKey, lBest - lTricks, pAlpha - lTricks, pBeta - lTricks, lLeft, lBestMove);
+		}
+		return lBest;
+	}
+
+	/*
+	 * Stores the result of a search in the table. pValue and the window are in tricks left for team 0. An entry for
+	 * the same position is tightened rather than replaced.
+	 */
+	private void store(int pSlot, long pKey, int pValue, int pAlpha, int pBeta, int pLeft, int pMove)
+	{
+		int lLower = 0;
+		int lUpper = pLeft;
+		if (aKeys[pSlot] == pKey && aEntries[pSlot] != 0)
+		{
+			lLower = aEntries[pSlot] & BYTE_MASK;
+			lUpper = (aEntries[pSlot] >>> BYTE) & BYTE_MASK;
+		}
+		if (pValue > pAlpha)
+		{
+			lLower = Math.max(lLower, pValue);
+		}
+		if (pValue < pBeta)
+		{
+			lUpper = Math.min(lUpper, pValue);
+		}
+		aKeys[pSlot] = pKey;
+		aEntries[pSlot] = lLower | lUpper << BYTE | (pMove + 1) << MOVE_SHIFT;
+	}
+
+	/*
+	 * Fills aMoves[pDepth] with one card of every class of equivalent legal cards, in the order they should be searched,
+	 * and returns their number.
+	 */
+	private int generate(int pDepth, int pTableMove)
+	{
+		PlayoutState lState = aStates[pDepth];
+		int lTrumpState = lState.getTrumpState();
+		long lLegal = lState.legalMoves();
+		long lInPlay = lState.getTrick();
+		for (int lSeat = 0; lSeat < NUM_PLAYERS; lSeat++)
+		{
+			lInPlay |= lState.getHand(lSeat);
+		}
+
+		int[] lMoves = aMoves[pDepth];
+		int lCount = 0;
+		for (long lRest = lLegal; lRest != CardSet.EMPTY; lRest &= lRest - 1)
+		{
+			int lOrdinal = Long.numberOfTrailingZeros(lRest);
+			if (!hasEquivalentAbove(lTrumpState, lOrdinal, lLegal, lInPlay))
+			{
+				// Insertion by decreasing value.
+				int i = lCount;
+				while (i > 0 && VALUE[lTrumpState][lMoves[i - 1]] < VALUE[lTrumpState][lOrdinal])
+				{
+					lMoves[i] = lMoves[i - 1];
+					i--;
+				}
+				lMoves[i] = lOrdinal;
+				lCount++;
+			}
+		}
+
+		// The card from the table, or else the greedy choice, is searched first.
+		int lFirst = pTableMove;
+		if (lFirst < 0 || (lLegal & (1L << lFirst)) == 0)
+		{
+			lFirst = lState.greedyMove();
+		}
+		lFirst = representative(lTrumpState, lFirst, lLegal, lInPlay);
+		for (int i = 0; i < lCount; i++)
+		{
+			if (lMoves[i] == lFirst)
+			{
+				System.arraycopy(lMoves, 0, lMoves, 1, i);
+				lMoves[0] = lFirst;
+				break;
+			}
+		}
+		return lCount;
+	}
+
+	/*
+	 * True if pLegal contains the next card in play above pOrdinal in its effective suit, in which case the two cards
+	 * are equivalent.
+	 */
+	private static boolean hasEquivalentAbove(int pTrumpState, int pOrdinal, long pLegal, long pInPlay)
+	{
+		long lAbove = ABOVE[pTrumpState][pOrdinal] & pInPlay;
+		if (lAbove == CardSet.EMPTY)
+		{
+			return false;
+		}
+		int lNext = Long.numberOfTrailingZeros(lAbove);
+		for (long lRest = lAbove & (lAbove - 1); lRest != CardSet.EMPTY; lRest &= lRest - 1)
+		{
+			int lOther = Long.numberOfTrailingZeros(lRest);
+			if (VALUE[pTrumpState][lOther] < VALUE[pTrumpState][lNext])
+			{
+				lNext = lOther;
+			}
+		}
+		return (pLegal & (1L << lNext)) != 0;
+	}
+
+	// The card searched for the class of cards equivalent to pOrdinal: the highest one.
+	private static int representative(int pTrumpState, int pOrdinal, long pLegal, long pInPlay)
+	{
+		int lCard = pOrdinal;
+		while (hasEquivalentAbove(pTrumpState, lCard, pLegal, pInPlay))
+		{
+			long lAbove = ABOVE[pTrumpState][lCard] & pLegal;
+			int lNext = Long.numberOfTrailingZeros(lAbove);
+			for (long lRest = lAbove & (lAbove - 1); lRest != CardSet.EMPTY; lRest &= lRest - 1)
+			{
+				int lOther = Long.numberOfTrailingZeros(lRest);
+				if (VALUE[pTrumpState][lOther] < VALUE[pTrumpState][lNext])
+				{
+					lNext = lOther;
+				}
+			}
+			lCard = lNext;
+		}
+		return lCard;
+	}
+
+	/**
+	 * Empties the transposition table.
+	 */
+	public void clear()
+	{
+		for (int i = 0; i < aEntries.length; i++)
+		{
+			aKeys[i] = 0;
+			aEntries[i] = 0;
+		}
+	}
+
+	/**
+	 * Resets the search statistics.
+	 */
+	public void resetStatistics()
+	{
+		aNodes = 0;
+		aProbes = 0;
+		aHits = 0;
+		aNanos = 0;
+	}
+
+	/**
+	 * @return The number of positions searched since the statistics were reset.
+	 */
+	public long getNodes()
+	{
+		return aNodes;
+	}
+
+	/**
+	 * @return The number of positions searched per second of solving.
+	 */
+	public double getNodesPerSecond()
+	{
+		if (aNanos == 0)
+		{
+			return 0;
+		}
+		return aNodes * NANOS_PER_SECOND / aNanos;
+	}
+
+	/**
+	 * @return The proportion of transposition table lookups that found their position, between 0 and 1.
+	 */
+	public double getHitRate()
+	{
+		if (aProbes == 0)
+		{
+			return 0;
+		}
+		return (double) aHits / aProbes;
+	}
+
+	/**
+	 * @return A one-line summary of the search statistics.
+	 */
+	public String getStatistics()
+	{
+		return String.format("%d nodes, %.0f nodes/sec, table hit rate %.1f%%", aNodes, getNodesPerSecond(), getHitRate() * PERCENT);
+	}
+}
@@ -0,0 +1,522 @@
+package comp303.fivehundred.ai;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import comp303.fivehundred.util.Card;
+import comp303.fivehundred.util.Card.Rank;
+import comp303.fivehundred.util.Card.Suit;
+import comp303.fivehundred.util.CardRanking;
+import comp303.fivehundred.util.CardSet;
+import comp303.fivehundred.util.SplitMixRandom;
+
+/**
+ * Evaluates the strength of a hand for bidding, with each suit as trump, and remembers the result. The bidding
+ * strategies see the same hands over and over in simulations, so the evaluations go through a bounded cache that
+ * evicts with the CLOCK algorithm (an approximation of least recently used).
+ *
+ * Hands that only differ by a renaming of the suits that keeps the pairs of converse suits together (spades and clubs,
+ * diamonds and hearts) have the same evaluation up to that renaming. The cache is keyed by the smallest mask among
+ * the 8 renamings of the hand, so they share an entry. The only exception is the count of unseen cards that beat the
+ * hand: it follows the order of BySuitComparator, which ranks the suits other than trump by ordinal, so it is
+ * computed for the hand itself, outside the cache.
+ *
+ * The cache is split in segments with their own lock, and can be shared by all the strategies of all threads.
+ *
+ * @author Jake Shamash
+ */
+public final class HandEvaluator
+{
+	/**
+	 * The default number of hands the cache holds.
+	 */
+	public static final int DEFAULT_CAPACITY = 1 << 16;
+
+	private static final HandEvaluator SHARED = new HandEvaluator(DEFAULT_CAPACITY);
+
+	private static final int NUM_SUITS = 4;
+	private static final int NUM_RANKS = 11;
+	private static final long SUIT_BITS = (1L << NUM_RANKS) - 1;
+	private static final int SEGMENT_BITS = 4;
+	private static final int NUM_SEGMENTS = 1 << SEGMENT_BITS;
+	private static final double PERCENT = 100.0;
+
+	// The renamings of the suits that keep converse suits together: RENAMINGS[i][suit] is the new suit.
+	private static final int[][] RENAMINGS = {
+		{0, 1, 2, 3}, {1, 0, 2, 3}, {0, 1, 3, 2}, {1, 0, 3, 2},
+		{2, 3, 0, 1}, {3, 2, 0, 1}, {2, 3, 1, 0}, {3, 2, 1, 0} };
+
+	// Layout of an evaluation vector: four values per suit, indexed by the suit, then the values of the whole hand.
+	private static final int POINTS = 0;
+	private static final int TRUMPS = POINTS + NUM_SUITS;
+	private static final int HIGH_CARDS = TRUMPS + NUM_SUITS;
+	private static final int SCORE = HIGH_CARDS + NUM_SUITS;
+	private static final int HIGH_CARD_COUNT = SCORE + 1;
+	private static final int VECTOR_SIZE = HIGH_CARD_COUNT + 1;
+
+	// The score of AdvancedBiddingStrategy, indexed by ordinal.
+	private static final int[] SCORE_VALUES = new int[CardSet.NUM_CARDS];
+
+	static
+	{
+		final int lHighJokerScore = 6;
+		final int lLowJokerScore = 5;
+		final int lAceScore = 4;
+		final int lKingScore = 3;
+		for (int i = 0; i < CardSet.NUM_CARDS; i++)
+		{
+			Card lCard = Card.ofOrdinal(i);
+			if (lCard.isJoker())
+			{
+				SCORE_VALUES[i] = lLowJokerScore;
+				if (lCard.getJokerValue() == Card.Joker.HIGH)
+				{
+					SCORE_VALUES[i] = lHighJokerScore;
+				}
+			}
+			else if (lCard.getRank() == Rank.JACK)
+			{
+				SCORE_VALUES[i] = 1;
+			}
+			else if (lCard.getRank() == Rank.QUEEN)
+			{
+				SCORE_VALUES[i] = 2;
+			}
+			else if (lCard.getRank() == Rank.KING)
+			{
+				SCORE_VALUES[i] = lKingScore;
+			}
+			else if (lCard.getRank() == Rank.ACE)
+			{
+				SCORE_VALUES[i] = lAceScore;
+			}
+		}
+	}
+
+	private final int[] aPointValues = new int[CardSet.NUM_CARDS]; // The points of BasicBiddingStrategy, by ordinal
+	private final Segment[] aSegments = new Segment[NUM_SEGMENTS];
+	private final LongAdder aHits = new LongAdder();
+	private final LongAdder aMisses = new LongAdder();
+
+	/**
+	 * Creates an evaluator with its own cache, and the default points.
+	 *
+	 * @param pCapacity
+	 *            The number of hands the cache holds, rounded up to a multiple of the number of segments.
+	 * @pre pCapacity > 0
+	 */
+	public HandEvaluator(int pCapacity)
+	{
+		this(pCapacity, AIParameters.DEFAULTS);
+	}
+
+	/**
+	 * Creates an evaluator with its own cache, that gives the cards the points of pParameters.
+	 *
+	 * @param pCapacity
+	 *            The number of hands the cache holds, rounded up to a multiple of the number of segments.
+	 * @param pParameters
+	 *            The parameters that give the points of the honours.
+	 * @pre pCapacity > 0
+	 */
+	public HandEvaluator(int pCapacity, AIParameters pParameters)
+	{
+		assert pCapacity > 0;
+		for (int i = 0; i < CardSet.NUM_CARDS; i++)
+		{
+			aPointValues[i] = points(Card.ofOrdinal(i), pParameters);
+		}
+		int lSegmentCapacity = (pCapacity + NUM_SEGMENTS - 1) / NUM_SEGMENTS;
+		for (int i = 0; i < NUM_SEGMENTS; i++)
+		{
+			aSegments[i] = new Segment(lSegmentCapacity);
+		}
+	}
+
+	/**
+	 * @return The evaluator shared by the bidding strategies by default.
+	 */
+	public static HandEvaluator shared()
+	{
+		return SHARED;
+	}
+
+	/**
+	 * Evaluates a hand, from the cache if it has seen this hand or one of its renamings.
+	 *
+	 * @param pHand
+	 *            The hand, as a CardSet mask.
+	 * @return The evaluation of pHand.
+	 */
+	public Evaluation evaluate(long pHand)
+	{
+		long lKey = pHand;
+		int lRenaming = 0;
+		for (int i = 1; i < RENAMINGS.length; i++)
+		{
+			long lRenamed = rename(pHand, RENAMINGS[i]);
+			if (lRenamed < lKey)
+			{
+				lKey = lRenamed;
+				lRenaming = i;
+			}
+		}
+
+		long lHash = SplitMixRandom.mix(lKey);
+		Segment lSegment = aSegments[(int) (lHash >>> (Long.SIZE - SEGMENT_BITS))];
+		int[] lVector = lSegment.get(lKey, lHash);
+		if (lVector == null)
+		{
+			aMisses.increment();
+			lVector = compute(lKey);
+			lSegment.put(lKey, lHash, lVector);
+		}
+		else
+		{
+			aHits.increment();
+		}
+		return new Evaluation(pHand, lVector, RENAMINGS[lRenaming]);
+	}
+
+	/**
+	 * Empties the cache and resets the counters.
+	 */
+	public void clear()
+	{
+		for (Segment lSegment : aSegments)
+		{
+			lSegment.clear();
+		}
+		aHits.reset();
+		aMisses.reset();
+	}
+
+	/**
+	 * @return The number of evaluations answered by the cache.
+	 */
+	public long getHits()
+	{
+		return aHits.sum();
+	}
+
+	/**
+	 * @return The number of evaluations that had to be computed.
+	 */
+	public long getMisses()
+	{
+		return aMisses.sum();
+	}
+
+	/**
+	 * @return The proportion of evaluations answered by the cache, between 0 and 1.
+	 */
+	public double getHitRate()
+	{
+		long lHits = getHits();
+		long lTotal = lHits + getMisses();
+		if (lTotal == 0)
+		{
+			return 0;
+		}
+		return (double) lHits / lTotal;
+	}
+
+	/**
+	 * @return A one-line summary of the cache counters.
+	 */
+	public String getStatistics()
+	{
+		return String.format("%d hits, %d misses, hit rate %.1f%%", getHits(), getMisses(), getHitRate() * PERCENT);
+	}
+
+	private static long rename(long pHand, int[] pRenaming)
+	{
+		long lRenamed = pHand & CardSet.JOKERS;
+		for (int lSuit = 0; lSuit < NUM_SUITS; lSuit++)
+		{
+			lRenamed |= ((pHand >>> (lSuit * NUM_RANKS)) & SUIT_BITS) << (pRenaming[lSuit] * NUM_RANKS);
+		}
+		return lRenamed;
+	}
+
+	private static int points(Card pCard, AIParameters pParameters)
+	{
+		if (pCard.isJoker())
+		{
+			if (pCard.getJokerValue() == Card.Joker.HIGH)
+			{
+				return pParameters.getInt(AIParameters.Parameter.HIGH_JOKER_POINTS);
+			}
+			return pParameters.getInt(AIParameters.Parameter.LOW_JOKER_POINTS);
+		}
+		switch (pCard.getRank())
+		{
+			case JACK:
+				return pParameters.getInt(AIParameters.Parameter.JACK_POINTS);
+			case QUEEN:
+				return pParameters.getInt(AIParameters.Parameter.QUEEN_POINTS);
+			case KING:
+				return pParameters.getInt(AIParameters.Parameter.KING_POINTS);
+			case ACE:
+				return pParameters.getInt(AIParameters.Parameter.ACE_POINTS);
+			default:
+				return 0;
+		}
+	}
+
+	private int[] compute(long pHand)
+	{
+		int[] lVector = new int[VECTOR_SIZE];
+		for (long lRest = pHand; lRest != CardSet.EMPTY; lRest &= lRest - 1)
+		{
+			lVector[SCORE] += SCORE_VALUES[Long.numberOfTrailingZeros(lRest)];
+			if (SCORE_VALUES[Long.numberOfTrailingZeros(lRest)] > 0)
+			{
+				lVector[HIGH_CARD_COUNT]++;
+			}
+		}
+		for (Suit lSuit : Suit.values())
+		{
+			int i = lSuit.ordinal();
+			long lTrumps = CardSet.trumps(lSuit);
+			lVector[TRUMPS + i] = CardSet.size(pHand & lTrumps);
+			for (long lRest = pHand; lRest != CardSet.EMPTY; lRest &= lRest - 1)
+			{
+				int lOrdinal = Long.numberOfTrailingZeros(lRest);
+				Card lCard = Card.ofOrdinal(lOrdinal);
+				if (lCard.isJoker() || lCard.getEffectiveSuit(lSuit) == lSuit)
+				{
+					lVector[POINTS + i] += aPointValues[lOrdinal];
+				}
+			}
+			long lHighCards = pHand & CardSet.rawSuit(lSuit);
+			for (long lRest = lHighCards; lRest != CardSet.EMPTY; lRest &= lRest - 1)
+			{
+				if (SCORE_VALUES[Long.numberOfTrailingZeros(lRest)] > 0)
+				{
+					lVector[HIGH_CARDS + i]++;
+				}
+			}
+		}
+		return lVector;
+	}
+
+	/*
+	 * For each suit as trump, the number of pairs of a card of pHand and an unseen card that BySuitComparator ranks
+	 * above it.
+	 */
+	private static int[] beaten(long pHand)
+	{
+		int[] lBeaten = new int[NUM_SUITS];
+		long lLeft = CardSet.ALL & ~pHand;
+		for (Suit lSuit : Suit.values())
+		{
+			int lTrumpState = CardSet.trumpIndex(lSuit);
+			for (long lRest = pHand; lRest != CardSet.EMPTY; lRest &= lRest - 1)
+			{
+				Card lCard = Card.ofOrdinal(Long.numberOfTrailingZeros(lRest));
+				lBeaten[lSuit.ordinal()] += CardSet.size(lLeft & CardRanking.higher(lTrumpState, lCard));
+			}
+		}
+		return lBeaten;
+	}
+
+	/**
+	 * The evaluation of a hand. The values depend on the cards only, not on the bids.
+	 */
+	public static final class Evaluation
+	{
+		private final long aHand;
+		private final int[] aVector;
+		private final int[] aRenaming;
+		private int[] aBeaten; // Computed on first use
+
+		private Evaluation(long pHand, int[] pVector, int[] pRenaming)
+		{
+			aHand = pHand;
+			aVector = pVector;
+			aRenaming = pRenaming;
+		}
+
+		/**
+		 * @param pTrump
+		 *            A trump suit.
+		 * @return The points of BasicBiddingStrategy for pTrump: the honours of the trump suit, including the left
+		 *         bower, and the jokers.
+		 */
+		public int getPoints(Suit pTrump)
+		{
+			return aVector[POINTS + aRenaming[pTrump.ordinal()]];
+		}
+
+		/**
+		 * @param pTrump
+		 *            A trump suit.
+		 * @return The number of trumps in the hand with pTrump as trump, jokers and left bower included.
+		 */
+		public int getTrumpCount(Suit pTrump)
+		{
+			return aVector[TRUMPS + aRenaming[pTrump.ordinal()]];
+		}
+
+		/**
+		 * @param pTrump
+		 *            A trump suit.
+		 * @return The number of pairs of a card of the hand and an unseen card that BySuitComparator ranks above it
+		 *         with pTrump as trump.
+		 */
+		public int getBeaten(Suit pTrump)
+		{
+			if (aBeaten == null)
+			{
+				aBeaten = beaten(aHand);
+			}
+			return aBeaten[pTrump.ordinal()];
+		}
+
+		/**
+		 * @param pSuit
+		 *            A suit.
+		 * @return The number of jacks, queens, kings and aces of the printed suit pSuit in the hand, bowers included.
+		 */
+		public int getHighCards(Suit pSuit)
+		{
+			return aVector[HIGH_CARDS + aRenaming[pSuit.ordinal()]];
+		}
+
+		/**
+		 * @return The score of AdvancedBiddingStrategy: 1 to 4 for jacks to aces, 5 and 6 for the jokers.
+		 */
+		public int getScore()
+		{
+			return aVector[SCORE];
+		}
+
+		/**
+		 * @return The number of jacks, queens, kings, aces and jokers in the hand.
+		 */
+		public int getHighCardCount()
+		{
+			return aVector[HIGH_CARD_COUNT];
+		}
+	}
+
+	/*
+	 * A part of the cache. The entries live in slots that the clock hand visits in a circle; an open-addressing index
+	 * maps the keys to their slot.
+	 */
+	private static final class Segment
+	{
+		private final long[] aKeys;
+		private final int[][] aVectors;
+		private final boolean[] aReferenced;
+		private final int[] aIndex; // slot + 1, or 0 if empty
+		private final int aIndexMask;
+		private int aSize;
+		private int aHand;
+
+		Segment(int pCapacity)
+		{
+			aKeys = new long[pCapacity];
+			aVectors = new int[pCapacity][];
+			aReferenced = new boolean[pCapacity];
+			aIndex = new int[Integer.highestOneBit(pCapacity) << 2];
+			aIndexMask = aIndex.length - 1;
+		}
+
+		synchronized int[] get(long pKey, long pHash)
+		{
+			for (int i = (int) pHash & aIndexMask; aIndex[i] != 0; i = (i + 1) & aIndexMask)
+			{
+				int lSlot = aIndex[i] - 1;
+				if (aKeys[lSlot] == pKey)
+				{
+					aReferenced[lSlot] = true;
+					return aVectors[lSlot];
+				}
+			}
+			return null;
+		}
+
+		synchronized void put(long pKey, long pHash, int[] pVector)
+		{
+			int i = (int) pHash & aIndexMask;
+			for (; aIndex[i] != 0; i = (i + 1) & aIndexMask)
+			{
+				if (aKeys[aIndex[i] - 1] == pKey)
+				{
+					return; // Another thread got there first
+				}
+			}
+			int lSlot = aSize;
+			if (aSize == aKeys.length)
+			{
+				lSlot = evict();
+				// The removal may have moved the free position of the key.
+				i = (int) pHash & aIndexMask;
+				while (aIndex[i] != 0)
+				{
+					i = (i + 1) & aIndexMask;
+				}
+			}
+			else
+			{
+				aSize++;
+			}
+			aKeys[lSlot] = pKey;
+			aVectors[lSlot] = pVector;
+			aReferenced[lSlot] = false;
+			aIndex[i] = lSlot + 1;
+		}
+
+		synchronized void clear()
+		{
+			for (int i = 0; i < aIndex.length; i++)
+			{
+				aIndex[i] = 0;
+			}
+			for (int i = 0; i < aVectors.length; i++)
+			{
+				aVectors[i] = null;
+			}
+			aSize = 0;
+			aHand = 0;
+		}
+
+		// Advances the hand to the first slot not referenced since its last visit, removes its entry and returns it.
+		private int evict()
+		{
+			while (aReferenced[aHand])
+			{
+				aReferenced[aHand] = false;
+				aHand = (aHand + 1) % aKeys.length;
+			}
+			int lSlot = aHand;
+			aHand = (aHand + 1) % aKeys.length;
+			remove(lSlot);
+			return lSlot;
+		}
+
+		// Removes the index entry of a slot, shifting back the entries that probed past it.
+		private void remove(int pSlot)
+		{
+			int i = (int) SplitMixRandom.mix(aKeys[pSlot]) & aIndexMask;
+			while (aIndex[i] != pSlot + 1)
+			{
+				i = (i + 1) & aIndexMask;
+			}
+			int lNext = (i + 1) & aIndexMask;
+			while (aIndex[lNext] != 0)
+			{
+				int lHome = (int) SplitMixRandom.mix(aKeys[aIndex[lNext] - 1]) & aIndexMask;
+				// Move the entry at lNext into the hole at i unless its home lies cyclically in (i, lNext].
+				if (((lNext - lHome) & aIndexMask) >= ((lNext - i) & aIndexMask))
+				{
+					aIndex[i] = aIndex[lNext];
+					i = lNext;
+				}
+				lNext = (lNext + 1) & aIndexMask;
+			}
+			aIndex[i] = 0;
+		}
+	}
+}
@@ -0,0 +1,415 @@
+package comp303.fivehundred.ai;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import comp303.fivehundred.engine.GameAdapter;
+import comp303.fivehundred.engine.GameEngine;
+import comp303.fivehundred.model.Bid;
+import comp303.fivehundred.model.Hand;
+import comp303.fivehundred.model.Trick;
+import comp303.fivehundred.util.Card;
+import comp303.fivehundred.util.CardList;
+import comp303.fivehundred.util.CardSet;
+import comp303.fivehundred.util.SplitMixRandom;
+
+/**
+ * Monte Carlo playing strategy. For every decision, the strategy deals the cards it has not seen to the other players
+ * many times, consistently with the suits each player has shown out of (see DealSampler). On each of these deals, it
+ * plays every legal card and plays out the rest of the round with a fast heuristic (see PlayoutState). It plays the
+ * card that scores best for its team over all the deals.
+ *
+ * In the endgame, the last few tricks of each deal are solved exactly with a DoubleDummySolver instead of being
+ * played out with the heuristic.
+ *
+ * The deals are played out in parallel on a ForkJoinPool. The budget of a decision is a number of deals, optionally
+ * cut short by a time limit. Without a time limit, the card chosen only depends on the random number generator of the
+ * strategy, whatever the number of threads.
+ *
+ * @author Jake Shamash
+ */
+public class MonteCarloPlayingStrategy extends GameAdapter implements IPlayingStrategy
+{
+	/**
+	 * The default number of deals sampled per decision.
+	 */
+	public static final int DEFAULT_SAMPLES = 100;
+
+	/**
+	 * The default number of tricks left from which the deals are solved double dummy.
+	 */
+	public static final int DEFAULT_ENDGAME_TRICKS = 5;
+
+	private static final int NUM_PLAYERS = 4;
+	private static final int NUM_TEAMS = 2;
+	private static final int TRICKS_PER_ROUND = 10;
+	private static final int POINTS_PER_TRICK = 10; // Points scored by the opposition per trick won
+	private static final int SLAM_POINTS = 250;
+	private static final int SAMPLES_PER_TASK = 8;
+	private static final long NANOS_PER_MILLI = 1000000L;
+
+	// Every thread of the pool keeps its own solver, and its transposition table, from one decision to the next.
+	private static final ThreadLocal<DoubleDummySolver> SOLVERS = new ThreadLocal<DoubleDummySolver>()
+	{
+		@Override
+		protected DoubleDummySolver initialValue()
+		{
+			return new DoubleDummySolver();
+		}
+	};
+
+	private final Random aRandom;
+	private final int aSamples;
+	private final long aTimeLimit; // In nanoseconds, 0 for no limit
+	private final ForkJoinPool aPool;
+	private int aEndgameTricks;
+
+	// What the strategy knows about the current round.
+	private int aContractHolder;
+	private int aTricksBid;
+	private int aContractScore;
+	private long aDiscards;	// The cards discarded by the contract holder, only used by the contract holder
+	private int aLeader;		// The seat leading the current trick
+	private long aFollow;		// The cards that follow the card led in the current trick
+	private int aCardsInTrick;
+	private long aPlayed;		// All the cards played so far
+	private final long[] aVoids = new long[NUM_PLAYERS];
+	private final int[] aTricks = new int[NUM_TEAMS];
+
+	/**
+	 * Creates a strategy with the default budget, running on the common pool.
+	 */
+	public MonteCarloPlayingStrategy()
+	{
+		this(new SplitMixRandom());
+	}
+
+	/**
+	 * Creates a strategy with the default budget, running on the common pool.
+	 *
+	 * @param pRandom
+	 *            The random number generator to use.
+	 * @pre pRandom != null
+	 */
+	public MonteCarloPlayingStrategy(Random pRandom)
+	{
+		this(pRandom, DEFAULT_SAMPLES, 0, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Creates a strategy with a given budget per decision.
+	 *
+	 * @param pRandom
+	 *            The random number generator to use.
+	 * @param pSamples
+	 *            The number of deals to sample per decision.
+	 * @param pTimeLimitMillis
+	 *            The time after which a decision stops sampling, in milliseconds. 0 for no limit.
+	 * @param pPool
+	 *            The pool on which the deals are played out.
+	 * @pre pRandom != null && pPool != null
+	 * @pre pSamples > 0 && pTimeLimitMillis >= 0
+	 */
+	public MonteCarloPlayingStrategy(Random pRandom, int pSamples, long pTimeLimitMillis, ForkJoinPool pPool)
+	{
+		assert pRandom != null && pPool != null;
+		assert pSamples > 0 && pTimeLimitMillis >= 0;
+		aRandom = pRandom;
+		aSamples = pSamples;
+		aTimeLimit = pTimeLimitMillis * NANOS_PER_MILLI;
+		aPool = pPool;
+		aEndgameTricks = DEFAULT_ENDGAME_TRICKS;
+		newRound();
+	}
+
+	/**
+	 * Sets the endgame mode.
+	 *
+	 * @param pTricks
+	 *            The number of tricks left, including the current one, from which the deals are solved double dummy
+	 *            rather than played out. 0 never solves them.
+	 * @pre pTricks >= 0 && pTricks <= 10
+	 */
+	public void setEndgameTricks(int pTricks)
+	{
+		assert pTricks >= 0 && pTricks <= TRICKS_PER_ROUND;
+		aEndgameTricks = pTricks;
+	}
+
+	private void newRound()
+	{
+		aContractHolder = -1;
+		aTricksBid = 0;
+		aContractScore = 0;
+		aDiscards = CardSet.EMPTY;
+		aLeader = -1;
+		aFollow = CardSet.EMPTY;
+		aCardsInTrick = 0;
+		aPlayed = CardSet.EMPTY;
+		for (int i = 0; i < NUM_PLAYERS; i++)
+		{
+			aVoids[i] = CardSet.EMPTY;
+		}
+		aTricks[0] = 0;
+		aTricks[1] = 0;
+	}
+
+	@Override
+	public Card play(Trick pTrick, Hand pHand)
+	{
+		long lLegal;
+		if (pTrick.size() == 0)
+		{
+			lLegal = pHand.leadMask(pTrick.getTrumpSuit() == null);
+		}
+		else
+		{
+			lLegal = pHand.playableMask(pTrick.getSuitLed(), pTrick.getTrumpSuit());
+		}
+		if (CardSet.size(lLegal) == 1 || aLeader < 0)
+		{
+			// Nothing to decide, or the strategy missed the start of the round and cannot tell its seat.
+			return CardSet.first(lLegal);
+		}
+
+		int lSeat = (aLeader + pTrick.size()) % NUM_PLAYERS;
+		PlayoutState lRoot = new PlayoutState();
+		lRoot.reset(pTrick.getTrumpSuit(), aLeader, aTricks[0], aTricks[1]);
+		for (Card lCard : pTrick)
+		{
+			lRoot.play(lCard.ordinal());
+		}
+		lRoot.setHand(lSeat, pHand.getMask());
+
+		// Every other seat holds as many cards as this player, or one less if it has already played to this trick.
+		int[] lSizes = new int[NUM_PLAYERS];
+		int lHidden = 0;
+		for (int i = 1; i < NUM_PLAYERS; i++)
+		{
+			int lOther = (lSeat + i) % NUM_PLAYERS;
+			lSizes[lOther] = pHand.size();
+			if (i >= NUM_PLAYERS - pTrick.size())
+			{
+				lSizes[lOther]--;
+			}
+			lHidden += lSizes[lOther];
+		}
+		long lUnseen = CardSet.ALL & ~pHand.getMask() & ~aPlayed & ~pTrick.getMask();
+		if (lSeat == aContractHolder)
+		{
+			lUnseen &= ~aDiscards;
+		}
+		if (CardSet.size(lUnseen) < lHidden)
+		{
+			// The strategy's view of the round is inconsistent with the game; do not guess.
+			lRoot.setHand(lSeat, lLegal);
+			return Card.ofOrdinal(lRoot.greedyMove());
+		}
+
+		int[] lMoves = new int[CardSet.size(lLegal)];
+		int lCount = 0;
+		for (long lRest = lLegal; lRest != CardSet.EMPTY; lRest &= lRest - 1)
+		{
+			lMoves[lCount++] = Long.numberOfTrailingZeros(lRest);
+		}
+
+		// This player has one card per trick left, including the current one.
+		boolean lEndgame = pHand.size() <= aEndgameTricks;
+		Rollouts lRollouts = new Rollouts(new Decision(lRoot, new DealSampler(lUnseen, lSizes, aVoids), lMoves, lSeat % NUM_TEAMS,
+				lEndgame, aRandom.nextLong(), System.nanoTime()), 0, aSamples);
+		long[] lScores = aPool.invoke(lRollouts);
+
+		int lBest = 0;
+		for (int i = 1; i < lMoves.length; i++)
+		{
+			if (lScores[i] > lScores[lBest])
+			{
+				lBest = i;
+			}
+		}
+		return Card.ofOrdinal(lMoves[lBest]);
+	}
+
+	/*
+	 * The value of a finished round for pTeam: the points scored by pTeam minus the points scored by the other team,
+	 * given the number of tricks won by the team of the contract holder.
+	 */
+	private int value(int pHolderTricks, int pTeam)
+	{
+		int lHolderTeam = aContractHolder % NUM_TEAMS;
+		int lHolderTricks = pHolderTricks;
+		int lHolderPoints = -aContractScore;
+		if (lHolderTricks >= aTricksBid)
+		{
+			lHolderPoints = aContractScore;
+			if (lHolderTricks == TRICKS_PER_ROUND && aContractScore <= SLAM_POINTS)
+			{
+				lHolderPoints = SLAM_POINTS;
+			}
+		}
+		int lDefenderPoints = POINTS_PER_TRICK * (TRICKS_PER_ROUND - lHolderTricks);
+		if (pTeam == lHolderTeam)
+		{
+			return lHolderPoints - lDefenderPoints;
+		}
+		return lDefenderPoints - lHolderPoints;
+	}
+
+	@Override
+	public void onDeal(GameEngine pEngine, int pDealer)
+	{
+		newRound();
+	}
+
+	@Override
+	public void onContract(GameEngine pEngine, int pContractHolder, Bid pContract)
+	{
+		newRound();
+		if (!pContract.isPass())
+		{
+			aContractHolder = pContractHolder;
+			aTricksBid = pContract.getTricksBid();
+			aContractScore = pContract.getScore();
+		}
+	}
+
+	@Override
+	public void onExchange(GameEngine pEngine, int pContractHolder)
+	{
+		aLeader = pContractHolder;
+		CardList lDiscards = pEngine.getDiscards();
+		aDiscards = lDiscards.getMask();
+	}
+
+	@Override
+	public void onCardPlayed(GameEngine pEngine, int pPlayer, Card pCard)
+	{
+		if (aCardsInTrick == 0)
+		{
+			aLeader = pPlayer;
+			aFollow = CardSet.follow(pCard, pEngine.getTrumpSuit());
+		}
+		else if (aFollow != CardSet.EMPTY && !CardSet.contains(aFollow, pCard))
+		{
+			// Couldn't follow suit
+			aVoids[pPlayer] |= aFollow;
+		}
+		aPlayed |= CardSet.of(pCard);
+		aCardsInTrick++;
+	}
+
+	@Override
+	public void onTrickEnd(GameEngine pEngine, int pWinner)
+	{
+		aTricks[pWinner % NUM_TEAMS]++;
+		aLeader = pWinner;
+		aCardsInTrick = 0;
+	}
+
+	/*
+	 * Everything the rollouts of one decision share. Immutable once created.
+	 */
+	private static final class Decision
+	{
+		private final PlayoutState aRoot;
+		private final DealSampler aSampler;	// Never used directly: each task samples with its own copy
+		private final int[] aMoves;
+		private final int aTeam;
+		private final boolean aEndgame;	// True if the deals are solved double dummy
+		private final long aSeed;
+		private final long aStart;	// System.nanoTime() when the decision started
+
+		Decision(PlayoutState pRoot, DealSampler pSampler, int[] pMoves, int pTeam, boolean pEndgame, long pSeed, long pStart)
+		{
+			aRoot = pRoot;
+			aSampler = pSampler;
+			aMoves = pMoves;
+			aTeam = pTeam;
+			aEndgame = pEndgame;
+			aSeed = pSeed;
+			aStart = pStart;
+		}
+	}
+
+	/*
+	 * Plays out the deals numbered pFirst to pLast - 1, splitting the range between several tasks if it is large.
+	 * Returns the total score of every move, followed by the number of deals played out. Deal number i is always
+	 * sampled with the same seed, so the result does not depend on how the range was split.
+	 */
+	private final class Rollouts extends RecursiveTask<long[]>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final Decision aDecision;
+		private final int aFirst;
+		private final int aLast;
+
+		Rollouts(Decision pDecision, int pFirst, int pLast)
+		{
+			aDecision = pDecision;
+			aFirst = pFirst;
+			aLast = pLast;
+		}
+
+		@Override
+		protected long[] compute()
+		{
+			if (aLast - aFirst > SAMPLES_PER_TASK)
+			{
+				int lMiddle = (aFirst + aLast) >>> 1;
+				Rollouts lLeft = new Rollouts(aDecision, aFirst, lMiddle);
+				lLeft.fork();
+				long[] lScores = new Rollouts(aDecision, lMiddle, aLast).compute();
+				long[] lLeftScores = lLeft.join();
+				for (int i = 0; i < lScores.length; i++)
+				{
+					lScores[i] += lLeftScores[i];
+				}
+				return lScores;
+			}
+
+			int[] lMoves = aDecision.aMoves;
+			int lHolderTeam = aContractHolder % NUM_TEAMS;
+			DoubleDummySolver lSolver = null;
+			if (aDecision.aEndgame)
+			{
+				lSolver = SOLVERS.get();
+			}
+			long[] lScores = new long[lMoves.length + 1];
+			DealSampler lSampler = aDecision.aSampler.copy();
+			SplitMixRandom lRandom = new SplitMixRandom();
+			PlayoutState lDeal = new PlayoutState();
+			PlayoutState lState = new PlayoutState();
+			for (int lSample = aFirst; lSample < aLast && !outOfTime(); lSample++)
+			{
+				lRandom.setSeed(SplitMixRandom.streamSeed(aDecision.aSeed, lSample));
+				lDeal.copyFrom(aDecision.aRoot);
+				lSampler.sample(lRandom, lDeal);
+				for (int i = 0; i < lMoves.length; i++)
+				{
+					lState.copyFrom(lDeal);
+					lState.play(lMoves[i]);
+					int lHolderTricks = lState.getTricks(lHolderTeam);
+					if (lSolver == null)
+					{
+						lState.playOut();
+						lHolderTricks = lState.getTricks(lHolderTeam);
+					}
+					else
+					{
+						lHolderTricks += lSolver.solve(lState, lHolderTeam);
+					}
+					lScores[i] += value(lHolderTricks, aDecision.aTeam);
+				}
+				lScores[lMoves.length]++;
+			}
+			return lScores;
+		}
+
+		private boolean outOfTime()
+		{
+			return aTimeLimit > 0 && System.nanoTime() - aDecision.aStart > aTimeLimit;
+		}
+	}
+}
@@ -0,0 +1,339 @@
+package comp303.fivehundred.ai;
+
+import comp303.fivehundred.util.Card;
+import comp303.fivehundred.util.Card.Suit;
+import comp303.fivehundred.util.CardRanking;
+import comp303.fivehundred.util.CardSet;
+
+/**
+ * A compact, fully known state of the play of a round, used to play out the end of a round many times per second.
+ * Hands are CardSet masks and the current trick is summarized by its follow mask and its winner, so copying a state,
+ * generating the legal moves and playing a card never allocate.
+ *
+ * Seats are numbered as in GameEngine: seats 0 and 2 form team 0, seats 1 and 3 form team 1.
+ *
+ * @author Jake Shamash
+ */
+public final class PlayoutState
+{
+	private static final int NUM_PLAYERS = 4;
+	private static final int NUM_TEAMS = 2;
+
+	// FOLLOW_LEAD[trump state][ordinal of the card led] contains the cards that follow that lead.
+	private static final long[][] FOLLOW_LEAD = new long[CardSet.NUM_TRUMP_STATES][CardSet.NUM_CARDS];
+
+	// VALUE[trump state][ordinal] orders the cards of a hand from the least to the most valuable.
+	private static final int[][] VALUE = new int[CardSet.NUM_TRUMP_STATES][CardSet.NUM_CARDS];
+
+	private final long[] aHands = new long[NUM_PLAYERS];
+	private final int[] aTricks = new int[NUM_TEAMS];
+	private int aTrumpState;
+	private int aTurn;			// The seat to play
+	private int aCardsInTrick;
+	private long aTrick;		// The cards of the current trick
+	private int aLedState;		// CardRanking.ledState() of the card led
+	private long aFollow;		// The cards that follow the card led
+	private int aWinner;		// The seat currently winning the trick
+	private int aWinnerPower;
+
+	static
+	{
+		for (int lState = 0; lState < CardSet.NUM_TRUMP_STATES; lState++)
+		{
+			Suit lTrump = CardSet.trumpOf(lState);
+			for (int lOrdinal = 0; lOrdinal < CardSet.NUM_CARDS; lOrdinal++)
+			{
+				Card lCard = Card.ofOrdinal(lOrdinal);
+				FOLLOW_LEAD[lState][lOrdinal] = CardSet.follow(lCard, lTrump);
+				// The power of a card when it leads: trumps above every plain card, plain cards by rank.
+				VALUE[lState][lOrdinal] = CardRanking.power(lState, CardRanking.ledState(lCard), lCard);
+			}
+		}
+	}
+
+	/**
+	 * Starts a new trick, with no cards in any hand.
+	 *
+	 * @param pTrump
+	 *            The trump suit. Null for no trump.
+	 * @param pLeader
+	 *            The seat leading the trick.
+	 * @param pTricks0
+	 *            The tricks already won by team 0.
+	 * @param pTricks1
+	 *            The tricks already won by team 1.
+	 * @pre pLeader >= 0 && pLeader < 4
+	 */
+	public void reset(Suit pTrump, int pLeader, int pTricks0, int pTricks1)
+	{
+		for (int i = 0; i < NUM_PLAYERS; i++)
+		{
+			aHands[i] = CardSet.EMPTY;
+		}
+		aTricks[0] = pTricks0;
+		aTricks[1] = pTricks1;
+		aTrumpState = CardSet.trumpIndex(pTrump);
+		aTurn = pLeader;
+		aCardsInTrick = 0;
+		aTrick = CardSet.EMPTY;
+	}
+
+	/**
+	 * Makes this state a copy of another one.
+	 *
+	 * @param pState
+	 *            The state to copy.
+	 * @pre pState != null
+	 */
+	public void copyFrom(PlayoutState pState)
+	{
+		System.arraycopy(pState.aHands, 0, aHands, 0, NUM_PLAYERS);
+		aTricks[0] = pState.aTricks[0];
+		aTricks[1] = pState.aTricks[1];
+		aTrumpState = pState.aTrumpState;
+		aTurn = pState.aTurn;
+		aCardsInTrick = pState.aCardsInTrick;
+		aTrick = pState.aTrick;
+		aLedState = pState.aLedState;
+		aFollow = pState.aFollow;
+		aWinner = pState.aWinner;
+		aWinnerPower = pState.aWinnerPower;
+	}
+
+	/**
+	 * @param pSeat
+	 *            A seat.
+	 * @return The cards held by pSeat.
+	 */
+	public long getHand(int pSeat)
+	{
+		return aHands[pSeat];
+	}
+
+	/**
+	 * @param pSeat
+	 *            A seat.
+	 * @param pHand
+	 *            The cards held by pSeat.
+	 */
+	public void setHand(int pSeat, long pHand)
+	{
+		aHands[pSeat] = pHand;
+	}
+
+	/**
+	 * @return The seat to play.
+	 */
+	public int getTurn()
+	{
+		return aTurn;
+	}
+
+	/**
+	 * @return The trump state, as returned by CardSet.trumpIndex().
+	 */
+	public int getTrumpState()
+	{
+		return aTrumpState;
+	}
+
+	/**
+	 * @return The cards played to the current trick.
+	 */
+	public long getTrick()
+	{
+		return aTrick;
+	}
+
+	/**
+	 * @return The number of cards played to the current trick.
+	 */
+	public int getCardsInTrick()
+	{
+		return aCardsInTrick;
+	}
+
+	/**
+	 * @return The number of tricks left to play, including the current one.
+	 */
+	public int getTricksLeft()
+	{
+		int lCards = aCardsInTrick;
+		for (int i = 0; i < NUM_PLAYERS; i++)
+		{
+			lCards += CardSet.size(aHands[i]);
+		}
+		return lCards / NUM_PLAYERS;
+	}
+
+	/**
+	 * @param pTeam
+	 *            A team, 0 or 1.
+	 * @return The number of tricks won by pTeam.
+	 */
+	public int getTricks(int pTeam)
+	{
+		return aTricks[pTeam];
+	}
+
+	/**
+	 * @return True if every card has been played.
+	 */
+	public boolean isOver()
+	{
+		return aCardsInTrick == 0 && aHands[aTurn] == CardSet.EMPTY;
+	}
+
+	/**
+	 * @return The cards that the seat to play can legally play.
+	 */
+	public long legalMoves()
+	{
+		long lHand = aHands[aTurn];
+		if (aCardsInTrick == 0)
+		{
+			return CardSet.leadable(lHand, aTrumpState == CardSet.NO_TRUMP);
+		}
+		long lFollow = lHand & aFollow;
+		if (lFollow == CardSet.EMPTY)
+		{
+			return lHand;
+		}
+		return lFollow;
+	}
+
+	/**
+	 * Plays a card for the seat to play. The card is removed from the hand of that seat, if it is there. When the
+	 * trick is complete, its winner is credited and leads the next trick.
+	 *
+	 * @param pOrdinal
+	 *            The ordinal of the card played.
+	 */
+	public void play(int pOrdinal)
+	{
+		aHands[aTurn] &= ~(1L << pOrdinal);
+		aTrick |= 1L << pOrdinal;
+		if (aCardsInTrick == 0)
+		{
+			aLedState = CardRanking.ledState(Card.ofOrdinal(pOrdinal));
+			aFollow = FOLLOW_LEAD[aTrumpState][pOrdinal];
+			aWinner = aTurn;
+			aWinnerPower = CardRanking.power(aTrumpState, aLedState, Card.ofOrdinal(pOrdinal));
+		}
+		else
+		{
+			int lPower = CardRanking.power(aTrumpState, aLedState, Card.ofOrdinal(pOrdinal));
+			if (lPower > aWinnerPower)
+			{
+				aWinner = aTurn;
+				aWinnerPower = lPower;
+			}
+		}
+		aCardsInTrick++;
+		if (aCardsInTrick == NUM_PLAYERS)
+		{
+			aTricks[aWinner % NUM_TEAMS]++;
+			aTurn = aWinner;
+			aCardsInTrick = 0;
+			aTrick = CardSet.EMPTY;
+		}
+		else
+		{
+			aTurn = (aTurn + 1) % NUM_PLAYERS;
+		}
+	}
+
+	/**
+	 * Chooses a card for the seat to play with a cheap heuristic: lead the most valuable card; discard the least
+	 * valuable card if the partner is winning or if nothing can win; otherwise win with the cheapest winning card.
+	 *
+	 * @return The ordinal of the chosen card.
+	 * @pre !isOver()
+	 */
+	public int greedyMove()
+	{
+		long lLegal = legalMoves();
+		int[] lValues = VALUE[aTrumpState];
+		if (aCardsInTrick == 0)
+		{
+			return extreme(lLegal, lValues, true);
+		}
+		if (aWinner != (aTurn + 2) % NUM_PLAYERS)
+		{
+			// The cheapest card that beats the current winner, if there is one.
+			int lBest = -1;
+			int lBestPower = Integer.MAX_VALUE;
+			for (long lRest = lLegal; lRest != CardSet.EMPTY; lRest &= lRest - 1)
+			{
+				int lOrdinal = Long.numberOfTrailingZeros(lRest);
+				int lPower = CardRanking.power(aTrumpState, aLedState, Card.ofOrdinal(lOrdinal));
+				if (lPower > aWinnerPower && lPower < lBestPower)
+				{
+					lBest = lOrdinal;
+					lBestPower = lPower;
+				}
+			}
+			if (lBest >= 0)
+			{
+				return lBest;
+			}
+		}
+		return extreme(lLegal, lValues, false);
+	}
+
+	/**
+	 * Plays the rest of the round with greedyMove() for every seat.
+	 */
+	public void playOut()
+	{
+		while (!isOver())
+		{
+			play(greedyMove());
+		}
+	}
+
+	/**
+	 * Chooses cards to throw away with the same heuristic as greedyMove(): the least valuable ones.
+	 *
+	 * @param pSet
+	 *            A set of cards, as a CardSet mask.
+	 * @param pTrumpState
+	 *            The trump state, as returned by CardSet.trumpIndex().
+	 * @param pCount
+	 *            The number of cards to choose.
+	 * @return The pCount least valuable cards of pSet.
+	 * @pre CardSet.size(pSet) >= pCount
+	 */
+	public static long weakest(long pSet, int pTrumpState, int pCount)
+	{
+		long lRest = pSet;
+		long lWeakest = CardSet.EMPTY;
+		for (int i = 0; i < pCount; i++)
+		{
+			long lCard = 1L << extreme(lRest, VALUE[pTrumpState], false);
+			lWeakest |= lCard;
+			lRest &= ~lCard;
+		}
+		return lWeakest;
+	}
+
+	// The ordinal of the card of pSet with the highest (pHighest) or lowest value.
+	private static int extreme(long pSet, int[] pValues, boolean pHighest)
+	{
+		int lBest = Long.numberOfTrailingZeros(pSet);
+		for (long lRest = pSet & (pSet - 1); lRest != CardSet.EMPTY; lRest &= lRest - 1)
+		{
+			int lOrdinal = Long.numberOfTrailingZeros(lRest);
+			boolean lBetter = pValues[lOrdinal] < pValues[lBest];
+			if (pHighest)
+			{
+				lBetter = pValues[lOrdinal] > pValues[lBest];
+			}
+			if (lBetter)
+			{
+				lBest = lOrdinal;
+			}
+		}
+		return lBest;
+	}
+}
@@ -14,6 +14,7 @@ public class RandomBiddingStrategy implements IBiddingStrategy
 {
 	
 	private double aPassFrequency;
+	private Random aRandom = new Random();
 	
 	/**
 	 * Builds a robot that passes 50% of the time and bids randomly otherwise.
@@ -24,6 +25,18 @@ public class RandomBiddingStrategy implements IBiddingStrategy
 		aPassFrequency = lFiftyPercent;
 	}
 	
+	/**
+	 * Builds a robot that passes 50% of the time and bids randomly otherwise,
+	 * drawing its decisions from pRandom.
+	 * @param pRandom The random number generator to use.
+	 * @pre pRandom != null
+	 */
+	public RandomBiddingStrategy(Random pRandom)
+	{
+		this();
+		aRandom = pRandom;
+	}
+	
 	/** 
 	 * Builds a robot that passes the specified percentage number of the time.
 	 * @param pPassFrequency A percentage point (e.g., 50 for 50%) of the time the robot 
@@ -44,7 +57,7 @@ public class RandomBiddingStrategy implements IBiddingStrategy
 	public Bid selectBid(Bid[] pPreviousBids, Hand pHand)
 	{		
 		final int lHighestBid = 24;
-		Random r = new Random();
+		Random r = aRandom;
 		
 		// Returns passing bid with probability aPassFrequency
 		if (r.nextDouble() <= this.aPassFrequency)
@@ -1,5 +1,7 @@
 package comp303.fivehundred.ai;
 
+import java.util.Random;
+
 import comp303.fivehundred.model.Bid;
 import comp303.fivehundred.model.Hand;
 import comp303.fivehundred.util.CardList;
@@ -11,6 +13,26 @@ import comp303.fivehundred.util.CardList;
 */
 public class RandomCardExchangeStrategy implements ICardExchangeStrategy
 {
+	private final Random aRandom;
+	
+	/**
+	 * Creates a strategy that uses its own random number generator.
+	 */
+	public RandomCardExchangeStrategy()
+	{
+		this(new Random());
+	}
+	
+	/**
+	 * Creates a strategy that draws its choices from pRandom.
+	 * @param pRandom The random number generator to use.
+	 * @pre pRandom != null
+	 */
+	public RandomCardExchangeStrategy(Random pRandom)
+	{
+		aRandom = pRandom;
+	}
+	
 	@Override
 	public CardList selectCardsToDiscard(Bid[] pBids, int pIndex, Hand pHand)
 	{	
@@ -20,7 +42,7 @@ public class RandomCardExchangeStrategy implements ICardExchangeStrategy
 		//Keeps selecting cards until 6 are chosen, ignoring duplicates
 		while (!(lList.size() == lSize))
 		{
-			lList.add(pHand.random());
+			lList.add(pHand.random(aRandom));
 		}
 
 		return lList;
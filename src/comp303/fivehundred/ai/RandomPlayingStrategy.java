@@ -1,8 +1,11 @@
 package comp303.fivehundred.ai;
 
+import java.util.Random;
+
 import comp303.fivehundred.model.Hand;
 import comp303.fivehundred.model.Trick;
 import comp303.fivehundred.util.Card;
+import comp303.fivehundred.util.CardSet;
 
 /**
  * If leading, picks a card at random except a joker if the contract is in no trump.
@@ -14,18 +17,39 @@ import comp303.fivehundred.util.Card;
  */
 public class RandomPlayingStrategy implements IPlayingStrategy
 {
+	private final Random aRandom;
+	
+	/**
+	 * Creates a strategy that uses its own random number generator.
+	 */
+	public RandomPlayingStrategy()
+	{
+		this(new Random());
+	}
+	
+	/**
+	 * Creates a strategy that draws its choices from pRandom.
+	 * @param pRandom The random number generator to use.
+	 * @pre pRandom != null
+	 */
+	public RandomPlayingStrategy(Random pRandom)
+	{
+		aRandom = pRandom;
+	}
+	
 	@Override
 	public Card play(Trick pTrick, Hand pHand)
 	{
+		long lLegal;
 		//check if leading
 		if (pTrick.size() == 0)
 		{
-			if (pTrick.getTrumpSuit() == null)
-			{
-				return pHand.canLead(true).random();  //select a legal lead card in no trump at random
-			}
-			return pHand.canLead(false).random();  //select a legal lead card in trump at random
+			lLegal = pHand.leadMask(pTrick.getTrumpSuit() == null);  //legal lead cards, no jokers in no trump
+		}
+		else
+		{
+			lLegal = pHand.playableMask(pTrick.getSuitLed(), pTrick.getTrumpSuit());  //legal cards to follow
 		}
-		return pHand.playableCards(pTrick.getSuitLed(), pTrick.getTrumpSuit()).random();  //select a legal card to play at random
+		return CardSet.get(lLegal, aRandom.nextInt(CardSet.size(lLegal)));  //select a legal card to play at random
 	}
 }
@@ -1,8 +1,7 @@
 package comp303.fivehundred.ai;
 
-import java.util.Observer;
-
 import comp303.fivehundred.engine.GameEngine;
+import comp303.fivehundred.engine.GameListener;
 import comp303.fivehundred.model.Bid;
 import comp303.fivehundred.model.Hand;
 import comp303.fivehundred.model.Player;
@@ -22,7 +21,7 @@ public class RobotPlayer extends Player implements IRobotPlayer
 	private IBiddingStrategy aBiddingStrategy;
 	private ICardExchangeStrategy aCardExchangeStrategy;
 	private IPlayingStrategy aPlayingStrategy;
-	private boolean aIsAdvanced;
+	private AIParameters aParameters = AIParameters.DEFAULTS;
 	
 	/**
 	 * Creates a new Robot player.
@@ -32,7 +31,6 @@ public class RobotPlayer extends Player implements IRobotPlayer
 	public RobotPlayer(String pName)
 	{
 		super(pName);
-		aIsAdvanced = false;
 	}
 
 	@Override
@@ -53,35 +51,47 @@ public class RobotPlayer extends Player implements IRobotPlayer
 		return aPlayingStrategy.play(pTrick, pHand);
 	}
 
+	@Override
+	public void setParameters(AIParameters pParameters)
+	{
+		aParameters = pParameters;
+	}
+
 	@Override
 	public void setAiLevel(int pLevel, GameEngine pEngine)
 	{
-		if (aIsAdvanced)
+		// Strategies that follow the game are listening to the engine.
+		if (aPlayingStrategy instanceof GameListener)
 		{
-			pEngine.deleteObserver((Observer) aPlayingStrategy);
-			aIsAdvanced = false;
+			pEngine.removeListener((GameListener) aPlayingStrategy);
 		}
 		switch (pLevel)
 		{
 			case GameEngine.RANDOM_AI:
-				aBiddingStrategy = new RandomBiddingStrategy();
-				aCardExchangeStrategy = new RandomCardExchangeStrategy();
-				aPlayingStrategy = new RandomPlayingStrategy();
+				aBiddingStrategy = new RandomBiddingStrategy(pEngine.getRandom());
+				aCardExchangeStrategy = new RandomCardExchangeStrategy(pEngine.getRandom());
+				aPlayingStrategy = new RandomPlayingStrategy(pEngine.getRandom());
 				break;
 			case GameEngine.BASIC_AI:
-				aBiddingStrategy = new BasicBiddingStrategy();
+				aBiddingStrategy = new BasicBiddingStrategy(aParameters);
 				aCardExchangeStrategy = new BasicCardExchangeStrategy();
-				aPlayingStrategy = new BasicPlayingStrategy();
+				aPlayingStrategy = new BasicPlayingStrategy(pEngine.getRandom());
 				break;
 			case GameEngine.ADVANCED_AI:
-				aIsAdvanced = true;
-				aBiddingStrategy = new AdvancedBiddingStrategy();
+				aBiddingStrategy = new AdvancedBiddingStrategy(HandEvaluator.shared(), aParameters);
 				aCardExchangeStrategy = new AdvancedCardExchangeStrategy();
-				aPlayingStrategy = new AdvancedPlayingStrategy();
+				aPlayingStrategy = new AdvancedPlayingStrategy(pEngine.getRandom(), aParameters);
+				
+				pEngine.addListener((GameListener) aPlayingStrategy);
+				break;
+			case GameEngine.MONTE_CARLO_AI:
+				aBiddingStrategy = new SimulationBiddingStrategy(pEngine.getRandom());
+				aCardExchangeStrategy = new AdvancedCardExchangeStrategy(pEngine.getRandom());
+				aPlayingStrategy = new MonteCarloPlayingStrategy(pEngine.getRandom());
 				
-				pEngine.addObserver((Observer) aPlayingStrategy);
+				pEngine.addListener((GameListener) aPlayingStrategy);
 				break;
-			default: assert pLevel > 0 && pLevel < 4;
+			default: assert pLevel > 0 && pLevel <= GameEngine.MONTE_CARLO_AI;
 		}
 		
 	}
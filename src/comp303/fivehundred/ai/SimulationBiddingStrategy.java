@@ -0,0 +1,384 @@
+package comp303.fivehundred.ai;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import comp303.fivehundred.model.Bid;
+import comp303.fivehundred.model.Hand;
+import comp303.fivehundred.util.CardSet;
+import comp303.fivehundred.util.SplitMixRandom;
+
+/**
+ * Simulation bidding strategy. The strategy deals the 36 cards it cannot see to the three other players and the
+ * widow many times. On each deal and for each trump, it assumes it wins the contract: it takes the widow, discards its
+ * six least valuable cards, and plays the round out with the heuristic of PlayoutState. The tricks won give, for each
+ * of the 25 bids, the expected difference between the points of its team and the points of the other team. The
+ * strategy makes the legal bid with the best expectation, or passes if none is positive.
+ *
+ * The deals are played out in parallel on a ForkJoinPool, in batches. After each batch, the strategy stops as soon as
+ * the 95% confidence interval of the best bid is clear of the intervals of all the others, when it reaches its number
+ * of deals, or when it runs out of time. Without a time limit, the bid only depends on the random number generator of
+ * the strategy, whatever the number of threads. If the time runs out before a single deal is played out, the strategy
+ * bids like AdvancedBiddingStrategy instead.
+ *
+ * @author Jake Shamash
+ */
+public class SimulationBiddingStrategy implements IBiddingStrategy
+{
+	/**
+	 * The default maximum number of deals sampled per bid.
+	 */
+	public static final int DEFAULT_SAMPLES = 1000;
+
+	/**
+	 * The default number of deals between two checks of the confidence intervals.
+	 */
+	public static final int DEFAULT_BATCH = 100;
+
+	private static final int NUM_PLAYERS = 4;
+	private static final int HAND_SIZE = 10;
+	private static final int WIDOW_SIZE = 6;
+	private static final int TRICKS_PER_ROUND = 10;
+	private static final int NUM_OUTCOMES = TRICKS_PER_ROUND + 1;
+	private static final int NUM_BIDS = 25;
+	private static final int POINTS_PER_TRICK = 10; // Points scored by the opposition per trick won
+	private static final int SLAM_POINTS = 250;
+	private static final int SAMPLES_PER_TASK = 16;
+	private static final double CONFIDENCE_Z = 1.96;
+	private static final long NANOS_PER_MILLI = 1000000L;
+
+	// VALUES[bid index][tricks won by the team of the bidder] is the value of that outcome for the team of the bidder.
+	private static final int[][] VALUES = new int[NUM_BIDS][NUM_OUTCOMES];
+	private static final int[] TRUMP_STATES = new int[NUM_BIDS];
+
+	static
+	{
+		for (int lIndex = 0; lIndex < NUM_BIDS; lIndex++)
+		{
+			Bid lBid = new Bid(lIndex);
+			TRUMP_STATES[lIndex] = CardSet.trumpIndex(lBid.getSuit());
+			for (int lTricks = 0; lTricks < NUM_OUTCOMES; lTricks++)
+			{
+				int lPoints = -lBid.getScore();
+				if (lTricks >= lBid.getTricksBid())
+				{
+					lPoints = lBid.getScore();
+					if (lTricks == TRICKS_PER_ROUND && lBid.getScore() <= SLAM_POINTS)
+					{
+						lPoints = SLAM_POINTS;
+					}
+				}
+				VALUES[lIndex][lTricks] = lPoints - POINTS_PER_TRICK * (TRICKS_PER_ROUND - lTricks);
+			}
+		}
+	}
+
+	private final Random aRandom;
+	private final int aSamples;
+	private final int aBatch;
+	private final long aTimeLimit; // In nanoseconds, 0 for no limit
+	private final ForkJoinPool aPool;
+	private final IBiddingStrategy aFallback = new AdvancedBiddingStrategy();
+
+	private int aLastSamples;
+
+	/**
+	 * Creates a strategy with the default budget, running on the common pool.
+	 */
+	public SimulationBiddingStrategy()
+	{
+		this(new SplitMixRandom());
+	}
+
+	/**
+	 * Creates a strategy with the default budget, running on the common pool.
+	 *
+	 * @param pRandom
+	 *            The random number generator to use.
+	 * @pre pRandom != null
+	 */
+	public SimulationBiddingStrategy(Random pRandom)
+	{
+		this(pRandom, DEFAULT_SAMPLES, DEFAULT_BATCH, 0, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Creates a strategy with a given budget per bid.
+	 *
+	 * @param pRandom
+	 *            The random number generator to use.
+	 * @param pSamples
+	 *            The maximum number of deals to sample per bid.
+	 * @param pBatch
+	 *            The number of deals sampled between two checks of the confidence intervals.
+	 * @param pTimeLimitMillis
+	 *            The time after which a bid stops sampling, in milliseconds. 0 for no limit.
+	 * @param pPool
+	 *            The pool on which the deals are played out.
+	 * @pre pRandom != null && pPool != null
+	 * @pre pSamples > 0 && pBatch > 0 && pTimeLimitMillis >= 0
+	 */
+	public SimulationBiddingStrategy(Random pRandom, int pSamples, int pBatch, long pTimeLimitMillis, ForkJoinPool pPool)
+	{
+		assert pRandom != null && pPool != null;
+		assert pSamples > 0 && pBatch > 0 && pTimeLimitMillis >= 0;
+		aRandom = pRandom;
+		aSamples = pSamples;
+		aBatch = pBatch;
+		aTimeLimit = pTimeLimitMillis * NANOS_PER_MILLI;
+		aPool = pPool;
+	}
+
+	@Override
+	public Bid selectBid(Bid[] pPreviousBids, Hand pHand)
+	{
+		Bid lMax = Bid.max(pPreviousBids);
+		int lFirstLegal = 0;
+		if (!lMax.isPass())
+		{
+			lFirstLegal = lMax.toIndex() + 1;
+		}
+		aLastSamples = 0;
+		if (lFirstLegal >= NUM_BIDS || pHand.size() != HAND_SIZE)
+		{
+			return new Bid();
+		}
+
+		// The bidder is seat 0 and leads; the other seats hold 10 unknown cards each and the rest is the widow.
+		long lUnseen = CardSet.ALL & ~pHand.getMask();
+		int[] lSizes = {0, HAND_SIZE, HAND_SIZE, HAND_SIZE};
+		long[] lVoids = new long[NUM_PLAYERS];
+		Simulation lSimulation = new Simulation(pHand.getMask(), new DealSampler(lUnseen, lSizes, lVoids), aRandom.nextLong(),
+				System.nanoTime());
+
+		long[] lOutcomes = new long[CardSet.NUM_TRUMP_STATES * NUM_OUTCOMES];
+		int lBest = -1;
+		int lNext = 0; // The number of the first deal of the next batch
+		boolean lDone = false;
+		while (!lDone)
+		{
+			int lLast = Math.min(lNext + aBatch, aSamples);
+			long[] lBatch = aPool.invoke(new Playouts(lSimulation, lNext, lLast));
+			for (int i = 0; i < lOutcomes.length; i++)
+			{
+				lOutcomes[i] += lBatch[i];
+			}
+			lNext = lLast;
+			// A batch cut short by the time limit plays out fewer deals than it covers.
+			aLastSamples = samples(lOutcomes);
+			lBest = best(lOutcomes, lFirstLegal);
+			lDone = lNext >= aSamples || lSimulation.outOfTime() || separated(lOutcomes, lFirstLegal, lBest);
+		}
+		if (aLastSamples == 0)
+		{
+			Bid lBid = aFallback.selectBid(pPreviousBids, pHand);
+			if (lBid.isPass() || lBid.compareTo(lMax) > 0)
+			{
+				return lBid;
+			}
+			return new Bid();
+		}
+		if (lBest < 0)
+		{
+			return new Bid();
+		}
+		return new Bid(lBest);
+	}
+
+	/**
+	 * @return The number of deals the last call to selectBid() played out.
+	 */
+	public int getLastSamples()
+	{
+		return aLastSamples;
+	}
+
+	/*
+	 * The number of deals played out: each deal adds one outcome per trump state.
+	 */
+	private static int samples(long[] pOutcomes)
+	{
+		long lCount = 0;
+		for (int lTricks = 0; lTricks < NUM_OUTCOMES; lTricks++)
+		{
+			lCount += pOutcomes[lTricks];
+		}
+		return (int) lCount;
+	}
+
+	/*
+	 * The legal bid with the best mean value, or -1 if no bid has a positive mean value, in which case passing is
+	 * best.
+	 */
+	private static int best(long[] pOutcomes, int pFirstLegal)
+	{
+		int lBest = -1;
+		double lBestMean = 0;
+		for (int lIndex = pFirstLegal; lIndex < NUM_BIDS; lIndex++)
+		{
+			double lMean = mean(pOutcomes, lIndex);
+			if (lMean > lBestMean)
+			{
+				lBest = lIndex;
+				lBestMean = lMean;
+			}
+		}
+		return lBest;
+	}
+
+	/*
+	 * True if the confidence interval of pBest lies above the interval of every other choice, including the pass,
+	 * whose value is 0.
+	 */
+	private static boolean separated(long[] pOutcomes, int pFirstLegal, int pBest)
+	{
+		double lLower = 0;
+		if (pBest >= 0)
+		{
+			lLower = mean(pOutcomes, pBest) - CONFIDENCE_Z * standardError(pOutcomes, pBest);
+			if (lLower <= 0)
+			{
+				return false;
+			}
+		}
+		for (int lIndex = pFirstLegal; lIndex < NUM_BIDS; lIndex++)
+		{
+			if (lIndex != pBest && mean(pOutcomes, lIndex) + CONFIDENCE_Z * standardError(pOutcomes, lIndex) >= lLower)
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static double mean(long[] pOutcomes, int pIndex)
+	{
+		int lOffset = TRUMP_STATES[pIndex] * NUM_OUTCOMES;
+		long lCount = 0;
+		double lSum = 0;
+		for (int lTricks = 0; lTricks < NUM_OUTCOMES; lTricks++)
+		{
+			lCount += pOutcomes[lOffset + lTricks];
+			lSum += pOutcomes[lOffset + lTricks] * (double) VALUES[pIndex][lTricks];
+		}
+		if (lCount == 0)
+		{
+			return 0;
+		}
+		return lSum / lCount;
+	}
+
+	private static double standardError(long[] pOutcomes, int pIndex)
+	{
+		int lOffset = TRUMP_STATES[pIndex] * NUM_OUTCOMES;
+		double lMean = mean(pOutcomes, pIndex);
+		long lCount = 0;
+		double lSquares = 0;
+		for (int lTricks = 0; lTricks < NUM_OUTCOMES; lTricks++)
+		{
+			double lDeviation = VALUES[pIndex][lTricks] - lMean;
+			lCount += pOutcomes[lOffset + lTricks];
+			lSquares += pOutcomes[lOffset + lTricks] * lDeviation * lDeviation;
+		}
+		if (lCount < 2)
+		{
+			return Double.POSITIVE_INFINITY;
+		}
+		return Math.sqrt(lSquares / (lCount - 1) / lCount);
+	}
+
+	/*
+	 * Everything the playouts of one bid share. Immutable once created.
+	 */
+	private final class Simulation
+	{
+		private final long aHand;
+		private final DealSampler aSampler; // Never used directly: each task samples with its own copy
+		private final long aSeed;
+		private final long aStart; // System.nanoTime() when the bid started
+
+		Simulation(long pHand, DealSampler pSampler, long pSeed, long pStart)
+		{
+			aHand = pHand;
+			aSampler = pSampler;
+			aSeed = pSeed;
+			aStart = pStart;
+		}
+
+		boolean outOfTime()
+		{
+			return aTimeLimit > 0 && System.nanoTime() - aStart > aTimeLimit;
+		}
+	}
+
+	/*
+	 * Plays out the deals numbered pFirst to pLast - 1 with every trump, splitting the range between several tasks if
+	 * it is large. Returns, for every trump state and number of tricks, the number of deals where the team of the
+	 * bidder took that many tricks. Deal number i is always sampled with the same seed, so the result does not depend
+	 * on how the range was split.
+	 */
+	private static final class Playouts extends RecursiveTask<long[]>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final Simulation aSimulation;
+		private final int aFirst;
+		private final int aLast;
+
+		Playouts(Simulation pSimulation, int pFirst, int pLast)
+		{
+			aSimulation = pSimulation;
+			aFirst = pFirst;
+			aLast = pLast;
+		}
+
+		@Override
+		protected long[] compute()
+		{
+			if (aLast - aFirst > SAMPLES_PER_TASK)
+			{
+				int lMiddle = (aFirst + aLast) >>> 1;
+				Playouts lLeft = new Playouts(aSimulation, aFirst, lMiddle);
+				lLeft.fork();
+				long[] lOutcomes = new Playouts(aSimulation, lMiddle, aLast).compute();
+				long[] lLeftOutcomes = lLeft.join();
+				for (int i = 0; i < lOutcomes.length; i++)
+				{
+					lOutcomes[i] += lLeftOutcomes[i];
+				}
+				return lOutcomes;
+			}
+
+			long[] lOutcomes = new long[CardSet.NUM_TRUMP_STATES * NUM_OUTCOMES];
+			DealSampler lSampler = aSimulation.aSampler.copy();
+			SplitMixRandom lRandom = new SplitMixRandom();
+			PlayoutState lDeal = new PlayoutState();
+			PlayoutState lState = new PlayoutState();
+			for (int lSample = aFirst; lSample < aLast && !aSimulation.outOfTime(); lSample++)
+			{
+				lRandom.setSeed(SplitMixRandom.streamSeed(aSimulation.aSeed, lSample));
+				lDeal.reset(null, 0, 0, 0);
+				lSampler.sample(lRandom, lDeal);
+				long lWidow = CardSet.ALL & ~aSimulation.aHand;
+				for (int lSeat = 1; lSeat < NUM_PLAYERS; lSeat++)
+				{
+					lWidow &= ~lDeal.getHand(lSeat);
+				}
+				long lCards = aSimulation.aHand | lWidow;
+				for (int lTrumpState = 0; lTrumpState < CardSet.NUM_TRUMP_STATES; lTrumpState++)
+				{
+					lState.reset(CardSet.trumpOf(lTrumpState), 0, 0, 0);
+					lState.setHand(0, lCards & ~PlayoutState.weakest(lCards, lTrumpState, WIDOW_SIZE));
+					for (int lSeat = 1; lSeat < NUM_PLAYERS; lSeat++)
+					{
+						lState.setHand(lSeat, lDeal.getHand(lSeat));
+					}
+					lState.playOut();
+					lOutcomes[lTrumpState * NUM_OUTCOMES + lState.getTricks(0)]++;
+				}
+			}
+			return lOutcomes;
+		}
+	}
+}
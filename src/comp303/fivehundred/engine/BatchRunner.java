@@ -0,0 +1,400 @@
+package comp303.fivehundred.engine;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Plays a batch of automatic games from the command line, without a GUI, and streams the result of every game to a
+ * file in CSV or JSON Lines format (see ResultWriter). A summary table and the distributions of ShardedStatistics are
+ * printed when the output goes to a file.
+ *
+ * With --sprt or --interval, the batch stops as soon as a sequential test (see SequentialTest) compares the two
+ * partnerships at the error bounds given, and the decision and the games saved are printed.
+ *
+ * <pre>
+ * java comp303.fivehundred.engine.BatchRunner [options]
+ *   --seats T,T,T,T   the AI of each seat: random, basic, advanced or montecarlo (default basic,advanced,basic,advanced)
+ *   --names N,N,N,N   the names of the players (default: the AI and the seat number)
+ *   --games N         the number of games (default 10000)
+ *   --threads N       the number of worker threads (default: the number of processors)
+ *   --seed S          the seed of the tournament (default: the current time)
+ *   --format F        csv or json (default csv)
+ *   --output FILE     the file of the results, - for the standard output (default -)
+ *   --metrics N       print the timings of the engines to the standard error every N seconds, and at the end
+ *   --duplicate N     play boards of N tables, 2 or 4, with the same deals rotated, and print the paired margins;
+ *                     the number of games is rounded up to whole boards
+ *   --sprt M,H0,H1    stop early with an SPRT of the metric M (wins or score) between the values H0 and H1;
+ *                     the sequential tests cannot be combined with --duplicate
+ *   --interval M,T    stop early once the confidence interval of M excludes a tie, or fits within T of a tie
+ *   --alpha A         the error bound of the test: the probability of accepting H1 under H0 (default 0.05)
+ *   --beta B          the probability of accepting H0 under H1 in an SPRT (default 0.05)
+ *   --look N          the number of games between two updates of the test (default 100)
+ * </pre>
+ *
+ * @author Jake Shamash
+ */
+public final class BatchRunner
+{
+	private static final int NUM_PLAYERS = 4;
+	private static final int DEFAULT_GAMES = 10000;
+	private static final int EXIT_USAGE = 2;
+	private static final double DEFAULT_ERROR = 0.05;
+	private static final String STANDARD_OUTPUT = "-";
+	private static final String[] TYPE_NAMES = {"human", "random", "basic", "advanced", "montecarlo"};
+
+	private final int[] aTypes = {GameEngine.BASIC_AI, GameEngine.ADVANCED_AI, GameEngine.BASIC_AI, GameEngine.ADVANCED_AI};
+	private final String[] aNames = new String[NUM_PLAYERS];
+	private int aGames = DEFAULT_GAMES;
+	private int aThreads = Runtime.getRuntime().availableProcessors();
+	private long aSeed = System.nanoTime();
+	private ResultWriter.Format aFormat = ResultWriter.Format.CSV;
+	private String aOutput = STANDARD_OUTPUT;
+	private int aMetricsPeriod; // In seconds, 0 for no metrics
+	private int aTables = 1; // The tables of each board, 1 when the games are not duplicated
+	private String[] aTest; // The metric and the values of --sprt or --interval, or null
+	private SequentialTest aSequentialTest; // The test built from aTest, or null
+	private boolean aRatio; // True for --sprt, false for --interval
+	private double aAlpha = DEFAULT_ERROR;
+	private double aBeta = DEFAULT_ERROR;
+	private int aLook = SequentialTest.DEFAULT_LOOK;
+
+	/**
+	 * Reads the options of a batch.
+	 *
+	 * @param pArgs
+	 *            The command line arguments.
+	 * @throws IllegalArgumentException
+	 *             if an option is unknown, has no value or has an invalid value.
+	 */
+	public BatchRunner(String[] pArgs)
+	{
+		boolean lNamed = false;
+		for (int i = 0; i < pArgs.length; i += 2)
+		{
+			if (i + 1 >= pArgs.length)
+			{
+				throw new IllegalArgumentException("Missing value for " + pArgs[i]);
+			}
+			String lValue = pArgs[i + 1];
+			if ("--seats".equals(pArgs[i]))
+			{
+				String[] lSeats = split(lValue);
+				for (int j = 0; j < NUM_PLAYERS; j++)
+				{
+					aTypes[j] = parseType(lSeats[j]);
+				}
+			}
+			else if ("--names".equals(pArgs[i]))
+			{
+				System.arraycopy(split(lValue), 0, aNames, 0, NUM_PLAYERS);
+				lNamed = true;
+			}
+			else if ("--games".equals(pArgs[i]))
+			{
+				aGames = parsePositive(pArgs[i], lValue);
+			}
+			else if ("--threads".equals(pArgs[i]))
+			{
+				aThreads = parsePositive(pArgs[i], lValue);
+			}
+			else if ("--seed".equals(pArgs[i]))
+			{
+				aSeed = Long.parseLong(lValue);
+			}
+			else if ("--format".equals(pArgs[i]))
+			{
+				aFormat = ResultWriter.Format.valueOf(lValue.toUpperCase(Locale.ROOT));
+			}
+			else if ("--output".equals(pArgs[i]))
+			{
+				aOutput = lValue;
+			}
+			else if ("--metrics".equals(pArgs[i]))
+			{
+				aMetricsPeriod = parsePositive(pArgs[i], lValue);
+			}
+			else if ("--duplicate".equals(pArgs[i]))
+			{
+				aTables = parseTables(lValue);
+			}
+			else if ("--sprt".equals(pArgs[i]))
+			{
+				aTest = splitTest(lValue, 3);
+				aRatio = true;
+			}
+			else if ("--interval".equals(pArgs[i]))
+			{
+				aTest = splitTest(lValue, 2);
+				aRatio = false;
+			}
+			else if ("--alpha".equals(pArgs[i]))
+			{
+				aAlpha = parseProbability(pArgs[i], lValue);
+			}
+			else if ("--beta".equals(pArgs[i]))
+			{
+				aBeta = parseProbability(pArgs[i], lValue);
+			}
+			else if ("--look".equals(pArgs[i]))
+			{
+				aLook = parsePositive(pArgs[i], lValue);
+			}
+			else
+			{
+				throw new IllegalArgumentException("Unknown option " + pArgs[i]);
+			}
+		}
+		// Round up to whole boards, so that every game counts in the paired margins.
+		aGames = (aGames + aTables - 1) / aTables * aTables;
+		createTest();
+		if (!lNamed)
+		{
+			for (int i = 0; i < NUM_PLAYERS; i++)
+			{
+				aNames[i] = TYPE_NAMES[aTypes[i]] + i;
+			}
+		}
+	}
+
+	/**
+	 * Runs a batch of games.
+	 *
+	 * @param pArgs
+	 *            The command line arguments, described in the documentation of the class.
+	 */
+	public static void main(String[] pArgs)
+	{
+		BatchRunner lRunner;
+		try
+		{
+			lRunner = new BatchRunner(pArgs);
+		}
+		catch (IllegalArgumentException e)
+		{
+			System.err.println(e.getMessage());
+			System.err.println("Usage: BatchRunner [--seats T,T,T,T] [--names N,N,N,N] [--games N] [--threads N] [--seed S]"
+					+ " [--format csv|json] [--output FILE] [--metrics SECONDS] [--duplicate 2|4] [--sprt M,H0,H1]"
+					+ " [--interval M,T] [--alpha A] [--beta B] [--look N]");
+			System.exit(EXIT_USAGE);
+			return;
+		}
+		lRunner.run();
+	}
+
+	/**
+	 * Plays the games and writes their results.
+	 *
+	 * @return The merged statistics of the games.
+	 * @throws GameException
+	 *             if the output cannot be written or a game fails.
+	 */
+	public GameStatistics run()
+	{
+		boolean lToFile = !STANDARD_OUTPUT.equals(aOutput);
+		Tournament lTournament = new Tournament(aNames, aTypes, aThreads, aSeed);
+		lTournament.setDuplicate(aTables);
+		lTournament.setSequentialTest(aSequentialTest);
+		ShardedStatistics lDistributions = new ShardedStatistics();
+		lTournament.addListener(lDistributions);
+		final long lMillisPerSecond = 1000;
+		Metrics lMetrics = null;
+		Metrics.Format lMetricsFormat = Metrics.Format.TEXT;
+		if (aFormat == ResultWriter.Format.JSON)
+		{
+			lMetricsFormat = Metrics.Format.JSON;
+		}
+		Closeable lReporter = null;
+		if (aMetricsPeriod > 0)
+		{
+			lMetrics = new Metrics();
+			lTournament.setMetrics(lMetrics);
+		}
+		GameStatistics lStatistics;
+		try
+		{
+			Writer lWriter;
+			if (lToFile)
+			{
+				lWriter = new OutputStreamWriter(new FileOutputStream(aOutput), StandardCharsets.UTF_8);
+			}
+			else
+			{
+				lWriter = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+			}
+			ResultWriter lResults = new ResultWriter(new BufferedWriter(lWriter), aFormat);
+			try
+			{
+				// Started once the output is open, so that the finally block always stops it.
+				if (lMetrics != null)
+				{
+					lReporter = lMetrics.startReporting(System.err, aMetricsPeriod * lMillisPerSecond, lMetricsFormat);
+				}
+				lStatistics = lTournament.play(aGames, lResults);
+			}
+			finally
+			{
+				if (lReporter != null)
+				{
+					lReporter.close();
+				}
+				if (lToFile)
+				{
+					lResults.close();
+				}
+			}
+		}
+		catch (IOException e)
+		{
+			throw new GameException("Cannot write the results to " + aOutput, e);
+		}
+		if (lMetrics != null)
+		{
+			System.err.println(lMetrics.snapshot(lMetricsFormat));
+		}
+		if (lToFile)
+		{
+			lStatistics.printStatistics();
+			System.out.println();
+			lDistributions.getSnapshot().print(System.out);
+			if (lTournament.getDuplicateStatistics() != null)
+			{
+				System.out.println();
+				lTournament.getDuplicateStatistics().print(System.out);
+			}
+			lTournament.printPerformance();
+		}
+		if (aSequentialTest != null)
+		{
+			// Keep the standard output for the results when they go there.
+			PrintStream lOut = System.err;
+			if (lToFile)
+			{
+				lOut = System.out;
+			}
+			lOut.println(aSequentialTest);
+		}
+		return lStatistics;
+	}
+
+	private static String[] split(String pValue)
+	{
+		String[] lParts = pValue.split(",");
+		if (lParts.length != NUM_PLAYERS)
+		{
+			throw new IllegalArgumentException("Expected 4 comma-separated values: " + pValue);
+		}
+		return lParts;
+	}
+
+	private static int parseType(String pType)
+	{
+		// Humans cannot play a batch: start at the random AI.
+		for (int lType = GameEngine.RANDOM_AI; lType < TYPE_NAMES.length; lType++)
+		{
+			if (TYPE_NAMES[lType].equalsIgnoreCase(pType) || Integer.toString(lType).equals(pType))
+			{
+				return lType;
+			}
+		}
+		throw new IllegalArgumentException("Unknown AI type " + pType);
+	}
+
+	/**
+	 * @return The sequential test of the batch, or null if the batch always plays all its games.
+	 */
+	public SequentialTest getSequentialTest()
+	{
+		return aSequentialTest;
+	}
+
+	private void createTest()
+	{
+		if (aTest == null)
+		{
+			return;
+		}
+		if (aTables > 1)
+		{
+			// The tables of a board are correlated by design, and the tests assume independent games.
+			throw new IllegalArgumentException("--duplicate cannot be combined with --sprt or --interval");
+		}
+		SequentialTest.Metric lMetric;
+		try
+		{
+			lMetric = SequentialTest.Metric.valueOf(aTest[0].toUpperCase(Locale.ROOT));
+		}
+		catch (IllegalArgumentException e)
+		{
+			throw new IllegalArgumentException("Unknown metric " + aTest[0] + ": expected wins or score", e);
+		}
+		double lFirst = Double.parseDouble(aTest[1]);
+		if (!aRatio)
+		{
+			if (lFirst <= 0)
+			{
+				throw new IllegalArgumentException("--interval tolerance must be positive: " + aTest[1]);
+			}
+			aSequentialTest = SequentialTest.interval(lMetric, lFirst, aAlpha, aLook);
+			return;
+		}
+		double lSecond = Double.parseDouble(aTest[2]);
+		if (lFirst == lSecond || lMetric == SequentialTest.Metric.WINS && (!isProbability(lFirst) || !isProbability(lSecond)))
+		{
+			throw new IllegalArgumentException("--sprt needs two different values, between 0 and 1 for wins: "
+					+ aTest[1] + "," + aTest[2]);
+		}
+		aSequentialTest = SequentialTest.sprt(lMetric, lFirst, lSecond, aAlpha, aBeta, aLook);
+	}
+
+	private static String[] splitTest(String pValue, int pParts)
+	{
+		String[] lParts = pValue.split(",");
+		if (lParts.length != pParts)
+		{
+			throw new IllegalArgumentException("Expected " + pParts + " comma-separated values: " + pValue);
+		}
+		return lParts;
+	}
+
+	private static boolean isProbability(double pValue)
+	{
+		return pValue > 0 && pValue < 1;
+	}
+
+	private static double parseProbability(String pOption, String pValue)
+	{
+		double lValue = Double.parseDouble(pValue);
+		if (!isProbability(lValue))
+		{
+			throw new IllegalArgumentException(pOption + " must be between 0 and 1: " + pValue);
+		}
+		return lValue;
+	}
+
+	private static int parseTables(String pValue)
+	{
+		int lTables = Integer.parseInt(pValue);
+		if (lTables != 1 && lTables != 2 && lTables != NUM_PLAYERS)
+		{
+			throw new IllegalArgumentException("--duplicate must be 2 or 4: " + pValue);
+		}
+		return lTables;
+	}
+
+	private static int parsePositive(String pOption, String pValue)
+	{
+		int lValue = Integer.parseInt(pValue);
+		if (lValue <= 0)
+		{
+			throw new IllegalArgumentException(pOption + " must be positive: " + pValue);
+		}
+		return lValue;
+	}
+}
@@ -1,8 +1,10 @@
 package comp303.fivehundred.engine;
 
-import java.util.Observer;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 
-import comp303.fivehundred.logger.LogObserver;
+import comp303.fivehundred.logger.AsyncLogObserver;
 
 /**
  * Runs the game in automatic mode 10,000 times.
@@ -20,64 +22,105 @@ public final class Driver
 	
 	/**
 	 * Instantiates a GameEngine and simulates 10,000 games.
-	 * @param pArgs The command line arguments.
+	 * @param pArgs The command line arguments. If there are any, they are passed on to BatchRunner.
 	 */
 	public static void main(String[] pArgs)
 	{
+		if (pArgs.length > 0)
+		{
+			BatchRunner.main(pArgs);
+			return;
+		}
 		String[] lNames = {"BasicA",  "AdvancedA", "BasicB", "AdvancedB"};
 		int[] lTypes = {2, 3, 2, 3};
 		final int lNumberOfGames = 10000;
 		boolean lLog = false;   // Set to true to turn on logging.
 		
-		GameEngine game = new GameEngine(lNames, lTypes);
-		simulate(game, lNumberOfGames, lLog);	
+		if (lLog)
+		{
+			// Logged games must run one after the other so that the log stays readable.
+			GameEngine game = new GameEngine(lNames, lTypes);
+			simulate(game, lNumberOfGames, lLog);
+		}
+		else
+		{
+			Tournament lTournament = new Tournament(lNames, lTypes, Runtime.getRuntime().availableProcessors(),
+					System.nanoTime());
+			lTournament.play(lNumberOfGames).printStatistics();
+			lTournament.printPerformance();
+		}
 	}
 	
 	/**
-	 * Plays pGameNumber games in a row, adding and removing appropriate observers where needed.
-	 * Appropriate logging observers are added and removed as needed if logging is turned on.
+	 * Plays pGameNumber games in a row, adding and removing appropriate listeners where needed.
+	 * Appropriate logging listeners are added and removed as needed if logging is turned on. The log is formatted and
+	 * written to the standard error, where the SLF4J messages of LogObserver used to go, by the background thread of an
+	 * AsyncLogObserver. The messages are those of LogObserver, without the level prefix of the SLF4J backend.
 	 * @param pGame The GameEngine being used.
 	 * @param pGameNumber The number of games to be played.
 	 * @param pLog If true, logging is turned on.  Logging is off if false.
 	 */
 	public static void simulate(GameEngine pGame, int pGameNumber, boolean pLog)
 	{		
-		final int lNumberOfRounds = 10;
 		GameStatistics stats = new GameStatistics();
-		pGame.addObserver(stats);
-		Observer logger = new LogObserver();
+		pGame.addListener(stats);
+		AsyncLogObserver logger = null;
 		if (pLog)
 		{
-			pGame.addObserver(logger);
+			logger = new AsyncLogObserver(new OutputStreamWriter(System.err, StandardCharsets.UTF_8));
+			pGame.addListener(logger);
 		}
 		
 		for (int i = 0; i<pGameNumber; i++)
 		{
-			pGame.newGame();
+			playGame(pGame);
+		}
+		// Only remove our own listeners: advanced robots listen to the engine too.
+		pGame.removeListener(stats);
+		if (logger != null)
+		{
+			pGame.removeListener(logger);
+			try
+			{
+				logger.close();
+			}
+			catch (IOException e)
+			{
+				throw new GameException("Cannot write the log.", e);
+			}
+		}
+		
+		stats.printStatistics();
+	}
+	
+	/**
+	 * Plays one complete game on pGame, from newGame() until a team wins.
+	 * @param pGame The GameEngine being used.
+	 */
+	public static void playGame(GameEngine pGame)
+	{
+		final int lNumberOfRounds = 10;
+		pGame.newGame();
+		
+		while(!pGame.isGameOver())
+		{
+			pGame.deal();
+			pGame.bid();
 			
-			while(!pGame.isGameOver())
+			while (pGame.allPasses())
 			{
 				pGame.deal();
 				pGame.bid();
-				
-				while (pGame.allPasses())
-				{
-					pGame.deal();
-					pGame.bid();
-				}
-				
-				pGame.exchange();
-				
-				for (int j = 0; j<lNumberOfRounds; j++)
-				{
-					pGame.playTrick();
-				}
-				pGame.computeScore();
 			}
+			
+			pGame.exchange();
+			
+			for (int j = 0; j<lNumberOfRounds; j++)
+			{
+				pGame.playTrick();
+			}
+			pGame.computeScore();
 		}
-		pGame.deleteObservers();
-		
-		stats.printStatistics();
 	}
 	
 }
@@ -0,0 +1,231 @@
+package comp303.fivehundred.engine;
+
+import java.io.PrintStream;
+import java.util.Locale;
+
+/**
+ * The paired results of a duplicate tournament (see Tournament.setDuplicate()). Every board, a sequence of deals, is
+ * played at several tables with the deals rotated, so that each partnership holds the cards of the other one at some
+ * table. The margin of the partnership of seats 0 and 2 over a board, averaged over its tables, mostly cancels the luck
+ * of the cards, so it varies much less than the margin of a single game.
+ *
+ * Each worker of a tournament feeds its own DuplicateStatistics, and plays all the tables of a board in a row; the
+ * statistics of the workers are merged at the end.
+ *
+ * @author Jake Shamash
+ */
+public class DuplicateStatistics extends GameAdapter
+{
+	private static final double CONFIDENCE_95 = 1.96;
+
+	private final int aTables;
+	private final Margin aBoardWins = new Margin();
+	private final Margin aBoardScores = new Margin();
+	private final Margin aGameWins = new Margin();
+	private final Margin aGameScores = new Margin();
+	private int aTablesPlayed; // The tables of the current board already played
+	private double aWins; // The win margin of the current board so far
+	private double aScores; // The score margin of the current board so far
+
+	/**
+	 * Creates empty statistics.
+	 *
+	 * @param pTables
+	 *            The number of tables of each board.
+	 * @pre pTables > 0
+	 */
+	public DuplicateStatistics(int pTables)
+	{
+		assert pTables > 0;
+		aTables = pTables;
+	}
+
+	@Override
+	public void onGameOver(GameEngine pEngine, int pWinner)
+	{
+		int lWin = 1;
+		if (pWinner % 2 != 0)
+		{
+			lWin = -1;
+		}
+		int lScore = pEngine.getGameScore(0) - pEngine.getGameScore(1);
+		aGameWins.add(lWin);
+		aGameScores.add(lScore);
+		aWins += lWin;
+		aScores += lScore;
+		aTablesPlayed++;
+		if (aTablesPlayed == aTables)
+		{
+			aBoardWins.add(aWins / aTables);
+			aBoardScores.add(aScores / aTables);
+			aTablesPlayed = 0;
+			aWins = 0;
+			aScores = 0;
+		}
+	}
+
+	/**
+	 * Adds the boards of pStatistics to these statistics.
+	 *
+	 * @param pStatistics
+	 *            The statistics of a worker, with the same number of tables.
+	 * @pre pStatistics.getTables() == getTables()
+	 */
+	public synchronized void merge(DuplicateStatistics pStatistics)
+	{
+		assert pStatistics.aTables == aTables;
+		aBoardWins.merge(pStatistics.aBoardWins);
+		aBoardScores.merge(pStatistics.aBoardScores);
+		aGameWins.merge(pStatistics.aGameWins);
+		aGameScores.merge(pStatistics.aGameScores);
+	}
+
+	/**
+	 * @return The number of tables of each board.
+	 */
+	public int getTables()
+	{
+		return aTables;
+	}
+
+	/**
+	 * @return The number of complete boards played.
+	 */
+	public synchronized long getBoards()
+	{
+		return aBoardWins.aCount;
+	}
+
+	/**
+	 * @return The average over the boards of the games won by seats 0 and 2 minus the games won by seats 1 and 3, per
+	 *         table: between -1 and 1.
+	 */
+	public synchronized double getWinMargin()
+	{
+		return aBoardWins.getMean();
+	}
+
+	/**
+	 * @return The standard error of getWinMargin().
+	 */
+	public synchronized double getWinMarginError()
+	{
+		return aBoardWins.getStandardError();
+	}
+
+	/**
+	 * @return The average over the boards of the final score of seats 0 and 2 minus that of seats 1 and 3, per table.
+	 */
+	public synchronized double getScoreMargin()
+	{
+		return aBoardScores.getMean();
+	}
+
+	/**
+	 * @return The standard error of getScoreMargin().
+	 */
+	public synchronized double getScoreMarginError()
+	{
+		return aBoardScores.getStandardError();
+	}
+
+	/**
+	 * @return The ratio of the variance of the win margin if the games had independent deals to its variance with
+	 *         paired boards: the number of times more games an ordinary tournament needs for the same precision. It is
+	 *         infinite when the boards all have the same margin.
+	 */
+	public synchronized double getWinVarianceReduction()
+	{
+		return reduction(aGameWins, aBoardWins);
+	}
+
+	/**
+	 * @return The ratio of the variance of the score margin if the games had independent deals to its variance with
+	 *         paired boards.
+	 */
+	public synchronized double getScoreVarianceReduction()
+	{
+		return reduction(aGameScores, aBoardScores);
+	}
+
+	/**
+	 * Prints the margins of the partnerships with their 95% confidence intervals.
+	 *
+	 * @param pOut
+	 *            The stream to print to.
+	 */
+	public synchronized void print(PrintStream pOut)
+	{
+		pOut.printf(Locale.ROOT, "Duplicate: %d boards of %d tables%n", getBoards(), aTables);
+		pOut.printf(Locale.ROOT, "%-14s %+9.3f +/- %7.3f   variance reduced %.1fx%n", "Win margin", getWinMargin(),
+				CONFIDENCE_95 * getWinMarginError(), getWinVarianceReduction());
+		pOut.printf(Locale.ROOT, "%-14s %+9.1f +/- %7.1f   variance reduced %.1fx%n", "Score margin",
+				getScoreMargin(), CONFIDENCE_95 * getScoreMarginError(), getScoreVarianceReduction());
+	}
+
+	// The variance of the mean of the games, as if they were independent, over the variance of the mean of the boards.
+	private double reduction(Margin pGames, Margin pBoards)
+	{
+		if (pBoards.getVariance() == 0 && pGames.getVariance() == 0)
+		{
+			return 1;
+		}
+		if (pBoards.getVariance() == 0)
+		{
+			return Double.POSITIVE_INFINITY;
+		}
+		return pGames.getVariance() / pGames.aCount / (pBoards.getVariance() / pBoards.aCount);
+	}
+
+	/**
+	 * The count, sum and sum of squares of a margin.
+	 */
+	private static final class Margin
+	{
+		private long aCount;
+		private double aSum;
+		private double aSumOfSquares;
+
+		void add(double pValue)
+		{
+			aCount++;
+			aSum += pValue;
+			aSumOfSquares += pValue * pValue;
+		}
+
+		void merge(Margin pMargin)
+		{
+			aCount += pMargin.aCount;
+			aSum += pMargin.aSum;
+			aSumOfSquares += pMargin.aSumOfSquares;
+		}
+
+		double getMean()
+		{
+			if (aCount == 0)
+			{
+				return 0;
+			}
+			return aSum / aCount;
+		}
+
+		// The unbiased sample variance.
+		double getVariance()
+		{
+			if (aCount < 2)
+			{
+				return 0;
+			}
+			return Math.max(0, (aSumOfSquares - aSum * aSum / aCount) / (aCount - 1));
+		}
+
+		double getStandardError()
+		{
+			if (aCount == 0)
+			{
+				return 0;
+			}
+			return Math.sqrt(getVariance() / aCount);
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package comp303.fivehundred.engine;
+
+import comp303.fivehundred.model.Bid;
+import comp303.fivehundred.util.Card;
+
+/**
+ * A GameListener that ignores every event. Subclasses override only the events they need.
+ * 
+ * @author Jake Shamash
+ */
+public abstract class GameAdapter implements GameListener
+{
+	@Override
+	public void onNewGame(GameEngine pEngine, int pDealer)
+	{
+	}
+
+	@Override
+	public void onDeal(GameEngine pEngine, int pDealer)
+	{
+	}
+
+	@Override
+	public void onBid(GameEngine pEngine, int pPlayer, Bid pBid)
+	{
+	}
+
+	@Override
+	public void onContract(GameEngine pEngine, int pContractHolder, Bid pContract)
+	{
+	}
+
+	@Override
+	public void onExchange(GameEngine pEngine, int pContractHolder)
+	{
+	}
+
+	@Override
+	public void onCardPlayed(GameEngine pEngine, int pPlayer, Card pCard)
+	{
+	}
+
+	@Override
+	public void onTrickEnd(GameEngine pEngine, int pWinner)
+	{
+	}
+
+	@Override
+	public void onScore(GameEngine pEngine, int pContractHolder, boolean pContractMade)
+	{
+	}
+
+	@Override
+	public void onGameOver(GameEngine pEngine, int pWinner)
+	{
+	}
+}
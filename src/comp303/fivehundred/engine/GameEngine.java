@@ -1,11 +1,13 @@
 package comp303.fivehundred.engine;
 
 import java.util.ArrayList;
-import java.util.Observable;
+import java.util.Arrays;
 import java.util.Random;
 
+import comp303.fivehundred.ai.AIParameters;
 import comp303.fivehundred.ai.RobotPlayer;
 import comp303.fivehundred.gui.GameObserver;
+import comp303.fivehundred.logger.RoundRecord;
 import comp303.fivehundred.model.Bid;
 import comp303.fivehundred.model.Hand;
 import comp303.fivehundred.model.HumanPlayer;
@@ -14,36 +16,34 @@ import comp303.fivehundred.model.Trick;
 import comp303.fivehundred.util.Card;
 import comp303.fivehundred.util.Card.Suit;
 import comp303.fivehundred.util.CardList;
+import comp303.fivehundred.util.CardSet;
 import comp303.fivehundred.util.Deck;
+import comp303.fivehundred.util.SplitMixRandom;
 
 /**
  * An engine for holding game state and running high-level game methods.
  * 
  * @author Jake Shamash
  */
-public class GameEngine extends Observable
+public class GameEngine
 {
-	/* Constants used to indicate to observers which type of event is taking place */
-	public static final int NEW_GAME_EVENT = 0;
-	public static final int DEAL_EVENT = 1;
-	public static final int BID_EVENT = 2;
-	public static final int EXCHANGE_EVENT = 3;
-	public static final int PLAY_EVENT = 4;
-	public static final int SCORE_EVENT = 5;
-	public static final int GAME_OVER_EVENT = 6;
-	public static final int SINGLE_PLAY_EVENT = 7;
-
 	public static final int HUMAN_PLAYER = 0;
 	public static final int RANDOM_AI = 1;
 	public static final int BASIC_AI = 2;
 	public static final int ADVANCED_AI = 3;
+	public static final int MONTE_CARLO_AI = 4;
 
 	private static final int NUM_PLAYERS = 4;
 
 	private Player[] aPlayers; // Players in this game
 	private String[] aAiLevels;
 	private Trick aCurrentTrick; // Current trick
+	private Trick aTrick; // The trick object reused by every trick, so that the current trick is null between games
 	private Deck aDeck; // Deck for this game
+	private boolean aDuplicate; // True when the deals come from aDealDeck, see setDuplicateDeals()
+	private SplitMixRandom aDealRandom; // The generator of the duplicate deals
+	private Deck aDealDeck; // The deck of the duplicate deals
+	private int aRotation; // The seat that receives the first hand of the duplicate deals
 	private int aTurn; // Index of player taking turn
 	private int aTrickWinner; // Index of last player to win a trick
 	private int aDealer; // Index of current dealer
@@ -54,9 +54,16 @@ public class GameEngine extends Observable
 	private int aTricksPlayed; // # Tricks played in this game
 	private boolean aContractMade; // Set to true when contractors make their contract.
 	private Card aLastCardPlayed; // The last card played
+	private final Random aRandom; // Source of all randomness in this engine and its robot players
+	private RoundRecord aReplay; // When not null, the deal and the decisions of the players come from this record
+	private int aReplayPlays; // The number of plays of aReplay already made
+	private Metrics aMetrics; // Null when the engine is not instrumented
 
 	private ArrayList<GameObserver> aObservers = new ArrayList<GameObserver>();
 
+	// Copy-on-write: the array is replaced, never modified, so events are dispatched without locking.
+	private volatile GameListener[] aListeners = new GameListener[0];
+
 	/**
 	 * Constructs a game engine from data about the players playing the game. Each integer in pTypes can have one of the
 	 * following values:
@@ -64,6 +71,7 @@ public class GameEngine extends Observable
 	 * 1 - Random AI
 	 * 2 - Basic AI
 	 * 3 - Advanced AI
+	 * 4 - Monte Carlo AI
 	 * 
 	 * @param pNames
 	 *            An array containing the 4 player names. Players 0 and 2 form one team, while players 1 and 3 form the
@@ -72,13 +80,33 @@ public class GameEngine extends Observable
 	 *            An array containing the types of the 4 players.
 	 * @pre pNames contains exactly 4 elements.
 	 * @pre pTypes contains exactly 4 elements.
-	 * @pre Every integer in pTypes is a value between 0 and 2.
+	 * @pre Every integer in pTypes is a value between 0 and 4.
 	 */
 	public GameEngine(String[] pNames, int[] pTypes)
+	{
+		this(pNames, pTypes, new SplitMixRandom());
+	}
+
+	/**
+	 * Constructs a game engine whose deals, dealer choice and robot decisions are all drawn from pRandom. See
+	 * GameEngine(String[], int[]) for the meaning of pNames and pTypes.
+	 * 
+	 * @param pNames
+	 *            An array containing the 4 player names.
+	 * @param pTypes
+	 *            An array containing the types of the 4 players.
+	 * @param pRandom
+	 *            The random number generator of this engine. It is owned by the engine from now on.
+	 * @pre pRandom != null
+	 */
+	public GameEngine(String[] pNames, int[] pTypes, Random pRandom)
 	{
 		assert pNames.length == NUM_PLAYERS;
 		assert pTypes.length == NUM_PLAYERS;
+		assert pRandom != null;
 
+		aRandom = pRandom;
+		aDeck = new Deck(aRandom);
 		aPlayers = new Player[NUM_PLAYERS];
 		aAiLevels = new String[NUM_PLAYERS];
 
@@ -108,54 +136,106 @@ public class GameEngine extends Observable
 		}
 
 		aCurrentTrick = null;
-		aDealer = (new Random()).nextInt(3); // Pick a random dealer to start
+		if (aReplay == null && aDuplicate)
+		{
+			aDealer = (aDealRandom.nextInt(NUM_PLAYERS) + aRotation) % NUM_PLAYERS;
+		}
+		else if (aReplay == null)
+		{
+			aDealer = aRandom.nextInt(3); // Pick a random dealer to start
+		}
+		else
+		{
+			aDealer = aReplay.getDealer();
+		}
 		aContract = null;
 		aContractHolder = -1;
 		aTricksPlayed = 0;
 
-		setChanged();
-		notifyObservers(NEW_GAME_EVENT);
+		if (aMetrics != null)
+		{
+			aMetrics.increment(Metrics.Counter.GAMES);
+		}
+		fireNewGame();
 	}
 
 	/**
-	 * Creates a new deck, deals a hand to each of the players, and sets aside the widow.
+	 * Shuffles the deck, deals a hand to each of the players, and sets aside the widow. When replaying, deals the cards
+	 * of the record instead; with duplicate deals, deals the next deal of the duplicate deck, rotated. The hands and the
+	 * widow of the previous round are emptied and refilled rather than reallocated.
 	 */
 	public void deal()
 	{
 		final int lCardsInHand = 10;
+		long lStart = startTimer();
+
+		if (aReplay != null)
+		{
+			aDealer = aReplay.getDealer();
+			aReplayPlays = 0;
+		}
 
 		// aTurn is set to the first player bidding.
 		aTurn = (aDealer + 1) % NUM_PLAYERS;
-		aDeck = new Deck();
-		aWidow = new CardList();
-
-		Hand playerHand = new Hand();
-
-		for (int i = 0; i < NUM_PLAYERS; i++)
+		if (aWidow == null)
+		{
+			aWidow = new CardList();
+		}
+		aWidow.clear();
+		for (Player p : aPlayers)
 		{
-			/* Give each player a ten card hand */
-			Hand h = new Hand();
-			for (int j = 0; j < lCardsInHand; j++)
+			if (p.getHand() == null)
 			{
-				h.add(aDeck.draw());
+				p.setHand(new Hand());
 			}
-			aPlayers[i].setHand(h);
+			p.getHand().clear();
+		}
 
-			if (i == 0)
+		if (aReplay != null)
+		{
+			for (int i = 0; i < NUM_PLAYERS; i++)
 			{
-				playerHand = h;
+				addCards(aPlayers[i].getHand(), aReplay.getHand(i));
 			}
+			addCards(aWidow, aReplay.getWidow());
 		}
-
-		while (aDeck.size() > 0)
+		else
 		{
-			aWidow.add(aDeck.draw());
+			Deck lDeck = aDeck;
+			int lRotation = 0;
+			if (aDuplicate)
+			{
+				lDeck = aDealDeck;
+				lRotation = aRotation;
+			}
+			lDeck.shuffle();
+			for (int i = 0; i < NUM_PLAYERS; i++)
+			{
+				/* Give each player a ten card hand */
+				Hand h = aPlayers[(i + lRotation) % NUM_PLAYERS].getHand();
+				for (int j = 0; j < lCardsInHand; j++)
+				{
+					h.add(lDeck.draw());
+				}
+			}
+
+			while (lDeck.size() > 0)
+			{
+				aWidow.add(lDeck.draw());
+			}
 		}
 
-		setChanged();
-		notifyObservers(DEAL_EVENT);
+		fireDeal();
 
-		notifyDeal(playerHand.clone());
+		if (!aObservers.isEmpty())
+		{
+			notifyDeal(aPlayers[0].getHand().clone());
+		}
+		if (aMetrics != null)
+		{
+			aMetrics.increment(Metrics.Counter.DEALS);
+			aMetrics.record(Metrics.Phase.DEAL, System.nanoTime() - lStart);
+		}
 	}
 
 	/**
@@ -163,12 +243,17 @@ public class GameEngine extends Observable
 	 */
 	public void bid()
 	{
+		long lStart = startTimer();
 		bidStart();
 		for (int i = 0; i < NUM_PLAYERS; i++)
 		{
 			nextBid();
 		}
 		bidEnd();
+		if (aMetrics != null)
+		{
+			aMetrics.record(Metrics.Phase.BID, System.nanoTime() - lStart);
+		}
 	}
 
 	/**
@@ -176,7 +261,11 @@ public class GameEngine extends Observable
 	 */
 	public void bidStart()
 	{
-		aBids = new Bid[NUM_PLAYERS];
+		if (aBids == null)
+		{
+			aBids = new Bid[NUM_PLAYERS];
+		}
+		Arrays.fill(aBids, null);
 	}
 
 	/**
@@ -188,9 +277,19 @@ public class GameEngine extends Observable
 
 		lPlayer = aPlayers[aTurn];
 
-		aBids[aTurn] = lPlayer.selectBid(aBids, lPlayer.getHand());
+		if (aReplay == null)
+		{
+			long lStart = startTimer();
+			aBids[aTurn] = lPlayer.selectBid(aBids, lPlayer.getHand());
+			stopTimer(Metrics.Decision.BID, aTurn, lStart);
+		}
+		else
+		{
+			aBids[aTurn] = aReplay.getBid(aTurn);
+		}
 
 		notifyBid(aPlayers[aTurn].getName(), aBids[aTurn]);
+		fireBid(aTurn, aBids[aTurn]);
 
 		aTurn = (aTurn + 1) % 4;
 	}
@@ -220,12 +319,15 @@ public class GameEngine extends Observable
 			p.resetTricksWon();
 		}
 
-		setChanged();
-		notifyObservers(BID_EVENT);
+		if (aMetrics != null && allPasses())
+		{
+			aMetrics.increment(Metrics.Counter.PASSED_OUT);
+		}
+		fireContract();
 
 		if (!allPasses())
 		{
-			aCurrentTrick = new Trick(aContract);
+			newTrick();
 		}
 	}
 
@@ -237,8 +339,13 @@ public class GameEngine extends Observable
 	public void exchange()
 	{
 		assert !allPasses();
+		long lStart = startTimer();
 		exchangeStart();
 		exchangeDone();
+		if (aMetrics != null)
+		{
+			aMetrics.record(Metrics.Phase.EXCHANGE, System.nanoTime() - lStart);
+		}
 	}
 
 	/**
@@ -267,7 +374,22 @@ public class GameEngine extends Observable
 
 		Hand h = curPlayer.getHand();
 
-		aWidow = curPlayer.selectCardsToDiscard(aBids, aContractHolder, h);
+		if (aReplay == null)
+		{
+			long lStart = startTimer();
+			CardList lDiscards = curPlayer.selectCardsToDiscard(aBids, aContractHolder, h);
+			stopTimer(Metrics.Decision.DISCARD, aContractHolder, lStart);
+			aWidow.clear();
+			for (Card c : lDiscards)
+			{
+				aWidow.add(c);
+			}
+		}
+		else
+		{
+			aWidow.clear();
+			addCards(aWidow, aReplay.getDiscards());
+		}
 
 		for (Card c : aWidow)
 		{
@@ -276,8 +398,7 @@ public class GameEngine extends Observable
 
 		curPlayer.setHand(h);
 
-		setChanged();
-		notifyObservers(EXCHANGE_EVENT);
+		fireExchange();
 		notifyExchange(h);
 
 		aTurn = aContractHolder;
@@ -288,11 +409,17 @@ public class GameEngine extends Observable
 	 */
 	public void playTrick()
 	{
+		long lStart = startTimer();
 		for (int i = 0; i < NUM_PLAYERS; i++)
 		{
 			nextPlay();
 		}
 		trickEnd();
+		if (aMetrics != null)
+		{
+			aMetrics.increment(Metrics.Counter.TRICKS);
+			aMetrics.record(Metrics.Phase.PLAY_TRICK, System.nanoTime() - lStart);
+		}
 	}
 
 	/**
@@ -303,7 +430,22 @@ public class GameEngine extends Observable
 		Player curPlayer = aPlayers[aTurn];
 		Hand curHand = curPlayer.getHand();
 
-		Card cardPlayed = curPlayer.play(aCurrentTrick, curHand);
+		Card cardPlayed;
+		if (aReplay == null)
+		{
+			long lStart = startTimer();
+			cardPlayed = curPlayer.play(aCurrentTrick, curHand);
+			stopTimer(Metrics.Decision.PLAY, aTurn, lStart);
+		}
+		else
+		{
+			if (aReplayPlays >= aReplay.getNumPlays() || aReplay.getSeat(aReplayPlays) != aTurn)
+			{
+				throw new GameException("The record does not match the game at play " + aReplayPlays + ".");
+			}
+			cardPlayed = Card.ofOrdinal(aReplay.getCard(aReplayPlays));
+			aReplayPlays++;
+		}
 
 		aLastCardPlayed = cardPlayed;
 		aCurrentTrick.add(cardPlayed);
@@ -311,8 +453,7 @@ public class GameEngine extends Observable
 		curPlayer.setHand(curHand);
 
 		notifyPlay(cardPlayed);
-		setChanged();
-		notifyObservers(SINGLE_PLAY_EVENT);
+		fireCardPlayed(cardPlayed);
 
 		aTurn = (aTurn + 1) % 4;
 	}
@@ -328,13 +469,28 @@ public class GameEngine extends Observable
 
 		aTricksPlayed++;
 
-		setChanged();
-		notifyObservers(PLAY_EVENT);
+		fireTrickEnd();
 
 		// Winner leads next trick
 		aTurn = aTrickWinner;
 
-		aCurrentTrick = new Trick(aContract);
+		newTrick();
+	}
+
+	/*
+	 * Empties the trick for the next one, allocating it only for the first trick played by this engine.
+	 */
+	private void newTrick()
+	{
+		if (aTrick == null)
+		{
+			aTrick = new Trick(aContract);
+		}
+		else
+		{
+			aTrick.reset(aContract);
+		}
+		aCurrentTrick = aTrick;
 	}
 
 	/**
@@ -363,6 +519,7 @@ public class GameEngine extends Observable
 		final int lOppPoints = 10; // Points scored by opposition per trick won
 		final int lTricksPerRound = 10;
 		final int lSlamPoints = 250;
+		long lStart = startTimer();
 
 		int contractorScore;
 		int oppositionScore;
@@ -413,8 +570,11 @@ public class GameEngine extends Observable
 		// Next dealer is chosen
 		aDealer = (aDealer + 1) % NUM_PLAYERS;
 
-		setChanged();
-		notifyObservers(SCORE_EVENT);
+		fireScore();
+		if (aMetrics != null)
+		{
+			aMetrics.record(Metrics.Phase.SCORE, System.nanoTime() - lStart);
+		}
 	}
 
 	/**
@@ -440,8 +600,7 @@ public class GameEngine extends Observable
 				aPlayers[(i + 1) % 4].setGameWinner();
 				aPlayers[(i + 3) % 4].setGameWinner();
 
-				setChanged();
-				notifyObservers(GAME_OVER_EVENT);
+				fireGameOver((i + 1) % NUM_PLAYERS);
 
 				return true;
 			}
@@ -461,8 +620,7 @@ public class GameEngine extends Observable
 					aPlayers[i].setGameWinner();
 					aPlayers[(i + 2) % 4].setGameWinner();
 
-					setChanged();
-					notifyObservers(GAME_OVER_EVENT);
+					fireGameOver(i);
 
 					return true;
 				}
@@ -472,6 +630,111 @@ public class GameEngine extends Observable
 		return false;
 	}
 
+	/**
+	 * Reseeds the random number generator shared by this engine and its robot players. Two engines with the same
+	 * players that are reseeded with the same value before newGame() play exactly the same game.
+	 * 
+	 * @param pSeed
+	 *            The new seed.
+	 */
+	public void setSeed(long pSeed)
+	{
+		aRandom.setSeed(pSeed);
+	}
+
+	/**
+	 * Makes the next game deal from a deck of its own, shuffled by a generator seeded with pSeed, instead of the
+	 * generator shared with the robot players. The deals of the game, and the first dealer, are then the same whatever
+	 * the players decide: engines set up with the same seed deal the same sequence of hands, even if their players are
+	 * different. The hands and the first dealer are rotated by pRotation seats, so that a rotation of 1 or 3 gives the
+	 * cards of each partnership to the other one. Call before newGame().
+	 * 
+	 * @param pSeed
+	 *            The seed of the deals of the next game.
+	 * @param pRotation
+	 *            The number of seats by which the deals are rotated.
+	 * @pre pRotation >= 0 && pRotation < 4
+	 */
+	public void setDuplicateDeals(long pSeed, int pRotation)
+	{
+		assert pRotation >= 0 && pRotation < NUM_PLAYERS;
+		if (aDealRandom == null)
+		{
+			aDealRandom = new SplitMixRandom(pSeed);
+			aDealDeck = new Deck(aDealRandom);
+		}
+		aDealRandom.setSeed(pSeed);
+		aRotation = pRotation;
+		aDuplicate = true;
+	}
+
+	/**
+	 * Goes back to dealing from the generator shared with the robot players. See setDuplicateDeals().
+	 */
+	public void clearDuplicateDeals()
+	{
+		aDuplicate = false;
+	}
+
+	/**
+	 * Times the phases of the rounds and the decisions of the players, and counts games, deals and tricks, in pMetrics.
+	 * 
+	 * @param pMetrics
+	 *            The metrics to record to, or null to stop recording.
+	 */
+	public void setMetrics(Metrics pMetrics)
+	{
+		aMetrics = pMetrics;
+		if (aMetrics != null)
+		{
+			for (int i = 0; i < NUM_PLAYERS; i++)
+			{
+				aMetrics.setLevel(i, aAiLevels[i]);
+			}
+		}
+	}
+
+	/**
+	 * @return The metrics this engine records to, or null.
+	 */
+	public Metrics getMetrics()
+	{
+		return aMetrics;
+	}
+
+	/**
+	 * Makes the next rounds replay a recorded round instead of dealing the deck and asking the players: newGame() and
+	 * deal() take the dealer from the record, deal() the hands and the widow, and the bids, discards and plays come
+	 * from the record. The players are never asked for a decision, but the listeners receive all the usual events. The
+	 * record is read when it is used, so a caller can decode the next round into the same record before each deal().
+	 * 
+	 * @param pRecord
+	 *            The round to replay, or null to go back to normal play.
+	 */
+	public void setReplay(RoundRecord pRecord)
+	{
+		aReplay = pRecord;
+	}
+
+	/**
+	 * @return True if the rounds are replayed from a record. See setReplay().
+	 */
+	public boolean isReplaying()
+	{
+		return aReplay != null;
+	}
+
+	/**
+	 * Gets the random number generator used by this engine. Robot players draw from this generator so that a game is
+	 * fully determined by the seed passed to setSeed().
+	 * 
+	 * @return The random number generator of this engine.
+	 */
+	public Random getRandom()
+	{
+		return aRandom;
+	}
+
 	/**
 	 * Gets a player name.
 	 * 
@@ -560,6 +823,18 @@ public class GameEngine extends Observable
 		return aPlayers[pIndex].getHandString();
 	}
 
+	/**
+	 * Gets a player's hand as a CardSet mask.
+	 * 
+	 * @param pIndex
+	 *            The index of the player.
+	 * @return The cards in the hand of player pIndex.
+	 */
+	public long getHandMask(int pIndex)
+	{
+		return aPlayers[pIndex].getHand().getMask();
+	}
+
 	/**
 	 * Gets the widow.
 	 * 
@@ -570,6 +845,28 @@ public class GameEngine extends Observable
 		return aWidow.toString();
 	}
 
+	/**
+	 * Gets the cards discarded by the contract holder. Before the exchange, these are the cards of the widow. Only the
+	 * contract holder should look at them.
+	 * 
+	 * @return A copy of the discarded cards.
+	 */
+	public CardList getDiscards()
+	{
+		return aWidow.clone();
+	}
+
+	/**
+	 * Gets the cards discarded by the contract holder as a CardSet mask, without copying them. Before the exchange,
+	 * these are the cards of the widow.
+	 * 
+	 * @return The discarded cards.
+	 */
+	public long getDiscardMask()
+	{
+		return aWidow.getMask();
+	}
+
 	/**
 	 * Gets the trump.
 	 * 
@@ -725,7 +1022,7 @@ public class GameEngine extends Observable
 	 * @param pLevel
 	 *            The new AI level of the player.
 	 * @pre pPlayer > 0 && pPlayer <= 3
-	 * @pre pLevel > 0 && pLevel <= 3
+	 * @pre pLevel > 0 && pLevel <= 4
 	 */
 	public void setAI(int pPlayer, int pLevel)
 	{
@@ -741,11 +1038,32 @@ public class GameEngine extends Observable
 		case ADVANCED_AI:
 			aAiLevels[pPlayer] = "Advanced";
 			break;
+		case MONTE_CARLO_AI:
+			aAiLevels[pPlayer] = "Monte Carlo";
+			break;
 		default:
-			assert pLevel > 0 && pLevel <= 3;
+			assert pLevel > 0 && pLevel <= MONTE_CARLO_AI;
 		}
 	}
 
+	/**
+	 * Sets the AI level of a player, with the constants of its heuristics given by pParameters.
+	 * 
+	 * @param pPlayer
+	 *            The player to be modified.
+	 * @param pLevel
+	 *            The new AI level of the player.
+	 * @param pParameters
+	 *            The parameters of the player's AI.
+	 * @pre pParameters != null
+	 */
+	public void setAI(int pPlayer, int pLevel, AIParameters pParameters)
+	{
+		assert pParameters != null;
+		aPlayers[pPlayer].setParameters(pParameters);
+		setAI(pPlayer, pLevel);
+	}
+
 	/**
 	 * Gets the AI level of a player as a String.
 	 * 
@@ -765,11 +1083,155 @@ public class GameEngine extends Observable
 	 */
 	public CardList getPlayableCards()
 	{
+		Hand lHand = aPlayers[0].getHand();
 		if (aCurrentTrick.size() == 0)
 		{
-			return aPlayers[0].getHand().canLead(aContract.isNoTrump());
+			return lHand.filter(lHand.leadMask(aContract.isNoTrump()));
+		}
+		return lHand.filter(lHand.playableMask(aCurrentTrick.getSuitLed(), aContract.getSuit()));
+	}
+
+	/**
+	 * Adds a listener to the events of this engine. Listeners are called in the order they were added.
+	 * 
+	 * @param pListener
+	 *            The listener to add.
+	 * @pre pListener != null
+	 */
+	public synchronized void addListener(GameListener pListener)
+	{
+		assert pListener != null;
+		GameListener[] lListeners = Arrays.copyOf(aListeners, aListeners.length + 1);
+		lListeners[aListeners.length] = pListener;
+		aListeners = lListeners;
+	}
+
+	/**
+	 * Removes a listener from this engine. Does nothing if pListener is not listening to this engine.
+	 * 
+	 * @param pListener
+	 *            The listener to remove.
+	 */
+	public synchronized void removeListener(GameListener pListener)
+	{
+		GameListener[] lOld = aListeners;
+		for (int i = 0; i < lOld.length; i++)
+		{
+			if (lOld[i] == pListener)
+			{
+				GameListener[] lListeners = new GameListener[lOld.length - 1];
+				System.arraycopy(lOld, 0, lListeners, 0, i);
+				System.arraycopy(lOld, i + 1, lListeners, i, lOld.length - i - 1);
+				aListeners = lListeners;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Removes all the listeners of this engine.
+	 */
+	public synchronized void removeAllListeners()
+	{
+		aListeners = new GameListener[0];
+	}
+
+	// The start time of a timed section, or 0 when there are no metrics to record it.
+	private long startTimer()
+	{
+		if (aMetrics == null)
+		{
+			return 0;
+		}
+		return System.nanoTime();
+	}
+
+	private void stopTimer(Metrics.Decision pDecision, int pSeat, long pStart)
+	{
+		if (aMetrics != null)
+		{
+			aMetrics.record(pDecision, pSeat, System.nanoTime() - pStart);
+		}
+	}
+
+	private static void addCards(CardList pList, long pCards)
+	{
+		for (long lRest = pCards; lRest != CardSet.EMPTY; lRest &= lRest - 1)
+		{
+			pList.add(Card.ofOrdinal(Long.numberOfTrailingZeros(lRest)));
+		}
+	}
+
+	private void fireNewGame()
+	{
+		for (GameListener lListener : aListeners)
+		{
+			lListener.onNewGame(this, aDealer);
+		}
+	}
+
+	private void fireDeal()
+	{
+		for (GameListener lListener : aListeners)
+		{
+			lListener.onDeal(this, aDealer);
+		}
+	}
+
+	private void fireBid(int pPlayer, Bid pBid)
+	{
+		for (GameListener lListener : aListeners)
+		{
+			lListener.onBid(this, pPlayer, pBid);
+		}
+	}
+
+	private void fireContract()
+	{
+		for (GameListener lListener : aListeners)
+		{
+			lListener.onContract(this, aContractHolder, aContract);
+		}
+	}
+
+	private void fireExchange()
+	{
+		for (GameListener lListener : aListeners)
+		{
+			lListener.onExchange(this, aContractHolder);
+		}
+	}
+
+	private void fireCardPlayed(Card pCard)
+	{
+		for (GameListener lListener : aListeners)
+		{
+			lListener.onCardPlayed(this, aTurn, pCard);
+		}
+	}
+
+	private void fireTrickEnd()
+	{
+		for (GameListener lListener : aListeners)
+		{
+			lListener.onTrickEnd(this, aTrickWinner);
+		}
+	}
+
+	private void fireScore()
+	{
+		for (GameListener lListener : aListeners)
+		{
+			lListener.onScore(this, aContractHolder, aContractMade);
+		}
+	}
+
+	private void fireGameOver(int pWinner)
+	{
+		for (GameListener lListener : aListeners)
+		{
+			lListener.onGameOver(this, pWinner);
 		}
-		return aPlayers[0].getHand().playableCards(aCurrentTrick.getSuitLed(), aContract.getSuit());
 	}
 
 	/**
@@ -793,9 +1255,9 @@ public class GameEngine extends Observable
 	 */
 	private void notifyDeal(Hand pHand)
 	{
-		for (GameObserver o : aObservers)
+		for (int i = 0; i < aObservers.size(); i++)
 		{
-			o.newHand(pHand);
+			aObservers.get(i).newHand(pHand);
 		}
 	}
 
@@ -811,9 +1273,9 @@ public class GameEngine extends Observable
 	 */
 	private void notifyBid(String pName, Bid pBid)
 	{
-		for (GameObserver o : aObservers)
+		for (int i = 0; i < aObservers.size(); i++)
 		{
-			o.newBid(pName, pBid);
+			aObservers.get(i).newBid(pName, pBid);
 		}
 	}
 
@@ -826,9 +1288,9 @@ public class GameEngine extends Observable
 	 */
 	private void notifyExchange(Hand pHand)
 	{
-		for (GameObserver o : aObservers)
+		for (int i = 0; i < aObservers.size(); i++)
 		{
-			o.exchangeHand(pHand);
+			aObservers.get(i).exchangeHand(pHand);
 		}
 	}
 
@@ -841,9 +1303,9 @@ public class GameEngine extends Observable
 	 */
 	private void notifyPlay(Card pCard)
 	{
-		for (GameObserver o : aObservers)
+		for (int i = 0; i < aObservers.size(); i++)
 		{
-			o.discard(pCard);
+			aObservers.get(i).discard(pCard);
 		}
 	}
 }
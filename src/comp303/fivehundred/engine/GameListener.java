@@ -0,0 +1,114 @@
+package comp303.fivehundred.engine;
+
+import comp303.fivehundred.model.Bid;
+import comp303.fivehundred.util.Card;
+
+/**
+ * Receives the events of a GameEngine. Every method receives the engine that fired the event, so that a listener can
+ * query any other part of the game state. Payloads are primitives and immutable objects: listeners must not keep a
+ * reference to mutable engine state between events.
+ * 
+ * Listeners are called synchronously, on the thread that drives the engine, in the order they were added.
+ * 
+ * @author Jake Shamash
+ */
+public interface GameListener
+{
+	/**
+	 * Called when a new game starts.
+	 * 
+	 * @param pEngine
+	 *            The engine.
+	 * @param pDealer
+	 *            The index of the first dealer.
+	 */
+	void onNewGame(GameEngine pEngine, int pDealer);
+
+	/**
+	 * Called when the hands and the widow have been dealt.
+	 * 
+	 * @param pEngine
+	 *            The engine.
+	 * @param pDealer
+	 *            The index of the dealer.
+	 */
+	void onDeal(GameEngine pEngine, int pDealer);
+
+	/**
+	 * Called when a player makes a bid.
+	 * 
+	 * @param pEngine
+	 *            The engine.
+	 * @param pPlayer
+	 *            The index of the bidder.
+	 * @param pBid
+	 *            The bid, possibly a pass.
+	 */
+	void onBid(GameEngine pEngine, int pPlayer, Bid pBid);
+
+	/**
+	 * Called when the 4 players have bid. If everyone passed, pContract is a pass and the cards will be dealt again.
+	 * 
+	 * @param pEngine
+	 *            The engine.
+	 * @param pContractHolder
+	 *            The index of the player who won the contract.
+	 * @param pContract
+	 *            The highest bid.
+	 */
+	void onContract(GameEngine pEngine, int pContractHolder, Bid pContract);
+
+	/**
+	 * Called when the contract holder has discarded 6 cards.
+	 * 
+	 * @param pEngine
+	 *            The engine.
+	 * @param pContractHolder
+	 *            The index of the player who exchanged cards.
+	 */
+	void onExchange(GameEngine pEngine, int pContractHolder);
+
+	/**
+	 * Called when a card is added to the current trick.
+	 * 
+	 * @param pEngine
+	 *            The engine.
+	 * @param pPlayer
+	 *            The index of the player who played the card.
+	 * @param pCard
+	 *            The card played.
+	 */
+	void onCardPlayed(GameEngine pEngine, int pPlayer, Card pCard);
+
+	/**
+	 * Called when the 4 cards of a trick have been played.
+	 * 
+	 * @param pEngine
+	 *            The engine.
+	 * @param pWinner
+	 *            The index of the player who won the trick.
+	 */
+	void onTrickEnd(GameEngine pEngine, int pWinner);
+
+	/**
+	 * Called when the scores of a round have been computed.
+	 * 
+	 * @param pEngine
+	 *            The engine.
+	 * @param pContractHolder
+	 *            The index of the player who held the contract.
+	 * @param pContractMade
+	 *            True if the contractors made their contract.
+	 */
+	void onScore(GameEngine pEngine, int pContractHolder, boolean pContractMade);
+
+	/**
+	 * Called when a team wins the game.
+	 * 
+	 * @param pEngine
+	 *            The engine.
+	 * @param pWinner
+	 *            The index of one of the winners. The other winner is its partner, (pWinner + 2) % 4.
+	 */
+	void onGameOver(GameEngine pEngine, int pWinner);
+}
@@ -0,0 +1,123 @@
+package comp303.fivehundred.engine;
+
+/**
+ * The result of one complete game: who won, the final scores and what each player did over the game. Records are
+ * immutable, so they can be handed from a worker thread to a ResultWriter.
+ *
+ * @author Jake Shamash
+ */
+public final class GameRecord
+{
+	private static final int NUM_PLAYERS = 4;
+
+	private final int aGame;
+	private final long aSeed;
+	private final int aWinner;
+	private final int aRounds;
+	private final int[] aScores = new int[NUM_PLAYERS];
+	private final int[] aTricks = new int[NUM_PLAYERS];
+	private final int[] aContracts = new int[NUM_PLAYERS];
+	private final int[] aContractsMade = new int[NUM_PLAYERS];
+
+	/**
+	 * Creates a record.
+	 *
+	 * @param pGame
+	 *            The game number in its tournament.
+	 * @param pSeed
+	 *            The seed the game was played with.
+	 * @param pWinner
+	 *            The winning team: 0 for players 0 and 2, 1 for players 1 and 3.
+	 * @param pRounds
+	 *            The number of rounds played, passed-out deals excluded.
+	 * @param pScores
+	 *            The final score of each player.
+	 * @param pTricks
+	 *            The tricks won by each player over the game.
+	 * @param pContracts
+	 *            The contracts won by each player.
+	 * @param pContractsMade
+	 *            The contracts each player made.
+	 * @pre all the arrays have 4 elements
+	 */
+	public GameRecord(int pGame, long pSeed, int pWinner, int pRounds, int[] pScores, int[] pTricks, int[] pContracts,
+			int[] pContractsMade)
+	{
+		aGame = pGame;
+		aSeed = pSeed;
+		aWinner = pWinner;
+		aRounds = pRounds;
+		System.arraycopy(pScores, 0, aScores, 0, NUM_PLAYERS);
+		System.arraycopy(pTricks, 0, aTricks, 0, NUM_PLAYERS);
+		System.arraycopy(pContracts, 0, aContracts, 0, NUM_PLAYERS);
+		System.arraycopy(pContractsMade, 0, aContractsMade, 0, NUM_PLAYERS);
+	}
+
+	/**
+	 * @return The game number in its tournament.
+	 */
+	public int getGame()
+	{
+		return aGame;
+	}
+
+	/**
+	 * @return The seed the game was played with.
+	 */
+	public long getSeed()
+	{
+		return aSeed;
+	}
+
+	/**
+	 * @return The winning team: 0 for players 0 and 2, 1 for players 1 and 3.
+	 */
+	public int getWinner()
+	{
+		return aWinner;
+	}
+
+	/**
+	 * @return The number of rounds played.
+	 */
+	public int getRounds()
+	{
+		return aRounds;
+	}
+
+	/**
+	 * @param pPlayer The index of the player.
+	 * @return The final score of player pPlayer.
+	 */
+	public int getScore(int pPlayer)
+	{
+		return aScores[pPlayer];
+	}
+
+	/**
+	 * @param pPlayer The index of the player.
+	 * @return The tricks won by player pPlayer over the game.
+	 */
+	public int getTricks(int pPlayer)
+	{
+		return aTricks[pPlayer];
+	}
+
+	/**
+	 * @param pPlayer The index of the player.
+	 * @return The contracts won by player pPlayer.
+	 */
+	public int getContracts(int pPlayer)
+	{
+		return aContracts[pPlayer];
+	}
+
+	/**
+	 * @param pPlayer The index of the player.
+	 * @return The contracts made by player pPlayer.
+	 */
+	public int getContractsMade(int pPlayer)
+	{
+		return aContractsMade[pPlayer];
+	}
+}
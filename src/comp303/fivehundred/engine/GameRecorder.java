@@ -0,0 +1,95 @@
+package comp303.fivehundred.engine;
+
+import comp303.fivehundred.model.Bid;
+
+/**
+ * Listens to a GameEngine and hands a GameRecord to a ResultWriter at the end of every game. Only the counters of the
+ * current game are kept, so recording any number of games takes constant memory.
+ *
+ * @author Jake Shamash
+ */
+class GameRecorder extends GameAdapter
+{
+	private static final int NUM_PLAYERS = 4;
+	private static final int NUM_TEAMS = 2;
+
+	private final ResultWriter aWriter;
+	private int aGame;
+	private long aSeed;
+	private int aRounds;
+	private final int[] aScores = new int[NUM_PLAYERS];
+	private final int[] aTricks = new int[NUM_PLAYERS];
+	private final int[] aContracts = new int[NUM_PLAYERS];
+	private final int[] aContractsMade = new int[NUM_PLAYERS];
+
+	/**
+	 * @param pWriter
+	 *            The writer that receives the records.
+	 */
+	GameRecorder(ResultWriter pWriter)
+	{
+		aWriter = pWriter;
+	}
+
+	/**
+	 * Identifies the next game. Must be called before its newGame().
+	 *
+	 * @param pGame
+	 *            The game number.
+	 * @param pSeed
+	 *            The seed of the game.
+	 */
+	void start(int pGame, long pSeed)
+	{
+		aGame = pGame;
+		aSeed = pSeed;
+	}
+
+	@Override
+	public void onNewGame(GameEngine pEngine, int pDealer)
+	{
+		aRounds = 0;
+		for (int i = 0; i < NUM_PLAYERS; i++)
+		{
+			aTricks[i] = 0;
+			aContracts[i] = 0;
+			aContractsMade[i] = 0;
+		}
+	}
+
+	@Override
+	public void onContract(GameEngine pEngine, int pContractHolder, Bid pContract)
+	{
+		if (!pContract.isPass())
+		{
+			aContracts[pContractHolder]++;
+			aRounds++;
+		}
+	}
+
+	@Override
+	public void onTrickEnd(GameEngine pEngine, int pWinner)
+	{
+		aTricks[pWinner]++;
+	}
+
+	@Override
+	public void onScore(GameEngine pEngine, int pContractHolder, boolean pContractMade)
+	{
+		if (pContractMade)
+		{
+			aContractsMade[pContractHolder]++;
+		}
+	}
+
+	@Override
+	public void onGameOver(GameEngine pEngine, int pWinner)
+	{
+		for (int i = 0; i < NUM_PLAYERS; i++)
+		{
+			aScores[i] = pEngine.getGameScore(i);
+		}
+		aWriter.write(new GameRecord(aGame, aSeed, pWinner % NUM_TEAMS, aRounds, aScores, aTricks, aContracts,
+				aContractsMade));
+	}
+}
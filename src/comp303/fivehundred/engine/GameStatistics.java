@@ -1,16 +1,16 @@
 package comp303.fivehundred.engine;
 
 import java.util.Formatter;
-import java.util.Observable;
-import java.util.Observer;
+
+import comp303.fivehundred.model.Bid;
 
 /**
- * GameStatistics implements Observer; keeps track of stats for each player. Includes a print of the players' stats.
+ * GameStatistics listens to a GameEngine; keeps track of stats for each player. Includes a print of the players' stats.
  * 
  * @author Abigail White
  * 
  */
-public class GameStatistics implements Observer
+public class GameStatistics extends GameAdapter
 {
 	private static final int NUM_PLAYERS = 4;
 
@@ -23,6 +23,7 @@ public class GameStatistics implements Observer
 	private int[] aContractsMade; // Number of Contracts fulfilled for each player
 	private int[] aGamesWon; // Number of games won for each player
 	private int[] aTotalScore; // Accumulated score for each player
+	private long aMarginSquares; // Sum of the squares of the final score of players 0 and 2 minus that of 1 and 3
 
 	/**
 	 * Constructor. Initializes all player statistics.
@@ -49,75 +50,53 @@ public class GameStatistics implements Observer
 	}
 
 	@Override
-	public void update(Observable pObservable, Object pObject)
-	{
-		aEngine = (GameEngine) pObservable;
-		Integer eventType = (Integer) pObject;
-
-		switch (eventType)
-		{
-		case GameEngine.NEW_GAME_EVENT:
-			handleNewGame();
-			break;
-		case GameEngine.BID_EVENT:
-			handleBid();
-			break;
-		case GameEngine.PLAY_EVENT:
-			handlePlay();
-			break;
-		case GameEngine.SCORE_EVENT:
-			handleScore();
-			break;
-		case GameEngine.GAME_OVER_EVENT:
-			handleGameOver();
-			break;
-		default: // Do Nothing
-		}
-
-	}
-
-	private void handleNewGame()
+	public void onNewGame(GameEngine pEngine, int pDealer)
 	{
+		aEngine = pEngine;
 		aGamesPlayed++;
 	}
 
-	private void handleBid()
+	@Override
+	public void onContract(GameEngine pEngine, int pContractHolder, Bid pContract)
 	{
-		int contractHolder = aEngine.getContractHolder();
-		aContractsWon[contractHolder]++;
+		aEngine = pEngine;
+		aContractsWon[pContractHolder]++;
 		aRoundsPlayed++;
 	}
 
-	private void handlePlay()
+	@Override
+	public void onTrickEnd(GameEngine pEngine, int pWinner)
 	{
+		aEngine = pEngine;
 		aTricksPlayed++;
-		aTricksWon[aEngine.getTrickWinner()]++;
+		aTricksWon[pWinner]++;
 	}
 
-	private void handleScore()
+	@Override
+	public void onScore(GameEngine pEngine, int pContractHolder, boolean pContractMade)
 	{
+		aEngine = pEngine;
 		// Update contracts made only if player was the one who won it
-		if (aEngine.isContractMade())
+		if (pContractMade)
 		{
-			aContractsMade[aEngine.getContractHolder()]++;
+			aContractsMade[pContractHolder]++;
 		}
 
 		for (int i = 0; i < NUM_PLAYERS; i++)
 		{
-			aTotalScore[i] += aEngine.getRoundScore(i);
+			aTotalScore[i] += pEngine.getRoundScore(i);
 		}
 	}
 
-	private void handleGameOver()
+	@Override
+	public void onGameOver(GameEngine pEngine, int pWinner)
 	{
+		aEngine = pEngine;
 		// Update games won
-		for (int i = 0; i < NUM_PLAYERS; i++)
-		{
-			if (aEngine.isGameWinner(i))
-			{
-				aGamesWon[i]++;
-			}
-		}
+		aGamesWon[pWinner]++;
+		aGamesWon[(pWinner + 2) % NUM_PLAYERS]++;
+		long lMargin = pEngine.getGameScore(0) - pEngine.getGameScore(1);
+		aMarginSquares += lMargin * lMargin;
 	}
 
 	/**
@@ -133,6 +112,7 @@ public class GameStatistics implements Observer
 		aContractsMade = new int[NUM_PLAYERS];
 		aGamesWon = new int[NUM_PLAYERS];
 		aTotalScore = new int[NUM_PLAYERS];
+		aMarginSquares = 0;
 
 		for (int i = 0; i < NUM_PLAYERS; i++)
 		{
@@ -144,6 +124,73 @@ public class GameStatistics implements Observer
 		}
 	}
 
+	/**
+	 * Adds the statistics gathered by pStatistics to this object. Used to combine the results of engines that ran
+	 * separate games in parallel. The player names of this object are taken from pStatistics if this object has not
+	 * observed any engine yet.
+	 * 
+	 * @param pStatistics The statistics to add. Must have been gathered on games with the same seating as this object.
+	 * @pre pStatistics != null
+	 */
+	public void merge(GameStatistics pStatistics)
+	{
+		assert pStatistics != null;
+		if (aEngine == null)
+		{
+			aEngine = pStatistics.aEngine;
+		}
+
+		aGamesPlayed += pStatistics.aGamesPlayed;
+		aTricksPlayed += pStatistics.aTricksPlayed;
+		aRoundsPlayed += pStatistics.aRoundsPlayed;
+		aMarginSquares += pStatistics.aMarginSquares;
+
+		for (int i = 0; i < NUM_PLAYERS; i++)
+		{
+			aTricksWon[i] += pStatistics.aTricksWon[i];
+			aContractsWon[i] += pStatistics.aContractsWon[i];
+			aContractsMade[i] += pStatistics.aContractsMade[i];
+			aGamesWon[i] += pStatistics.aGamesWon[i];
+			aTotalScore[i] += pStatistics.aTotalScore[i];
+		}
+	}
+
+	/**
+	 * @return The number of games observed.
+	 */
+	public int getGamesPlayed()
+	{
+		return aGamesPlayed;
+	}
+
+	/**
+	 * @param pPlayer The index of the player.
+	 * @return The number of games won by player pPlayer.
+	 */
+	public int getGamesWon(int pPlayer)
+	{
+		return aGamesWon[pPlayer];
+	}
+
+	/**
+	 * @param pPlayer The index of the player.
+	 * @return The sum of all the round scores of player pPlayer.
+	 */
+	public int getTotalScore(int pPlayer)
+	{
+		return aTotalScore[pPlayer];
+	}
+
+	/**
+	 * The sum of the score margins is getTotalScore(0) - getTotalScore(1); this sum of squares gives their variance.
+	 * 
+	 * @return The sum over the games of the square of the final score of players 0 and 2 minus that of players 1 and 3.
+	 */
+	public long getScoreMarginSquares()
+	{
+		return aMarginSquares;
+	}
+
 	/**
 	 * Prints statistical data about each player, in table format.
 	 */
@@ -178,7 +225,8 @@ public class GameStatistics implements Observer
 					game, score);
 		}
 
-		aFormat.close();
+		// Flush rather than close: closing the Formatter would close System.out.
+		aFormat.flush();
 	}
 
 	/**
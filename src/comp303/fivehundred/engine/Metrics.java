@@ -0,0 +1,388 @@
+package comp303.fivehundred.engine;
+
+import java.io.Closeable;
+import java.io.PrintStream;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and timers of game engines: the time spent in each phase of a round, and in each decision of each seat.
+ * Engines record into a Metrics object given to GameEngine.setMetrics(); several engines on different threads can
+ * share one. An engine without metrics only pays a null check per phase and per decision.
+ *
+ * The metrics can be printed at any time, or every few seconds with startReporting(), as text or as one line of JSON.
+ *
+ * @author Jake Shamash
+ */
+public class Metrics
+{
+	/**
+	 * The phases of a round timed by the engine.
+	 */
+	public enum Phase
+	{
+		DEAL, BID, EXCHANGE, PLAY_TRICK, SCORE
+	}
+
+	/**
+	 * The decisions of the players timed by the engine.
+	 */
+	public enum Decision
+	{
+		BID, DISCARD, PLAY
+	}
+
+	/**
+	 * The events counted by the engine.
+	 */
+	public enum Counter
+	{
+		GAMES, DEALS, PASSED_OUT, TRICKS
+	}
+
+	/**
+	 * The formats of a snapshot.
+	 */
+	public enum Format
+	{
+		TEXT, JSON
+	}
+
+	private static final int NUM_PLAYERS = 4;
+	private static final double NANOS_PER_MICRO = 1000;
+
+	private final LongAdder[] aCounters = new LongAdder[Counter.values().length];
+	private final Histogram[] aPhases = new Histogram[Phase.values().length];
+	private final Histogram[][] aDecisions = new Histogram[Decision.values().length][NUM_PLAYERS];
+	private final String[] aLevels = new String[NUM_PLAYERS];
+
+	/**
+	 * Creates empty metrics.
+	 */
+	public Metrics()
+	{
+		for (int i = 0; i < aCounters.length; i++)
+		{
+			aCounters[i] = new LongAdder();
+		}
+		for (int i = 0; i < aPhases.length; i++)
+		{
+			aPhases[i] = new Histogram();
+		}
+		for (Histogram[] lSeats : aDecisions)
+		{
+			for (int i = 0; i < NUM_PLAYERS; i++)
+			{
+				lSeats[i] = new Histogram();
+			}
+		}
+	}
+
+	/**
+	 * Names the AI level of a seat in the snapshots. Called by GameEngine.setMetrics().
+	 *
+	 * @param pSeat
+	 *            The seat.
+	 * @param pLevel
+	 *            The name of the AI level of the seat.
+	 */
+	public synchronized void setLevel(int pSeat, String pLevel)
+	{
+		aLevels[pSeat] = pLevel;
+	}
+
+	/**
+	 * @param pCounter
+	 *            The counter to increment.
+	 */
+	public void increment(Counter pCounter)
+	{
+		aCounters[pCounter.ordinal()].increment();
+	}
+
+	/**
+	 * @param pPhase
+	 *            A phase of a round.
+	 * @param pNanos
+	 *            The time it took.
+	 */
+	public void record(Phase pPhase, long pNanos)
+	{
+		aPhases[pPhase.ordinal()].record(pNanos);
+	}
+
+	/**
+	 * @param pDecision
+	 *            A decision of a player.
+	 * @param pSeat
+	 *            The seat of the player.
+	 * @param pNanos
+	 *            The time it took.
+	 */
+	public void record(Decision pDecision, int pSeat, long pNanos)
+	{
+		aDecisions[pDecision.ordinal()][pSeat].record(pNanos);
+	}
+
+	/**
+	 * @param pCounter
+	 *            A counter.
+	 * @return Its value.
+	 */
+	public long get(Counter pCounter)
+	{
+		return aCounters[pCounter.ordinal()].sum();
+	}
+
+	/**
+	 * @param pPhase
+	 *            A phase of a round.
+	 * @return The times of this phase.
+	 */
+	public Histogram get(Phase pPhase)
+	{
+		return aPhases[pPhase.ordinal()];
+	}
+
+	/**
+	 * @param pDecision
+	 *            A decision of a player.
+	 * @param pSeat
+	 *            The seat of the player.
+	 * @return The times of the decisions of this kind made by pSeat.
+	 */
+	public Histogram get(Decision pDecision, int pSeat)
+	{
+		return aDecisions[pDecision.ordinal()][pSeat];
+	}
+
+	/**
+	 * Formats the current values of the metrics. The engines keep running while the snapshot is taken.
+	 *
+	 * @param pFormat
+	 *            The format of the snapshot.
+	 * @return The snapshot: a table in TEXT, a single line in JSON.
+	 */
+	public String snapshot(Format pFormat)
+	{
+		StringBuilder lOut = new StringBuilder();
+		if (pFormat == Format.JSON)
+		{
+			lOut.append("{\"counters\":{");
+			for (Counter lCounter : Counter.values())
+			{
+				separate(lOut, lCounter.ordinal()).append('"').append(lCounter).append("\":").append(get(lCounter));
+			}
+			lOut.append("},\"phases\":{");
+			for (Phase lPhase : Phase.values())
+			{
+				get(lPhase).toJson(separate(lOut, lPhase.ordinal()).append('"').append(lPhase).append("\":"));
+			}
+			lOut.append("},\"decisions\":[");
+			for (int i = 0; i < NUM_PLAYERS; i++)
+			{
+				separate(lOut, i).append("{\"seat\":").append(i).append(",\"level\":\"").append(getLevel(i)).append('"');
+				for (Decision lDecision : Decision.values())
+				{
+					get(lDecision, i).toJson(lOut.append(",\"").append(lDecision).append("\":"));
+				}
+				lOut.append('}');
+			}
+			lOut.append("]}");
+		}
+		else
+		{
+			for (Counter lCounter : Counter.values())
+			{
+				lOut.append(String.format("%-12s %d%n", lCounter, get(lCounter)));
+			}
+			lOut.append(String.format("%-24s %10s %10s %10s %10s %10s%n", "(microseconds)", "count", "mean", "p50", "p99",
+					"max"));
+			for (Phase lPhase : Phase.values())
+			{
+				get(lPhase).toText(lOut, lPhase.toString());
+			}
+			for (int i = 0; i < NUM_PLAYERS; i++)
+			{
+				for (Decision lDecision : Decision.values())
+				{
+					get(lDecision, i).toText(lOut, lDecision + " " + i + " " + getLevel(i));
+				}
+			}
+		}
+		return lOut.toString();
+	}
+
+	/**
+	 * Prints a snapshot of the metrics at a fixed rate, on a background thread, until the returned object is closed.
+	 *
+	 * @param pOut
+	 *            The stream to print to.
+	 * @param pPeriodMillis
+	 *            The time between two snapshots.
+	 * @param pFormat
+	 *            The format of the snapshots.
+	 * @return An object whose close() method stops the reports.
+	 * @pre pPeriodMillis > 0
+	 */
+	public Closeable startReporting(final PrintStream pOut, long pPeriodMillis, final Format pFormat)
+	{
+		final Timer lTimer = new Timer("Metrics", true);
+		lTimer.scheduleAtFixedRate(new TimerTask()
+		{
+			@Override
+			public void run()
+			{
+				pOut.print(snapshot(pFormat));
+				if (pFormat == Format.JSON)
+				{
+					pOut.println();
+				}
+				pOut.flush();
+			}
+		}, pPeriodMillis, pPeriodMillis);
+		return new Closeable()
+		{
+			@Override
+			public void close()
+			{
+				lTimer.cancel();
+			}
+		};
+	}
+
+	private synchronized String getLevel(int pSeat)
+	{
+		if (aLevels[pSeat] == null)
+		{
+			return "Human";
+		}
+		return aLevels[pSeat];
+	}
+
+	private static StringBuilder separate(StringBuilder pOut, int pIndex)
+	{
+		if (pIndex > 0)
+		{
+			pOut.append(',');
+		}
+		return pOut;
+	}
+
+	/**
+	 * A thread-safe distribution of durations: their count, sum and maximum, and a histogram with one bucket per power
+	 * of two nanoseconds.
+	 */
+	public static final class Histogram
+	{
+		private static final int BUCKETS = Long.SIZE;
+
+		private final LongAdder aCount = new LongAdder();
+		private final LongAdder aTotal = new LongAdder();
+		private final AtomicLong aMax = new AtomicLong();
+		private final AtomicLongArray aBuckets = new AtomicLongArray(BUCKETS);
+
+		private Histogram()
+		{
+		}
+
+		/**
+		 * @param pNanos
+		 *            A duration to add to the distribution.
+		 */
+		public void record(long pNanos)
+		{
+			aCount.increment();
+			aTotal.add(pNanos);
+			long lMax = aMax.get();
+			while (pNanos > lMax && !aMax.compareAndSet(lMax, pNanos))
+			{
+				lMax = aMax.get();
+			}
+			aBuckets.incrementAndGet(BUCKETS - 1 - Long.numberOfLeadingZeros(Math.max(pNanos, 1)));
+		}
+
+		/**
+		 * @return The number of durations recorded.
+		 */
+		public long getCount()
+		{
+			return aCount.sum();
+		}
+
+		/**
+		 * @return The sum of the durations, in nanoseconds.
+		 */
+		public long getTotalNanos()
+		{
+			return aTotal.sum();
+		}
+
+		/**
+		 * @return The longest duration, in nanoseconds.
+		 */
+		public long getMaxNanos()
+		{
+			return aMax.get();
+		}
+
+		/**
+		 * @return The average duration in nanoseconds, or 0 if none was recorded.
+		 */
+		public double getMeanNanos()
+		{
+			long lCount = getCount();
+			if (lCount == 0)
+			{
+				return 0;
+			}
+			return (double) getTotalNanos() / lCount;
+		}
+
+		/**
+		 * @param pFraction
+		 *            A fraction of the durations, between 0 and 1.
+		 * @return An upper bound of the duration below which pFraction of the durations are, within a factor of 2, or
+		 *         0 if none was recorded.
+		 */
+		public long getPercentileNanos(double pFraction)
+		{
+			long lCount = 0;
+			for (int i = 0; i < BUCKETS; i++)
+			{
+				lCount += aBuckets.get(i);
+			}
+			long lSeen = 0;
+			for (int i = 0; i < BUCKETS; i++)
+			{
+				lSeen += aBuckets.get(i);
+				if (lSeen > 0 && lSeen >= pFraction * lCount)
+				{
+					return Math.min((2L << i) - 1, getMaxNanos());
+				}
+			}
+			return 0;
+		}
+
+		private void toText(StringBuilder pOut, String pName)
+		{
+			final double lP50 = 0.5;
+			final double lP99 = 0.99;
+			pOut.append(String.format("%-24s %10d %10.1f %10.1f %10.1f %10.1f%n", pName, getCount(), getMeanNanos()
+					/ NANOS_PER_MICRO, getPercentileNanos(lP50) / NANOS_PER_MICRO, getPercentileNanos(lP99)
+					/ NANOS_PER_MICRO, getMaxNanos() / NANOS_PER_MICRO));
+		}
+
+		private void toJson(StringBuilder pOut)
+		{
+			final double lP50 = 0.5;
+			final double lP99 = 0.99;
+			pOut.append("{\"count\":").append(getCount()).append(",\"totalNanos\":").append(getTotalNanos())
+					.append(",\"p50Nanos\":").append(getPercentileNanos(lP50)).append(",\"p99Nanos\":")
+					.append(getPercentileNanos(lP99)).append(",\"maxNanos\":").append(getMaxNanos()).append('}');
+		}
+	}
+}
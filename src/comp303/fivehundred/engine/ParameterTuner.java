@@ -0,0 +1,351 @@
+package comp303.fivehundred.engine;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+
+import comp303.fivehundred.ai.AIParameters;
+import comp303.fivehundred.util.SplitMixRandom;
+
+/**
+ * Tunes the constants of the heuristics of the basic or advanced robots (see AIParameters) by self-play, with
+ * simultaneous perturbation stochastic approximation (SPSA). Every iteration moves all the parameters of the level at
+ * once in a random direction and its opposite, and plays a match between the two: the difference of their results
+ * estimates the slope of the win rate along that direction, and the parameters take a step up the slope.
+ *
+ * The two sides of a match play the same game seeds twice, once from each pair of seats, so that the luck of the
+ * deals mostly cancels out (common random numbers). The games of a match are spread over worker threads by
+ * Tournament. The parameters reached are written to the output file after every iteration, and the last ones are
+ * compared with the starting ones at the end.
+ *
+ * <pre>
+ * java comp303.fivehundred.engine.ParameterTuner [options]
+ *   --level L         the AI whose parameters are tuned: basic or advanced (default advanced)
+ *   --iterations N    the number of SPSA iterations (default 100)
+ *   --games N         the number of games of each match, rounded up to an even number (default 400)
+ *   --threads N       the number of worker threads (default: the number of processors)
+ *   --seed S          the seed of the perturbations and of the games (default: the current time)
+ *   --start FILE      the parameters to start from (default: the defaults of AIParameters)
+ *   --output FILE     the file of the tuned parameters (default tuned.properties)
+ * </pre>
+ *
+ * @author Jake Shamash
+ */
+public final class ParameterTuner
+{
+	private static final int NUM_PLAYERS = 4;
+	private static final int DEFAULT_ITERATIONS = 100;
+	private static final int DEFAULT_GAMES = 400;
+	private static final int EXIT_USAGE = 2;
+	private static final double PERCENT = 100.0;
+
+	// The gain sequences of SPSA, in units of the range of each parameter: a / (k + 1 + A)^ALPHA and c / (k + 1)^GAMMA.
+	private static final double STEP_GAIN = 0.1;
+	private static final double PERTURBATION_GAIN = 0.1;
+	private static final double STEP_DECAY = 0.602;
+	private static final double PERTURBATION_DECAY = 0.101;
+	private static final double STABILITY_FRACTION = 0.1;
+
+	private int aLevel = GameEngine.ADVANCED_AI;
+	private int aIterations = DEFAULT_ITERATIONS;
+	private int aGames = DEFAULT_GAMES;
+	private int aThreads = Runtime.getRuntime().availableProcessors();
+	private long aSeed = System.nanoTime();
+	private String aStart;
+	private String aOutput = "tuned.properties";
+	private boolean aQuiet;
+
+	/**
+	 * Reads the options of a tuning run.
+	 *
+	 * @param pArgs
+	 *            The command line arguments.
+	 * @throws IllegalArgumentException
+	 *             if an option is unknown, has no value or has an invalid value.
+	 */
+	public ParameterTuner(String[] pArgs)
+	{
+		for (int i = 0; i < pArgs.length; i += 2)
+		{
+			if (i + 1 >= pArgs.length)
+			{
+				throw new IllegalArgumentException("Missing value for " + pArgs[i]);
+			}
+			String lValue = pArgs[i + 1];
+			if ("--level".equals(pArgs[i]))
+			{
+				aLevel = parseLevel(lValue);
+			}
+			else if ("--iterations".equals(pArgs[i]))
+			{
+				aIterations = parsePositive(pArgs[i], lValue);
+			}
+			else if ("--games".equals(pArgs[i]))
+			{
+				aGames = parsePositive(pArgs[i], lValue);
+			}
+			else if ("--threads".equals(pArgs[i]))
+			{
+				aThreads = parsePositive(pArgs[i], lValue);
+			}
+			else if ("--seed".equals(pArgs[i]))
+			{
+				aSeed = Long.parseLong(lValue);
+			}
+			else if ("--start".equals(pArgs[i]))
+			{
+				aStart = lValue;
+			}
+			else if ("--output".equals(pArgs[i]))
+			{
+				aOutput = lValue;
+			}
+			else
+			{
+				throw new IllegalArgumentException("Unknown option " + pArgs[i]);
+			}
+		}
+	}
+
+	/**
+	 * Runs a tuning session.
+	 *
+	 * @param pArgs
+	 *            The command line arguments, described in the documentation of the class.
+	 */
+	public static void main(String[] pArgs)
+	{
+		ParameterTuner lTuner;
+		try
+		{
+			lTuner = new ParameterTuner(pArgs);
+		}
+		catch (IllegalArgumentException e)
+		{
+			System.err.println(e.getMessage());
+			System.err.println("Usage: ParameterTuner [--level basic|advanced] [--iterations N] [--games N] [--threads N]"
+					+ " [--seed S] [--start FILE] [--output FILE]");
+			System.exit(EXIT_USAGE);
+			return;
+		}
+		lTuner.run();
+	}
+
+	/**
+	 * @param pQuiet
+	 *            True to not print the progress of the tuning to the standard output.
+	 */
+	public void setQuiet(boolean pQuiet)
+	{
+		aQuiet = pQuiet;
+	}
+
+	/**
+	 * Tunes the parameters and writes them to the output file.
+	 *
+	 * @return The tuned parameters.
+	 * @throws GameException
+	 *             if the starting parameters cannot be read, the output cannot be written or a game fails.
+	 */
+	public AIParameters run()
+	{
+		AIParameters.Parameter[] lAll = AIParameters.Parameter.values();
+		AIParameters lStart = readStart();
+		double[] lTheta = normalize(lStart.toArray());
+		Random lRandom = new SplitMixRandom(SplitMixRandom.mix(aSeed));
+		double lStability = STABILITY_FRACTION * aIterations;
+
+		AIParameters lCurrent = lStart;
+		for (int k = 0; k < aIterations; k++)
+		{
+			double lStep = STEP_GAIN / Math.pow(k + 1 + lStability, STEP_DECAY);
+			double lPerturbation = PERTURBATION_GAIN / Math.pow(k + 1, PERTURBATION_DECAY);
+
+			// Perturb the parameters of the level by +c or -c each; the others do not change the games.
+			double[] lDelta = new double[lAll.length];
+			double[] lPlus = lTheta.clone();
+			double[] lMinus = lTheta.clone();
+			for (AIParameters.Parameter lParameter : lAll)
+			{
+				int i = lParameter.ordinal();
+				if (lParameter.getLevel() == aLevel)
+				{
+					lDelta[i] = 1;
+					if (lRandom.nextBoolean())
+					{
+						lDelta[i] = -1;
+					}
+					lPlus[i] = clamp(lTheta[i] + lPerturbation * lDelta[i]);
+					lMinus[i] = clamp(lTheta[i] - lPerturbation * lDelta[i]);
+				}
+			}
+
+			double lScore = match(denormalize(lPlus), denormalize(lMinus), SplitMixRandom.streamSeed(aSeed, k));
+			// The slope along parameter i is lScore / (2 c delta_i), and 1 / delta_i = delta_i.
+			for (int i = 0; i < lAll.length; i++)
+			{
+				lTheta[i] = clamp(lTheta[i] + lStep * lScore / (2 * lPerturbation) * lDelta[i]);
+			}
+			lCurrent = denormalize(lTheta);
+			write(lCurrent, String.format(Locale.ROOT, "SPSA iteration %d of %d, level %d, seed %d", k + 1,
+					aIterations, aLevel, aSeed));
+			if (!aQuiet)
+			{
+				System.out.printf(Locale.ROOT, "%d/%d %+.3f %s%n", k + 1, aIterations, lScore, lCurrent);
+			}
+		}
+
+		if (!aQuiet)
+		{
+			double lFinal = match(lCurrent, lStart, SplitMixRandom.streamSeed(aSeed, aIterations));
+			System.out.printf(Locale.ROOT, "Tuned against starting parameters: %.1f%% of the games won%n",
+					(1 + lFinal) / 2 * PERCENT);
+		}
+		return lCurrent;
+	}
+
+	/**
+	 * Plays a match between two sets of parameters of the level tuned. Both sides play the same game seeds from both
+	 * pairs of seats.
+	 *
+	 * @param pFirst
+	 *            The parameters of the first side.
+	 * @param pSecond
+	 *            The parameters of the second side.
+	 * @param pSeed
+	 *            The seed of the games of the match.
+	 * @return The games won by the first side minus the games won by the second, over the number of games played.
+	 */
+	double match(AIParameters pFirst, AIParameters pSecond, long pSeed)
+	{
+		int lHalf = (aGames + 1) / 2;
+		int lWon = 0;
+		for (int lSide = 0; lSide < 2; lSide++)
+		{
+			String[] lNames = new String[NUM_PLAYERS];
+			int[] lTypes = new int[NUM_PLAYERS];
+			for (int i = 0; i < NUM_PLAYERS; i++)
+			{
+				lNames[i] = "Tuner" + i;
+				lTypes[i] = aLevel;
+			}
+			Tournament lTournament = new Tournament(lNames, lTypes, aThreads, pSeed);
+			for (int i = 0; i < NUM_PLAYERS; i++)
+			{
+				// The first side sits at seats 0 and 2, then at seats 1 and 3.
+				if (i % 2 == lSide)
+				{
+					lTournament.setParameters(i, pFirst);
+				}
+				else
+				{
+					lTournament.setParameters(i, pSecond);
+				}
+			}
+			lWon += lTournament.play(lHalf).getGamesWon(lSide);
+		}
+		return (2.0 * lWon - 2 * lHalf) / (2 * lHalf);
+	}
+
+	private AIParameters readStart()
+	{
+		if (aStart == null)
+		{
+			return AIParameters.DEFAULTS;
+		}
+		try
+		{
+			Reader lIn = new InputStreamReader(new FileInputStream(aStart), StandardCharsets.UTF_8);
+			try
+			{
+				return AIParameters.load(lIn);
+			}
+			finally
+			{
+				lIn.close();
+			}
+		}
+		catch (IOException e)
+		{
+			throw new GameException("Cannot read the parameters of " + aStart, e);
+		}
+	}
+
+	private void write(AIParameters pParameters, String pComment)
+	{
+		try
+		{
+			Writer lOut = new OutputStreamWriter(new FileOutputStream(aOutput), StandardCharsets.UTF_8);
+			try
+			{
+				pParameters.store(lOut, pComment);
+			}
+			finally
+			{
+				lOut.close();
+			}
+		}
+		catch (IOException e)
+		{
+			throw new GameException("Cannot write the parameters to " + aOutput, e);
+		}
+	}
+
+	// Maps each value to [0, 1] over the range of its parameter, so that one step size suits all parameters.
+	private static double[] normalize(double[] pValues)
+	{
+		double[] lTheta = new double[pValues.length];
+		for (AIParameters.Parameter lParameter : AIParameters.Parameter.values())
+		{
+			int i = lParameter.ordinal();
+			lTheta[i] = (pValues[i] - lParameter.getMin()) / (lParameter.getMax() - lParameter.getMin());
+		}
+		return lTheta;
+	}
+
+	private static AIParameters denormalize(double[] pTheta)
+	{
+		double[] lValues = new double[pTheta.length];
+		for (AIParameters.Parameter lParameter : AIParameters.Parameter.values())
+		{
+			int i = lParameter.ordinal();
+			lValues[i] = lParameter.getMin() + pTheta[i] * (lParameter.getMax() - lParameter.getMin());
+		}
+		return new AIParameters(lValues);
+	}
+
+	private static double clamp(double pTheta)
+	{
+		return Math.min(1, Math.max(0, pTheta));
+	}
+
+	private static int parseLevel(String pLevel)
+	{
+		if ("basic".equalsIgnoreCase(pLevel) || Integer.toString(GameEngine.BASIC_AI).equals(pLevel))
+		{
+			return GameEngine.BASIC_AI;
+		}
+		if ("advanced".equalsIgnoreCase(pLevel) || Integer.toString(GameEngine.ADVANCED_AI).equals(pLevel))
+		{
+			return GameEngine.ADVANCED_AI;
+		}
+		throw new IllegalArgumentException("Only the basic and advanced AI have parameters: " + pLevel);
+	}
+
+	private static int parsePositive(String pOption, String pValue)
+	{
+		int lValue = Integer.parseInt(pValue);
+		if (lValue <= 0)
+		{
+			throw new IllegalArgumentException(pOption + " must be positive: " + pValue);
+		}
+		return lValue;
+	}
+}
@@ -0,0 +1,115 @@
+package comp303.fivehundred.engine;
+
+import comp303.fivehundred.logger.RecordReader;
+import comp303.fivehundred.logger.RoundRecord;
+
+/**
+ * Replays the games of a file written by a RecordWriter through a GameEngine. The engine deals the recorded cards and
+ * makes the recorded bids, discards and plays without asking its players, so a game is replayed at the cost of its
+ * events: listeners such as GameStatistics, or new analyzers, can be run over recorded games much faster than the
+ * games can be played again.
+ *
+ * @author Jake Shamash
+ */
+public class Replayer
+{
+	private static final int NUM_TRICKS = 10;
+
+	private final GameEngine aEngine;
+	private final RoundRecord aRecord = new RoundRecord();
+
+	/**
+	 * @param pEngine
+	 *            The engine that replays the games. Its listeners receive the events of the games.
+	 * @pre pEngine != null
+	 */
+	public Replayer(GameEngine pEngine)
+	{
+		assert pEngine != null;
+		aEngine = pEngine;
+	}
+
+	/**
+	 * Replays all the games of a file.
+	 *
+	 * @param pReader
+	 *            The records to replay.
+	 * @return The number of games replayed.
+	 * @throws GameException
+	 *             if the file does not start with a new game, ends in the middle of a game, or if a game ends before
+	 *             the next new game.
+	 */
+	public int replay(RecordReader pReader)
+	{
+		return replay(pReader, 0, pReader.size());
+	}
+
+	/**
+	 * Replays the games recorded between two records.
+	 *
+	 * @param pReader
+	 *            The records to replay.
+	 * @param pFirst
+	 *            The index of the first round of the first game.
+	 * @param pLast
+	 *            The index after the last round of the last game.
+	 * @return The number of games replayed.
+	 * @throws GameException
+	 *             if pFirst does not start a game, if pLast is in the middle of a game, or if a game ends before the
+	 *             next new game.
+	 * @pre pFirst >= 0 && pFirst <= pLast && pLast <= pReader.size()
+	 */
+	public int replay(RecordReader pReader, long pFirst, long pLast)
+	{
+		assert pFirst >= 0 && pFirst <= pLast && pLast <= pReader.size();
+		int lGames = 0;
+		long lNext = pFirst;
+		aEngine.setReplay(aRecord);
+		try
+		{
+			while (lNext < pLast)
+			{
+				pReader.read(lNext, aRecord);
+				if (!aRecord.isNewGame())
+				{
+					throw new GameException("Record " + lNext + " does not start a game.");
+				}
+				aEngine.newGame();
+				boolean lFirst = true;
+				while (!aEngine.isGameOver())
+				{
+					do
+					{
+						if (lNext >= pLast)
+						{
+							throw new GameException("The records end in the middle of a game.");
+						}
+						pReader.read(lNext, aRecord);
+						if (aRecord.isNewGame() != lFirst)
+						{
+							throw new GameException("Record " + lNext + " does not continue the game.");
+						}
+						lFirst = false;
+						lNext++;
+						aEngine.deal();
+						aEngine.bid();
+					}
+					while (aEngine.allPasses());
+
+					aEngine.exchange();
+					for (int i = 0; i < NUM_TRICKS; i++)
+					{
+						aEngine.playTrick();
+					}
+					aEngine.computeScore();
+				}
+				lGames++;
+			}
+		}
+		finally
+		{
+			aEngine.setReplay(null);
+		}
+		return lGames;
+	}
+}
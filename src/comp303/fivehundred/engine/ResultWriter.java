@@ -0,0 +1,168 @@
+package comp303.fivehundred.engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes GameRecords to a character stream as they arrive, one line per game, so that the results of a long run are
+ * on disk as soon as each game is over and never accumulate in memory. Two formats are supported:
+ * - CSV, with a header line;
+ * - JSON Lines: one JSON object per line, which tools can read one game at a time.
+ *
+ * Workers of a Tournament share one writer, so write() is synchronized. The lines come in the order the games finish;
+ * the game number identifies them.
+ *
+ * @author Jake Shamash
+ */
+public class ResultWriter implements Closeable
+{
+	private static final int NUM_PLAYERS = 4;
+
+	/**
+	 * The output formats.
+	 */
+	public enum Format
+	{
+		CSV, JSON
+	}
+
+	private final Writer aWriter;
+	private final Format aFormat;
+	private final StringBuilder aLine = new StringBuilder();
+	private int aWritten;
+
+	/**
+	 * Creates a writer. Writes the header line in CSV.
+	 *
+	 * @param pWriter
+	 *            The stream to write to. Closed by close().
+	 * @param pFormat
+	 *            The output format.
+	 * @throws GameException
+	 *             if the header cannot be written.
+	 * @pre pWriter != null && pFormat != null
+	 */
+	public ResultWriter(Writer pWriter, Format pFormat)
+	{
+		assert pWriter != null && pFormat != null;
+		aWriter = pWriter;
+		aFormat = pFormat;
+		if (aFormat == Format.CSV)
+		{
+			aLine.append("game,seed,winner,rounds");
+			String[] lColumns = {"score", "tricks", "contracts", "made"};
+			for (String lColumn : lColumns)
+			{
+				for (int i = 0; i < NUM_PLAYERS; i++)
+				{
+					aLine.append(',').append(lColumn).append(i);
+				}
+			}
+			writeLine();
+		}
+	}
+
+	/**
+	 * Writes one game and flushes the stream.
+	 *
+	 * @param pRecord
+	 *            The game to write.
+	 * @throws GameException
+	 *             if the stream fails.
+	 */
+	public synchronized void write(GameRecord pRecord)
+	{
+		if (aFormat == Format.CSV)
+		{
+			aLine.append(pRecord.getGame()).append(',').append(pRecord.getSeed()).append(',').append(pRecord.getWinner())
+					.append(',').append(pRecord.getRounds());
+			for (int i = 0; i < NUM_PLAYERS; i++)
+			{
+				aLine.append(',').append(pRecord.getScore(i));
+			}
+			for (int i = 0; i < NUM_PLAYERS; i++)
+			{
+				aLine.append(',').append(pRecord.getTricks(i));
+			}
+			for (int i = 0; i < NUM_PLAYERS; i++)
+			{
+				aLine.append(',').append(pRecord.getContracts(i));
+			}
+			for (int i = 0; i < NUM_PLAYERS; i++)
+			{
+				aLine.append(',').append(pRecord.getContractsMade(i));
+			}
+		}
+		else
+		{
+			aLine.append("{\"game\":").append(pRecord.getGame()).append(",\"seed\":").append(pRecord.getSeed())
+					.append(",\"winner\":").append(pRecord.getWinner()).append(",\"rounds\":").append(pRecord.getRounds());
+			aLine.append(",\"scores\":[");
+			for (int i = 0; i < NUM_PLAYERS; i++)
+			{
+				separate(i).append(pRecord.getScore(i));
+			}
+			aLine.append("],\"tricks\":[");
+			for (int i = 0; i < NUM_PLAYERS; i++)
+			{
+				separate(i).append(pRecord.getTricks(i));
+			}
+			aLine.append("],\"contracts\":[");
+			for (int i = 0; i < NUM_PLAYERS; i++)
+			{
+				separate(i).append(pRecord.getContracts(i));
+			}
+			aLine.append("],\"made\":[");
+			for (int i = 0; i < NUM_PLAYERS; i++)
+			{
+				separate(i).append(pRecord.getContractsMade(i));
+			}
+			aLine.append("]}");
+		}
+		writeLine();
+		aWritten++;
+	}
+
+	/**
+	 * @return The number of games written.
+	 */
+	public synchronized int getWritten()
+	{
+		return aWritten;
+	}
+
+	@Override
+	public synchronized void close() throws IOException
+	{
+		aWriter.close();
+	}
+
+	// Appends the separator that comes before element pIndex of a JSON array.
+	private StringBuilder separate(int pIndex)
+	{
+		if (pIndex > 0)
+		{
+			aLine.append(',');
+		}
+		return aLine;
+	}
+
+	private void writeLine()
+	{
+		aLine.append('\n');
+		try
+		{
+			aWriter.append(aLine);
+			aWriter.flush();
+		}
+		catch (IOException e)
+		{
+			throw new GameException("Cannot write the game results.", e);
+		}
+		finally
+		{
+			aLine.setLength(0);
+		}
+	}
+}
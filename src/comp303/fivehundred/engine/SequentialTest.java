@@ -0,0 +1,374 @@
+package comp303.fivehundred.engine;
+
+import java.util.Locale;
+
+/**
+ * A statistical test that a Tournament updates after every look of a few games, and that tells it when to stop. It
+ * compares the partnership of seats 0 and 2 with that of seats 1 and 3 on one of two metrics: the rate of games won by
+ * seats 0 and 2, or the final score of seats 0 and 2 minus that of seats 1 and 3.
+ *
+ * Two kinds of tests are available:
+ * - sprt() is a sequential probability ratio test between two values of the metric, H0 and H1. It accepts the one the
+ *   games favour as soon as the log-likelihood ratio leaves the bounds of Wald, so that the probability of accepting
+ *   H1 when H0 is true is at most alpha, and of accepting H0 when H1 is true at most beta. The likelihood of the win
+ *   rate is exact; that of the score margin is normal, with the variance estimated from the games.
+ * - interval() stops as soon as the confidence interval of the metric excludes a tie (H1: one partnership is better),
+ *   or fits within a tolerance around a tie (H0: they are equivalent). Each look uses a Bonferroni share of alpha, so
+ *   that the probability of a wrong decision over all the looks of a tournament is at most alpha.
+ *
+ * @author Jake Shamash
+ */
+public final class SequentialTest
+{
+	/**
+	 * The number of games between two looks at the results, by default.
+	 */
+	public static final int DEFAULT_LOOK = 100;
+
+	/**
+	 * The metrics a test can compare.
+	 */
+	public enum Metric
+	{
+		/** The rate of games won by seats 0 and 2: 0.5 is a tie. */
+		WINS,
+		/** The final score of seats 0 and 2 minus that of seats 1 and 3, per game: 0 is a tie. */
+		SCORE
+	}
+
+	/**
+	 * The state of a test.
+	 */
+	public enum Decision
+	{
+		/** More games are needed. */
+		CONTINUE,
+		/** H0 is accepted. */
+		ACCEPT_H0,
+		/** H1 is accepted. */
+		ACCEPT_H1
+	}
+
+	private static final double HALF = 0.5;
+	private static final int BISECTIONS = 100;
+	private static final double MAX_QUANTILE = 40;
+
+	private final Metric aMetric;
+	private final boolean aRatio; // True for an SPRT, false for a confidence interval
+	private final double aH0; // The metric under H0 for an SPRT, the tolerance of an interval
+	private final double aH1;
+	private final double aAlpha;
+	private final double aBeta;
+	private final int aLook;
+
+	private int aMaxGames;
+	private int aGames;
+	private double aMean;
+	private double aStatistic; // The log-likelihood ratio of an SPRT, the half-width of an interval
+	private Decision aDecision = Decision.CONTINUE;
+
+	private SequentialTest(Metric pMetric, boolean pRatio, double pH0, double pH1, double pAlpha, double pBeta, int pLook)
+	{
+		assert pAlpha > 0 && pAlpha < 1 && pBeta > 0 && pBeta < 1;
+		assert pLook > 0;
+		aMetric = pMetric;
+		aRatio = pRatio;
+		aH0 = pH0;
+		aH1 = pH1;
+		aAlpha = pAlpha;
+		aBeta = pBeta;
+		aLook = pLook;
+	}
+
+	/**
+	 * Creates a sequential probability ratio test.
+	 *
+	 * @param pMetric
+	 *            The metric compared.
+	 * @param pH0
+	 *            The value of the metric under H0.
+	 * @param pH1
+	 *            The value of the metric under H1.
+	 * @param pAlpha
+	 *            The highest probability of accepting H1 when H0 is true.
+	 * @param pBeta
+	 *            The highest probability of accepting H0 when H1 is true.
+	 * @param pLook
+	 *            The number of games between two looks.
+	 * @return The test.
+	 * @pre pH0 != pH1, and both are strictly between 0 and 1 for Metric.WINS
+	 */
+	public static SequentialTest sprt(Metric pMetric, double pH0, double pH1, double pAlpha, double pBeta, int pLook)
+	{
+		assert pH0 != pH1;
+		assert pMetric != Metric.WINS || pH0 > 0 && pH0 < 1 && pH1 > 0 && pH1 < 1;
+		return new SequentialTest(pMetric, true, pH0, pH1, pAlpha, pBeta, pLook);
+	}
+
+	/**
+	 * Creates a confidence interval test.
+	 *
+	 * @param pMetric
+	 *            The metric compared.
+	 * @param pTolerance
+	 *            The largest distance from a tie at which the partnerships are considered equivalent.
+	 * @param pAlpha
+	 *            The highest probability of a wrong decision.
+	 * @param pLook
+	 *            The number of games between two looks.
+	 * @return The test.
+	 * @pre pTolerance > 0
+	 */
+	public static SequentialTest interval(Metric pMetric, double pTolerance, double pAlpha, int pLook)
+	{
+		assert pTolerance > 0;
+		return new SequentialTest(pMetric, false, pTolerance, 0, pAlpha, pAlpha, pLook);
+	}
+
+	/**
+	 * @return The number of games between two looks.
+	 */
+	public int getLook()
+	{
+		return aLook;
+	}
+
+	/**
+	 * Starts a new test. Called by the tournament before its first look.
+	 *
+	 * @param pMaxGames
+	 *            The number of games the tournament plays if the test is never decided.
+	 */
+	public void start(int pMaxGames)
+	{
+		aMaxGames = pMaxGames;
+		aGames = 0;
+		aMean = 0;
+		aStatistic = 0;
+		aDecision = Decision.CONTINUE;
+	}
+
+	/**
+	 * Updates the test with the statistics of all the games played so far.
+	 *
+	 * @param pStatistics
+	 *            The statistics of the games of the tournament since start().
+	 * @return The decision of the test.
+	 */
+	public Decision update(GameStatistics pStatistics)
+	{
+		aGames = pStatistics.getGamesPlayed();
+		if (aGames == 0)
+		{
+			return aDecision;
+		}
+		double lSum = pStatistics.getTotalScore(0) - pStatistics.getTotalScore(1);
+		double lSumOfSquares = pStatistics.getScoreMarginSquares();
+		if (aMetric == Metric.WINS)
+		{
+			lSum = pStatistics.getGamesWon(0);
+			lSumOfSquares = lSum;
+		}
+		aMean = lSum / aGames;
+		double lVariance = 0;
+		if (aGames > 1)
+		{
+			lVariance = Math.max(0, (lSumOfSquares - lSum * lSum / aGames) / (aGames - 1));
+		}
+
+		if (aRatio)
+		{
+			updateRatio(lSum, lVariance);
+		}
+		else
+		{
+			updateInterval(lVariance);
+		}
+		return aDecision;
+	}
+
+	private void updateRatio(double pSum, double pVariance)
+	{
+		if (aMetric == Metric.WINS)
+		{
+			double lLosses = aGames - pSum;
+			aStatistic = pSum * Math.log(aH1 / aH0) + lLosses * Math.log((1 - aH1) / (1 - aH0));
+		}
+		else if (pVariance > 0)
+		{
+			aStatistic = (aH1 - aH0) / pVariance * (pSum - aGames * (aH0 + aH1) / 2);
+		}
+		else
+		{
+			return;
+		}
+		if (aStatistic >= getUpperBound())
+		{
+			aDecision = Decision.ACCEPT_H1;
+		}
+		else if (aStatistic <= getLowerBound())
+		{
+			aDecision = Decision.ACCEPT_H0;
+		}
+	}
+
+	private void updateInterval(double pVariance)
+	{
+		if (aGames < 2)
+		{
+			return;
+		}
+		int lLooks = Math.max(1, (aMaxGames + aLook - 1) / aLook);
+		aStatistic = quantile(1 - aAlpha / (2 * lLooks)) * Math.sqrt(pVariance / aGames);
+		double lDistance = Math.abs(aMean - getTie());
+		if (lDistance > aStatistic)
+		{
+			aDecision = Decision.ACCEPT_H1;
+		}
+		else if (lDistance + aStatistic < aH0)
+		{
+			aDecision = Decision.ACCEPT_H0;
+		}
+	}
+
+	/**
+	 * @return The decision at the last look.
+	 */
+	public Decision getDecision()
+	{
+		return aDecision;
+	}
+
+	/**
+	 * @return The number of games played at the last look.
+	 */
+	public int getGames()
+	{
+		return aGames;
+	}
+
+	/**
+	 * @return The number of games the tournament did not have to play thanks to the test.
+	 */
+	public int getGamesSaved()
+	{
+		return Math.max(0, aMaxGames - aGames);
+	}
+
+	/**
+	 * @return The value of the metric over the games played: a win rate, or a score margin per game.
+	 */
+	public double getMean()
+	{
+		return aMean;
+	}
+
+	/**
+	 * @return For an SPRT, the log-likelihood ratio of H1 against H0. For an interval, the half-width of the
+	 *         confidence interval of the metric.
+	 */
+	public double getStatistic()
+	{
+		return aStatistic;
+	}
+
+	/**
+	 * @return The log-likelihood ratio at which an SPRT accepts H0.
+	 */
+	public double getLowerBound()
+	{
+		return Math.log(aBeta / (1 - aAlpha));
+	}
+
+	/**
+	 * @return The log-likelihood ratio at which an SPRT accepts H1.
+	 */
+	public double getUpperBound()
+	{
+		return Math.log((1 - aBeta) / aAlpha);
+	}
+
+	@Override
+	public String toString()
+	{
+		StringBuilder lOut = new StringBuilder();
+		if (aRatio)
+		{
+			lOut.append(String.format(Locale.ROOT, "SPRT on %s, H0 %.4g, H1 %.4g, alpha %.3g, beta %.3g: ", aMetric, aH0,
+					aH1, aAlpha, aBeta));
+			lOut.append(String.format(Locale.ROOT, "LLR %.3f in [%.3f, %.3f], ", aStatistic, getLowerBound(),
+					getUpperBound()));
+		}
+		else
+		{
+			lOut.append(String.format(Locale.ROOT, "Interval on %s, tolerance %.4g, alpha %.3g: ", aMetric, aH0, aAlpha));
+			lOut.append(String.format(Locale.ROOT, "%.4f +/- %.4f, ", aMean, aStatistic));
+		}
+		if (aMetric == Metric.WINS)
+		{
+			lOut.append(String.format(Locale.ROOT, "win rate %.4f", aMean));
+		}
+		else
+		{
+			lOut.append(String.format(Locale.ROOT, "score margin %.1f", aMean));
+		}
+		lOut.append(String.format(Locale.ROOT, "%n%s after %d games, %d of %d games saved", aDecision, aGames,
+				getGamesSaved(), aMaxGames));
+		return lOut.toString();
+	}
+
+	private double getTie()
+	{
+		if (aMetric == Metric.WINS)
+		{
+			return HALF;
+		}
+		return 0;
+	}
+
+	/*
+	 * The quantile of the standard normal distribution, by bisection on its distribution function.
+	 */
+	static double quantile(double pProbability)
+	{
+		double lLow = -MAX_QUANTILE;
+		double lHigh = MAX_QUANTILE;
+		for (int i = 0; i < BISECTIONS; i++)
+		{
+			double lMiddle = (lLow + lHigh) / 2;
+			if (normal(lMiddle) < pProbability)
+			{
+				lLow = lMiddle;
+			}
+			else
+			{
+				lHigh = lMiddle;
+			}
+		}
+		return (lLow + lHigh) / 2;
+	}
+
+	/*
+	 * The distribution function of the standard normal distribution, from the complementary error function of Numerical
+	 * Recipes (fractional error below 1.2e-7).
+	 */
+	private static double normal(double pX)
+	{
+		final double[] lCoefficients = {-1.26551223, 1.00002368, 0.37409196, 0.09678418, -0.18628806, 0.27886807,
+			-1.13520398, 1.48851587, -0.82215223, 0.17087277};
+		final double lSqrt2 = Math.sqrt(2);
+		double lZ = Math.abs(pX) / lSqrt2;
+		double lT = 1 / (1 + lZ / 2);
+		double lPolynomial = 0;
+		for (int i = lCoefficients.length - 1; i >= 0; i--)
+		{
+			lPolynomial = lPolynomial * lT + lCoefficients[i];
+		}
+		double lErfc = lT * Math.exp(-lZ * lZ + lPolynomial);
+		if (pX >= 0)
+		{
+			return 1 - lErfc / 2;
+		}
+		return lErfc / 2;
+	}
+}
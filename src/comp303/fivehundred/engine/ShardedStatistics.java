@@ -0,0 +1,437 @@
+package comp303.fivehundred.engine;
+
+import java.io.PrintStream;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import comp303.fivehundred.model.Bid;
+import comp303.fivehundred.util.CardSet;
+
+/**
+ * Statistics that any number of engines running on different threads can feed at the same time. Every thread updates
+ * its own shard of counters, so events never contend on a lock or a shared cache line; getSnapshot() adds up the
+ * shards without stopping the threads that feed them. Besides the totals of GameStatistics, the statistics include:
+ * - the make rate of every bid, for every seat;
+ * - the average points of the contracting team for every trump;
+ * - the distribution of the length of the games, in rounds played;
+ * - the distribution of the final score of each team, in buckets of SCORE_BUCKET points.
+ *
+ * A thread must finish the game of an engine before it feeds another engine.
+ *
+ * @author Jake Shamash
+ */
+public class ShardedStatistics extends GameAdapter
+{
+	/**
+	 * The width of the buckets of the final score distribution.
+	 */
+	public static final int SCORE_BUCKET = 10;
+
+	/**
+	 * The lowest final score counted separately. Lower scores are counted with it.
+	 */
+	public static final int MIN_SCORE = -1100;
+
+	/**
+	 * The highest final score counted separately. Higher scores are counted with it.
+	 */
+	public static final int MAX_SCORE = 1500;
+
+	/**
+	 * The longest game counted separately, in rounds. Longer games are counted with it.
+	 */
+	public static final int MAX_ROUNDS = 100;
+
+	private static final int NUM_PLAYERS = 4;
+	private static final int NUM_TEAMS = 2;
+	private static final int NUM_BIDS = 25;
+	private static final int NUM_SCORES = (MAX_SCORE - MIN_SCORE) / SCORE_BUCKET + 1;
+
+	// Layout of the counters of a shard, and of a snapshot.
+	private static final int GAMES = 0;
+	private static final int ROUNDS = 1;
+	private static final int PASSED_OUT = 2;
+	private static final int TRICKS = 3;
+	private static final int GAMES_WON = 4;
+	private static final int TRICKS_WON = GAMES_WON + NUM_PLAYERS;
+	private static final int SCORES = TRICKS_WON + NUM_PLAYERS;
+	private static final int CONTRACTS = SCORES + NUM_PLAYERS;
+	private static final int MADE = CONTRACTS + NUM_PLAYERS * NUM_BIDS;
+	private static final int TRUMP_ROUNDS = MADE + NUM_PLAYERS * NUM_BIDS;
+	private static final int TRUMP_POINTS = TRUMP_ROUNDS + CardSet.NUM_TRUMP_STATES;
+	private static final int LENGTHS = TRUMP_POINTS + CardSet.NUM_TRUMP_STATES;
+	private static final int FINAL_SCORES = LENGTHS + MAX_ROUNDS + 1;
+	private static final int SIZE = FINAL_SCORES + NUM_TEAMS * NUM_SCORES;
+
+	private final CopyOnWriteArrayList<Shard> aShards = new CopyOnWriteArrayList<Shard>();
+	private final ThreadLocal<Shard> aShard = new ThreadLocal<Shard>()
+	{
+		@Override
+		protected Shard initialValue()
+		{
+			Shard lShard = new Shard();
+			aShards.add(lShard);
+			return lShard;
+		}
+	};
+
+	@Override
+	public void onNewGame(GameEngine pEngine, int pDealer)
+	{
+		Shard lShard = aShard.get();
+		lShard.add(GAMES, 1);
+		lShard.aRounds = 0;
+	}
+
+	@Override
+	public void onContract(GameEngine pEngine, int pContractHolder, Bid pContract)
+	{
+		Shard lShard = aShard.get();
+		if (pContract.isPass())
+		{
+			lShard.add(PASSED_OUT, 1);
+			return;
+		}
+		lShard.add(ROUNDS, 1);
+		lShard.aRounds++;
+		lShard.aBid = pContract.toIndex();
+		lShard.aTrumpState = CardSet.trumpIndex(pContract.getSuit());
+	}
+
+	@Override
+	public void onTrickEnd(GameEngine pEngine, int pWinner)
+	{
+		Shard lShard = aShard.get();
+		lShard.add(TRICKS, 1);
+		lShard.add(TRICKS_WON + pWinner, 1);
+	}
+
+	@Override
+	public void onScore(GameEngine pEngine, int pContractHolder, boolean pContractMade)
+	{
+		Shard lShard = aShard.get();
+		int lContract = pContractHolder * NUM_BIDS + lShard.aBid;
+		lShard.add(CONTRACTS + lContract, 1);
+		if (pContractMade)
+		{
+			lShard.add(MADE + lContract, 1);
+		}
+		lShard.add(TRUMP_ROUNDS + lShard.aTrumpState, 1);
+		lShard.add(TRUMP_POINTS + lShard.aTrumpState, pEngine.getRoundScore(pContractHolder));
+		for (int i = 0; i < NUM_PLAYERS; i++)
+		{
+			lShard.add(SCORES + i, pEngine.getRoundScore(i));
+		}
+	}
+
+	@Override
+	public void onGameOver(GameEngine pEngine, int pWinner)
+	{
+		Shard lShard = aShard.get();
+		lShard.add(GAMES_WON + pWinner, 1);
+		lShard.add(GAMES_WON + (pWinner + 2) % NUM_PLAYERS, 1);
+		lShard.add(LENGTHS + Math.min(lShard.aRounds, MAX_ROUNDS), 1);
+		for (int lTeam = 0; lTeam < NUM_TEAMS; lTeam++)
+		{
+			int lBucket = Math.floorDiv(pEngine.getGameScore(lTeam) - MIN_SCORE, SCORE_BUCKET);
+			lBucket = Math.max(0, Math.min(lBucket, NUM_SCORES - 1));
+			lShard.add(FINAL_SCORES + lTeam * NUM_SCORES + lBucket, 1);
+		}
+	}
+
+	/**
+	 * Adds up the shards of all the threads. The threads keep playing while the snapshot is taken, so a snapshot taken
+	 * during a game can count part of the events of the current rounds.
+	 *
+	 * @return The statistics gathered so far.
+	 */
+	public Snapshot getSnapshot()
+	{
+		long[] lCounts = new long[SIZE];
+		for (Shard lShard : aShards)
+		{
+			for (int i = 0; i < SIZE; i++)
+			{
+				lCounts[i] += lShard.aCounts.get(i);
+			}
+		}
+		return new Snapshot(lCounts);
+	}
+
+	/**
+	 * The counters of one thread. Only the owner thread writes them, so an increment needs no atomic read-modify-write:
+	 * lazySet publishes the new value to the readers of snapshots without a fence on the hot path.
+	 */
+	private static final class Shard
+	{
+		private final AtomicLongArray aCounts = new AtomicLongArray(SIZE);
+		private int aRounds; // Rounds played in the current game
+		private int aBid; // Index of the current contract
+		private int aTrumpState; // Trump state of the current contract
+
+		private void add(int pCounter, long pValue)
+		{
+			aCounts.lazySet(pCounter, aCounts.get(pCounter) + pValue);
+		}
+	}
+
+	/**
+	 * The statistics added up at one point in time.
+	 */
+	public static final class Snapshot
+	{
+		private static final double PERCENT = 100;
+		private static final double[] PERCENTILES = {0.5, 0.9, 0.99};
+
+		private final long[] aCounts;
+
+		private Snapshot(long[] pCounts)
+		{
+			aCounts = pCounts;
+		}
+
+		/**
+		 * @return The number of games started.
+		 */
+		public long getGamesPlayed()
+		{
+			return aCounts[GAMES];
+		}
+
+		/**
+		 * @return The number of rounds with a contract.
+		 */
+		public long getRoundsPlayed()
+		{
+			return aCounts[ROUNDS];
+		}
+
+		/**
+		 * @return The number of rounds in which every player passed.
+		 */
+		public long getRoundsPassedOut()
+		{
+			return aCounts[PASSED_OUT];
+		}
+
+		/**
+		 * @param pPlayer
+		 *            The index of the player.
+		 * @return The number of games won by the team of pPlayer.
+		 */
+		public long getGamesWon(int pPlayer)
+		{
+			return aCounts[GAMES_WON + pPlayer];
+		}
+
+		/**
+		 * @param pPlayer
+		 *            The index of the player.
+		 * @return The number of tricks won by pPlayer.
+		 */
+		public long getTricksWon(int pPlayer)
+		{
+			return aCounts[TRICKS_WON + pPlayer];
+		}
+
+		/**
+		 * @param pPlayer
+		 *            The index of the player.
+		 * @return The sum of all the round scores of pPlayer.
+		 */
+		public long getTotalScore(int pPlayer)
+		{
+			return aCounts[SCORES + pPlayer];
+		}
+
+		/**
+		 * @param pPlayer
+		 *            The index of the contract holder.
+		 * @param pBid
+		 *            The index of the contract, see Bid.toIndex().
+		 * @return The number of scored rounds in which pPlayer held contract pBid.
+		 */
+		public long getContracts(int pPlayer, int pBid)
+		{
+			return aCounts[CONTRACTS + pPlayer * NUM_BIDS + pBid];
+		}
+
+		/**
+		 * @param pPlayer
+		 *            The index of the contract holder.
+		 * @param pBid
+		 *            The index of the contract, see Bid.toIndex().
+		 * @return The number of times the team of pPlayer made contract pBid held by pPlayer.
+		 */
+		public long getContractsMade(int pPlayer, int pBid)
+		{
+			return aCounts[MADE + pPlayer * NUM_BIDS + pBid];
+		}
+
+		/**
+		 * @param pPlayer
+		 *            The index of the contract holder.
+		 * @return The fraction of the contracts of pPlayer that were made, or 0 if pPlayer held none.
+		 */
+		public double getMakeRate(int pPlayer)
+		{
+			long lContracts = 0;
+			long lMade = 0;
+			for (int lBid = 0; lBid < NUM_BIDS; lBid++)
+			{
+				lContracts += getContracts(pPlayer, lBid);
+				lMade += getContractsMade(pPlayer, lBid);
+			}
+			return ratio(lMade, lContracts);
+		}
+
+		/**
+		 * @param pBid
+		 *            The index of the contract, see Bid.toIndex().
+		 * @return The fraction of the contracts pBid that were made, whoever held them, or 0 if there were none.
+		 */
+		public double getBidMakeRate(int pBid)
+		{
+			long lContracts = 0;
+			long lMade = 0;
+			for (int i = 0; i < NUM_PLAYERS; i++)
+			{
+				lContracts += getContracts(i, pBid);
+				lMade += getContractsMade(i, pBid);
+			}
+			return ratio(lMade, lContracts);
+		}
+
+		/**
+		 * @param pTrumpState
+		 *            The trump of the contracts: the ordinal of a suit, or CardSet.NO_TRUMP.
+		 * @return The number of rounds scored with this trump.
+		 */
+		public long getTrumpRounds(int pTrumpState)
+		{
+			return aCounts[TRUMP_ROUNDS + pTrumpState];
+		}
+
+		/**
+		 * @param pTrumpState
+		 *            The trump of the contracts: the ordinal of a suit, or CardSet.NO_TRUMP.
+		 * @return The average round score of the contracting team with this trump, or 0 if there were no such rounds.
+		 */
+		public double getAveragePoints(int pTrumpState)
+		{
+			return ratio(aCounts[TRUMP_POINTS + pTrumpState], getTrumpRounds(pTrumpState));
+		}
+
+		/**
+		 * @param pRounds
+		 *            A number of rounds with a contract, up to MAX_ROUNDS.
+		 * @return The number of games that lasted pRounds rounds, or at least MAX_ROUNDS for MAX_ROUNDS.
+		 */
+		public long getGamesOfLength(int pRounds)
+		{
+			return aCounts[LENGTHS + pRounds];
+		}
+
+		/**
+		 * @param pFraction
+		 *            A fraction of the games, between 0 and 1.
+		 * @return The smallest number of rounds such that at least pFraction of the games were that short, or 0 if no
+		 *         game is over.
+		 */
+		public int getLengthPercentile(double pFraction)
+		{
+			long lGames = 0;
+			for (int i = 0; i <= MAX_ROUNDS; i++)
+			{
+				lGames += getGamesOfLength(i);
+			}
+			long lCount = 0;
+			for (int i = 0; i <= MAX_ROUNDS; i++)
+			{
+				lCount += getGamesOfLength(i);
+				if (lCount > 0 && lCount >= pFraction * lGames)
+				{
+					return i;
+				}
+			}
+			return 0;
+		}
+
+		/**
+		 * @param pTeam
+		 *            The team: 0 for players 0 and 2, 1 for players 1 and 3.
+		 * @param pScore
+		 *            A final score.
+		 * @return The number of games in which pTeam ended with a score in the bucket of pScore: between pScore
+		 *         rounded down to a multiple of SCORE_BUCKET and SCORE_BUCKET more, or beyond MIN_SCORE or MAX_SCORE for
+		 *         those buckets.
+		 */
+		public long getFinalScores(int pTeam, int pScore)
+		{
+			int lBucket = Math.floorDiv(pScore - MIN_SCORE, SCORE_BUCKET);
+			lBucket = Math.max(0, Math.min(lBucket, NUM_SCORES - 1));
+			return aCounts[FINAL_SCORES + pTeam * NUM_SCORES + lBucket];
+		}
+
+		/**
+		 * Prints the distributions: lengths of the games, make rates by seat and by bid, and points by trump.
+		 *
+		 * @param pOut
+		 *            The stream to print to.
+		 */
+		public void print(PrintStream pOut)
+		{
+			pOut.printf("Games: %d, rounds: %d, passed out: %d%n", getGamesPlayed(), getRoundsPlayed(),
+					getRoundsPassedOut());
+			pOut.print("Rounds per game:");
+			for (double lFraction : PERCENTILES)
+			{
+				pOut.printf(" p%.0f=%d", lFraction * PERCENT, getLengthPercentile(lFraction));
+			}
+			pOut.println();
+			pOut.print("Made by seat:   ");
+			for (int i = 0; i < NUM_PLAYERS; i++)
+			{
+				pOut.printf(" %5.1f%%", getMakeRate(i) * PERCENT);
+			}
+			pOut.println();
+			pOut.print("Points by trump:");
+			for (int lTrumpState = 0; lTrumpState < CardSet.NUM_TRUMP_STATES; lTrumpState++)
+			{
+				pOut.printf(" %s=%.1f", trumpName(lTrumpState), getAveragePoints(lTrumpState));
+			}
+			pOut.println();
+			pOut.println("Made by bid:");
+			for (int lBid = 0; lBid < NUM_BIDS; lBid++)
+			{
+				long lContracts = 0;
+				for (int i = 0; i < NUM_PLAYERS; i++)
+				{
+					lContracts += getContracts(i, lBid);
+				}
+				if (lContracts > 0)
+				{
+					pOut.printf("  %-16s %8d %5.1f%%%n", new Bid(lBid), lContracts, getBidMakeRate(lBid) * PERCENT);
+				}
+			}
+		}
+
+		private static String trumpName(int pTrumpState)
+		{
+			if (pTrumpState == CardSet.NO_TRUMP)
+			{
+				return "NT";
+			}
+			return CardSet.trumpOf(pTrumpState).toString();
+		}
+
+		private static double ratio(long pNumerator, long pDenominator)
+		{
+			if (pDenominator == 0)
+			{
+				return 0;
+			}
+			return (double) pNumerator / pDenominator;
+		}
+	}
+}
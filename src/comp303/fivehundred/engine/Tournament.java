@@ -0,0 +1,411 @@
+package comp303.fivehundred.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import comp303.fivehundred.ai.AIParameters;
+import comp303.fivehundred.util.SplitMixRandom;
+
+/**
+ * Plays a series of automatic games split across several worker threads. Each worker owns its own GameEngine, players
+ * and GameStatistics; the statistics of all workers are merged once every game is over. Listeners added with
+ * addListener(), such as ShardedStatistics, are shared by the engines of all the workers.
+ *
+ * Game number i of a tournament is always played with the same seed, whatever worker plays it, so a tournament gives
+ * exactly the same results as a single-threaded run with the same seed.
+ *
+ * @author Jake Shamash
+ */
+public class Tournament
+{
+	private static final double NANOS_PER_SECOND = 1e9;
+
+	private final String[] aNames;
+	private final int[] aTypes;
+	private final int aThreads;
+	private final long aSeed;
+	private final AIParameters[] aParameters; // The parameters of the robot of each seat
+	private final List<GameListener> aListeners = new CopyOnWriteArrayList<GameListener>();
+	private volatile Metrics aMetrics; // Shared by the engines of all the workers, or null
+	private int aTables = 1; // The tables of each board in duplicate mode, 1 when the games are not duplicated
+	private DuplicateStatistics aDuplicate; // The paired results of the last call to play(), or null
+	private SequentialTest aTest; // The test that stops play() early, or null to always play all the games
+
+	private int aGamesPlayed; // Number of games played by the last call to play()
+	private long aElapsedNanos; // Wall-clock time taken by the last call to play()
+
+	/**
+	 * Creates a new tournament.
+	 *
+	 * @param pNames
+	 *            The names of the 4 players, in seating order.
+	 * @param pTypes
+	 *            The types of the 4 players, as defined in GameEngine. Human players are not allowed.
+	 * @param pThreads
+	 *            The number of worker threads.
+	 * @param pSeed
+	 *            The seed from which the seed of every game is derived.
+	 * @pre pNames.length == 4 && pTypes.length == 4
+	 * @pre pThreads > 0
+	 */
+	public Tournament(String[] pNames, int[] pTypes, int pThreads, long pSeed)
+	{
+		assert pThreads > 0;
+		for (int lType : pTypes)
+		{
+			if (lType == GameEngine.HUMAN_PLAYER)
+			{
+				throw new GameException("A tournament can only be played by robot players.");
+			}
+		}
+		aNames = pNames.clone();
+		aTypes = pTypes.clone();
+		aThreads = pThreads;
+		aSeed = pSeed;
+		aParameters = new AIParameters[pTypes.length];
+		Arrays.fill(aParameters, AIParameters.DEFAULTS);
+	}
+
+	/**
+	 * Runs a default tournament between two basic and two advanced robots on all available processors.
+	 *
+	 * @param pArgs
+	 *            The command line arguments: optionally the number of games, then the number of threads, then the
+	 *            seed.
+	 */
+	public static void main(String[] pArgs)
+	{
+		final int lDefaultGames = 10000;
+		String[] lNames = { "BasicA", "AdvancedA", "BasicB", "AdvancedB" };
+		int[] lTypes = { GameEngine.BASIC_AI, GameEngine.ADVANCED_AI, GameEngine.BASIC_AI, GameEngine.ADVANCED_AI };
+
+		int lGames = lDefaultGames;
+		int lThreads = Runtime.getRuntime().availableProcessors();
+		long lSeed = System.nanoTime();
+		if (pArgs.length > 0)
+		{
+			lGames = Integer.parseInt(pArgs[0]);
+		}
+		if (pArgs.length > 1)
+		{
+			lThreads = Integer.parseInt(pArgs[1]);
+		}
+		if (pArgs.length > 2)
+		{
+			lSeed = Long.parseLong(pArgs[2]);
+		}
+
+		Tournament lTournament = new Tournament(lNames, lTypes, lThreads, lSeed);
+		lTournament.play(lGames).printStatistics();
+		lTournament.printPerformance();
+	}
+
+	/**
+	 * Adds a listener to the engines of the workers of the next calls to play(). The workers call it concurrently, so
+	 * it must be thread-safe.
+	 *
+	 * @param pListener
+	 *            The listener to add.
+	 * @pre pListener != null
+	 */
+	public void addListener(GameListener pListener)
+	{
+		assert pListener != null;
+		aListeners.add(pListener);
+	}
+
+	/**
+	 * Gives the robot of a seat other constants for its heuristics, in the next calls to play().
+	 *
+	 * @param pSeat
+	 *            The seat of the robot.
+	 * @param pParameters
+	 *            Its parameters.
+	 * @pre pParameters != null
+	 */
+	public void setParameters(int pSeat, AIParameters pParameters)
+	{
+		assert pParameters != null;
+		aParameters[pSeat] = pParameters;
+	}
+
+	/**
+	 * Plays the next calls to play() in duplicate mode. Consecutive games form boards of pTables games, whose deals all
+	 * come from the same seed (see GameEngine.setDuplicateDeals()): with 2 tables, the second table rotates the deals by
+	 * one seat, so that each partnership holds the cards the other one held at the first table; with 4 tables, the
+	 * deals are played in every rotation. The paired results are then available from getDuplicateStatistics(). If the
+	 * number of games is not a multiple of pTables, the games of the last, partial board are played and counted in the
+	 * GameStatistics, but left out of the paired results.
+	 *
+	 * @param pTables
+	 *            The number of tables of each board: 2 or 4, or 1 to play ordinary games.
+	 * @pre pTables == 1 || pTables == 2 || pTables == 4
+	 */
+	public void setDuplicate(int pTables)
+	{
+		assert pTables == 1 || pTables == 2 || pTables == 4;
+		aTables = pTables;
+	}
+
+	/**
+	 * Makes the next calls to play() stop as soon as pTest is decided. The games are then played in looks of
+	 * pTest.getLook() games, and the test is updated with the statistics of all the games played so far after each
+	 * look. Game number i is still played with the same seed, so the games played are the first games of the same
+	 * tournament without a test. The test assumes independent games, so it cannot be used in duplicate mode, where the
+	 * tables of a board are correlated.
+	 *
+	 * @param pTest
+	 *            The sequential test, or null to always play all the games.
+	 */
+	public void setSequentialTest(SequentialTest pTest)
+	{
+		aTest = pTest;
+	}
+
+	/**
+	 * @return The paired results of the last call to play() in duplicate mode, or null if it was not in duplicate mode.
+	 */
+	public DuplicateStatistics getDuplicateStatistics()
+	{
+		return aDuplicate;
+	}
+
+	/**
+	 * Makes the engines of the workers of the next calls to play() record their timings to pMetrics.
+	 *
+	 * @param pMetrics
+	 *            The metrics shared by all the workers, or null to play without metrics.
+	 */
+	public void setMetrics(Metrics pMetrics)
+	{
+		aMetrics = pMetrics;
+	}
+
+	/**
+	 * Plays pGames games, or fewer if the sequential test is decided before, and returns the merged statistics of all
+	 * of them.
+	 *
+	 * @param pGames
+	 *            The number of games to play.
+	 * @return The statistics of the games played.
+	 * @throws GameException
+	 *             if a worker fails or the calling thread is interrupted.
+	 * @pre pGames >= 0
+	 * @pre There is no sequential test in duplicate mode.
+	 */
+	public GameStatistics play(int pGames)
+	{
+		return play(pGames, null);
+	}
+
+	/**
+	 * Plays pGames games, or fewer if the sequential test is decided before, writes the record of each game to pWriter
+	 * as soon as it is over, and returns the merged statistics of all of them.
+	 *
+	 * @param pGames
+	 *            The number of games to play.
+	 * @param pWriter
+	 *            The writer that receives the record of every game, in the order they finish. Null to only keep the
+	 *            statistics.
+	 * @return The statistics of the games played.
+	 * @throws GameException
+	 *             if a worker fails, the records cannot be written or the calling thread is interrupted.
+	 * @pre pGames >= 0
+	 * @pre There is no sequential test in duplicate mode.
+	 */
+	public GameStatistics play(int pGames, ResultWriter pWriter)
+	{
+		assert pGames >= 0;
+		assert aTest == null || aTables == 1;
+		int lWorkers = Math.max(1, Math.min(aThreads, pGames));
+		ExecutorService lExecutor = Executors.newFixedThreadPool(lWorkers);
+
+		aDuplicate = null;
+		if (aTables > 1)
+		{
+			aDuplicate = new DuplicateStatistics(aTables);
+		}
+		// Without a sequential test, all the games are played in one look.
+		int lLook = pGames;
+		if (aTest != null)
+		{
+			aTest.start(pGames);
+			lLook = aTest.getLook();
+		}
+
+		long lStart = System.nanoTime();
+		try
+		{
+			GameStatistics lStatistics = new GameStatistics();
+			int lPlayed = 0;
+			boolean lDecided = false;
+			while (lPlayed < pGames && !lDecided)
+			{
+				int lLast = Math.min(pGames, lPlayed + lLook);
+				play(lExecutor, lWorkers, lPlayed, lLast, pWriter, lStatistics);
+				lPlayed = lLast;
+				lDecided = aTest != null && aTest.update(lStatistics) != SequentialTest.Decision.CONTINUE;
+			}
+			aGamesPlayed = lPlayed;
+			aElapsedNanos = System.nanoTime() - lStart;
+			return lStatistics;
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new GameException("Tournament interrupted.", e);
+		}
+		catch (ExecutionException e)
+		{
+			throw new GameException("A tournament worker failed.", e.getCause());
+		}
+		finally
+		{
+			lExecutor.shutdownNow();
+		}
+	}
+
+	/*
+	 * Plays the games numbered pFirst to pLast - 1 on the workers, and adds their statistics to pStatistics. Each worker
+	 * plays a contiguous block of game numbers, made of whole boards in duplicate mode.
+	 */
+	private void play(ExecutorService pExecutor, int pWorkers, int pFirst, int pLast, ResultWriter pWriter,
+			GameStatistics pStatistics) throws InterruptedException, ExecutionException
+	{
+		List<Future<GameStatistics>> lResults = new ArrayList<Future<GameStatistics>>();
+		int lFirstBoard = pFirst / aTables;
+		int lBoards = (pLast + aTables - 1) / aTables - lFirstBoard;
+		for (int i = 0; i < pWorkers; i++)
+		{
+			int lFirst = Math.max(pFirst, Math.min(pLast, aTables * (lFirstBoard + (int) ((long) lBoards * i / pWorkers))));
+			int lLast = Math.min(pLast, aTables * (lFirstBoard + (int) ((long) lBoards * (i + 1) / pWorkers)));
+			lResults.add(pExecutor.submit(new Worker(lFirst, lLast, pWriter)));
+		}
+		for (Future<GameStatistics> lResult : lResults)
+		{
+			pStatistics.merge(lResult.get());
+		}
+	}
+
+	/**
+	 * @return The number of games per second achieved by the last call to play(), or 0 if play() was never called.
+	 */
+	public double getGamesPerSecond()
+	{
+		if (aElapsedNanos == 0)
+		{
+			return 0;
+		}
+		return aGamesPlayed * NANOS_PER_SECOND / aElapsedNanos;
+	}
+
+	/**
+	 * Prints the throughput of the last call to play().
+	 */
+	public void printPerformance()
+	{
+		System.out.printf("%d games in %.2f s on %d threads: %.1f games/sec%n", aGamesPlayed, aElapsedNanos
+				/ NANOS_PER_SECOND, aThreads, getGamesPerSecond());
+	}
+
+	/**
+	 * Derives the seed of a game from the seed of the tournament. Consecutive game numbers are scrambled so that their
+	 * generators are not correlated.
+	 *
+	 * @param pSeed
+	 *            The seed of the tournament.
+	 * @param pGame
+	 *            The game number.
+	 * @return The seed of game pGame.
+	 */
+	static long gameSeed(long pSeed, int pGame)
+	{
+		return SplitMixRandom.streamSeed(pSeed, pGame);
+	}
+
+	/**
+	 * Plays a block of games on a private engine.
+	 */
+	private class Worker implements Callable<GameStatistics>
+	{
+		private final int aFirst;
+		private final int aLast;
+		private final ResultWriter aWriter;
+
+		/**
+		 * @param pFirst
+		 *            The first game number to play.
+		 * @param pLast
+		 *            One past the last game number to play.
+		 * @param pWriter
+		 *            The writer of the game records, or null.
+		 */
+		Worker(int pFirst, int pLast, ResultWriter pWriter)
+		{
+			aFirst = pFirst;
+			aLast = pLast;
+			aWriter = pWriter;
+		}
+
+		@Override
+		public GameStatistics call()
+		{
+			GameEngine lEngine = new GameEngine(aNames, aTypes, new SplitMixRandom(aSeed));
+			for (int i = 0; i < aTypes.length; i++)
+			{
+				if (aParameters[i] != AIParameters.DEFAULTS)
+				{
+					lEngine.setAI(i, aTypes[i], aParameters[i]);
+				}
+			}
+			lEngine.setMetrics(aMetrics);
+			GameStatistics lStatistics = new GameStatistics();
+			lEngine.addListener(lStatistics);
+			for (GameListener lListener : aListeners)
+			{
+				lEngine.addListener(lListener);
+			}
+			DuplicateStatistics lDuplicate = null;
+			if (aDuplicate != null)
+			{
+				lDuplicate = new DuplicateStatistics(aTables);
+				lEngine.addListener(lDuplicate);
+			}
+			GameRecorder lRecorder = null;
+			if (aWriter != null)
+			{
+				lRecorder = new GameRecorder(aWriter);
+				lEngine.addListener(lRecorder);
+			}
+
+			for (int i = aFirst; i < aLast; i++)
+			{
+				long lSeed = gameSeed(aSeed, i);
+				if (lDuplicate != null)
+				{
+					// The tables of a board share their seed; the deals come from a generator of their own.
+					lSeed = gameSeed(aSeed, i / aTables);
+					lEngine.setDuplicateDeals(SplitMixRandom.mix(lSeed), i % aTables);
+				}
+				if (lRecorder != null)
+				{
+					lRecorder.start(i, lSeed);
+				}
+				lEngine.setSeed(lSeed);
+				Driver.playGame(lEngine);
+			}
+			if (lDuplicate != null)
+			{
+				aDuplicate.merge(lDuplicate);
+			}
+			return lStatistics;
+		}
+	}
+}
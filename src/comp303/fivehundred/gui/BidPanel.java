@@ -81,34 +81,30 @@ public class BidPanel extends JPanel implements ActionListener
 			return;
 		}
 		
-		synchronized(FHGUI.aLock)
-		{	
-			// Creates a new bid for the user based on their choice.
-			if (e.getActionCommand().equals("Pass"))
-			{
-				FHGUI.getInstance().setBid(new Bid());
-			}
-			else
+		// Creates a new bid for the user based on their choice.
+		if (e.getActionCommand().equals("Pass"))
+		{
+			FHGUI.getInstance().setBid(new Bid());
+		}
+		else
+		{
+			Bid lBid = new Bid(Integer.parseInt(e.getActionCommand()));
+			
+			// Display a warning message if the player tries to make an invalid bid.
+			if (lBid.compareTo(FHGUI.getInstance().highestBid()) <= 0)
 			{
-				Bid lBid = new Bid(Integer.parseInt(e.getActionCommand()));
-				
-				// Display a warning message if the player tries to make an invalid bid.
-				if (lBid.compareTo(FHGUI.getInstance().highestBid()) <= 0)
-				{
-					FHGUI.getInstance().setTurn();
-					FHGUI.getInstance().invalidBid();
-					return;
-				}
-				
-				FHGUI.getInstance().setBid(lBid);
+				FHGUI.getInstance().setTurn();
+				FHGUI.getInstance().invalidBid();
+				return;
 			}
 			
-			// Prevent the player from making any more selections until appropriate.
-			FHGUI.getInstance().resetSelectable();
-			
-			// Notifies the thread waiting on aLock that the user has made their selection.
-			FHGUI.getInstance().setPlayerInput(true);
-			FHGUI.aLock.notify();
-		}		
+			FHGUI.getInstance().setBid(lBid);
+		}
+		
+		// Prevent the player from making any more selections until appropriate.
+		FHGUI.getInstance().resetSelectable();
+		
+		// Resume the game now that the user has made their selection.
+		FHGUI.getInstance().playerInput();
 	}
 }
@@ -17,6 +17,8 @@ import java.util.Map;
 import javax.swing.JButton;
 import javax.swing.JFrame;
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 
 import comp303.fivehundred.engine.GameEngine;
 import comp303.fivehundred.engine.GameStatistics;
@@ -30,6 +32,10 @@ import comp303.fivehundred.util.CardList;
  * Frame in which all events during the course of the game will be displayed.
  * The user will be able to interact with it in various ways while they play.
  * 
+ * The game runs on the event dispatch thread as a sequence of steps. A Swing timer spaces out the steps so that the
+ * user can follow the game, and the game stops when it needs a choice of the user until the panels report it with
+ * playerInput().
+ * 
  * @author Brandon Hum
  *
  */
@@ -40,10 +46,13 @@ public class FHGUI extends JFrame implements ActionListener, GameObserver
 	
 	public static final Map<String, Integer> aiLevels = new HashMap<String, Integer>(); // Map between string and int representations of ai level.
 	
-	public static Object aLock = new Object(); // Lock used to wait for player input.
-	
 	private static final FHGUI aGUI = new FHGUI(); // Singleton of the FHGUI.
 	
+	/**
+	 * Default number of milliseconds between two plays.
+	 */
+	public static final int DEFAULT_PLAY_SPEED = 1000;
+	
 	// Dimensions of the screen.
 	private final int WIDTH = 800;
 	private final int HEIGHT = 700;
@@ -69,17 +78,30 @@ public class FHGUI extends JFrame implements ActionListener, GameObserver
 	
 	private boolean playerExchange = false; // Flag indicating whether the game is in the exchange state.
 	private boolean autoplay = false; // Flag indicating whether the game is in autoplay mode.
-	private boolean aPlayerInput = false; // Flag indicating whether the user has made an input.
 	
-	private int aPlaySpeed = 1; // Speed in seconds between individual plays by the computer players.
+	private int aPlaySpeed = DEFAULT_PLAY_SPEED; // Milliseconds between individual plays by the computer players.
 	
 	private int aBidPosition = 0; // Bid position.
+	private int aPlays = 0; // Number of cards played in the current trick.
+	
+	private Step aStep = Step.NEW_GAME; // Next step of the game.
+	private boolean aWaiting = true; // Flag indicating whether the game waits for an input of the user.
+	private Timer aTimer; // Runs the next step of the game.
 	
 	// Used to add KeyListener functionality to the program.
 	private KeyboardFocusManager manager;
 	private MyDispatcher aDispatcher = new MyDispatcher();
 	
-	private GameStatistics stats = new GameStatistics(); // Observer which keeps track of global statistical data.
+	private GameStatistics stats = new GameStatistics(); // Listener which keeps track of global statistical data.
+
+	/*
+	 * The steps of the game, in the order they run.
+	 */
+	private enum Step
+	{
+		NEW_GAME, DEAL, BID, BID_DONE, BID_END, EXCHANGE, DISCARD, PLAY_START, PLAY, PLAY_DONE, TRICK_END, TRICK_CLEAR,
+		ROUND_END
+	}
 
 	/**
 	 * Private constructor.  Only one instance of the FHGUI can be created.
@@ -103,6 +125,16 @@ public class FHGUI extends JFrame implements ActionListener, GameObserver
 
 		aDiscard.addActionListener(this);
 
+		aTimer = new Timer(0, new ActionListener()
+		{
+			@Override
+			public void actionPerformed(ActionEvent pEvent)
+			{
+				step();
+			}
+		});
+		aTimer.setRepeats(false);
+
 		setLayout(new GridBagLayout());
 
 		c.gridx = 1;
@@ -153,29 +185,13 @@ public class FHGUI extends JFrame implements ActionListener, GameObserver
 	}
 
 	/**
-	 * Initialize the program.
+	 * Initialize the program: displays the start up screen. The game starts when the user has made their selections.
 	 */
 	public void init()
 	{
 		// Display the start up screen.
 		aCenterPanel.add(aStart);
 		validate();
-		
-		// Wait for player input.
-		synchronized (aLock)
-		{
-			while (!aPlayerInput)
-			{
-				try
-				{
-					aLock.wait();
-				}
-				catch (InterruptedException e)
-				{
-					e.printStackTrace();
-				}
-			}
-		}
 	}
 
 	/**
@@ -189,9 +205,9 @@ public class FHGUI extends JFrame implements ActionListener, GameObserver
 		// Add this as an observer of the game engine.
 		aEngine.addGameObserver(this);
 		// Add an observer to keep track of statistics.
-		aEngine.addObserver(stats);
+		aEngine.addListener(stats);
 		// Add an observer to log the events of the game.
-		aEngine.addObserver(new LogObserver());
+		aEngine.addListener(new LogObserver());
 
 		aStats = new StatsPanel(aEngine);
 
@@ -205,6 +221,123 @@ public class FHGUI extends JFrame implements ActionListener, GameObserver
 		c.gridheight = 1;
 	}
 
+	/**
+	 * Resumes the game after an input of the user: a selection on the start up or game over screen, a bid, a
+	 * discard, a play, or autoplay being switched on. Has no effect if the game is not waiting for the user.
+	 */
+	public void playerInput()
+	{
+		if (aWaiting)
+		{
+			aWaiting = false;
+			step();
+		}
+	}
+
+	/*
+	 * Runs the next step of the game. Each step either schedules the following one on the timer, after the delay
+	 * the user should have to see what happened, or stops the game until the user makes a choice.
+	 */
+	private void step()
+	{
+		switch (aStep)
+		{
+			case NEW_GAME:
+				setUp();
+				next(Step.DEAL, 0);
+				break;
+			case DEAL:
+				deal();
+				bidStart();
+				next(Step.BID, 0);
+				break;
+			case BID:
+				nextBid();
+				break;
+			case BID_DONE:
+				aHands[(aEngine.getTurn() + 3) % 4].deselect();
+				if (aBidPosition < 4)
+				{
+					next(Step.BID, 0);
+				}
+				else
+				{
+					next(Step.BID_END, aPlaySpeed);
+				}
+				break;
+			case BID_END:
+				if (bidEnd())
+				{
+					next(Step.EXCHANGE, 2 * aPlaySpeed);
+				}
+				else
+				{
+					next(Step.DEAL, 0);
+				}
+				break;
+			case EXCHANGE:
+				exchange();
+				break;
+			case DISCARD:
+				exchangeDone();
+				break;
+			case PLAY_START:
+				playStart();
+				next(Step.PLAY, 0);
+				break;
+			case PLAY:
+				nextPlay();
+				break;
+			case PLAY_DONE:
+				playDone();
+				break;
+			case TRICK_END:
+				trickEnd();
+				next(Step.TRICK_CLEAR, 2 * aPlaySpeed);
+				break;
+			case TRICK_CLEAR:
+				clearTrick();
+				break;
+			case ROUND_END:
+				if (roundEnd())
+				{
+					gameOver();
+				}
+				else
+				{
+					next(Step.DEAL, 0);
+				}
+				break;
+			default:
+				break;
+		}
+	}
+
+	/*
+	 * Schedules a step of the game.
+	 */
+	private void next(Step pStep, int pDelay)
+	{
+		aStep = pStep;
+		aTimer.setInitialDelay(pDelay);
+		aTimer.restart();
+	}
+
+	/*
+	 * If it is the turn of the user, autoplay is off and the user has not made their choice yet, lets them make it
+	 * and stops the game until they have. The step is run again when they have.
+	 */
+	private boolean waitForUser(Object pChoice)
+	{
+		if (aEngine.getTurn() != 0 || pChoice != null || autoplay)
+		{
+			return false;
+		}
+		setTurn();
+		aWaiting = true;
+		return true;
+	}
+
 	/**
 	 * Set up the beginning of a new game.
 	 */
@@ -277,19 +410,23 @@ public class FHGUI extends JFrame implements ActionListener, GameObserver
 	{
 		aEngine.bidStart();
 		aBidPosition = 0;
+		aPlayerBid = null;
 	}
 
 	/**
-	 * As for the bid of the next player.
+	 * Asks for the bid of the next player, unless the user has to make it.
 	 */
 	public void nextBid()
 	{
 		aHands[aEngine.getTurn()].setTurn();
+		if (waitForUser(aPlayerBid))
+		{
+			return;
+		}
 		
 		aEngine.nextBid();
-		pause(1);
-		
-		aHands[(aEngine.getTurn() + 3) % 4].deselect();
+		aPlayerBid = null;
+		next(Step.BID_DONE, aPlaySpeed);
 	}
 
 	/**
@@ -299,8 +436,6 @@ public class FHGUI extends JFrame implements ActionListener, GameObserver
 	 */
 	public boolean bidEnd()
 	{
-		pause(1);
-
 		// Return false if all bids were passes.
 		if (aEngine.allPasses())
 		{
@@ -332,12 +467,11 @@ public class FHGUI extends JFrame implements ActionListener, GameObserver
 	}
 
 	/**
-	 * Ask the contract holder to exchange their cards.
+	 * Ask the contract holder to exchange their cards. If it is the human player, shows them the widow so that they
+	 * can select the cards to discard.
 	 */
 	public void exchange()
 	{
-		pause(2);
-
 		// If a computer player has the contract, have them exchange cards without displaying to the user.
 		if (!playerExchange)
 		{
@@ -345,6 +479,7 @@ public class FHGUI extends JFrame implements ActionListener, GameObserver
 			aEngine.exchangeDone();
 			
 			validate();
+			next(Step.PLAY_START, 0);
 			return;
 		}
 
@@ -355,6 +490,7 @@ public class FHGUI extends JFrame implements ActionListener, GameObserver
 		aHands[0].setExchange();
 		
 		aEngine.exchangeStart();
+		aCardsToDiscard = null;
 		
 		// Add discard button.
 		c.gridx = 1;
@@ -369,10 +505,27 @@ public class FHGUI extends JFrame implements ActionListener, GameObserver
 		
 		if (autoplay)
 		{
-			pause(1);
+			next(Step.DISCARD, aPlaySpeed);
+		}
+		else
+		{
+			next(Step.DISCARD, 0);
+		}
+	}
+
+	/*
+	 * Completes the exchange of the human player once they have selected their discards, or autoplay is on.
+	 */
+	private void exchangeDone()
+	{
+		if (aCardsToDiscard == null && !autoplay)
+		{
+			aWaiting = true;
+			return;
 		}
 		
 		aEngine.exchangeDone();
+		aCardsToDiscard = null;
 		
 		remove(aDiscard);
 		
@@ -382,6 +535,7 @@ public class FHGUI extends JFrame implements ActionListener, GameObserver
 		
 		playerExchange = false;
 		validate();
+		next(Step.PLAY_START, 0);
 	}
 
 	/**
@@ -398,13 +552,16 @@ public class FHGUI extends JFrame implements ActionListener, GameObserver
 		
 		// Add the trick panel.
 		aCenterPanel.add(aTrick);
+		aPlays = 0;
+		aPlay = null;
 		
 		repaint();
 		validate();
 	}
 
 	/**
-	 * Asks for the play of the next player.
+	 * Shows whose turn it is to play, and waits for their play: the delay between plays for a computer player or
+	 * autoplay, the choice of the user otherwise.
 	 */
 	public void nextPlay()
 	{
@@ -412,36 +569,54 @@ public class FHGUI extends JFrame implements ActionListener, GameObserver
 		
 		aHands[aEngine.getTurn()].setTurn();
 		
-		// If it is a computer player's turn or autoplay is on, pause between each play.
-		if (aEngine.getTurn() != 0 || autoplay)
+		if (waitForUser(aPlay))
 		{
-			pause(aPlaySpeed);
+			return;
 		}
 		
+		// If it is a computer player's turn or autoplay is on, pause between each play.
+		if (aPlay == null)
+		{
+			next(Step.PLAY_DONE, aPlaySpeed);
+		}
+		else
+		{
+			playDone();
+		}
+	}
+
+	/*
+	 * Makes the play of the player whose turn it is.
+	 */
+	private void playDone()
+	{
 		aEngine.nextPlay();
+		aPlay = null;
+		aPlays++;
 		
 		aHands[(aEngine.getTurn() + 3) % 4].deselect();
 		
 		validate();
+		
+		if (aPlays < 4)
+		{
+			next(Step.PLAY, 0);
+		}
+		else
+		{
+			next(Step.TRICK_END, aPlaySpeed);
+		}
 	}
 
 	/**
-	 * Called at the end of a trick to remove discarded cards and update the stats panel.
+	 * Called at the end of a trick to display its winner.
 	 */
 	public void trickEnd()
 	{
-		pause(aPlaySpeed);
-		
 		aEngine.trickEnd();
 		
 		// Display the winner of the trick.
 		declareWinner();
-		
-		// Remove all discarded cards.
-		aTrick.reset();
-		
-		// Update stats panel.
-		aStats.updateTricks();
 	}
 
 	/**
@@ -450,7 +625,28 @@ public class FHGUI extends JFrame implements ActionListener, GameObserver
 	public void declareWinner()
 	{
 		aTrick.winner(aEngine.getPlayer(aEngine.getTrickWinner()));
-		pause(2);
+	}
+
+	/*
+	 * Removes the cards of the trick once its winner has been shown, and updates the stats panel.
+	 */
+	private void clearTrick()
+	{
+		// Remove all discarded cards.
+		aTrick.reset();
+		aPlays = 0;
+		
+		// Update stats panel.
+		aStats.updateTricks();
+		
+		if (aEngine.getTricksPlayed() < 10)
+		{
+			next(Step.PLAY, 0);
+		}
+		else
+		{
+			next(Step.ROUND_END, 0);
+		}
 	}
 
 	/**
@@ -471,7 +667,7 @@ public class FHGUI extends JFrame implements ActionListener, GameObserver
 	}
 
 	/**
-	 * Called at the end of a game to display the game over screen.
+	 * Called at the end of a game to display the game over screen. A new game starts when the user asks for one.
 	 */
 	public void gameOver()
 	{	
@@ -496,21 +692,8 @@ public class FHGUI extends JFrame implements ActionListener, GameObserver
 		validate();
 		
 		// Wait for player input.
-		synchronized (aLock)
-		{
-			aPlayerInput = false;
-			while (!aPlayerInput)
-			{
-				try
-				{
-					aLock.wait();
-				}
-				catch (InterruptedException e)
-				{
-					e.printStackTrace();
-				}
-			}
-		}
+		aStep = Step.NEW_GAME;
+		aWaiting = true;
 	}
 
 	/**
@@ -657,20 +840,6 @@ public class FHGUI extends JFrame implements ActionListener, GameObserver
 		aGameOver.setStats(stats.getStatistics());
 	}
 
-	/**
-	 * Pause execution for a specified number of seconds.
-	 * 
-	 * @param sec The number of seconds to pause.
-	 */
-	public static void pause(int pSec)
-	{
-		long time = System.currentTimeMillis();
-		while (System.currentTimeMillis() < time + pSec * 1000)
-		{
-			// do nothing
-		}
-	}
-
 	/**
 	 * Get the name of a player.
 	 * 
@@ -720,30 +889,16 @@ public class FHGUI extends JFrame implements ActionListener, GameObserver
 	}
 	
 	/**
-	 * Sets the time between computer player plays in seconds.
+	 * Sets the time between computer player plays in milliseconds. Bids take as long, and the exchange and the
+	 * display of the winner of a trick twice as long. 0 plays without any delay.
 	 * 
-	 * @param pSpeed The number of seconds between plays.
+	 * @param pSpeed The number of milliseconds between plays.
+	 * @pre pSpeed >= 0
 	 */
 	public void setPlaySpeed(int pSpeed)
 	{
 		aPlaySpeed = pSpeed;
 	}
-
-	/**
-	 * @return True if player has made an input, false otherwise.
-	 */
-	public boolean hasPlayerInput()
-	{
-		return aPlayerInput;
-	}
-	
-	/**
-	 * @param pInput Sets aPlayerInput.
-	 */
-	public void setPlayerInput(boolean pInput)
-	{
-		aPlayerInput = pInput;
-	}
 	
 	/**
 	 * REUSED
@@ -777,12 +932,8 @@ public class FHGUI extends JFrame implements ActionListener, GameObserver
 				return;
 			}
 
-			synchronized (aLock)
-			{
-				// Notify that the user has made a selection.
-				aPlayerInput = true;
-				aLock.notify();
-			}
+			// Resume the game now that the user has made a selection.
+			playerInput();
 		}
 	}
 
@@ -844,12 +995,9 @@ public class FHGUI extends JFrame implements ActionListener, GameObserver
 					{
 						autoplay = true;
 						aStats.startAutoplay();
-					}
 
-					synchronized (aLock)
-					{
-						aPlayerInput = true;
-						aLock.notify();
+						// If the game waits for the user, autoplay makes their choice.
+						playerInput();
 					}
 				}
 			}
@@ -857,51 +1005,20 @@ public class FHGUI extends JFrame implements ActionListener, GameObserver
 		}
 	}
 	
+	/**
+	 * Starts the program on the event dispatch thread.
+	 * 
+	 * @param args Not used.
+	 */
 	public static void main(String[] args)
 	{
-		FHGUI lGUI = getInstance();
-
-		lGUI.init();
-		
-		while (true)
+		SwingUtilities.invokeLater(new Runnable()
 		{
-			lGUI.setUp();
-
-			boolean bid = false;
-			boolean isGameOver = false;
-
-			while (!isGameOver)
+			@Override
+			public void run()
 			{
-				do
-				{
-					lGUI.deal();
-					lGUI.bidStart();
-
-					for (int i = 0; i < 4; i++)
-					{
-						lGUI.nextBid();
-					}
-					
-					bid = lGUI.bidEnd();
-				} while (!bid);
-
-				lGUI.exchange();
-
-				lGUI.playStart();
-
-				for (int i = 0; i < 10; i++)
-				{
-					for (int j = 0; j < 4; j++)
-					{
-						lGUI.nextPlay();
-					}
-					lGUI.trickEnd();
-				}
-
-				isGameOver = lGUI.roundEnd();
+				getInstance().init();
 			}
-
-			lGUI.gameOver();
-		}
+		});
 	}
-}
\ No newline at end of file
+}
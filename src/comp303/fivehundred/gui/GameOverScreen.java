@@ -215,12 +215,8 @@ public class GameOverScreen extends JPanel implements ActionListener
 			FHGUI.getInstance().setAI(2, FHGUI.aiLevels.get(ai2.getSelectedItem()));
 			FHGUI.getInstance().setAI(3, FHGUI.aiLevels.get(ai3.getSelectedItem()));
 
-			synchronized (FHGUI.aLock)
-			{
-				// Notify that the user has made a selection.
-				FHGUI.getInstance().setPlayerInput(true);
-				FHGUI.aLock.notify();
-			}
+			// Start a new game now that the user has made a selection.
+			FHGUI.getInstance().playerInput();
 		}
 	}
 
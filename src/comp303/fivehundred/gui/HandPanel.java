@@ -239,13 +239,9 @@ public class HandPanel extends JPanel
 							return;
 						}
 
-						synchronized (FHGUI.aLock)
-						{
-							aSelectable = false;
-							FHGUI.getInstance().setPlay(Card.stringToCard(c.getName()));
-							FHGUI.getInstance().setPlayerInput(true);
-							FHGUI.aLock.notify();
-						}
+						aSelectable = false;
+						FHGUI.getInstance().setPlay(Card.stringToCard(c.getName()));
+						FHGUI.getInstance().playerInput();
 					}
 				}
 			});
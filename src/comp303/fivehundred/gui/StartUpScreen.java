@@ -197,12 +197,8 @@ public class StartUpScreen extends JPanel implements ActionListener
 		
 		FHGUI.getInstance().setEngine(new GameEngine(lNames, lTypes));
 		
-		synchronized(FHGUI.aLock)
-		{
-			// Notify the game engine that the user has made a selection.
-			FHGUI.getInstance().setPlayerInput(true);
-			FHGUI.aLock.notify();
-		}
+		// Start the game now that the user has made a selection.
+		FHGUI.getInstance().playerInput();
 
 	}
 }
@@ -26,6 +26,8 @@ import comp303.fivehundred.engine.GameEngine;
 @SuppressWarnings("serial")
 public class StatsPanel extends JPanel implements ChangeListener
 {
+	private static final int MAX_DELAY = 2000; // Longest delay that can be selected between two plays, in milliseconds.
+
 	private GameEngine aEngine; // The game engine from which information will be retrieved.
 	private JLabel aScoreTitle = new JLabel("SCORES"); // Title label for the scores.
 	private JLabel aTeam1 = new JLabel("Team 1:   0"); // Label which displays the score of team 1.
@@ -38,7 +40,7 @@ public class StatsPanel extends JPanel implements ChangeListener
 	private JLabel aTrump = new JLabel("???"); // Label which displays the trump suit.
 	private JLabel aAiLevelTitle = new JLabel("AI INTELLIGENCE"); // Title label for ai levels.
 	private JLabel[] aAiLevels = new JLabel[3];
-	private JLabel aSpeedTitle = new JLabel("GAME SPEED"); // Title label for the game speed selector.
+	private JLabel aSpeedTitle = new JLabel("DELAY (MS)"); // Title label for the game speed selector.
 	private JSlider aGameSpeed; // Slider used to select the game speed.
 	private JLabel aAutoplayTitle = new JLabel("AUTOPLAY"); // Title label for the autoplay indicator.
 	private JLabel aAutoplay = new JLabel("OFF"); // Label which will indicate whether autoplay is on or off.
@@ -71,11 +73,12 @@ public class StatsPanel extends JPanel implements ChangeListener
 		// Set slider parameters.
 		aGameSpeed = new JSlider();
 		aGameSpeed.setMinimum(0);
-		aGameSpeed.setMaximum(5);
+		aGameSpeed.setMaximum(MAX_DELAY);
 		aGameSpeed.setPaintTicks(true);
-		aGameSpeed.setMajorTickSpacing(1);
+		aGameSpeed.setMajorTickSpacing(MAX_DELAY / 2);
+		aGameSpeed.setMinorTickSpacing(MAX_DELAY / 8);
 		aGameSpeed.setSnapToTicks(true);
-		aGameSpeed.setValue(1);
+		aGameSpeed.setValue(FHGUI.DEFAULT_PLAY_SPEED);
 		aGameSpeed.setPaintLabels(true);
 		aGameSpeed.addChangeListener(this);
 		aGameSpeed.setPreferredSize(new Dimension(150, 50));
@@ -0,0 +1,505 @@
+package comp303.fivehundred.logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import comp303.fivehundred.engine.GameAdapter;
+import comp303.fivehundred.engine.GameEngine;
+import comp303.fivehundred.model.Bid;
+import comp303.fivehundred.util.Card;
+import comp303.fivehundred.util.CardSet;
+
+/**
+ * Logs the events of game engines like LogObserver, without slowing them down. The engine threads only copy a few
+ * numbers per event into a bounded ring buffer of preallocated slots; a background thread formats the events and
+ * writes them in batches of up to BATCH events. The ring buffer is lock-free and can be fed by several engines at
+ * once, as long as each thread drives one engine at a time.
+ *
+ * What happens when the buffer is full is chosen by a Policy. Independently, a sampling rate of N logs one game out of
+ * every N games of each thread; the events of the other games are not even copied.
+ *
+ * @author Jake Shamash
+ */
+public class AsyncLogObserver extends GameAdapter implements Closeable
+{
+	/**
+	 * The default number of events in the ring buffer.
+	 */
+	public static final int DEFAULT_CAPACITY = 1 << 14;
+
+	/**
+	 * The largest number of events written at once.
+	 */
+	public static final int BATCH = 256;
+
+	/**
+	 * What to do with an event that does not fit in the ring buffer.
+	 */
+	public enum Policy
+	{
+		/** Wait for the logging thread to make room: nothing is lost, but the engine can be slowed down. */
+		BLOCK,
+		/** Drop the event. The engine never waits, but the log can have holes. */
+		DROP,
+		/**
+		 * Skip whole games while the buffer is more than half full when they start, and wait for room in the games
+		 * that are logged. The log only has complete games, and the engine rarely waits.
+		 */
+		SAMPLE
+	}
+
+	private static final int NUM_PLAYERS = 4;
+	private static final int DATA = 7; // Numbers per event: the player, then up to 6 values
+	private static final long PARK_NANOS = 100000;
+	private static final int NO_BID = -1;
+
+	// Types of events
+	private static final int NEW_GAME = 0;
+	private static final int DEAL = 1;
+	private static final int BID = 2;
+	private static final int CONTRACT = 3;
+	private static final int EXCHANGE = 4;
+	private static final int CARD = 5;
+	private static final int TRICK = 6;
+	private static final int SCORE = 7;
+	private static final int GAME_OVER = 8;
+
+	private final Writer aOut;
+	private final Policy aPolicy;
+	private final int aSampleRate;
+	private final int aMask;
+
+	// The ring buffer: slot i holds the event with sequence number s if aSequences[i] == s + 1. Producers claim
+	// sequence numbers from aTail; the logging thread frees slot i for sequence s + capacity when it is done with it.
+	private final AtomicLongArray aSequences;
+	private final AtomicLong aTail = new AtomicLong();
+	private volatile long aHead;
+	private final int[] aTypes;
+	private final GameEngine[] aEngines;
+	private final long[] aData;
+
+	private final LongAdder aDropped = new LongAdder();
+	private final LongAdder aSkippedGames = new LongAdder();
+	private final ThreadLocal<Sampler> aSampler = new ThreadLocal<Sampler>()
+	{
+		@Override
+		protected Sampler initialValue()
+		{
+			return new Sampler();
+		}
+	};
+	private final Thread aConsumer;
+	private volatile boolean aClosed;
+	private IOException aError; // Written by the logging thread, read after it is joined
+
+	/**
+	 * Creates an observer that blocks when its buffer of DEFAULT_CAPACITY events is full, and logs every game.
+	 *
+	 * @param pOut
+	 *            Where to write the log. Not closed by close().
+	 */
+	public AsyncLogObserver(Writer pOut)
+	{
+		this(pOut, DEFAULT_CAPACITY, Policy.BLOCK, 1);
+	}
+
+	/**
+	 * Creates an observer and starts its logging thread.
+	 *
+	 * @param pOut
+	 *            Where to write the log. Not closed by close().
+	 * @param pCapacity
+	 *            The number of events of the ring buffer, rounded up to a power of two.
+	 * @param pPolicy
+	 *            What to do when the buffer is full.
+	 * @param pSampleRate
+	 *            Logs one game out of pSampleRate; 1 logs every game.
+	 * @pre pOut != null && pPolicy != null && pCapacity > 0 && pSampleRate > 0
+	 */
+	public AsyncLogObserver(Writer pOut, int pCapacity, Policy pPolicy, int pSampleRate)
+	{
+		assert pOut != null && pPolicy != null && pCapacity > 0 && pSampleRate > 0;
+		aOut = pOut;
+		aPolicy = pPolicy;
+		aSampleRate = pSampleRate;
+		int lCapacity = Integer.highestOneBit(pCapacity);
+		if (lCapacity < pCapacity)
+		{
+			lCapacity <<= 1;
+		}
+		aMask = lCapacity - 1;
+		aSequences = new AtomicLongArray(lCapacity);
+		for (int i = 0; i < lCapacity; i++)
+		{
+			aSequences.set(i, i);
+		}
+		aTypes = new int[lCapacity];
+		aEngines = new GameEngine[lCapacity];
+		aData = new long[lCapacity * DATA];
+
+		aConsumer = new Thread(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				consume();
+			}
+		}, "AsyncLogObserver");
+		aConsumer.setDaemon(true);
+		aConsumer.start();
+	}
+
+	@Override
+	public void onNewGame(GameEngine pEngine, int pDealer)
+	{
+		Sampler lSampler = aSampler.get();
+		lSampler.aLogging = lSampler.aGames % aSampleRate == 0;
+		lSampler.aGames++;
+		if (lSampler.aLogging && aPolicy == Policy.SAMPLE && 2 * (aTail.get() - aHead) > aMask)
+		{
+			lSampler.aLogging = false;
+			aSkippedGames.increment();
+		}
+		if (lSampler.aLogging)
+		{
+			publish(pEngine, NEW_GAME, pDealer, 0, 0, 0, 0, 0, 0);
+		}
+	}
+
+	@Override
+	public void onDeal(GameEngine pEngine, int pDealer)
+	{
+		if (aSampler.get().aLogging)
+		{
+			publish(pEngine, DEAL, pDealer, pEngine.getHandMask(0), pEngine.getHandMask(1), pEngine.getHandMask(2),
+					pEngine.getHandMask(3), pEngine.getDiscardMask(), 0);
+		}
+	}
+
+	@Override
+	public void onBid(GameEngine pEngine, int pPlayer, Bid pBid)
+	{
+		if (aSampler.get().aLogging)
+		{
+			publish(pEngine, BID, pPlayer, bidIndex(pBid), pEngine.getHandMask(pPlayer), 0, 0, 0, 0);
+		}
+	}
+
+	@Override
+	public void onContract(GameEngine pEngine, int pContractHolder, Bid pContract)
+	{
+		if (aSampler.get().aLogging)
+		{
+			publish(pEngine, CONTRACT, pContractHolder, bidIndex(pContract), 0, 0, 0, 0, 0);
+		}
+	}
+
+	@Override
+	public void onExchange(GameEngine pEngine, int pContractHolder)
+	{
+		if (aSampler.get().aLogging)
+		{
+			publish(pEngine, EXCHANGE, pContractHolder, pEngine.getDiscardMask(), pEngine.getHandMask(pContractHolder),
+					0, 0, 0, 0);
+		}
+	}
+
+	@Override
+	public void onCardPlayed(GameEngine pEngine, int pPlayer, Card pCard)
+	{
+		if (aSampler.get().aLogging)
+		{
+			publish(pEngine, CARD, pPlayer, pCard.ordinal(), pEngine.getHandMask(pPlayer) | CardSet.of(pCard), 0, 0, 0,
+					0);
+		}
+	}
+
+	@Override
+	public void onTrickEnd(GameEngine pEngine, int pWinner)
+	{
+		if (aSampler.get().aLogging)
+		{
+			publish(pEngine, TRICK, pWinner, pEngine.getTricksPlayed(), 0, 0, 0, 0, 0);
+		}
+	}
+
+	@Override
+	public void onScore(GameEngine pEngine, int pContractHolder, boolean pContractMade)
+	{
+		if (aSampler.get().aLogging)
+		{
+			int lPartner = (pContractHolder + 2) % NUM_PLAYERS;
+			int lDefender = (pContractHolder + 1) % NUM_PLAYERS;
+			int lMade = 0;
+			if (pContractMade)
+			{
+				lMade = 1;
+			}
+			publish(pEngine, SCORE, pContractHolder, lMade, pEngine.getTricksWon(pContractHolder)
+					+ pEngine.getTricksWon(lPartner), pEngine.getRoundScore(pContractHolder),
+					pEngine.getGameScore(pContractHolder), pEngine.getRoundScore(lDefender), pEngine.getGameScore(lDefender));
+		}
+	}
+
+	@Override
+	public void onGameOver(GameEngine pEngine, int pWinner)
+	{
+		if (aSampler.get().aLogging)
+		{
+			publish(pEngine, GAME_OVER, pWinner, 0, 0, 0, 0, 0, 0);
+		}
+	}
+
+	/**
+	 * @return The number of events dropped because the buffer was full.
+	 */
+	public long getDropped()
+	{
+		return aDropped.sum();
+	}
+
+	/**
+	 * @return The number of games left out by the SAMPLE policy because the buffer was filling up.
+	 */
+	public long getSkippedGames()
+	{
+		return aSkippedGames.sum();
+	}
+
+	/**
+	 * Waits until every event published so far is written, then stops the logging thread. Events published after
+	 * close() are dropped.
+	 *
+	 * @throws IOException
+	 *             if the log could not be written.
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		aClosed = true;
+		LockSupport.unpark(aConsumer);
+		try
+		{
+			aConsumer.join();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while closing the log.", e);
+		}
+		if (aError != null)
+		{
+			throw aError;
+		}
+	}
+
+	private static long bidIndex(Bid pBid)
+	{
+		if (pBid.isPass())
+		{
+			return NO_BID;
+		}
+		return pBid.toIndex();
+	}
+
+	/* Copies an event in the ring buffer, or drops it, according to the policy. */
+	private void publish(GameEngine pEngine, int pType, int pPlayer, long pData0, long pData1, long pData2, long pData3,
+			long pData4, long pData5)
+	{
+		long lSequence;
+		while (true)
+		{
+			if (aClosed)
+			{
+				aDropped.increment();
+				return;
+			}
+			lSequence = aTail.get();
+			long lFree = aSequences.get((int) lSequence & aMask);
+			if (lFree == lSequence)
+			{
+				if (aTail.compareAndSet(lSequence, lSequence + 1))
+				{
+					break;
+				}
+			}
+			else if (lFree < lSequence)
+			{
+				// Full: the logging thread has not freed the slot of the previous lap yet.
+				if (aPolicy == Policy.DROP)
+				{
+					aDropped.increment();
+					return;
+				}
+				LockSupport.parkNanos(PARK_NANOS);
+			}
+		}
+		int lSlot = (int) lSequence & aMask;
+		aTypes[lSlot] = pType;
+		aEngines[lSlot] = pEngine;
+		int lData = lSlot * DATA;
+		aData[lData] = pPlayer;
+		aData[lData + 1] = pData0;
+		aData[lData + 2] = pData1;
+		aData[lData + 3] = pData2;
+		aData[lData + 4] = pData3;
+		aData[lData + 5] = pData4;
+		aData[lData + 6] = pData5;
+		aSequences.lazySet(lSlot, lSequence + 1);
+	}
+
+	/* The loop of the logging thread. */
+	private void consume()
+	{
+		StringBuilder lBatch = new StringBuilder();
+		long lHead = aHead;
+		while (true)
+		{
+			boolean lClosed = aClosed;
+			int lCount = 0;
+			while (lCount < BATCH && aSequences.get((int) lHead & aMask) == lHead + 1)
+			{
+				int lSlot = (int) lHead & aMask;
+				format(lBatch, lSlot);
+				aEngines[lSlot] = null;
+				aSequences.lazySet(lSlot, lHead + aMask + 1);
+				lHead++;
+				aHead = lHead;
+				lCount++;
+			}
+			if (lCount > 0)
+			{
+				write(lBatch);
+			}
+			else if (lClosed && lHead == aTail.get())
+			{
+				return;
+			}
+			else
+			{
+				LockSupport.parkNanos(PARK_NANOS);
+			}
+		}
+	}
+
+	private void write(StringBuilder pBatch)
+	{
+		if (aError == null)
+		{
+			try
+			{
+				aOut.append(pBatch);
+				aOut.flush();
+			}
+			catch (IOException e)
+			{
+				aError = e;
+			}
+		}
+		pBatch.setLength(0);
+	}
+
+	private void format(StringBuilder pOut, int pSlot)
+	{
+		GameEngine lEngine = aEngines[pSlot];
+		int lData = pSlot * DATA;
+		int lPlayer = (int) aData[lData];
+		String lName = lEngine.getPlayer(lPlayer);
+		switch (aTypes[pSlot])
+		{
+		case NEW_GAME:
+			pOut.append("================NEW GAME================\n");
+			pOut.append("Game initialized. Initial dealer: ").append(lName).append('\n');
+			break;
+		case DEAL:
+			pOut.append("**************NEW DEAL**************\n");
+			pOut.append(lName).append(" is dealing\n");
+			for (int i = 0; i < NUM_PLAYERS; i++)
+			{
+				cards(pOut.append(lEngine.getPlayer(i)).append(" cards: "), aData[lData + 1 + i]).append('\n');
+			}
+			cards(pOut.append("The widow contains: "), aData[lData + 1 + NUM_PLAYERS]).append('\n');
+			break;
+		case BID:
+			cards(pOut.append(lName).append(" cards: "), aData[lData + 2]).append(" bids: ");
+			bid(pOut, aData[lData + 1]).append('\n');
+			break;
+		case CONTRACT:
+			if (aData[lData + 1] == NO_BID)
+			{
+				pOut.append("Everyone has passed, cards will now be redealt.\n");
+			}
+			else
+			{
+				bid(pOut.append(lName).append(" has the contract of "), aData[lData + 1]).append('\n');
+			}
+			break;
+		case EXCHANGE:
+			cards(pOut.append(lName).append(" discards "), aData[lData + 1]).append('\n');
+			cards(pOut.append(lName).append(" cards: "), aData[lData + 2]).append('\n');
+			break;
+		case CARD:
+			cards(pOut.append(lName).append(" cards: "), aData[lData + 2]).append(" plays: ");
+			pOut.append(Card.ofOrdinal((int) aData[lData + 1])).append('\n');
+			break;
+		case TRICK:
+			pOut.append(lName).append(" wins trick ").append(aData[lData + 1]).append(".\n");
+			break;
+		case SCORE:
+			formatScore(pOut, lEngine, lPlayer, lData);
+			break;
+		default:
+			pOut.append(lName).append(" and ").append(lEngine.getPlayer((lPlayer + 2) % NUM_PLAYERS))
+					.append(" win the game!\n");
+			break;
+		}
+	}
+
+	private void formatScore(StringBuilder pOut, GameEngine pEngine, int pHolder, int pData)
+	{
+		String lContractors = pEngine.getPlayer(pHolder) + " and " + pEngine.getPlayer((pHolder + 2) % NUM_PLAYERS);
+		pOut.append(lContractors).append(" won ").append(aData[pData + 2]).append(" tricks and ");
+		if (aData[pData + 1] == 0)
+		{
+			pOut.append("didn't make their contract!\n");
+		}
+		else
+		{
+			pOut.append("make their contract!\n");
+		}
+		pOut.append("Contractors round score: ").append(aData[pData + 3]).append(" Total score: ")
+				.append(aData[pData + 4]).append('\n');
+		pOut.append("Defenders round score: ").append(aData[pData + 5]).append(" Total score: ")
+				.append(aData[pData + 6]).append('\n');
+	}
+
+	private static StringBuilder cards(StringBuilder pOut, long pCards)
+	{
+		for (long lRest = pCards; lRest != CardSet.EMPTY; lRest &= lRest - 1)
+		{
+			pOut.append(Card.ofOrdinal(Long.numberOfTrailingZeros(lRest))).append(' ');
+		}
+		return pOut;
+	}
+
+	private static StringBuilder bid(StringBuilder pOut, long pBid)
+	{
+		if (pBid == NO_BID)
+		{
+			return pOut.append(new Bid());
+		}
+		return pOut.append(new Bid((int) pBid));
+	}
+
+	/* The sampling state of the game played by one thread. */
+	private static final class Sampler
+	{
+		private long aGames;
+		private boolean aLogging;
+	}
+}
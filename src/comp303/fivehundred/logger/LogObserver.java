@@ -1,18 +1,17 @@
 package comp303.fivehundred.logger;
 
-import java.util.Observable;
-import java.util.Observer;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import comp303.fivehundred.engine.GameAdapter;
 import comp303.fivehundred.engine.GameEngine;
+import comp303.fivehundred.model.Bid;
 
 /**
  * Observes the game engine and logs the game's events.
  * @author Abigail White
  */
-public class LogObserver implements Observer
+public class LogObserver extends GameAdapter
 {
 	private static final int NUM_PLAYERS = 4;
 	
@@ -29,33 +28,39 @@ public class LogObserver implements Observer
 	}
 
 	@Override
-	public void update(Observable pObservable, Object pObject)
-	{		
-		GameEngine engine = (GameEngine) pObservable;
-		Integer eventType = (Integer) pObject;
-		
-		switch (eventType)
-		{
-			case GameEngine.NEW_GAME_EVENT:
-				logNewGame(engine);
-				break;
-			case GameEngine.DEAL_EVENT:
-				logDeal(engine);
-				break;
-			case GameEngine.BID_EVENT:
-				logBid(engine);
-				break;
-			case GameEngine.EXCHANGE_EVENT:
-				logExchange(engine);
-				break;
-			case GameEngine.PLAY_EVENT:
-				logPlay(engine);
-				break;
-			case GameEngine.SCORE_EVENT:
-				logScore(engine);
-				break;				
-			default: // Do Nothing					
-		}
+	public void onNewGame(GameEngine pEngine, int pDealer)
+	{
+		logNewGame(pEngine);
+	}
+
+	@Override
+	public void onDeal(GameEngine pEngine, int pDealer)
+	{
+		logDeal(pEngine);
+	}
+
+	@Override
+	public void onContract(GameEngine pEngine, int pContractHolder, Bid pContract)
+	{
+		logBid(pEngine);
+	}
+
+	@Override
+	public void onExchange(GameEngine pEngine, int pContractHolder)
+	{
+		logExchange(pEngine);
+	}
+
+	@Override
+	public void onTrickEnd(GameEngine pEngine, int pWinner)
+	{
+		logPlay(pEngine);
+	}
+
+	@Override
+	public void onScore(GameEngine pEngine, int pContractHolder, boolean pContractMade)
+	{
+		logScore(pEngine);
 	}
 	
 	private void logScore(GameEngine pEngine)
@@ -0,0 +1,93 @@
+package comp303.fivehundred.logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a file written by a RecordWriter through memory maps, without copying it or reading it all. Since the records
+ * have a fixed size, any round can be read directly by its index. The file is mapped in chunks of RECORDS_PER_CHUNK
+ * records, so files larger than 2 GB can be read and no record straddles two chunks.
+ *
+ * read() only uses absolute reads of the maps, so threads can share a reader as long as each one decodes into its
+ * own RoundRecord.
+ *
+ * @author Jake Shamash
+ */
+public class RecordReader implements Closeable
+{
+	/**
+	 * The number of records in a memory-mapped chunk of the file.
+	 */
+	public static final int RECORDS_PER_CHUNK = 1 << 24;
+
+	private final FileChannel aChannel;
+	private final MappedByteBuffer[] aChunks;
+	private final long aSize;
+
+	/**
+	 * Opens a file of records.
+	 *
+	 * @param pPath
+	 *            The file to read.
+	 * @throws IOException
+	 *             if the file cannot be opened or mapped, or if its length is not a whole number of records.
+	 */
+	public RecordReader(Path pPath) throws IOException
+	{
+		aChannel = FileChannel.open(pPath, StandardOpenOption.READ);
+		try
+		{
+			long lLength = aChannel.size();
+			if (lLength % RoundRecord.SIZE != 0)
+			{
+				throw new IOException("Truncated record file: " + pPath);
+			}
+			aSize = lLength / RoundRecord.SIZE;
+			long lChunkLength = (long) RoundRecord.SIZE * RECORDS_PER_CHUNK;
+			aChunks = new MappedByteBuffer[(int) ((lLength + lChunkLength - 1) / lChunkLength)];
+			for (int i = 0; i < aChunks.length; i++)
+			{
+				long lStart = i * lChunkLength;
+				aChunks[i] = aChannel.map(FileChannel.MapMode.READ_ONLY, lStart, Math.min(lChunkLength, lLength - lStart));
+			}
+		}
+		catch (IOException e)
+		{
+			aChannel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * @return The number of records in the file.
+	 */
+	public long size()
+	{
+		return aSize;
+	}
+
+	/**
+	 * Decodes a record.
+	 *
+	 * @param pIndex
+	 *            The index of the record in the file.
+	 * @param pRecord
+	 *            The record to decode into.
+	 * @pre pIndex >= 0 && pIndex < size()
+	 */
+	public void read(long pIndex, RoundRecord pRecord)
+	{
+		assert pIndex >= 0 && pIndex < aSize;
+		pRecord.decode(aChunks[(int) (pIndex / RECORDS_PER_CHUNK)], (int) (pIndex % RECORDS_PER_CHUNK) * RoundRecord.SIZE);
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		aChannel.close();
+	}
+}
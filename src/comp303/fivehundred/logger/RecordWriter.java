@@ -0,0 +1,161 @@
+package comp303.fivehundred.logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import comp303.fivehundred.engine.GameAdapter;
+import comp303.fivehundred.engine.GameEngine;
+import comp303.fivehundred.engine.GameException;
+import comp303.fivehundred.model.Bid;
+import comp303.fivehundred.util.Card;
+
+/**
+ * Observes a game engine and appends one RoundRecord per round to a file. The records go through a direct buffer of
+ * BUFFERED_RECORDS records that is written in one call when it is full, so recording costs no allocation and almost
+ * no system calls per round. Call close(), or flush(), to write the last records.
+ *
+ * One writer observes one engine: it is not thread-safe.
+ *
+ * @author Jake Shamash
+ */
+public class RecordWriter extends GameAdapter implements Closeable
+{
+	/**
+	 * The number of records buffered before they are written.
+	 */
+	public static final int BUFFERED_RECORDS = 1024;
+
+	private static final int NUM_PLAYERS = 4;
+
+	private final FileChannel aChannel;
+	private final ByteBuffer aBuffer = ByteBuffer.allocateDirect(RoundRecord.SIZE * BUFFERED_RECORDS);
+	private final RoundRecord aRecord = new RoundRecord();
+	private final long[] aHands = new long[NUM_PLAYERS];
+	private boolean aNewGame;
+	private long aWritten;
+
+	/**
+	 * Creates a writer that replaces the content of a file.
+	 *
+	 * @param pPath
+	 *            The file to write to.
+	 * @throws IOException
+	 *             if the file cannot be opened.
+	 */
+	public RecordWriter(Path pPath) throws IOException
+	{
+		aChannel = FileChannel.open(pPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+	}
+
+	@Override
+	public void onNewGame(GameEngine pEngine, int pDealer)
+	{
+		aNewGame = true;
+	}
+
+	@Override
+	public void onDeal(GameEngine pEngine, int pDealer)
+	{
+		for (int i = 0; i < NUM_PLAYERS; i++)
+		{
+			aHands[i] = pEngine.getHandMask(i);
+		}
+		aRecord.startRound(pDealer, aNewGame, aHands, pEngine.getDiscardMask());
+		aNewGame = false;
+	}
+
+	@Override
+	public void onBid(GameEngine pEngine, int pPlayer, Bid pBid)
+	{
+		aRecord.setBid(pPlayer, pBid);
+	}
+
+	@Override
+	public void onContract(GameEngine pEngine, int pContractHolder, Bid pContract)
+	{
+		if (pContract.isPass())
+		{
+			append();
+		}
+	}
+
+	@Override
+	public void onExchange(GameEngine pEngine, int pContractHolder)
+	{
+		aRecord.setDiscards(pEngine.getDiscardMask());
+	}
+
+	@Override
+	public void onCardPlayed(GameEngine pEngine, int pPlayer, Card pCard)
+	{
+		aRecord.addPlay(pPlayer, pCard.ordinal());
+	}
+
+	@Override
+	public void onScore(GameEngine pEngine, int pContractHolder, boolean pContractMade)
+	{
+		append();
+	}
+
+	/**
+	 * @return The number of records appended, including those still in the buffer.
+	 */
+	public long getWritten()
+	{
+		return aWritten;
+	}
+
+	/**
+	 * Writes the buffered records to the file.
+	 *
+	 * @throws GameException
+	 *             if the file cannot be written.
+	 */
+	public void flush()
+	{
+		aBuffer.flip();
+		try
+		{
+			while (aBuffer.hasRemaining())
+			{
+				aChannel.write(aBuffer);
+			}
+		}
+		catch (IOException e)
+		{
+			throw new GameException("Cannot write the game records.", e);
+		}
+		finally
+		{
+			aBuffer.clear();
+		}
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		try
+		{
+			flush();
+		}
+		finally
+		{
+			aChannel.close();
+		}
+	}
+
+	private void append()
+	{
+		if (aBuffer.remaining() < RoundRecord.SIZE)
+		{
+			flush();
+		}
+		aRecord.encode(aBuffer);
+		aWritten++;
+	}
+}
@@ -0,0 +1,428 @@
+package comp303.fivehundred.logger;
+
+import java.nio.ByteBuffer;
+
+import comp303.fivehundred.ai.PlayoutState;
+import comp303.fivehundred.model.Bid;
+import comp303.fivehundred.util.CardSet;
+
+/**
+ * Everything that happened in one round, in a fixed-size binary form of SIZE bytes:
+ *
+ * <pre>
+ * byte  0      flags: dealer in bits 0-1, NEW_GAME in bit 2, PASSED_OUT in bit 3
+ * bytes 1-23   the deal: one 4-bit owner per card ordinal, low nibble first (0-3 for a seat, 4 for the widow)
+ * bytes 24-27  the bid of each seat: Bid.toIndex(), or 25 for a pass
+ * bytes 28-29  the discards, little-endian: bit i is set if the i-th lowest of the 16 cards of the contract holder
+ *              after taking the widow was discarded
+ * bytes 30-49  the 40 plays, 4 bits each, low nibble first: the rank of the card played among the cards left in the
+ *              hand of the player, by ordinal
+ * </pre>
+ *
+ * The order of the plays follows from the rules (see PlayoutState), so the seats are not stored. A passed-out round
+ * has no discards and no plays. Records of the same size can be read from any position in a file, see RecordReader.
+ *
+ * A RoundRecord is a reusable holder: decoding into an existing record allocates nothing. It is not thread-safe.
+ *
+ * @author Jake Shamash
+ */
+public final class RoundRecord
+{
+	/**
+	 * The number of bytes of an encoded record.
+	 */
+	public static final int SIZE = 50;
+
+	/**
+	 * The number of plays in a round that is not passed out.
+	 */
+	public static final int NUM_PLAYS = 40;
+
+	private static final int NUM_PLAYERS = 4;
+	private static final int WIDOW = NUM_PLAYERS; // The owner code of the widow
+	private static final int DEALER_MASK = 3;
+	private static final int NEW_GAME = 4;
+	private static final int PASSED_OUT = 8;
+	private static final int DEAL = 1;
+	private static final int BIDS = DEAL + (CardSet.NUM_CARDS + 1) / 2;
+	private static final int DISCARDS = BIDS + NUM_PLAYERS;
+	private static final int PLAYS = DISCARDS + 2;
+	private static final int PASS = 25;
+	private static final int NIBBLE = 4;
+	private static final int NIBBLE_MASK = 0xF;
+	private static final int BYTE = 8;
+	private static final int BYTE_MASK = 0xFF;
+	// Bids are immutable, so every record shares the same ones: BID_VALUES[PASS] is the pass.
+	private static final Bid[] BID_VALUES = new Bid[PASS + 1];
+
+	static
+	{
+		for (int i = 0; i < PASS; i++)
+		{
+			BID_VALUES[i] = new Bid(i);
+		}
+		BID_VALUES[PASS] = new Bid();
+	}
+
+	private int aDealer;
+	private boolean aNewGame;
+	private final long[] aHands = new long[NUM_PLAYERS];
+	private long aWidow;
+	private final int[] aBids = new int[NUM_PLAYERS];	// Bid.toIndex(), or -1 for a pass
+	private long aDiscards;
+	private int aNumPlays;
+	private final int[] aCards = new int[NUM_PLAYS];		// Ordinals of the cards played
+	private final int[] aSeats = new int[NUM_PLAYS];		// Seats that played them
+	private final long[] aLeft = new long[NUM_PLAYERS];		// Cards left in the hands while encoding
+	private final PlayoutState aState = new PlayoutState();
+
+	/**
+	 * Starts recording a round: forgets the bids, discards and plays of the previous one.
+	 *
+	 * @param pDealer
+	 *            The seat of the dealer.
+	 * @param pNewGame
+	 *            True if this is the first round of a game.
+	 * @param pHands
+	 *            The hands dealt to the 4 seats, as CardSet masks.
+	 * @param pWidow
+	 *            The widow.
+	 */
+	public void startRound(int pDealer, boolean pNewGame, long[] pHands, long pWidow)
+	{
+		aDealer = pDealer;
+		aNewGame = pNewGame;
+		System.arraycopy(pHands, 0, aHands, 0, NUM_PLAYERS);
+		aWidow = pWidow;
+		for (int i = 0; i < NUM_PLAYERS; i++)
+		{
+			aBids[i] = -1;
+		}
+		aDiscards = CardSet.EMPTY;
+		aNumPlays = 0;
+	}
+
+	/**
+	 * Records a bid.
+	 *
+	 * @param pSeat
+	 *            The seat that bid.
+	 * @param pBid
+	 *            The bid.
+	 */
+	public void setBid(int pSeat, Bid pBid)
+	{
+		aBids[pSeat] = -1;
+		if (!pBid.isPass())
+		{
+			aBids[pSeat] = pBid.toIndex();
+		}
+	}
+
+	/**
+	 * Records the discards of the contract holder.
+	 *
+	 * @param pDiscards
+	 *            The cards discarded, as a CardSet mask.
+	 */
+	public void setDiscards(long pDiscards)
+	{
+		aDiscards = pDiscards;
+	}
+
+	/**
+	 * Records a card played.
+	 *
+	 * @param pSeat
+	 *            The seat that played.
+	 * @param pOrdinal
+	 *            The ordinal of the card.
+	 * @pre getNumPlays() < NUM_PLAYS
+	 */
+	public void addPlay(int pSeat, int pOrdinal)
+	{
+		aSeats[aNumPlays] = pSeat;
+		aCards[aNumPlays] = pOrdinal;
+		aNumPlays++;
+	}
+
+	/**
+	 * @return The seat of the dealer.
+	 */
+	public int getDealer()
+	{
+		return aDealer;
+	}
+
+	/**
+	 * @return True if this is the first round of a game.
+	 */
+	public boolean isNewGame()
+	{
+		return aNewGame;
+	}
+
+	/**
+	 * @return True if every seat passed.
+	 */
+	public boolean isPassedOut()
+	{
+		return getContractHolder() < 0;
+	}
+
+	/**
+	 * @param pSeat
+	 *            A seat.
+	 * @return The hand dealt to pSeat, as a CardSet mask.
+	 */
+	public long getHand(int pSeat)
+	{
+		return aHands[pSeat];
+	}
+
+	/**
+	 * @return The widow, as a CardSet mask.
+	 */
+	public long getWidow()
+	{
+		return aWidow;
+	}
+
+	/**
+	 * @param pSeat
+	 *            A seat.
+	 * @return The bid of pSeat.
+	 */
+	public Bid getBid(int pSeat)
+	{
+		if (aBids[pSeat] < 0)
+		{
+			return BID_VALUES[PASS];
+		}
+		return BID_VALUES[aBids[pSeat]];
+	}
+
+	/**
+	 * @return The seat holding the contract, as chosen by GameEngine: the first seat with the highest bid. -1 if the
+	 *         round was passed out.
+	 */
+	public int getContractHolder()
+	{
+		int lHolder = -1;
+		for (int i = 0; i < NUM_PLAYERS; i++)
+		{
+			if (aBids[i] >= 0 && (lHolder < 0 || aBids[i] > aBids[lHolder]))
+			{
+				lHolder = i;
+			}
+		}
+		return lHolder;
+	}
+
+	/**
+	 * @return The cards discarded by the contract holder, as a CardSet mask.
+	 */
+	public long getDiscards()
+	{
+		return aDiscards;
+	}
+
+	/**
+	 * @return The number of cards played: NUM_PLAYS, or 0 if the round was passed out.
+	 */
+	public int getNumPlays()
+	{
+		return aNumPlays;
+	}
+
+	/**
+	 * @param pPlay
+	 *            The number of the play, from 0 to getNumPlays() - 1.
+	 * @return The ordinal of the card played.
+	 */
+	public int getCard(int pPlay)
+	{
+		return aCards[pPlay];
+	}
+
+	/**
+	 * @param pPlay
+	 *            The number of the play, from 0 to getNumPlays() - 1.
+	 * @return The seat that played.
+	 */
+	public int getSeat(int pPlay)
+	{
+		return aSeats[pPlay];
+	}
+
+	/**
+	 * Writes this record at the position of pBuffer, and advances it by SIZE bytes.
+	 *
+	 * @param pBuffer
+	 *            The buffer to write to.
+	 * @pre pBuffer.remaining() >= SIZE
+	 * @pre the round is passed out or all its plays have been recorded
+	 */
+	public void encode(ByteBuffer pBuffer)
+	{
+		int lHolder = getContractHolder();
+		assert lHolder >= 0 || aNumPlays == 0;
+		assert lHolder < 0 || aNumPlays == NUM_PLAYS;
+		int lStart = pBuffer.position();
+		int lFlags = aDealer;
+		if (aNewGame)
+		{
+			lFlags |= NEW_GAME;
+		}
+		if (lHolder < 0)
+		{
+			lFlags |= PASSED_OUT;
+		}
+		pBuffer.put(lStart, (byte) lFlags);
+		for (int i = DEAL; i < SIZE; i++)
+		{
+			pBuffer.put(lStart + i, (byte) 0);
+		}
+
+		for (int lOrdinal = 0; lOrdinal < CardSet.NUM_CARDS; lOrdinal++)
+		{
+			int lOwner = WIDOW;
+			for (int i = 0; i < NUM_PLAYERS; i++)
+			{
+				if ((aHands[i] & (1L << lOrdinal)) != 0)
+				{
+					lOwner = i;
+				}
+			}
+			putNibble(pBuffer, lStart + DEAL, lOrdinal, lOwner);
+		}
+		for (int i = 0; i < NUM_PLAYERS; i++)
+		{
+			int lBid = PASS;
+			if (aBids[i] >= 0)
+			{
+				lBid = aBids[i];
+			}
+			pBuffer.put(lStart + BIDS + i, (byte) lBid);
+		}
+
+		if (lHolder >= 0)
+		{
+			long[] lLeft = aLeft;
+			System.arraycopy(aHands, 0, lLeft, 0, NUM_PLAYERS);
+			long lExchange = aHands[lHolder] | aWidow;
+			int lDiscards = 0;
+			for (long lRest = aDiscards; lRest != CardSet.EMPTY; lRest &= lRest - 1)
+			{
+				lDiscards |= 1 << rank(lExchange, Long.numberOfTrailingZeros(lRest));
+			}
+			pBuffer.put(lStart + DISCARDS, (byte) lDiscards);
+			pBuffer.put(lStart + DISCARDS + 1, (byte) (lDiscards >>> BYTE));
+			lLeft[lHolder] = lExchange & ~aDiscards;
+			for (int i = 0; i < NUM_PLAYS; i++)
+			{
+				putNibble(pBuffer, lStart + PLAYS, i, rank(lLeft[aSeats[i]], aCards[i]));
+				lLeft[aSeats[i]] &= ~(1L << aCards[i]);
+			}
+		}
+		pBuffer.position(lStart + SIZE);
+	}
+
+	/**
+	 * Reads a record, replaying the plays to find out who played them.
+	 *
+	 * @param pBuffer
+	 *            The buffer to read from. Its position is not modified.
+	 * @param pOffset
+	 *            The index of the first byte of the record in pBuffer.
+	 * @pre pBuffer.limit() >= pOffset + SIZE
+	 */
+	public void decode(ByteBuffer pBuffer, int pOffset)
+	{
+		int lFlags = pBuffer.get(pOffset);
+		aDealer = lFlags & DEALER_MASK;
+		aNewGame = (lFlags & NEW_GAME) != 0;
+		for (int i = 0; i < NUM_PLAYERS; i++)
+		{
+			aHands[i] = CardSet.EMPTY;
+		}
+		aWidow = CardSet.EMPTY;
+		for (int lOrdinal = 0; lOrdinal < CardSet.NUM_CARDS; lOrdinal++)
+		{
+			int lOwner = getNibble(pBuffer, pOffset + DEAL, lOrdinal);
+			if (lOwner == WIDOW)
+			{
+				aWidow |= 1L << lOrdinal;
+			}
+			else
+			{
+				aHands[lOwner] |= 1L << lOrdinal;
+			}
+		}
+		for (int i = 0; i < NUM_PLAYERS; i++)
+		{
+			aBids[i] = pBuffer.get(pOffset + BIDS + i);
+			if (aBids[i] == PASS)
+			{
+				aBids[i] = -1;
+			}
+		}
+
+		aDiscards = CardSet.EMPTY;
+		aNumPlays = 0;
+		int lHolder = getContractHolder();
+		if ((lFlags & PASSED_OUT) != 0 || lHolder < 0)
+		{
+			return;
+		}
+		long lExchange = aHands[lHolder] | aWidow;
+		int lDiscards = (pBuffer.get(pOffset + DISCARDS) & BYTE_MASK) | (pBuffer.get(pOffset + DISCARDS + 1) & BYTE_MASK) << BYTE;
+		for (; lDiscards != 0; lDiscards &= lDiscards - 1)
+		{
+			aDiscards |= 1L << select(lExchange, Integer.numberOfTrailingZeros(lDiscards));
+		}
+
+		aState.reset(BID_VALUES[aBids[lHolder]].getSuit(), lHolder, 0, 0);
+		for (int i = 0; i < NUM_PLAYERS; i++)
+		{
+			aState.setHand(i, aHands[i]);
+		}
+		aState.setHand(lHolder, lExchange & ~aDiscards);
+		for (int i = 0; i < NUM_PLAYS; i++)
+		{
+			int lSeat = aState.getTurn();
+			int lCard = select(aState.getHand(lSeat), getNibble(pBuffer, pOffset + PLAYS, i));
+			addPlay(lSeat, lCard);
+			aState.play(lCard);
+		}
+	}
+
+	// The number of cards of pSet below pOrdinal.
+	private static int rank(long pSet, int pOrdinal)
+	{
+		return Long.bitCount(pSet & ((1L << pOrdinal) - 1));
+	}
+
+	// The ordinal of the card of pSet with pRank cards of pSet below it.
+	private static int select(long pSet, int pRank)
+	{
+		long lRest = pSet;
+		for (int i = 0; i < pRank; i++)
+		{
+			lRest &= lRest - 1;
+		}
+		return Long.numberOfTrailingZeros(lRest);
+	}
+
+	private static void putNibble(ByteBuffer pBuffer, int pStart, int pIndex, int pValue)
+	{
+		int lPosition = pStart + pIndex / 2;
+		int lShift = (pIndex % 2) * NIBBLE;
+		pBuffer.put(lPosition, (byte) (pBuffer.get(lPosition) | pValue << lShift));
+	}
+
+	private static int getNibble(ByteBuffer pBuffer, int pStart, int pIndex)
+	{
+		return (pBuffer.get(pStart + pIndex / 2) >>> ((pIndex % 2) * NIBBLE)) & NIBBLE_MASK;
+	}
+}
@@ -5,6 +5,7 @@ import comp303.fivehundred.util.Card.Joker;
 import comp303.fivehundred.util.Card.Rank;
 import comp303.fivehundred.util.Card.Suit;
 import comp303.fivehundred.util.CardList;
+import comp303.fivehundred.util.CardSet;
 
 /**
  * Additional services to manage a card list that corresponds to
@@ -31,30 +32,26 @@ public class Hand extends CardList
 	{
 		if (pNoTrump) 
 		{ 
-			if (this.getNonJokers().size() == 0)
-			{
-				return this.getJokers();
-			}
-			return this.getNonJokers();
+			return filter(leadMask(true));
 		}	
 		return this;
 	}
 	
+	/**
+	 * @param pNoTrump If the contract is in no-trump
+	 * @return The cards that can be used to lead a trick, as a CardSet.
+	 */
+	public long leadMask(boolean pNoTrump)
+	{
+		return CardSet.leadable(getMask(), pNoTrump);
+	}
+	
 	/**
 	 * @return The cards that are jokers.
 	 */
 	public CardList getJokers()
 	{
-		CardList hJokers = new CardList();
-		
-		for (Card lCard : this) 
-		{
-			if(lCard.isJoker())
-			{
-				hJokers.add(lCard);
-			}
-		}
-		return hJokers; 
+		return filter(CardSet.JOKERS);
 	}
 	
 	/**
@@ -62,16 +59,7 @@ public class Hand extends CardList
 	 */
 	public CardList getNonJokers()
 	{
-		CardList nJokers = new CardList(); 
-		
-		for (Card lCard : this)
-		{
-			if(!lCard.isJoker())
-			{
-				nJokers.add(lCard);
-			}
-		}
-		return nJokers; 
+		return filter(CardSet.NON_JOKERS);
 	}
 	
 	/**
@@ -83,24 +71,7 @@ public class Hand extends CardList
 	 */
 	public CardList getTrumpCards(Suit pTrump)
 	{
-		CardList tCards = new CardList();
-		
-		for(Card lCard : this)
-		{
-			if(lCard.isJoker())
-			{
-				tCards.add(lCard);
-			}
-			else
-			{
-				Suit tSuit = lCard.getEffectiveSuit(pTrump);
-				if(tSuit.equals(pTrump))
-				{
-					tCards.add(lCard);
-				}
-			}
-		}
-		return tCards;
+		return filter(CardSet.trumps(pTrump));
 	}
 	
 	/**
@@ -114,20 +85,7 @@ public class Hand extends CardList
 	{	
 		assert pTrump != null;
 		
-		CardList tCards = new CardList();
-		
-		for (Card lCard: this)
-		{
-			if(!lCard.isJoker())
-			{
-				Suit tSuit = lCard.getEffectiveSuit(pTrump);
-				if(!tSuit.equals(pTrump))
-				{
-					tCards.add(lCard);
-				}
-			}
-		}
-		return tCards;
+		return filter(CardSet.NON_JOKERS & ~CardSet.trumps(pTrump));
 	}
 	
 	
@@ -202,39 +160,17 @@ public class Hand extends CardList
 	 */
 	public CardList playableCards( Suit pLed, Suit pTrump )
 	{
-		CardList rPlay = new CardList();
-		
-		for (Card lCard : this.getNonJokers())
-		{
-			if (pTrump == null)
-			{
-				if (lCard.getSuit().equals(pLed))
-				{
-					rPlay.add(lCard);
-				}
-			}
-			else
-			{
-				if(lCard.getEffectiveSuit(pTrump).equals(pLed))
-				{
-					rPlay.add(lCard);
-				}
-			}
-		}
-		
-		if (pTrump != null && pLed != null && pLed.equals(pTrump) && this.getJokers().size() != 0)
-		{
-			for (Card lCard : this.getJokers())
-			{
-				rPlay.add(lCard);
-			}
-		}
+		return filter(playableMask(pLed, pTrump));
+	}
 	
-		if(rPlay.size() == 0)
-		{
-			rPlay = this.clone();
-		}
-		return rPlay;
+	/**
+	 * @param pLed The suit led.
+	 * @param pTrump Can be null for no-trump
+	 * @return All cards that can legally be played given a lead and a trump, as a CardSet.
+	 */
+	public long playableMask( Suit pLed, Suit pTrump )
+	{
+		return CardSet.playable(getMask(), pLed, pTrump);
 	}
 	
 	/**
@@ -247,15 +183,6 @@ public class Hand extends CardList
 	 */
 	public int numberOfCards(Suit pSuit, Suit pTrump)
 	{
-		int num = 0;
-		
-		for(Card lCard : this)
-		{
-			if(!lCard.isJoker() && lCard.getEffectiveSuit(pTrump).equals(pSuit))
-			{
-				num++;
-			}
-		}
-		return num;
+		return CardSet.size(getMask() & CardSet.suit(pSuit, pTrump) & CardSet.NON_JOKERS);
 	}
 }
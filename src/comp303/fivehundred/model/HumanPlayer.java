@@ -8,12 +8,18 @@ import comp303.fivehundred.util.Card;
 import comp303.fivehundred.util.CardList;
 
 /**
- * Class containing functionality for human players.
+ * Class containing functionality for human players. Their choices are made in the GUI before they are asked for
+ * them; when the user has not made one, autoplay is on and the player uses the AI strategies.
  * 
  * @author Jake Shamash
  */
 public class HumanPlayer extends Player
 {
+	// The strategies used when autoplay is on. They keep no state between decisions.
+	private final AdvancedBiddingStrategy aBiddingStrategy = new AdvancedBiddingStrategy();
+	private final AdvancedCardExchangeStrategy aExchangeStrategy = new AdvancedCardExchangeStrategy();
+	private final BasicPlayingStrategy aPlayingStrategy = new BasicPlayingStrategy();
+
 	/**
 	 * Constructor.
 	 * 
@@ -28,103 +34,42 @@ public class HumanPlayer extends Player
 	@Override
 	public Bid selectBid(Bid[] pPreviousBids, Hand pHand)
 	{
-		if (!FHGUI.getInstance().isAutoPlayOn())
-		{
-			synchronized (FHGUI.aLock)
-			{
-				// Tell the GUI that it's the human player's turn.
-				FHGUI.getInstance().setTurn();
-				FHGUI.getInstance().setPlayerInput(false);
-				// Wait until the player has made a move.
-				while (!FHGUI.getInstance().hasPlayerInput())
-				{
-					try
-					{
-						FHGUI.aLock.wait();
-					}
-					catch (InterruptedException e)
-					{
-						e.printStackTrace();
-					}
-				}
-			}
-		}
-		if (!FHGUI.getInstance().isAutoPlayOn())
+		// The GUI only asks for the bid once the user has made it, or autoplay is on.
+		Bid lBid = FHGUI.getInstance().getBid();
+		if (lBid != null)
 		{
-			// Get the choice of the player which is stored in the GUI.
-			return FHGUI.getInstance().getBid();
+			return lBid;
 		}
 
 		// If autoplay is on, use the AdvancedBiddingStrategy to select a bid.
-		return new AdvancedBiddingStrategy().selectBid(pPreviousBids, pHand);
+		return aBiddingStrategy.selectBid(pPreviousBids, pHand);
 	}
 
 	@Override
 	public CardList selectCardsToDiscard(Bid[] pBids, int pIndex, Hand pHand)
 	{
-		if (!FHGUI.getInstance().isAutoPlayOn())
-		{
-			synchronized (FHGUI.aLock)
-			{
-				FHGUI.getInstance().setPlayerInput(false);
-				// Wait until the player has made a move.
-				while (!FHGUI.getInstance().hasPlayerInput())
-				{
-					try
-					{
-						FHGUI.aLock.wait();
-					}
-					catch (InterruptedException e)
-					{
-						e.printStackTrace();
-					}
-				}
-			}
-		}
-		if (!FHGUI.getInstance().isAutoPlayOn())
+		CardList lDiscards = FHGUI.getInstance().getCardsToDiscard();
+		if (lDiscards != null)
 		{
-			// Get the choice of the player which is stored in the GUI.
-			return FHGUI.getInstance().getCardsToDiscard();
+			return lDiscards;
 		}
 
 		// If autoplay is on, use the AdvancedCardExchangeStrategy to select a bid.
-		return new AdvancedCardExchangeStrategy().selectCardsToDiscard(pBids, pIndex, pHand);
+		return aExchangeStrategy.selectCardsToDiscard(pBids, pIndex, pHand);
 	}
 
 	@Override
 	public Card play(Trick pTrick, Hand pHand)
 	{
-		if (!FHGUI.getInstance().isAutoPlayOn())
-		{
-			synchronized (FHGUI.aLock)
-			{
-				// Tell the GUI that it's the human player's turn.
-				FHGUI.getInstance().setTurn();
-				FHGUI.getInstance().setPlayerInput(false);
-				// Wait until the player has made a move.
-				while (!FHGUI.getInstance().hasPlayerInput())
-				{
-					try
-					{
-						FHGUI.aLock.wait();
-					}
-					catch (InterruptedException e)
-					{
-						e.printStackTrace();
-					}
-				}
-			}
-		}
-
-		if (!FHGUI.getInstance().isAutoPlayOn())
+		Card lPlay = FHGUI.getInstance().getPlay();
+		if (lPlay != null)
 		{
-			// Get the choice of the player which is stored in the GUI.
-			return FHGUI.getInstance().getPlay();
+			return lPlay;
 		}
 
 		// If autoplay is on, use the BasicPlayingStrategy to play a card.
 		// Could not implement this using advanced playing strategy, since this would require adding an observer to the
 		// game engine.
-		return new BasicPlayingStrategy().play(pTrick, pHand);
+		return aPlayingStrategy.play(pTrick, pHand);
 	}
 }
@@ -1,5 +1,6 @@
 package comp303.fivehundred.model;
 
+import comp303.fivehundred.ai.AIParameters;
 import comp303.fivehundred.ai.IBiddingStrategy;
 import comp303.fivehundred.ai.ICardExchangeStrategy;
 import comp303.fivehundred.ai.IPlayingStrategy;
@@ -164,4 +165,12 @@ public abstract class Player implements IBiddingStrategy, ICardExchangeStrategy,
 	 */
 	public void setAiLevel(int pLevel, GameEngine pEngine)
 	{}
+	
+	/**
+	 * Sets the constants of the heuristics of the AI levels set from now on.
+	 * 
+	 * @param pParameters The parameters of the player's AI.
+	 */
+	public void setParameters(AIParameters pParameters)
+	{}
 }
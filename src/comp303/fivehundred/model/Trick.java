@@ -1,20 +1,29 @@
 package comp303.fivehundred.model;
 
+import java.util.Iterator;
+
 import comp303.fivehundred.util.Card;
-import comp303.fivehundred.util.Card.BySuitNoTrumpComparator;
-import comp303.fivehundred.util.Card.BySuitComparator;
 import comp303.fivehundred.util.Card.Suit;
 import comp303.fivehundred.util.CardList;
+import comp303.fivehundred.util.CardRanking;
+import comp303.fivehundred.util.CardSet;
 
 
 /**
  * A card list specialized for handling cards discarded
- * as part of the play of a trick.
+ * as part of the play of a trick. The winning card is
+ * updated as each card is added, using the precomputed
+ * powers of CardRanking.
  * @author Jake Shamash
  */
 public class Trick extends CardList
 {
 	private Bid aContract;
+	private int aTrumpState;	// CardSet.trumpIndex() of the contract
+	private int aLedState;		// CardRanking.ledState() of the first card
+	private Card aWinner;		// The card currently winning the trick, null if empty
+	private int aWinnerIndex;	// The index of aWinner in the trick
+	private int aWinnerPower;	// The power of aWinner
 	
 	/**
 	 * Constructs a new empty trick for the specified contract.
@@ -22,12 +31,128 @@ public class Trick extends CardList
 	 * @throws ModelException if pContract is a passing Bid.
 	 */
 	public Trick(Bid pContract)
+	{
+		reset(pContract);
+	}
+	
+	/**
+	 * Empties the trick so that it can be reused for another trick.
+	 * @param pContract The contract that the next trick is played for.
+	 * @throws ModelException if pContract is a passing Bid.
+	 */
+	public final void reset(Bid pContract)
 	{
 		if (pContract.isPass())
 		{
 			throw new ModelException("A Trick's contract cannot be a pass");
 		}
+		super.clear();
 		this.aContract = pContract;
+		this.aTrumpState = CardSet.trumpIndex(pContract.getSuit());
+		this.aWinner = null;
+		this.aWinnerIndex = -1;
+		this.aWinnerPower = 0;
+	}
+	
+	@Override
+	public void clear()
+	{
+		super.clear();
+		updateWinner();
+	}
+	
+	/**
+	 * Adds a card to the trick, and updates the winner of the trick.
+	 * Has no effect if the card is already in the trick.
+	 * @param pCard The card to add.
+	 * @pre pCard != null
+	 */
+	@Override
+	public void add(Card pCard)
+	{
+		int lSize = size();
+		super.add(pCard);
+		if (size() == lSize)
+		{
+			return;
+		}
+		if (lSize == 0)
+		{
+			aLedState = CardRanking.ledState(pCard);
+		}
+		int lPower = CardRanking.power(aTrumpState, aLedState, pCard);
+		if (aWinner == null || lPower > aWinnerPower)
+		{
+			aWinner = pCard;
+			aWinnerIndex = lSize;
+			aWinnerPower = lPower;
+		}
+	}
+	
+	/**
+	 * Removes a card from the trick, and updates the winner of the trick.
+	 * Has no effect if the card is not in the trick.
+	 * @param pCard The card to remove.
+	 * @pre pCard != null
+	 */
+	@Override
+	public void remove(Card pCard)
+	{
+		super.remove(pCard);
+		updateWinner();
+	}
+	
+	@Override
+	public Iterator<Card> iterator()
+	{
+		final Iterator<Card> lIterator = super.iterator();
+		return new Iterator<Card>()
+		{
+			@Override
+			public boolean hasNext()
+			{
+				return lIterator.hasNext();
+			}
+			
+			@Override
+			public Card next()
+			{
+				return lIterator.next();
+			}
+			
+			@Override
+			public void remove()
+			{
+				lIterator.remove();
+				updateWinner();
+			}
+		};
+	}
+	
+	/*
+	 * Recomputes the winner from scratch. Only needed when cards are removed,
+	 * which the game itself never does.
+	 */
+	private void updateWinner()
+	{
+		aWinner = null;
+		aWinnerIndex = -1;
+		aWinnerPower = 0;
+		for (int i = 0; i < size(); i++)
+		{
+			Card lCard = get(i);
+			if (i == 0)
+			{
+				aLedState = CardRanking.ledState(lCard);
+			}
+			int lPower = CardRanking.power(aTrumpState, aLedState, lCard);
+			if (aWinner == null || lPower > aWinnerPower)
+			{
+				aWinner = lCard;
+				aWinnerIndex = i;
+				aWinnerPower = lPower;
+			}
+		}
 	}
 	
 	/**
@@ -83,30 +208,7 @@ public class Trick extends CardList
 	public Card highest()
 	{
 		assert size() > 0;
-		CardList leadOrTrump = new CardList();
-		Suit trump = this.getTrumpSuit();
-		Suit lead = null;
-		if (!this.getFirst().isJoker())
-		{
-			lead = this.getFirst().getSuit();
-		}
-		
-		for (Card lCard : this)
-		{
-			if (lCard.isJoker() || (trump != null && lCard.getEffectiveSuit(trump).equals(trump)) || lCard.getSuit().equals(lead))
-			{
-				leadOrTrump.add(lCard);
-			}
-		}
-		
-		// Case 1: No trump
-		if (this.aContract.getSuit() == null)
-		{
-			return leadOrTrump.sort(new BySuitNoTrumpComparator()).getLast();
-		}
-		
-		// Case 2: Trump
-		return leadOrTrump.sort(new BySuitComparator(aContract.getSuit())).getLast();
+		return aWinner;
 	}
 	
 	/**
@@ -116,21 +218,7 @@ public class Trick extends CardList
 	public int winnerIndex()
 	{
 		assert this.size() > 0;
-		
-		Card winner = this.highest();
-		int index = -1;
-		
-		// Stop when we reach the winner
-		for (Card c : this)
-		{
-			index++;
-			if (c.equals(winner))
-			{
-				break;
-			}
-		}
-		
-		return index;
+		return aWinnerIndex;
 	}
 	
 	/**
@@ -140,13 +228,14 @@ public class Trick extends CardList
 	 */
 	public boolean wouldWin(Card pCard)
 	{
-		Trick t = (Trick) this.clone();
-		t.add(pCard);
-		if (t.highest().equals(pCard))
+		if (size() == 0)
 		{
 			return true;
 		}
-		
-		return false;
+		if (contains(pCard))
+		{
+			return pCard.equals(aWinner);
+		}
+		return CardRanking.power(aTrumpState, aLedState, pCard) > aWinnerPower;
 	}
 }
@@ -3,12 +3,18 @@ package comp303.fivehundred.util;
 import java.util.Comparator;
 
 /**
- * An immutable description of a playing card.
+ * An immutable description of a playing card. The 46 cards of the game exist as canonical instances obtained through
+ * valueOf() and ofOrdinal(); cards built with the public constructors are equal to the canonical card with the same
+ * rank and suit.
  * 
  * @author Brandon Hum
  */
 public final class Card implements Comparable<Card>
 {
+	private static final int NUM_CARDS = 46;
+	private static final int LOW_JOKER = 44;
+	private static final int HIGH_JOKER = 45;
+
 	/**
 	 * Represents the rank of the card.
 	 */
@@ -68,6 +74,29 @@ public final class Card implements Comparable<Card>
 	// If this field is null, it means the card is not a joker, and vice-versa.
 	private final Joker aJoker;
 
+	// Dense number of this card, see ordinal().
+	private final int aOrdinal;
+
+	// Position of this card in the order of compareTo: rank first, then suit, jokers last.
+	private final int aRankKey;
+
+	// The canonical instance of every card, indexed by ordinal.
+	private static final Card[] CARDS = new Card[NUM_CARDS];
+
+	static
+	{
+		for (Suit lSuit : Suit.values())
+		{
+			for (Rank lRank : Rank.values())
+			{
+				Card lCard = new Card(lRank, lSuit);
+				CARDS[lCard.aOrdinal] = lCard;
+			}
+		}
+		CARDS[LOW_JOKER] = new Card(Joker.LOW);
+		CARDS[HIGH_JOKER] = new Card(Joker.HIGH);
+	}
+
 	/**
 	 * Create a new card object that is not a joker.
 	 * 
@@ -85,6 +114,8 @@ public final class Card implements Comparable<Card>
 		aRank = pRank;
 		aSuit = pSuit;
 		aJoker = null;
+		aOrdinal = pSuit.ordinal() * Rank.values().length + pRank.ordinal();
+		aRankKey = pRank.ordinal() * Suit.values().length + pSuit.ordinal();
 	}
 
 	/**
@@ -100,6 +131,50 @@ public final class Card implements Comparable<Card>
 		aRank = null;
 		aSuit = null;
 		aJoker = pValue;
+		aOrdinal = LOW_JOKER + pValue.ordinal();
+		aRankKey = aOrdinal;
+	}
+
+	/**
+	 * Returns the canonical instance of a card that is not a joker.
+	 * 
+	 * @param pRank
+	 *            The rank of the card.
+	 * @param pSuit
+	 *            The suit of the card.
+	 * @return The shared, immutable card with rank pRank and suit pSuit.
+	 * @pre pRank != null
+	 * @pre pSuit != null
+	 */
+	public static Card valueOf(Rank pRank, Suit pSuit)
+	{
+		return CARDS[pSuit.ordinal() * Rank.values().length + pRank.ordinal()];
+	}
+
+	/**
+	 * Returns the canonical instance of a joker.
+	 * 
+	 * @param pValue
+	 *            Whether this is the low or high joker.
+	 * @return The shared, immutable joker.
+	 * @pre pValue != null
+	 */
+	public static Card valueOf(Joker pValue)
+	{
+		return CARDS[LOW_JOKER + pValue.ordinal()];
+	}
+
+	/**
+	 * Returns the canonical instance of the card with a given ordinal.
+	 * 
+	 * @param pOrdinal
+	 *            The ordinal of the card, as returned by ordinal().
+	 * @return The shared, immutable card with ordinal pOrdinal.
+	 * @pre pOrdinal >= 0 && pOrdinal < 46
+	 */
+	public static Card ofOrdinal(int pOrdinal)
+	{
+		return CARDS[pOrdinal];
 	}
 
 	/**
@@ -290,11 +365,11 @@ public final class Card implements Comparable<Card>
 
 		if (pCard.equals("HJ"))
 		{
-			return new Card(Joker.HIGH);
+			return valueOf(Joker.HIGH);
 		}
 		else if (pCard.equals("LJ"))
 		{
-			return new Card(Joker.LOW);
+			return valueOf(Joker.LOW);
 		}
 
 		switch (pCard.charAt(0))
@@ -336,7 +411,7 @@ public final class Card implements Comparable<Card>
 			break;
 		}
 
-		return new Card(lRank, lSuit);
+		return valueOf(lRank, lSuit);
 	}
 
 	/**
@@ -352,27 +427,9 @@ public final class Card implements Comparable<Card>
 	public int compareTo(Card pCard)
 	{
 		assert pCard != null;
-		// if pCard is a Joker, return 0 if this is also a Joker or -1 otherwise
-		if (pCard.isJoker())
-		{
-			if (this.isJoker())
-			{
-				return this.aJoker.ordinal() - pCard.aJoker.ordinal();
-			}
-			return -1;
-		}
-		// if this card is a Joker and pCard is not, return 1
-		if (this.isJoker() && !pCard.isJoker())
-		{
-			return 1;
-		}
-		// if this card and pCard are of different rank, compare based on rank
-		if (!this.aRank.equals(pCard.aRank))
-		{
-			return this.aRank.ordinal() - pCard.aRank.ordinal();
-		}
-		// if this card and pCard are of same rank, compare based on suit
-		return this.aSuit.ordinal() - pCard.aSuit.ordinal();
+		// Jokers rank above every other card, the high joker above the low joker. Other cards compare by rank, then
+		// by suit. The key of each card is computed once, at construction.
+		return this.aRankKey - pCard.aRankKey;
 	}
 
 	/**
@@ -389,15 +446,11 @@ public final class Card implements Comparable<Card>
 	{
 		assert pCard != null;
 
-		if (this.compareTo((Card) pCard) == 0)
-		{
-			return true;
-		}
-		return false;
+		return this == pCard || this.aOrdinal == ((Card) pCard).aOrdinal;
 	}
 
 	/**
-	 * The hashcode for a card is the suit*number of ranks + that of the rank (perfect hash).
+	 * The hashcode for a card is its ordinal (perfect hash).
 	 * 
 	 * @return the hashcode
 	 * @see java.lang.Object#hashCode()
@@ -405,20 +458,19 @@ public final class Card implements Comparable<Card>
 	@Override
 	public int hashCode()
 	{
-		final int lLowJoker = 44;
-		final int lHighJoker = 45;
+		return ordinal();
+	}
 
-		// assign unique hash codes for jokers
-		if (this.isJoker())
-		{
-			if (this.aJoker == Joker.LOW)
-			{
-				return lLowJoker;
-			}
-			return lHighJoker;
-		}
-		// if this card is not a joker, calculate its hash code and return it
-		return this.aSuit.ordinal() * Rank.values().length + this.aRank.ordinal();
+	/**
+	 * Returns the position of this card in the dense numbering of the 46 cards: suit * number of ranks + rank for
+	 * normal cards, then 44 for the low joker and 45 for the high joker. Two cards are equal if and only if they have
+	 * the same ordinal.
+	 * 
+	 * @return A number between 0 and 45 inclusive.
+	 */
+	public int ordinal()
+	{
+		return aOrdinal;
 	}
 
 	/**
@@ -476,25 +528,8 @@ public final class Card implements Comparable<Card>
 			assert pCard1 != null;
 			assert pCard2 != null;
 			assert !pCard1.equals(pCard2);
-			// Give High Joker highest priority followed by Low Joker, and then everything else based on suit first then
-			// rank
-			if (pCard1.isJoker() && pCard2.isJoker())
-			{
-				return pCard1.aJoker.ordinal() - pCard2.aJoker.ordinal();
-			}
-			if (pCard1.isJoker())
-			{
-				return 1;
-			}
-			if (pCard2.isJoker())
-			{
-				return -1;
-			}
-			if (pCard1.aSuit.ordinal() == pCard2.aSuit.ordinal())
-			{
-				return pCard1.aRank.ordinal() - pCard2.aRank.ordinal();
-			}
-			return pCard1.aSuit.ordinal() - pCard2.aSuit.ordinal();
+			// High joker, then low joker, then everything else by suit and then rank: the order of the ordinals.
+			return pCard1.aOrdinal - pCard2.aOrdinal;
 		}
 	}
 
@@ -505,17 +540,18 @@ public final class Card implements Comparable<Card>
 	public static class BySuitComparator implements Comparator<Card>
 	{
 
-		private Suit aTrump;
+		private final int aTrumpState;
 
 		/**
 		 * Constructs a BySuitComparator.
 		 * 
 		 * @param pTrump
-		 *            The trump suit to use for comparison. Can be null for no trump.
+		 *            The trump suit to use for comparison. Can be null for no trump, in which case the order is the one
+		 *            of BySuitNoTrumpComparator.
 		 */
 		public BySuitComparator(Suit pTrump)
 		{
-			this.aTrump = pTrump;
+			this.aTrumpState = CardSet.trumpIndex(pTrump);
 		}
 
 		/**
@@ -539,49 +575,9 @@ public final class Card implements Comparable<Card>
 			assert pCard2 != null;
 			assert !pCard1.equals(pCard2);
 
-			int lReturn;
-			// Give High Joker highest priority followed by Low Joker,
-			// then Jack of trump followed by Jack of the converse of the trump,
-			// and then everything else based on suit first with trump suit becoming the highest, then rank
-			if (pCard1.isJoker() && pCard2.isJoker())
-			{
-				lReturn = pCard1.aJoker.ordinal() - pCard2.aJoker.ordinal();
-			}
-			else if (pCard1.isJoker()
-					|| (pCard1.aRank.equals(Rank.JACK) && pCard1.aSuit.equals(aTrump) && !pCard2.isJoker()))
-			{
-				lReturn = 1;
-			}
-			else if (pCard2.isJoker()
-					|| (!pCard1.isJoker() && pCard2.aRank.equals(Rank.JACK) && pCard2.aSuit.equals(aTrump)))
-			{
-				lReturn = -1;
-			}
-			else if (pCard1.aRank.equals(Rank.JACK) && pCard1.aSuit.equals(aTrump.getConverse()))
-			{
-				lReturn = 1;
-			}
-			else if (pCard2.aRank.equals(Rank.JACK) && pCard2.aSuit.equals(aTrump.getConverse()))
-			{
-				lReturn = -1;
-			}
-			else if (pCard1.aSuit.ordinal() == pCard2.aSuit.ordinal())
-			{
-				lReturn = pCard1.aRank.ordinal() - pCard2.aRank.ordinal();
-			}
-			else if (pCard1.aSuit.equals(aTrump))
-			{
-				lReturn = 1;
-			}
-			else if (pCard2.aSuit.equals(aTrump))
-			{
-				lReturn = -1;
-			}
-			else
-			{
-				lReturn = pCard1.aSuit.ordinal() - pCard2.aSuit.ordinal();
-			}
-			return lReturn;
+			// High joker, low joker, jack of trump, jack of the converse suit, then the trump suit and the other suits
+			// by suit and rank. The position of every card is precomputed by CardRanking.
+			return CardRanking.order(aTrumpState, pCard1) - CardRanking.order(aTrumpState, pCard2);
 		}
 	}
 }
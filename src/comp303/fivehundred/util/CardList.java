@@ -5,6 +5,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 import comp303.fivehundred.util.Card.Suit;
 
@@ -21,6 +22,7 @@ import comp303.fivehundred.util.Card.Suit;
 public class CardList implements Iterable<Card>, Cloneable
 {
 	private ArrayList<Card> aCards;
+	private long aMask;		// The same cards as aCards, as a CardSet
 	/**
 	 * Creates a new, empty card list.
 	 */
@@ -40,10 +42,11 @@ public class CardList implements Iterable<Card>, Cloneable
 	{
 		assert pCard != null;
 		
-
-		if (!aCards.contains(pCard))
+		long lCard = CardSet.of(pCard);
+		if ((aMask & lCard) == 0)
 		{
 			aCards.add(pCard);
+			aMask |= lCard;
 		}
 	}
 	
@@ -55,6 +58,17 @@ public class CardList implements Iterable<Card>, Cloneable
 		return aCards.size();
 	}
 	
+	/**
+	 * @param pIndex The position of a card in the list.
+	 * @return The card at position pIndex, according to whatever
+	 * order is currently being used.
+	 * @pre pIndex >= 0 && pIndex < size()
+	 */
+	public Card get(int pIndex)
+	{
+		return aCards.get(pIndex);
+	}
+	
 	/**
 	 * @return The first card in the list, according to whatever
 	 * order is currently being used. 
@@ -93,12 +107,24 @@ public class CardList implements Iterable<Card>, Cloneable
 	{
 		assert pCard != null;
 		
-		if (aCards.contains(pCard))
+		long lCard = CardSet.of(pCard);
+		if ((aMask & lCard) != 0)
 		{
 			aCards.remove(pCard);
+			aMask &= ~lCard;
 		}
 	}
 	
+	/**
+	 * Removes all the cards from the list. The list keeps its storage,
+	 * so that it can be refilled without allocating.
+	 */
+	public void clear()
+	{
+		aCards.clear();
+		aMask = 0;
+	}
+	
 	/**
 	 * Checks if pCard is in the CardList.
 	 * 
@@ -107,14 +133,38 @@ public class CardList implements Iterable<Card>, Cloneable
 	 */
 	public boolean contains(Card pCard)
 	{
+		return CardSet.contains(aMask, pCard);
+	}
+	
+	/**
+	 * @return The cards of this list as a CardSet.
+	 */
+	public long getMask()
+	{
+		return aMask;
+	}
+	
+	/**
+	 * Get the cards of this list that are in a set of cards.
+	 * @param pMask A CardSet.
+	 * @return A new CardList containing the cards of this list that are in pMask, in the same order.
+	 */
+	public CardList filter(long pMask)
+	{
+		CardList lReturn = new CardList();
+		long lMask = aMask & pMask;
+		if (lMask == 0)
+		{
+			return lReturn;
+		}
 		for (Card c : aCards)
 		{
-			if (c.equals(pCard))
+			if (CardSet.contains(lMask, c))
 			{
-				return true;
+				lReturn.add(c);
 			}
 		}
-		return false;
+		return lReturn;
 	}
 	
 	/**
@@ -145,8 +195,32 @@ public class CardList implements Iterable<Card>, Cloneable
 	@Override
 	public Iterator<Card> iterator()
 	{
-		Iterator<Card> iCard = aCards.iterator();
-		return iCard;
+		final Iterator<Card> iCard = aCards.iterator();
+		return new Iterator<Card>()
+		{
+			private Card aCurrent;
+			
+			@Override
+			public boolean hasNext()
+			{
+				return iCard.hasNext();
+			}
+			
+			@Override
+			public Card next()
+			{
+				aCurrent = iCard.next();
+				return aCurrent;
+			}
+			
+			@Override
+			public void remove()
+			{
+				// Keep the mask in sync with the list.
+				iCard.remove();
+				aMask &= ~CardSet.of(aCurrent);
+			}
+		};
 	}
 	
 	/**
@@ -155,13 +229,13 @@ public class CardList implements Iterable<Card>, Cloneable
 	 */
 	public String toString()
 	{
-		String iString = "";
+		StringBuilder iString = new StringBuilder();
 		for (Iterator<Card> i = this.iterator(); i.hasNext(); )
 		{
 			Card lCard = (Card)i.next();
-			iString += lCard.toString() + " ";
+			iString.append(lCard.toString()).append(' ');
 		}
-		return iString;
+		return iString.toString();
 	}
 	
 	/**
@@ -170,8 +244,17 @@ public class CardList implements Iterable<Card>, Cloneable
 	 */
 	public Card random()
 	{
-		Random rng = new Random();
-		return aCards.get(Math.abs(rng.nextInt())%this.size());
+		return random(ThreadLocalRandom.current());
+	}
+	
+	/**
+	 * @param pRandom The random number generator to draw from.
+	 * @pre aCards.size() > 0
+	 * @return A card chosen from the set using pRandom.
+	 */
+	public Card random(Random pRandom)
+	{
+		return aCards.get(pRandom.nextInt(this.size()));
 	}
 	
 	/**
@@ -208,14 +291,7 @@ public class CardList implements Iterable<Card>, Cloneable
 	 */
 	public boolean hasSuit(Suit pSuit)
 	{
-		for (Card c : this)
-		{
-			if (!c.isJoker() && c.getSuit() == pSuit)
-			{
-				return true;
-			}
-		}
-		return false;
+		return (aMask & CardSet.rawSuit(pSuit)) != 0;
 	}
 	
 	/**
@@ -226,16 +302,7 @@ public class CardList implements Iterable<Card>, Cloneable
 	 */
 	public CardList cardsOf(Suit pSuit, Suit pTrump)
 	{
-		CardList lReturn = new CardList();
-		for (Card c : this)
-		{
-			if (c.getEffectiveSuit(pTrump) == pSuit)
-			{
-				lReturn.add(c);
-			}
-		}
-		
-		return lReturn;
+		return filter(CardSet.suit(pSuit, pTrump));
 	}
 	
 	/**
@@ -259,15 +326,7 @@ public class CardList implements Iterable<Card>, Cloneable
 	 */
 	public CardList getJokers()
 	{
-		CardList lReturn = new CardList();
-		for (Card c : this)
-		{
-			if (c.isJoker())
-			{
-				lReturn.add(c);
-			}
-		}
-		return lReturn;
+		return filter(CardSet.JOKERS);
 	}
 	
 	/**
@@ -276,13 +335,6 @@ public class CardList implements Iterable<Card>, Cloneable
 	 */
 	public boolean hasJoker()
 	{
-		for (Card c : this)
-		{
-			if (c.isJoker())
-			{
-				return true;
-			}
-		}
-		return false;
+		return (aMask & CardSet.JOKERS) != 0;
 	}
 }
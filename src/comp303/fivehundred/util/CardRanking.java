@@ -0,0 +1,222 @@
+package comp303.fivehundred.util;
+
+import comp303.fivehundred.util.Card.Joker;
+import comp303.fivehundred.util.Card.Rank;
+import comp303.fivehundred.util.Card.Suit;
+
+/**
+ * Precomputed trick-taking power of every card. The power of a card depends on the trump state (see
+ * CardSet.trumpIndex()) and on the led state: the printed suit of the card that led the trick, or LED_JOKER if a joker
+ * led. Among the cards of a trick, the card with the highest power wins. A power of 0 means the card can never win
+ * the trick: it neither follows the suit led nor is a trump.
+ *
+ * The order is the one of Card.BySuitComparator and Card.BySuitNoTrumpComparator restricted to the cards that can win:
+ * high joker, low joker, right bower, left bower, other trumps by rank, then cards of the suit led by rank.
+ *
+ * The full orders of the comparators are also precomputed, as the position of every card for each trump state, and as
+ * the set of cards that come after each card. Comparing two cards, or counting the cards that beat a card, then costs
+ * an array read.
+ *
+ * @author Jake Shamash
+ */
+public final class CardRanking
+{
+	/**
+	 * The led state of a trick led by a joker. Suits use their ordinal.
+	 */
+	public static final int LED_JOKER = 4;
+
+	/**
+	 * The number of led states.
+	 */
+	public static final int NUM_LED_STATES = 5;
+
+	private static final int HIGH_JOKER = 100;
+	private static final int LOW_JOKER = 99;
+	private static final int RIGHT_BOWER = 98;
+	private static final int LEFT_BOWER = 97;
+	private static final int TRUMP = 60;
+	private static final int FOLLOW = 20;
+
+	// POWER[trump state][led state][card ordinal]
+	private static final int[][][] POWER = new int[CardSet.NUM_TRUMP_STATES][NUM_LED_STATES][CardSet.NUM_CARDS];
+
+	// ORDER[trump state][card ordinal] is the position of the card in the order of BySuitComparator, or of
+	// BySuitNoTrumpComparator in no trump. HIGHER[trump state][card ordinal] contains the cards after it in that order.
+	private static final int[][] ORDER = new int[CardSet.NUM_TRUMP_STATES][CardSet.NUM_CARDS];
+	private static final long[][] HIGHER = new long[CardSet.NUM_TRUMP_STATES][CardSet.NUM_CARDS];
+
+	// HIGHER_RANK[card ordinal] contains the cards after it in the order of Card.compareTo().
+	private static final long[] HIGHER_RANK = new long[CardSet.NUM_CARDS];
+
+	static
+	{
+		for (int lTrumpState = 0; lTrumpState < CardSet.NUM_TRUMP_STATES; lTrumpState++)
+		{
+			Suit lTrump = CardSet.trumpOf(lTrumpState);
+			for (int lLedState = 0; lLedState < NUM_LED_STATES; lLedState++)
+			{
+				for (int lOrdinal = 0; lOrdinal < CardSet.NUM_CARDS; lOrdinal++)
+				{
+					POWER[lTrumpState][lLedState][lOrdinal] = computePower(Card.ofOrdinal(lOrdinal), lTrump, lLedState);
+				}
+			}
+			for (int lOrdinal = 0; lOrdinal < CardSet.NUM_CARDS; lOrdinal++)
+			{
+				ORDER[lTrumpState][lOrdinal] = computeOrder(Card.ofOrdinal(lOrdinal), lTrump);
+			}
+		}
+		for (int lCard = 0; lCard < CardSet.NUM_CARDS; lCard++)
+		{
+			for (int lOther = 0; lOther < CardSet.NUM_CARDS; lOther++)
+			{
+				for (int lTrumpState = 0; lTrumpState < CardSet.NUM_TRUMP_STATES; lTrumpState++)
+				{
+					if (ORDER[lTrumpState][lOther] > ORDER[lTrumpState][lCard])
+					{
+						HIGHER[lTrumpState][lCard] |= 1L << lOther;
+					}
+				}
+				if (Card.ofOrdinal(lOther).compareTo(Card.ofOrdinal(lCard)) > 0)
+				{
+					HIGHER_RANK[lCard] |= 1L << lOther;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Prevent this class from being instantiated.
+	 */
+	private CardRanking()
+	{
+	}
+
+	private static int computePower(Card pCard, Suit pTrump, int pLedState)
+	{
+		if (pCard.isJoker())
+		{
+			if (pCard.getJokerValue() == Joker.HIGH)
+			{
+				return HIGH_JOKER;
+			}
+			return LOW_JOKER;
+		}
+		if (pTrump != null && pCard.getEffectiveSuit(pTrump) == pTrump)
+		{
+			if (pCard.getRank() == Rank.JACK)
+			{
+				if (pCard.getSuit() == pTrump)
+				{
+					return RIGHT_BOWER;
+				}
+				return LEFT_BOWER;
+			}
+			return TRUMP + pCard.getRank().ordinal();
+		}
+		if (pCard.getSuit().ordinal() == pLedState)
+		{
+			return FOLLOW + pCard.getRank().ordinal();
+		}
+		return 0;
+	}
+
+	/*
+	 * In no trump, the order is the one of the ordinals: suit, then rank, then the jokers. With a trump, the cards of
+	 * the trump suit move after the other suits, followed by the left bower, the right bower and the jokers.
+	 */
+	private static int computeOrder(Card pCard, Suit pTrump)
+	{
+		if (pTrump == null)
+		{
+			return pCard.ordinal();
+		}
+		int lNumRanks = Rank.values().length;
+		int lLeftBower = Suit.values().length * lNumRanks + lNumRanks;
+		if (pCard.isJoker())
+		{
+			return lLeftBower + 2 + pCard.getJokerValue().ordinal();
+		}
+		if (pCard.getRank() == Rank.JACK && pCard.getEffectiveSuit(pTrump) == pTrump)
+		{
+			if (pCard.getSuit() == pTrump)
+			{
+				return lLeftBower + 1;
+			}
+			return lLeftBower;
+		}
+		if (pCard.getSuit() == pTrump)
+		{
+			return Suit.values().length * lNumRanks + pCard.getRank().ordinal();
+		}
+		return pCard.ordinal();
+	}
+
+	/**
+	 * @param pCard
+	 *            The card that led a trick.
+	 * @return The led state of that trick: the ordinal of the printed suit of pCard, or LED_JOKER.
+	 * @pre pCard != null
+	 */
+	public static int ledState(Card pCard)
+	{
+		if (pCard.isJoker())
+		{
+			return LED_JOKER;
+		}
+		return pCard.getSuit().ordinal();
+	}
+
+	/**
+	 * @param pTrumpState
+	 *            The trump state, as returned by CardSet.trumpIndex().
+	 * @param pLedState
+	 *            The led state, as returned by ledState().
+	 * @param pCard
+	 *            A card.
+	 * @return The power of pCard in a trick with these trump and led states. 0 if pCard cannot win the trick.
+	 * @pre pCard != null
+	 */
+	public static int power(int pTrumpState, int pLedState, Card pCard)
+	{
+		return POWER[pTrumpState][pLedState][pCard.ordinal()];
+	}
+
+	/**
+	 * @param pTrumpState
+	 *            The trump state, as returned by CardSet.trumpIndex().
+	 * @param pCard
+	 *            A card.
+	 * @return The position of pCard in the order of BySuitComparator for this trump state, or of
+	 *         BySuitNoTrumpComparator in no trump.
+	 * @pre pCard != null
+	 */
+	public static int order(int pTrumpState, Card pCard)
+	{
+		return ORDER[pTrumpState][pCard.ordinal()];
+	}
+
+	/**
+	 * @param pTrumpState
+	 *            The trump state, as returned by CardSet.trumpIndex().
+	 * @param pCard
+	 *            A card.
+	 * @return The cards that come after pCard in the order of order().
+	 * @pre pCard != null
+	 */
+	public static long higher(int pTrumpState, Card pCard)
+	{
+		return HIGHER[pTrumpState][pCard.ordinal()];
+	}
+
+	/**
+	 * @param pCard
+	 *            A card.
+	 * @return The cards that Card.compareTo() ranks above pCard.
+	 * @pre pCard != null
+	 */
+	public static long higherRank(Card pCard)
+	{
+		return HIGHER_RANK[pCard.ordinal()];
+	}
+}
@@ -0,0 +1,290 @@
+package comp303.fivehundred.util;
+
+import comp303.fivehundred.util.Card.Joker;
+import comp303.fivehundred.util.Card.Rank;
+import comp303.fivehundred.util.Card.Suit;
+
+/**
+ * Services to manipulate sets of cards represented as a single long. Bit i of the set is 1 if the card with ordinal i
+ * (see Card.ordinal()) is in the set. Since the deck only has 46 cards, every set fits in a long, and membership, union
+ * and suit filtering are single bitwise operations that allocate nothing.
+ *
+ * The effective suit of a card depends on the trump, because of the bowers and jokers. The masks of every effective
+ * suit are precomputed for each of the 5 trump states (4 suits and no trump).
+ *
+ * @author Jake Shamash
+ */
+public final class CardSet
+{
+	/**
+	 * The number of distinct cards.
+	 */
+	public static final int NUM_CARDS = 46;
+
+	/**
+	 * The trump state index of a no-trump contract. Trump suits use their ordinal.
+	 */
+	public static final int NO_TRUMP = 4;
+
+	/**
+	 * The number of trump states.
+	 */
+	public static final int NUM_TRUMP_STATES = 5;
+
+	/**
+	 * The empty set.
+	 */
+	public static final long EMPTY = 0L;
+
+	/**
+	 * The set of all the cards in the deck.
+	 */
+	public static final long ALL = (1L << NUM_CARDS) - 1;
+
+	/**
+	 * The set of the two jokers.
+	 */
+	public static final long JOKERS = of(Card.valueOf(Joker.LOW)) | of(Card.valueOf(Joker.HIGH));
+
+	/**
+	 * The set of all the cards that are not jokers.
+	 */
+	public static final long NON_JOKERS = ALL & ~JOKERS;
+
+	// RAW_SUITS[suit] contains the non-joker cards of that printed suit.
+	private static final long[] RAW_SUITS = new long[Suit.values().length];
+
+	// EFFECTIVE_SUITS[trump state][suit] contains the cards whose effective suit is suit under that trump state.
+	private static final long[][] EFFECTIVE_SUITS = new long[NUM_TRUMP_STATES][Suit.values().length];
+
+	// FOLLOW[trump state][suit led] contains the cards that follow the suit led. Index NO_SUIT is a joker led in no
+	// trump, which no card follows.
+	private static final int NO_SUIT = 4;
+	private static final long[][] FOLLOW = new long[NUM_TRUMP_STATES][NO_SUIT + 1];
+
+	static
+	{
+		for (Suit lSuit : Suit.values())
+		{
+			for (Rank lRank : Rank.values())
+			{
+				Card lCard = Card.valueOf(lRank, lSuit);
+				RAW_SUITS[lSuit.ordinal()] |= of(lCard);
+				for (int lState = 0; lState < NUM_TRUMP_STATES; lState++)
+				{
+					EFFECTIVE_SUITS[lState][lCard.getEffectiveSuit(trumpOf(lState)).ordinal()] |= of(lCard);
+				}
+			}
+		}
+		// Jokers belong to the trump suit, when there is one.
+		for (Suit lTrump : Suit.values())
+		{
+			EFFECTIVE_SUITS[lTrump.ordinal()][lTrump.ordinal()] |= JOKERS;
+		}
+		for (int lState = 0; lState < NUM_TRUMP_STATES; lState++)
+		{
+			System.arraycopy(EFFECTIVE_SUITS[lState], 0, FOLLOW[lState], 0, NO_SUIT);
+			FOLLOW[lState][NO_SUIT] = EMPTY;
+		}
+	}
+
+	/**
+	 * Prevent this class from being instantiated.
+	 */
+	private CardSet()
+	{
+	}
+
+	/**
+	 * @param pCard The card.
+	 * @return The set containing only pCard.
+	 * @pre pCard != null
+	 */
+	public static long of(Card pCard)
+	{
+		return 1L << pCard.ordinal();
+	}
+
+	/**
+	 * @param pSet A set of cards.
+	 * @param pCard A card.
+	 * @return True if pCard is in pSet.
+	 * @pre pCard != null
+	 */
+	public static boolean contains(long pSet, Card pCard)
+	{
+		return (pSet & of(pCard)) != 0;
+	}
+
+	/**
+	 * Returns the card with the lowest ordinal in a set. With pSet &= pSet - 1, this iterates over a set without
+	 * allocating.
+	 *
+	 * @param pSet A set of cards.
+	 * @return The card of pSet with the lowest ordinal.
+	 * @pre pSet != EMPTY
+	 */
+	public static Card first(long pSet)
+	{
+		assert pSet != EMPTY;
+		return Card.ofOrdinal(Long.numberOfTrailingZeros(pSet));
+	}
+
+	/**
+	 * @param pSet A set of cards.
+	 * @param pIndex The position of the card in the set, in increasing order of ordinals.
+	 * @return The card at position pIndex in pSet.
+	 * @pre pIndex >= 0 && pIndex < size(pSet)
+	 */
+	public static Card get(long pSet, int pIndex)
+	{
+		long lSet = pSet;
+		for (int i = 0; i < pIndex; i++)
+		{
+			lSet &= lSet - 1;
+		}
+		return first(lSet);
+	}
+
+	/**
+	 * @param pSet A set of cards.
+	 * @return The number of cards in pSet.
+	 */
+	public static int size(long pSet)
+	{
+		return Long.bitCount(pSet);
+	}
+
+	/**
+	 * @param pTrump The trump suit. Null for no trump.
+	 * @return The index of the trump state: the ordinal of the suit, or NO_TRUMP.
+	 */
+	public static int trumpIndex(Suit pTrump)
+	{
+		if (pTrump == null)
+		{
+			return NO_TRUMP;
+		}
+		return pTrump.ordinal();
+	}
+
+	/**
+	 * @param pIndex The index of a trump state.
+	 * @return The trump suit for that state, or null for NO_TRUMP.
+	 * @pre pIndex >= 0 && pIndex < NUM_TRUMP_STATES
+	 */
+	public static Suit trumpOf(int pIndex)
+	{
+		if (pIndex == NO_TRUMP)
+		{
+			return null;
+		}
+		return Suit.values()[pIndex];
+	}
+
+	/**
+	 * @param pSuit A suit.
+	 * @return The non-joker cards printed with pSuit, ignoring jack swaps.
+	 * @pre pSuit != null
+	 */
+	public static long rawSuit(Suit pSuit)
+	{
+		return RAW_SUITS[pSuit.ordinal()];
+	}
+
+	/**
+	 * Returns all the cards c such that c.getEffectiveSuit(pTrump) == pSuit. In a trump contract, the jack of the
+	 * converse suit and the jokers belong to the trump suit. In no trump, the jokers have no suit.
+	 *
+	 * @param pSuit The effective suit. Null selects the cards without a suit.
+	 * @param pTrump The trump suit. Null for no trump.
+	 * @return The cards whose effective suit is pSuit.
+	 */
+	public static long suit(Suit pSuit, Suit pTrump)
+	{
+		if (pSuit == null)
+		{
+			if (pTrump == null)
+			{
+				return JOKERS;
+			}
+			return EMPTY;
+		}
+		return EFFECTIVE_SUITS[trumpIndex(pTrump)][pSuit.ordinal()];
+	}
+
+	/**
+	 * Returns the cards of a hand that can legally be played on a trick: the cards that follow the suit led, or the
+	 * whole hand if none does. When trump is led, the jokers follow suit.
+	 *
+	 * @param pHand The cards of the hand.
+	 * @param pLed The effective suit led. Null if a joker was led in no trump.
+	 * @param pTrump The trump suit. Null for no trump.
+	 * @return The playable cards of pHand.
+	 */
+	public static long playable(long pHand, Suit pLed, Suit pTrump)
+	{
+		int lLed = NO_SUIT;
+		if (pLed != null)
+		{
+			lLed = pLed.ordinal();
+		}
+		long lFollow = pHand & FOLLOW[trumpIndex(pTrump)][lLed];
+		if (lFollow == EMPTY)
+		{
+			return pHand;
+		}
+		return lFollow;
+	}
+
+	/**
+	 * Returns the cards that follow a card led. A joker led in a trump contract asks for trump; in no trump, no card
+	 * follows it.
+	 *
+	 * @param pLed The card that led the trick.
+	 * @param pTrump The trump suit. Null for no trump.
+	 * @return The cards that follow pLed.
+	 * @pre pLed != null
+	 */
+	public static long follow(Card pLed, Suit pTrump)
+	{
+		if (pLed.isJoker() && pTrump == null)
+		{
+			return EMPTY;
+		}
+		return FOLLOW[trumpIndex(pTrump)][pLed.getEffectiveSuit(pTrump).ordinal()];
+	}
+
+	/**
+	 * Returns the cards of a hand that can lead a trick. In no trump, a joker can only lead if the hand has nothing
+	 * else.
+	 *
+	 * @param pHand The cards of the hand.
+	 * @param pNoTrump True if the contract is in no trump.
+	 * @return The cards of pHand that can lead.
+	 */
+	public static long leadable(long pHand, boolean pNoTrump)
+	{
+		if (pNoTrump && (pHand & NON_JOKERS) != EMPTY)
+		{
+			return pHand & NON_JOKERS;
+		}
+		return pHand;
+	}
+
+	/**
+	 * Returns the cards that beat any card of another suit: both bowers, the trump suit and the jokers. In no trump,
+	 * only the jokers.
+	 *
+	 * @param pTrump The trump suit. Null for no trump.
+	 * @return The trump cards, including jokers.
+	 */
+	public static long trumps(Suit pTrump)
+	{
+		if (pTrump == null)
+		{
+			return JOKERS;
+		}
+		return EFFECTIVE_SUITS[pTrump.ordinal()][pTrump.ordinal()];
+	}
+}
@@ -1,24 +1,36 @@
 package comp303.fivehundred.util;
 
-import java.util.Collections;
-import java.util.Stack;
-
-import comp303.fivehundred.util.Card.Rank;
-import comp303.fivehundred.util.Card.Suit;
+import java.util.Random;
 
 /**
  * Models a deck of 46 cards. Ace, King, ... down to 4 in all suits, plus two jokers.
+ * The deck is stored as an array of card ordinals, so that shuffling and drawing
+ * allocate nothing and a single deck can be reshuffled for every deal.
  */
 public class Deck 
 {
-	private Stack<Card> aCards;
+	private final int[] aOrdinals = new int[CardSet.NUM_CARDS];
+	private int aSize;
+	private Random aRandom;
 	
 	/**
-	 * Creates a new empty deck of cards. To initialize it, call shuffle.
+	 * Creates a new deck of cards, shuffled with a fresh random number generator.
 	 */
 	public Deck()
 	{
-		aCards = new Stack<Card>();
+		this(new SplitMixRandom());
+	}
+	
+	/**
+	 * Creates a new deck of cards shuffled with pRandom. Two decks built from
+	 * generators in the same state are shuffled identically.
+	 * @param pRandom The random number generator used for shuffling.
+	 * @pre pRandom != null
+	 */
+	public Deck(Random pRandom)
+	{
+		assert pRandom != null;
+		aRandom = pRandom;
 		shuffle();
 	}
 	
@@ -28,17 +40,31 @@ public class Deck
 	 */
 	public void shuffle()
 	{
-		aCards.clear();
-		for( Suit lSuit : Suit.values() )
+		for( int i = 0; i < aOrdinals.length; i++ )
+		{
+			aOrdinals[i] = i;
+		}
+		// Fisher-Yates shuffle
+		for( int i = aOrdinals.length - 1; i > 0; i-- )
 		{
-            for( Rank lRank : Rank.values() )
-            {
-                aCards.add( new Card( lRank, lSuit ));
-            }
+			int lSwap = aRandom.nextInt(i + 1);
+			int lOrdinal = aOrdinals[i];
+			aOrdinals[i] = aOrdinals[lSwap];
+			aOrdinals[lSwap] = lOrdinal;
 		}
-		aCards.add( new Card(Card.Joker.LOW));
-		aCards.add( new Card(Card.Joker.HIGH));
-		Collections.shuffle( aCards );
+		aSize = aOrdinals.length;
+	}
+
+	/**
+	 * Reshuffles the full deck with a new random number generator.
+	 * @param pRandom The random number generator used from now on.
+	 * @pre pRandom != null
+	 */
+	public void shuffle(Random pRandom)
+	{
+		assert pRandom != null;
+		aRandom = pRandom;
+		shuffle();
 	}
 
 	/**
@@ -50,7 +76,8 @@ public class Deck
 	public Card draw()
 	{
 		assert size() > 0;
-		return aCards.pop();
+		aSize--;
+		return Card.ofOrdinal(aOrdinals[aSize]);
 	}
 	
 	/**
@@ -59,6 +86,6 @@ public class Deck
 	 */
 	public int size()
 	{
-		return aCards.size();
+		return aSize;
 	}
 }
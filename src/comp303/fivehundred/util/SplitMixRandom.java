@@ -0,0 +1,120 @@
+package comp303.fivehundred.util;
+
+import java.util.Random;
+
+/**
+ * A fast, seedable and splittable random number generator based on the SplitMix64 algorithm. Its state is a single
+ * long that advances by a constant at every step, so it is much cheaper than java.util.Random (no atomic update) and
+ * its output passes standard statistical tests. An instance is not thread-safe: each thread should own its own
+ * generator, typically obtained with split().
+ *
+ * Since it extends Random, it can be passed anywhere the engine and the strategies expect a Random.
+ *
+ * @author Jake Shamash
+ */
+public class SplitMixRandom extends Random
+{
+	private static final long serialVersionUID = 1L;
+
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+	private static final long MIX_1 = 0xBF58476D1CE4E5B9L;
+	private static final long MIX_2 = 0x94D049BB133111EBL;
+	private static final int SHIFT_1 = 30;
+	private static final int SHIFT_2 = 27;
+	private static final int SHIFT_3 = 31;
+	private static final int LONG_BITS = 64;
+
+	// Not initialized here: Random's constructor calls setSeed() before the field initializers of this class run.
+	private long aState;
+
+	/**
+	 * Creates a generator with a seed that is unlikely to be the same as any other generator's.
+	 */
+	public SplitMixRandom()
+	{
+		this(mix(System.nanoTime()) ^ Thread.currentThread().getId());
+	}
+
+	/**
+	 * Creates a generator with a given seed. Two generators created with the same seed produce the same sequence.
+	 *
+	 * @param pSeed
+	 *            The initial seed.
+	 */
+	public SplitMixRandom(long pSeed)
+	{
+		super(pSeed);
+	}
+
+	/**
+	 * Scrambles the bits of a long. Consecutive inputs give uncorrelated outputs.
+	 *
+	 * @param pValue
+	 *            The value to scramble.
+	 * @return The scrambled value.
+	 */
+	public static long mix(long pValue)
+	{
+		long lValue = (pValue ^ (pValue >>> SHIFT_1)) * MIX_1;
+		lValue = (lValue ^ (lValue >>> SHIFT_2)) * MIX_2;
+		return lValue ^ (lValue >>> SHIFT_3);
+	}
+
+	/**
+	 * Derives the seed of the stream number pIndex of a generator seeded with pSeed. Used to give every game or every
+	 * worker of a simulation its own reproducible stream.
+	 *
+	 * @param pSeed
+	 *            The master seed.
+	 * @param pIndex
+	 *            The index of the stream.
+	 * @return The seed of stream pIndex.
+	 */
+	public static long streamSeed(long pSeed, long pIndex)
+	{
+		return mix(pSeed + (pIndex + 1) * GOLDEN_GAMMA);
+	}
+
+	@Override
+	public synchronized void setSeed(long pSeed)
+	{
+		aState = pSeed;
+		// Random caches a value for nextGaussian(); resetting it keeps a reseeded generator fully deterministic.
+		super.setSeed(pSeed);
+	}
+
+	@Override
+	public long nextLong()
+	{
+		aState += GOLDEN_GAMMA;
+		return mix(aState);
+	}
+
+	@Override
+	protected int next(int pBits)
+	{
+		return (int) (nextLong() >>> (LONG_BITS - pBits));
+	}
+
+	@Override
+	public int nextInt(int pBound)
+	{
+		if (pBound <= 0)
+		{
+			throw new IllegalArgumentException("bound must be positive");
+		}
+		// Lemire's multiply-and-shift reduction; the bias is below 2^-32 for the small bounds used by the game.
+		return (int) (((nextLong() >>> (LONG_BITS / 2)) * pBound) >>> (LONG_BITS / 2));
+	}
+
+	/**
+	 * Creates a new generator whose sequence is independent from the rest of the sequence of this one. This advances
+	 * the state of this generator.
+	 *
+	 * @return A new generator.
+	 */
+	public SplitMixRandom split()
+	{
+		return new SplitMixRandom(nextLong());
+	}
+}
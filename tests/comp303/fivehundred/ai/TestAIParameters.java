@@ -0,0 +1,112 @@
+package comp303.fivehundred.ai;
+
+import static comp303.fivehundred.util.AllCards.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+import comp303.fivehundred.model.Bid;
+import comp303.fivehundred.model.Hand;
+import comp303.fivehundred.util.Card.Suit;
+import comp303.fivehundred.util.CardSet;
+
+/**
+ * Test methods for AIParameters.
+ * @author Jake Shamash
+ *
+ */
+public class TestAIParameters
+{
+	@Test
+	public void testDefaults()
+	{
+		assertEquals(5, AIParameters.DEFAULTS.getInt(AIParameters.Parameter.HIGH_JOKER_POINTS));
+		assertEquals(10, AIParameters.DEFAULTS.getInt(AIParameters.Parameter.MIN_BID_SCORE));
+		assertEquals(18, AIParameters.DEFAULTS.getInt(AIParameters.Parameter.MIN_NO_TRUMP_SCORE));
+		assertEquals(0.7, AIParameters.DEFAULTS.get(AIParameters.Parameter.SECOND_HAND_LOW_PROBABILITY), 0);
+		assertSame(HandEvaluator.shared(), AIParameters.DEFAULTS.getEvaluator());
+	}
+
+	@Test
+	public void testClamp()
+	{
+		double[] lValues = AIParameters.DEFAULTS.toArray();
+		lValues[AIParameters.Parameter.PARTNER_LED_LOW_PROBABILITY.ordinal()] = 2;
+		lValues[AIParameters.Parameter.ACE_POINTS.ordinal()] = -1;
+		AIParameters lParameters = new AIParameters(lValues);
+		assertEquals(1, lParameters.get(AIParameters.Parameter.PARTNER_LED_LOW_PROBABILITY), 0);
+		assertEquals(0, lParameters.getInt(AIParameters.Parameter.ACE_POINTS));
+	}
+
+	@Test
+	public void testStore() throws IOException
+	{
+		double[] lValues = AIParameters.DEFAULTS.toArray();
+		lValues[AIParameters.Parameter.KING_POINTS.ordinal()] = 3.25;
+		lValues[AIParameters.Parameter.SECOND_HAND_LOW_PROBABILITY.ordinal()] = 0.125;
+		AIParameters lParameters = new AIParameters(lValues);
+		StringWriter lOut = new StringWriter();
+		lParameters.store(lOut, "test");
+		assertTrue(lOut.toString().startsWith("# test"));
+		assertTrue(lOut.toString().contains("king.points=3.25"));
+		assertEquals(lParameters, AIParameters.load(new StringReader(lOut.toString())));
+
+		// Missing keys take their default value.
+		AIParameters lLoaded = AIParameters.load(new StringReader("min.bid.score=12\nunknown=1\n"));
+		assertEquals(12, lLoaded.getInt(AIParameters.Parameter.MIN_BID_SCORE));
+		assertEquals(AIParameters.DEFAULTS.get(AIParameters.Parameter.ACE_POINTS),
+				lLoaded.get(AIParameters.Parameter.ACE_POINTS), 0);
+	}
+
+	@Test(expected = AIException.class)
+	public void testInvalid() throws IOException
+	{
+		AIParameters.load(new StringReader("ace.points=many\n"));
+	}
+
+	@Test
+	public void testPoints()
+	{
+		double[] lValues = AIParameters.DEFAULTS.toArray();
+		lValues[AIParameters.Parameter.ACE_POINTS.ordinal()] = 6;
+		AIParameters lParameters = new AIParameters(lValues);
+		assertNotSame(HandEvaluator.shared(), lParameters.getEvaluator());
+		assertSame(lParameters.getEvaluator(), lParameters.getEvaluator());
+
+		// Spades: high joker, ace, king and left bower.
+		long lHand = CardSet.of(aHJo) | CardSet.of(aAS) | CardSet.of(aKS) | CardSet.of(aJC);
+		assertEquals(12, HandEvaluator.shared().evaluate(lHand).getPoints(Suit.SPADES));
+		assertEquals(15, lParameters.getEvaluator().evaluate(lHand).getPoints(Suit.SPADES));
+	}
+
+	@Test
+	public void testThresholds()
+	{
+		// A hand of score 4 + 4 + 3 + 2 = 13, with six spades.
+		Hand lHand = new Hand();
+		lHand.add(aAS);
+		lHand.add(aAH);
+		lHand.add(aKS);
+		lHand.add(aQS);
+		lHand.add(a9S);
+		lHand.add(a8S);
+		lHand.add(a7S);
+		lHand.add(a4H);
+		lHand.add(a5D);
+		lHand.add(a6D);
+		Bid[] lBids = new Bid[0];
+		assertEquals(new Bid(7, Suit.SPADES), new AdvancedBiddingStrategy().selectBid(lBids, lHand));
+
+		double[] lValues = AIParameters.DEFAULTS.toArray();
+		lValues[AIParameters.Parameter.MIN_BID_SCORE.ordinal()] = 14;
+		AIParameters lParameters = new AIParameters(lValues);
+		assertTrue(new AdvancedBiddingStrategy(HandEvaluator.shared(), lParameters).selectBid(lBids, lHand).isPass());
+	}
+}
@@ -0,0 +1,184 @@
+package comp303.fivehundred.ai;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import comp303.fivehundred.model.Bid;
+import comp303.fivehundred.model.Hand;
+import comp303.fivehundred.util.AllCards;
+import comp303.fivehundred.util.Card;
+import comp303.fivehundred.util.Card.Suit;
+import comp303.fivehundred.util.CardList;
+import comp303.fivehundred.util.CardSet;
+import comp303.fivehundred.util.Deck;
+import comp303.fivehundred.util.SplitMixRandom;
+
+/**
+ * Test methods for AdvancedCardExchangeStrategy.
+ * @author Jake Shamash
+ *
+ */
+public class TestAdvancedCardExchangeStrategy
+{
+	private static final long BUSY_MILLIS = 50;
+
+	private Bid[] aSpadesBid = {new Bid(), new Bid(), new Bid(), new Bid(8, Suit.SPADES)};
+	private Bid[] aNoTrumpBid = {new Bid(), new Bid(), new Bid(), new Bid(8, null)};
+	private Hand aHand = new Hand();
+
+	@Before
+	public void setUp()
+	{
+		aHand.add(AllCards.a5S);
+		aHand.add(AllCards.a4D);
+		aHand.add(AllCards.a7C);
+		aHand.add(AllCards.aJH);
+		aHand.add(AllCards.aAS);
+		aHand.add(AllCards.aHJo);
+		aHand.add(AllCards.aLJo);
+		aHand.add(AllCards.aKC);
+		aHand.add(AllCards.a8D);
+		aHand.add(AllCards.aQS);
+		aHand.add(AllCards.aTH);
+		aHand.add(AllCards.a5C);
+		aHand.add(AllCards.aAH);
+		aHand.add(AllCards.aJC);
+		aHand.add(AllCards.aTD);
+		aHand.add(AllCards.aKH);
+	}
+
+	private static CardList list(Card... pCards)
+	{
+		CardList lList = new CardList();
+		for (Card lCard : pCards)
+		{
+			lList.add(lCard);
+		}
+		return lList;
+	}
+
+	@Test
+	public void testTrump()
+	{
+		// Keep the six trumps and the hearts, and void clubs and diamonds.
+		CardList lDiscards = new AdvancedCardExchangeStrategy().selectCardsToDiscard(aSpadesBid, 3, aHand);
+		assertEquals(list(AllCards.a5C, AllCards.a7C, AllCards.aKC, AllCards.a4D, AllCards.a8D, AllCards.aTD).getMask(),
+				lDiscards.getMask());
+	}
+
+	@Test
+	public void testNoTrump()
+	{
+		// Keep the jokers and the high cards.
+		CardList lDiscards = new AdvancedCardExchangeStrategy().selectCardsToDiscard(aNoTrumpBid, 3, aHand);
+		assertEquals(list(AllCards.a5S, AllCards.a5C, AllCards.a7C, AllCards.a4D, AllCards.a8D, AllCards.aTD).getMask(),
+				lDiscards.getMask());
+	}
+
+	@Test
+	public void testRollouts()
+	{
+		Deck lDeck = new Deck(new SplitMixRandom(500));
+		ForkJoinPool lPool = new ForkJoinPool(1);
+		try
+		{
+			for (int i = 0; i < 20; i++)
+			{
+				lDeck.shuffle();
+				Hand lHand = new Hand();
+				for (int j = 0; j < 16; j++)
+				{
+					lHand.add(lDeck.draw());
+				}
+				AdvancedCardExchangeStrategy lParallel = new AdvancedCardExchangeStrategy(new SplitMixRandom(i));
+				CardList lDiscards = lParallel.selectCardsToDiscard(aSpadesBid, 1, lHand);
+				assertEquals(AdvancedCardExchangeStrategy.DEFAULT_SAMPLES, lParallel.getLastSamples());
+				assertEquals(6, lDiscards.size());
+				for (Card lCard : lDiscards)
+				{
+					assertTrue(lHand.contains(lCard));
+				}
+
+				// The discards do not depend on the number of threads.
+				AdvancedCardExchangeStrategy lSequential = new AdvancedCardExchangeStrategy(new SplitMixRandom(i),
+						AdvancedCardExchangeStrategy.DEFAULT_CANDIDATES, AdvancedCardExchangeStrategy.DEFAULT_SAMPLES, 0,
+						lPool);
+				assertEquals(lDiscards.getMask(), lSequential.selectCardsToDiscard(aSpadesBid, 1, lHand).getMask());
+			}
+		}
+		finally
+		{
+			lPool.shutdown();
+		}
+	}
+
+	@Test
+	public void testTimeLimit()
+	{
+		ForkJoinPool lPool = new ForkJoinPool(1);
+		try
+		{
+			// Far more rollouts than fit in the time limit.
+			AdvancedCardExchangeStrategy lStrategy = new AdvancedCardExchangeStrategy(new SplitMixRandom(303),
+					AdvancedCardExchangeStrategy.DEFAULT_CANDIDATES, 1000000, 1, lPool);
+			assertDiscards(lStrategy.selectCardsToDiscard(aSpadesBid, 3, aHand));
+			assertTrue(lStrategy.getLastSamples() < 1000000);
+
+			// The only thread of the pool is busy past the time limit, so no deal is played out and the set with the
+			// best score is kept.
+			lStrategy = new AdvancedCardExchangeStrategy(new SplitMixRandom(303),
+					AdvancedCardExchangeStrategy.DEFAULT_CANDIDATES, AdvancedCardExchangeStrategy.DEFAULT_SAMPLES, 1,
+					lPool);
+			lPool.execute(new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					try
+					{
+						Thread.sleep(BUSY_MILLIS);
+					}
+					catch (InterruptedException e)
+					{
+						Thread.currentThread().interrupt();
+					}
+				}
+			});
+			CardList lDiscards = lStrategy.selectCardsToDiscard(aSpadesBid, 3, aHand);
+			assertTrue(lStrategy.getLastSamples() < AdvancedCardExchangeStrategy.DEFAULT_SAMPLES);
+			assertDiscards(lDiscards);
+			assertEquals(new AdvancedCardExchangeStrategy().selectCardsToDiscard(aSpadesBid, 3, aHand).getMask(),
+					lDiscards.getMask());
+		}
+		finally
+		{
+			lPool.shutdown();
+		}
+	}
+
+	// Six different cards of the hand.
+	private void assertDiscards(CardList pDiscards)
+	{
+		assertEquals(6, pDiscards.size());
+		assertEquals(6, CardSet.size(pDiscards.getMask()));
+		for (Card lCard : pDiscards)
+		{
+			assertTrue(aHand.contains(lCard));
+		}
+	}
+
+	@Test
+	public void testNoRollouts()
+	{
+		AdvancedCardExchangeStrategy lStrategy = new AdvancedCardExchangeStrategy();
+		lStrategy.selectCardsToDiscard(aSpadesBid, 3, aHand);
+		assertEquals(0, lStrategy.getLastSamples());
+		assertFalse(lStrategy.selectCardsToDiscard(aSpadesBid, 3, aHand).contains(AllCards.aHJo));
+	}
+}
@@ -0,0 +1,116 @@
+package comp303.fivehundred.ai;
+
+import static comp303.fivehundred.util.AllCards.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import comp303.fivehundred.util.Card.Suit;
+import comp303.fivehundred.util.CardSet;
+import comp303.fivehundred.util.Deck;
+import comp303.fivehundred.util.SplitMixRandom;
+
+/**
+ * Test methods for DoubleDummySolver.
+ * @author Jake Shamash
+ *
+ */
+public class TestDoubleDummySolver
+{
+	@Test
+	public void testSimpleEnding()
+	{
+		// Spades trump, seat 0 leads. Team 0 holds both jokers, team 1 the two bowers.
+		PlayoutState lState = new PlayoutState();
+		lState.reset(Suit.SPADES, 0, 4, 4);
+		lState.setHand(0, CardSet.of(aHJo) | CardSet.of(a4H));
+		lState.setHand(1, CardSet.of(aJS) | CardSet.of(a5H));
+		lState.setHand(2, CardSet.of(aLJo) | CardSet.of(a6H));
+		lState.setHand(3, CardSet.of(aJC) | CardSet.of(a7H));
+
+		// Whatever seat 0 leads, the low joker has to follow the high joker and seat 3 wins the hearts trick.
+		DoubleDummySolver lSolver = new DoubleDummySolver();
+		assertEquals(1, lSolver.solve(lState, 0));
+		assertEquals(1, lSolver.solve(lState, 1));
+
+		// In no trump, seat 0 leads a heart to the ace of its partner and keeps the high joker for the last trick.
+		lState.reset(null, 0, 4, 4);
+		lState.setHand(0, CardSet.of(aHJo) | CardSet.of(a4H));
+		lState.setHand(1, CardSet.of(aKH) | CardSet.of(a5H));
+		lState.setHand(2, CardSet.of(aAH) | CardSet.of(a6D));
+		lState.setHand(3, CardSet.of(aQH) | CardSet.of(a7H));
+		assertEquals(2, lSolver.solve(lState, 0));
+		assertEquals(4, lState.getTricks(0));
+	}
+
+	@Test
+	public void testAgainstMinimax()
+	{
+		Suit[] lTrumps = {Suit.SPADES, Suit.CLUBS, Suit.DIAMONDS, Suit.HEARTS, null};
+		Deck lDeck = new Deck(new SplitMixRandom(303));
+		DoubleDummySolver lSolver = new DoubleDummySolver(10);
+		PlayoutState lState = new PlayoutState();
+		for (int i = 0; i < 60; i++)
+		{
+			int lTricks = 3;
+			if (i % 10 == 0)
+			{
+				lTricks = 4;
+			}
+			lDeck.shuffle();
+			lState.reset(lTrumps[i % lTrumps.length], i % 4, 0, 0);
+			for (int lSeat = 0; lSeat < 4; lSeat++)
+			{
+				long lHand = CardSet.EMPTY;
+				for (int j = 0; j < lTricks; j++)
+				{
+					lHand |= CardSet.of(lDeck.draw());
+				}
+				lState.setHand(lSeat, lHand);
+			}
+			// Start some positions in the middle of a trick.
+			if (i % 3 == 1)
+			{
+				lState.play(lState.greedyMove());
+			}
+			int lExpected = minimax(lState) - lState.getTricks(0);
+			assertEquals(lExpected, lSolver.solve(lState, 0));
+			// The second call is answered by the transposition table.
+			assertEquals(lExpected, lSolver.solve(lState, 0));
+		}
+		assertTrue(lSolver.getHitRate() > 0);
+		assertTrue(lSolver.getNodes() > 0);
+	}
+
+	// The final tricks of team 0, by exhaustive search.
+	private static int minimax(PlayoutState pState)
+	{
+		if (pState.isOver())
+		{
+			return pState.getTricks(0);
+		}
+		boolean lMaximize = pState.getTurn() % 2 == 0;
+		int lBest = -1;
+		if (!lMaximize)
+		{
+			lBest = Integer.MAX_VALUE;
+		}
+		PlayoutState lChild = new PlayoutState();
+		for (long lRest = pState.legalMoves(); lRest != CardSet.EMPTY; lRest &= lRest - 1)
+		{
+			lChild.copyFrom(pState);
+			lChild.play(Long.numberOfTrailingZeros(lRest));
+			int lValue = minimax(lChild);
+			if (lMaximize)
+			{
+				lBest = Math.max(lBest, lValue);
+			}
+			else
+			{
+				lBest = Math.min(lBest, lValue);
+			}
+		}
+		return lBest;
+	}
+}
@@ -0,0 +1,151 @@
+package comp303.fivehundred.ai;
+
+import static comp303.fivehundred.util.AllCards.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Comparator;
+
+import org.junit.Test;
+
+import comp303.fivehundred.util.Card;
+import comp303.fivehundred.util.Card.Suit;
+import comp303.fivehundred.util.CardSet;
+import comp303.fivehundred.util.Deck;
+import comp303.fivehundred.util.SplitMixRandom;
+
+/**
+ * Test methods for HandEvaluator.
+ * @author Jake Shamash
+ *
+ */
+public class TestHandEvaluator
+{
+	@Test
+	public void testEvaluation()
+	{
+		long lHand = CardSet.of(aHJo) | CardSet.of(aAS) | CardSet.of(aKS) | CardSet.of(aJC) | CardSet.of(a4H)
+				| CardSet.of(aQH) | CardSet.of(a9D);
+		HandEvaluator.Evaluation lEvaluation = new HandEvaluator(16).evaluate(lHand);
+
+		// Spades: high joker 5, ace 3, king 2, left bower 2. Clubs: high joker 5, jack 2.
+		assertEquals(12, lEvaluation.getPoints(Suit.SPADES));
+		assertEquals(7, lEvaluation.getPoints(Suit.CLUBS));
+		assertEquals(6, lEvaluation.getPoints(Suit.HEARTS));
+		assertEquals(4, lEvaluation.getTrumpCount(Suit.SPADES));
+		assertEquals(2, lEvaluation.getTrumpCount(Suit.CLUBS));
+		assertEquals(2, lEvaluation.getHighCards(Suit.SPADES));
+		assertEquals(0, lEvaluation.getHighCards(Suit.DIAMONDS));
+		assertEquals(6 + 4 + 3 + 1 + 2, lEvaluation.getScore());
+		assertEquals(5, lEvaluation.getHighCardCount());
+		assertTrue(lEvaluation.getBeaten(Suit.SPADES) < lEvaluation.getBeaten(Suit.DIAMONDS));
+	}
+
+	@Test
+	public void testRenamings()
+	{
+		// Swapping the black suits, and the black suits with the red ones, gives the same evaluation renamed, except
+		// for the cards beaten, which depend on the order of the suits.
+		long lHand = CardSet.of(aLJo) | CardSet.of(aAS) | CardSet.of(aJS) | CardSet.of(a5C) | CardSet.of(aKD);
+		long lSwapped = CardSet.of(aLJo) | CardSet.of(aAC) | CardSet.of(aJC) | CardSet.of(a5S) | CardSet.of(aKD);
+		long lRed = CardSet.of(aLJo) | CardSet.of(aAH) | CardSet.of(aJH) | CardSet.of(a5D) | CardSet.of(aKS);
+		HandEvaluator lEvaluator = new HandEvaluator(16);
+		HandEvaluator.Evaluation lEvaluation = lEvaluator.evaluate(lHand);
+		HandEvaluator.Evaluation lSwappedEvaluation = lEvaluator.evaluate(lSwapped);
+		HandEvaluator.Evaluation lRedEvaluation = lEvaluator.evaluate(lRed);
+		assertEquals(1, lEvaluator.getMisses());
+		assertEquals(2, lEvaluator.getHits());
+		Suit[] lSuits = {Suit.SPADES, Suit.CLUBS, Suit.DIAMONDS, Suit.HEARTS};
+		Suit[] lSwappedSuits = {Suit.CLUBS, Suit.SPADES, Suit.DIAMONDS, Suit.HEARTS};
+		Suit[] lRedSuits = {Suit.HEARTS, Suit.DIAMONDS, Suit.SPADES, Suit.CLUBS};
+		for (int i = 0; i < lSuits.length; i++)
+		{
+			assertEquals(lEvaluation.getPoints(lSuits[i]), lSwappedEvaluation.getPoints(lSwappedSuits[i]));
+			assertEquals(lEvaluation.getTrumpCount(lSuits[i]), lRedEvaluation.getTrumpCount(lRedSuits[i]));
+			assertEquals(lEvaluation.getHighCards(lSuits[i]), lRedEvaluation.getHighCards(lRedSuits[i]));
+		}
+	}
+
+	@Test
+	public void testBaseline()
+	{
+		// Cached or not, renamed or not, the evaluations are those of the code the cache replaced.
+		HandEvaluator lSmall = new HandEvaluator(32);
+		HandEvaluator lLarge = new HandEvaluator(1 << 12);
+		Deck lDeck = new Deck(new SplitMixRandom(42));
+		for (int i = 0; i < 500; i++)
+		{
+			lDeck.shuffle();
+			long lHand = CardSet.EMPTY;
+			for (int j = 0; j < 10; j++)
+			{
+				lHand |= CardSet.of(lDeck.draw());
+			}
+			for (int lRepeat = 0; lRepeat < 2; lRepeat++)
+			{
+				for (Suit lSuit : Suit.values())
+				{
+					assertEquals(beaten(lHand, lSuit), lSmall.evaluate(lHand).getBeaten(lSuit));
+					assertEquals(beaten(lHand, lSuit), lLarge.evaluate(lHand).getBeaten(lSuit));
+					assertEquals(lLarge.evaluate(lHand).getPoints(lSuit), lSmall.evaluate(lHand).getPoints(lSuit));
+				}
+			}
+		}
+		assertTrue(lLarge.getHits() > 0);
+	}
+
+	@Test
+	public void testEviction()
+	{
+		// A small cache keeps answering correctly while it evicts.
+		HandEvaluator lSmall = new HandEvaluator(32);
+		HandEvaluator lLarge = new HandEvaluator(1 << 12);
+		Deck lDeck = new Deck(new SplitMixRandom(303));
+		long[] lHands = new long[200];
+		for (int i = 0; i < lHands.length; i++)
+		{
+			lDeck.shuffle();
+			for (int j = 0; j < 10; j++)
+			{
+				lHands[i] |= CardSet.of(lDeck.draw());
+			}
+		}
+		for (int lRound = 0; lRound < 3; lRound++)
+		{
+			for (long lHand : lHands)
+			{
+				for (Suit lSuit : Suit.values())
+				{
+					assertEquals(lLarge.evaluate(lHand).getBeaten(lSuit), lSmall.evaluate(lHand).getBeaten(lSuit));
+					assertEquals(lLarge.evaluate(lHand).getPoints(lSuit), lSmall.evaluate(lHand).getPoints(lSuit));
+				}
+			}
+		}
+		assertTrue(lSmall.getMisses() > lHands.length);
+		assertTrue(lLarge.getHitRate() > lSmall.getHitRate());
+		lSmall.clear();
+		assertEquals(0, lSmall.getHits() + lSmall.getMisses());
+	}
+
+	// The cards beaten as AdvancedBiddingStrategy counted them before the cache: every pair of a card of the hand and
+	// an unseen card that BySuitComparator ranks above it.
+	private static int beaten(long pHand, Suit pTrump)
+	{
+		Comparator<Card> lComparator = new Card.BySuitComparator(pTrump);
+		int lBeaten = 0;
+		for (int i = 0; i < CardSet.NUM_CARDS; i++)
+		{
+			for (int j = 0; j < CardSet.NUM_CARDS; j++)
+			{
+				Card lCard = Card.ofOrdinal(i);
+				Card lOther = Card.ofOrdinal(j);
+				if (CardSet.contains(pHand, lCard) && !CardSet.contains(pHand, lOther)
+						&& lComparator.compare(lOther, lCard) > 0)
+				{
+					lBeaten++;
+				}
+			}
+		}
+		return lBeaten;
+	}
+}
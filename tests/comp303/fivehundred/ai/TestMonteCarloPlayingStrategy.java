@@ -0,0 +1,112 @@
+package comp303.fivehundred.ai;
+
+import static comp303.fivehundred.util.AllCards.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import comp303.fivehundred.engine.GameEngine;
+import comp303.fivehundred.util.Card.Suit;
+import comp303.fivehundred.util.CardSet;
+import comp303.fivehundred.util.SplitMixRandom;
+
+/**
+ * Test methods for MonteCarloPlayingStrategy, PlayoutState and DealSampler.
+ * @author Jake Shamash
+ *
+ */
+public class TestMonteCarloPlayingStrategy
+{
+	@Test
+	public void testPlayoutState()
+	{
+		PlayoutState lState = new PlayoutState();
+		lState.reset(Suit.SPADES, 1, 3, 4);
+		lState.setHand(0, CardSet.of(aAH) | CardSet.of(a4S));
+		lState.setHand(1, CardSet.of(aKH) | CardSet.of(a5C));
+		lState.setHand(2, CardSet.of(aQH) | CardSet.of(a6D));
+		lState.setHand(3, CardSet.of(a7C) | CardSet.of(aJC));
+
+		// Seat 1 leads the king of hearts: seat 2 must follow, seat 3 cannot.
+		lState.play(aKH.ordinal());
+		assertEquals(CardSet.of(aQH), lState.legalMoves());
+		lState.play(aQH.ordinal());
+		assertEquals(lState.getHand(3), lState.legalMoves());
+		lState.play(a7C.ordinal());
+		assertEquals(CardSet.of(aAH), lState.legalMoves());
+		lState.play(aAH.ordinal());
+		assertEquals(4, lState.getTricks(0));
+		assertEquals(0, lState.getTurn());
+
+		// Seat 0 leads a trump, which the left bower of seat 3 beats.
+		lState.playOut();
+		assertTrue(lState.isOver());
+		assertEquals(4, lState.getTricks(0));
+		assertEquals(5, lState.getTricks(1));
+	}
+
+	@Test
+	public void testSampler()
+	{
+		long lUnseen = CardSet.ALL & ~CardSet.rawSuit(Suit.CLUBS);
+		int[] lSizes = {0, 10, 10, 10};
+		long[] lVoids = {CardSet.EMPTY, CardSet.rawSuit(Suit.HEARTS), CardSet.EMPTY, CardSet.JOKERS};
+		DealSampler lSampler = new DealSampler(lUnseen, lSizes, lVoids);
+		SplitMixRandom lRandom = new SplitMixRandom(303);
+		PlayoutState lState = new PlayoutState();
+		for (int i = 0; i < 100; i++)
+		{
+			lState.reset(null, 0, 0, 0);
+			lSampler.sample(lRandom, lState);
+			long lDealt = CardSet.EMPTY;
+			for (int lSeat = 1; lSeat < 4; lSeat++)
+			{
+				long lHand = lState.getHand(lSeat);
+				assertEquals(10, CardSet.size(lHand));
+				assertEquals(CardSet.EMPTY, lHand & lVoids[lSeat]);
+				assertEquals(CardSet.EMPTY, lHand & lDealt);
+				lDealt |= lHand;
+			}
+			assertEquals(lDealt, lDealt & lUnseen);
+			assertEquals(CardSet.EMPTY, lState.getHand(0));
+		}
+	}
+
+	@Test
+	public void testReproducible()
+	{
+		String[] lNames = {"A", "B", "C", "D"};
+		int[] lTypes = {GameEngine.MONTE_CARLO_AI, GameEngine.BASIC_AI, GameEngine.MONTE_CARLO_AI, GameEngine.BASIC_AI};
+		int[] lTricks = new int[4];
+		for (int lRun = 0; lRun < 2; lRun++)
+		{
+			GameEngine lEngine = new GameEngine(lNames, lTypes, new SplitMixRandom(42));
+			lEngine.newGame();
+			lEngine.deal();
+			lEngine.bid();
+			while (lEngine.allPasses())
+			{
+				lEngine.deal();
+				lEngine.bid();
+			}
+			lEngine.exchange();
+			for (int i = 0; i < 10; i++)
+			{
+				lEngine.playTrick();
+			}
+			for (int lPlayer = 0; lPlayer < 4; lPlayer++)
+			{
+				if (lRun == 0)
+				{
+					lTricks[lPlayer] = lEngine.getTricksWon(lPlayer);
+				}
+				else
+				{
+					assertEquals(lTricks[lPlayer], lEngine.getTricksWon(lPlayer));
+				}
+			}
+		}
+		assertEquals(10, lTricks[0] + lTricks[1] + lTricks[2] + lTricks[3]);
+	}
+}
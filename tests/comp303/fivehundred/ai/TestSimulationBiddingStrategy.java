@@ -0,0 +1,123 @@
+package comp303.fivehundred.ai;
+
+import static comp303.fivehundred.util.AllCards.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import comp303.fivehundred.model.Bid;
+import comp303.fivehundred.model.Hand;
+import comp303.fivehundred.util.Card;
+import comp303.fivehundred.util.Card.Suit;
+import comp303.fivehundred.util.SplitMixRandom;
+
+/**
+ * Test methods for SimulationBiddingStrategy.
+ * @author Jake Shamash
+ *
+ */
+public class TestSimulationBiddingStrategy
+{
+	private static final Card[] STRONG = {aHJo, aLJo, aAS, aKS, aQS, aJS, aJC, aTS, a9S, a8S};
+	private static final long BUSY_MILLIS = 50;
+	private static final Card[] WEAK = {a4S, a4C, a5C, a5S, a6S, a6C, a7C, a7S, a8D, a8C};
+
+	@Test
+	public void testSelectBid()
+	{
+		SimulationBiddingStrategy lStrategy = new SimulationBiddingStrategy(new SplitMixRandom(303));
+		Bid[] lNoBids = {null, null, null, null};
+		Bid lBid = lStrategy.selectBid(lNoBids, hand(STRONG));
+		assertFalse(lBid.isPass());
+		assertEquals(Suit.SPADES, lBid.getSuit());
+		// The best bid stands out quickly.
+		assertTrue(lStrategy.getLastSamples() < SimulationBiddingStrategy.DEFAULT_SAMPLES);
+
+		assertTrue(lStrategy.selectBid(lNoBids, hand(WEAK)).isPass());
+
+		// Bids are always above the previous bids.
+		Bid[] lHighBids = {new Bid(9, Suit.HEARTS), null, null, null};
+		lBid = lStrategy.selectBid(lHighBids, hand(STRONG));
+		assertTrue(lBid.isPass() || lBid.compareTo(lHighBids[0]) > 0);
+		Bid[] lMaxBids = {new Bid(10, null), null, null, null};
+		assertTrue(lStrategy.selectBid(lMaxBids, hand(STRONG)).isPass());
+	}
+
+	@Test
+	public void testReproducible()
+	{
+		// Without a time limit, the bid does not depend on the number of threads.
+		Card[] lCards = {aHJo, aAH, aKH, aTH, a9H, aJD, aAC, aKC, a5S, a6D};
+		Bid[] lBids = {new Bid(), new Bid(6, Suit.SPADES), null, null};
+		ForkJoinPool lSingle = new ForkJoinPool(1);
+		ForkJoinPool lMany = new ForkJoinPool(4);
+		for (long lSeed = 0; lSeed < 5; lSeed++)
+		{
+			SimulationBiddingStrategy lOne = new SimulationBiddingStrategy(new SplitMixRandom(lSeed), 300, 50, 0, lSingle);
+			SimulationBiddingStrategy lFour = new SimulationBiddingStrategy(new SplitMixRandom(lSeed), 300, 50, 0, lMany);
+			assertEquals(lOne.selectBid(lBids, hand(lCards)), lFour.selectBid(lBids, hand(lCards)));
+			assertEquals(lOne.getLastSamples(), lFour.getLastSamples());
+		}
+		lSingle.shutdown();
+		lMany.shutdown();
+	}
+
+	@Test
+	public void testTimeLimit()
+	{
+		Bid[] lNoBids = {null, null, null, null};
+		ForkJoinPool lSingle = new ForkJoinPool(1);
+
+		// One batch of all the deals, cut short by the time limit: only the deals played out are counted.
+		SimulationBiddingStrategy lStrategy = new SimulationBiddingStrategy(new SplitMixRandom(303), 1000, 1000, 1,
+				lSingle);
+		assertFalse(lStrategy.selectBid(lNoBids, hand(STRONG)).isPass());
+		assertTrue(lStrategy.getLastSamples() < 1000);
+
+		// The only thread of the pool is busy past the time limit, so no deal is played out.
+		occupy(lSingle);
+		assertFalse(lStrategy.selectBid(lNoBids, hand(STRONG)).isPass());
+		assertEquals(0, lStrategy.getLastSamples());
+
+		// The fallback bid is still above the previous bids.
+		Bid[] lHighBids = {new Bid(10, Suit.HEARTS), null, null, null};
+		occupy(lSingle);
+		Bid lBid = lStrategy.selectBid(lHighBids, hand(STRONG));
+		assertTrue(lBid.isPass() || lBid.compareTo(lHighBids[0]) > 0);
+		lSingle.shutdown();
+	}
+
+	// Keeps the only thread of pPool busy for longer than the time limits of the tests.
+	private static void occupy(ForkJoinPool pPool)
+	{
+		pPool.execute(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				try
+				{
+					Thread.sleep(BUSY_MILLIS);
+				}
+				catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+	}
+
+	private static Hand hand(Card[] pCards)
+	{
+		Hand lHand = new Hand();
+		for (Card lCard : pCards)
+		{
+			lHand.add(lCard);
+		}
+		return lHand;
+	}
+}
@@ -0,0 +1,72 @@
+package comp303.fivehundred.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import comp303.fivehundred.logger.RecordReader;
+import comp303.fivehundred.logger.RecordWriter;
+
+/**
+ * Checks that a GameEngine reuses its hands, widow, bids and tricks from one round to the next. The replay mode asks
+ * no strategy anything, so what it allocates is what the engine itself allocates.
+ * @author Jake Shamash
+ *
+ */
+public class TestAllocation
+{
+	private static final String[] NAMES = {"A", "B", "C", "D"};
+	private static final int GAMES = 20;
+	private static final int WARM_UP = 5;
+	// Loose enough for the odd allocation of the JVM itself, far below the hands and tricks of a round (over 2 kB).
+	private static final long MAX_BYTES_PER_ROUND = 256;
+
+	private static long allocatedBytes()
+	{
+		return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread
+				.currentThread().getId());
+	}
+
+	@Test
+	public void testReplay() throws IOException
+	{
+		Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+		File lFile = File.createTempFile("allocation", ".bin");
+		lFile.deleteOnExit();
+		int[] lTypes = {GameEngine.BASIC_AI, GameEngine.BASIC_AI, GameEngine.BASIC_AI, GameEngine.BASIC_AI};
+		GameEngine lEngine = new GameEngine(NAMES, lTypes);
+		RecordWriter lWriter = new RecordWriter(lFile.toPath());
+		lEngine.addListener(lWriter);
+		for (int i = 0; i < GAMES; i++)
+		{
+			lEngine.setSeed(i);
+			Driver.playGame(lEngine);
+		}
+		lWriter.close();
+
+		RecordReader lReader = new RecordReader(lFile.toPath());
+		try
+		{
+			Replayer lReplayer = new Replayer(new GameEngine(NAMES, lTypes));
+			for (int i = 0; i < WARM_UP; i++)
+			{
+				lReplayer.replay(lReader);
+			}
+			long lBefore = allocatedBytes();
+			assertEquals(GAMES, lReplayer.replay(lReader));
+			long lBytes = allocatedBytes() - lBefore;
+			assertTrue(lBytes + " bytes allocated for " + lReader.size() + " rounds", lBytes < MAX_BYTES_PER_ROUND
+					* lReader.size());
+		}
+		finally
+		{
+			lReader.close();
+		}
+	}
+}
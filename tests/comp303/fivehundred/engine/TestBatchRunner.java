@@ -0,0 +1,150 @@
+package comp303.fivehundred.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Test methods for BatchRunner and ResultWriter.
+ * @author Jake Shamash
+ *
+ */
+public class TestBatchRunner
+{
+	@Test
+	public void testCsv() throws IOException
+	{
+		File lFile = File.createTempFile("results", ".csv");
+		lFile.deleteOnExit();
+		String[] lArgs = {"--seats", "basic,advanced,2,3", "--games", "12", "--threads", "3", "--seed", "303",
+				"--output", lFile.getPath()};
+		GameStatistics lStatistics = new BatchRunner(lArgs).run();
+
+		List<String> lLines = Files.readAllLines(lFile.toPath(), StandardCharsets.UTF_8);
+		assertEquals(13, lLines.size());
+		assertTrue(lLines.get(0).startsWith("game,seed,winner,rounds,score0"));
+		int[] lWins = new int[2];
+		boolean[] lSeen = new boolean[12];
+		for (String lLine : lLines.subList(1, lLines.size()))
+		{
+			String[] lFields = lLine.split(",");
+			assertEquals(20, lFields.length);
+			lSeen[Integer.parseInt(lFields[0])] = true;
+			lWins[Integer.parseInt(lFields[2])]++;
+			assertEquals(Tournament.gameSeed(303, Integer.parseInt(lFields[0])), Long.parseLong(lFields[1]));
+		}
+		for (boolean lGame : lSeen)
+		{
+			assertTrue(lGame);
+		}
+		assertEquals(lStatistics.getGamesWon(0), lWins[0]);
+		assertEquals(lStatistics.getGamesWon(1), lWins[1]);
+	}
+
+	@Test
+	public void testJson() throws IOException
+	{
+		File lFile = File.createTempFile("results", ".json");
+		lFile.deleteOnExit();
+		String[] lArgs = {"--games", "5", "--threads", "2", "--seed", "42", "--format", "json", "--output",
+				lFile.getPath()};
+		new BatchRunner(lArgs).run();
+
+		List<String> lLines = Files.readAllLines(lFile.toPath(), StandardCharsets.UTF_8);
+		assertEquals(5, lLines.size());
+		for (String lLine : lLines)
+		{
+			assertTrue(lLine.matches("\\{\"game\":\\d,\"seed\":-?\\d+,\"winner\":[01],\"rounds\":\\d+,\"scores\":\\[.*\\]\\}"));
+		}
+	}
+
+	@Test
+	public void testBadOutputWithMetrics() throws IOException
+	{
+		File lDirectory = File.createTempFile("results", "");
+		lDirectory.deleteOnExit();
+		String[] lArgs = {"--games", "1", "--metrics", "1", "--output",
+				new File(lDirectory, "results.csv").getPath()};
+		try
+		{
+			new BatchRunner(lArgs).run();
+			fail();
+		}
+		catch (GameException e)
+		{
+			// The output is in a file, not a directory: the reporter must not have been left running.
+		}
+		for (Thread lThread : Thread.getAllStackTraces().keySet())
+		{
+			assertFalse("Metrics".equals(lThread.getName()));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testBadSeats()
+	{
+		new BatchRunner(new String[] {"--seats", "basic,human,basic,basic"});
+	}
+
+	@Test
+	public void testDuplicateWholeBoards() throws IOException
+	{
+		File lFile = File.createTempFile("results", ".csv");
+		lFile.deleteOnExit();
+		String[] lArgs = {"--games", "5", "--threads", "2", "--seed", "303", "--duplicate", "4", "--output",
+				lFile.getPath()};
+		GameStatistics lStatistics = new BatchRunner(lArgs).run();
+
+		assertEquals(8, lStatistics.getGamesPlayed());
+		assertEquals(9, Files.readAllLines(lFile.toPath(), StandardCharsets.UTF_8).size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testBadDuplicate()
+	{
+		new BatchRunner(new String[] {"--duplicate", "3"});
+	}
+
+	@Test
+	public void testSprt() throws IOException
+	{
+		File lFile = File.createTempFile("results", ".csv");
+		lFile.deleteOnExit();
+		String[] lArgs = {"--seats", "advanced,basic,advanced,basic", "--games", "2000", "--threads", "2", "--seed", "303",
+				"--sprt", "wins,0.5,0.6", "--alpha", "0.01", "--look", "40", "--output", lFile.getPath()};
+		BatchRunner lRunner = new BatchRunner(lArgs);
+		GameStatistics lStatistics = lRunner.run();
+
+		assertEquals(SequentialTest.Decision.ACCEPT_H1, lRunner.getSequentialTest().getDecision());
+		assertTrue(lStatistics.getGamesPlayed() < 2000);
+		List<String> lLines = Files.readAllLines(lFile.toPath(), StandardCharsets.UTF_8);
+		assertEquals(lStatistics.getGamesPlayed() + 1, lLines.size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testBadMetric()
+	{
+		new BatchRunner(new String[] {"--interval", "tricks,0.1"});
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testBadSprt()
+	{
+		new BatchRunner(new String[] {"--sprt", "wins,0.5,1.5"});
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMissingValue()
+	{
+		new BatchRunner(new String[] {"--games"});
+	}
+}
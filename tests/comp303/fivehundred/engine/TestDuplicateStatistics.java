@@ -0,0 +1,117 @@
+package comp303.fivehundred.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test methods for duplicate deals, duplicate tournaments and DuplicateStatistics.
+ * @author Jake Shamash
+ *
+ */
+public class TestDuplicateStatistics
+{
+	private static final String[] NAMES = {"A", "B", "C", "D"};
+	private static final int[] MIXED = {GameEngine.ADVANCED_AI, GameEngine.BASIC_AI, GameEngine.ADVANCED_AI,
+			GameEngine.BASIC_AI};
+	private static final int[] BASIC = {GameEngine.BASIC_AI, GameEngine.BASIC_AI, GameEngine.BASIC_AI,
+			GameEngine.BASIC_AI};
+
+	@Test
+	public void testDeals()
+	{
+		// Different players and different decision seeds get the same deals, rotated by one seat.
+		GameEngine lFirst = new GameEngine(NAMES, MIXED);
+		GameEngine lSecond = new GameEngine(NAMES, BASIC);
+		lFirst.setDuplicateDeals(5, 0);
+		lSecond.setDuplicateDeals(5, 1);
+		lFirst.setSeed(1);
+		lSecond.setSeed(2);
+		lFirst.newGame();
+		lSecond.newGame();
+		for (int lRound = 0; lRound < 3; lRound++)
+		{
+			lFirst.deal();
+			lSecond.deal();
+			assertEquals(NAMES[(indexOf(lFirst.getDealer()) + 1) % NAMES.length], lSecond.getDealer());
+			for (int i = 0; i < NAMES.length; i++)
+			{
+				assertEquals(lFirst.getHandMask(i), lSecond.getHandMask((i + 1) % NAMES.length));
+			}
+			assertEquals(lFirst.getWidow(), lSecond.getWidow());
+		}
+	}
+
+	@Test
+	public void testClear()
+	{
+		GameEngine lDuplicate = new GameEngine(NAMES, BASIC);
+		lDuplicate.setDuplicateDeals(5, 2);
+		lDuplicate.clearDuplicateDeals();
+		GameEngine lOrdinary = new GameEngine(NAMES, BASIC);
+		lDuplicate.setSeed(3);
+		lOrdinary.setSeed(3);
+		lDuplicate.newGame();
+		lOrdinary.newGame();
+		lDuplicate.deal();
+		lOrdinary.deal();
+		assertEquals(lOrdinary.getDealer(), lDuplicate.getDealer());
+		assertEquals(lOrdinary.getHandMask(0), lDuplicate.getHandMask(0));
+	}
+
+	@Test
+	public void testMirror()
+	{
+		// Basic robots decide from their cards only: the two tables of a board mirror each other exactly.
+		Tournament lTournament = new Tournament(NAMES, BASIC, 2, 11);
+		lTournament.setDuplicate(2);
+		GameStatistics lStatistics = lTournament.play(10);
+		DuplicateStatistics lDuplicate = lTournament.getDuplicateStatistics();
+		assertEquals(10, lStatistics.getGamesPlayed());
+		assertEquals(5, lDuplicate.getBoards());
+		assertEquals(0, lDuplicate.getWinMargin(), 0);
+		assertEquals(0, lDuplicate.getScoreMargin(), 0);
+		assertEquals(0, lDuplicate.getScoreMarginError(), 0);
+		assertEquals(Double.POSITIVE_INFINITY, lDuplicate.getScoreVarianceReduction(), 0);
+		assertEquals(lStatistics.getGamesWon(0), lStatistics.getGamesWon(1));
+	}
+
+	@Test
+	public void testTournament()
+	{
+		Tournament lSequential = new Tournament(NAMES, MIXED, 1, 42);
+		lSequential.setDuplicate(4);
+		GameStatistics lExpected = lSequential.play(13);
+		Tournament lParallel = new Tournament(NAMES, MIXED, 3, 42);
+		lParallel.setDuplicate(4);
+		GameStatistics lActual = lParallel.play(13);
+
+		// The boards are split between the workers whole, so the results do not depend on the number of threads.
+		assertEquals(13, lActual.getGamesPlayed());
+		assertEquals(lExpected.getGamesWon(0), lActual.getGamesWon(0));
+		assertEquals(lExpected.getTotalScore(0), lActual.getTotalScore(0));
+		assertEquals(3, lParallel.getDuplicateStatistics().getBoards());
+		assertEquals(lSequential.getDuplicateStatistics().getScoreMargin(),
+				lParallel.getDuplicateStatistics().getScoreMargin(), 1e-9);
+		double lMargin = lParallel.getDuplicateStatistics().getWinMargin();
+		assertTrue(lMargin >= -1 && lMargin <= 1);
+
+		lParallel.setDuplicate(1);
+		lParallel.play(2);
+		assertNull(lParallel.getDuplicateStatistics());
+	}
+
+	private static int indexOf(String pName)
+	{
+		for (int i = 0; i < NAMES.length; i++)
+		{
+			if (NAMES[i].equals(pName))
+			{
+				return i;
+			}
+		}
+		return -1;
+	}
+}
@@ -8,6 +8,9 @@ import java.util.regex.Pattern;
 
 import org.junit.Test;
 
+import comp303.fivehundred.model.Bid;
+import comp303.fivehundred.util.Card;
+
 /**
  * Test methods for GameEngine.
  * @author Brandon Hum
@@ -243,4 +246,51 @@ public class TestGameEngine
 		}
 	}
 	
+	@Test
+	public void testListeners()
+	{
+		final int[] bids = new int[1];
+		final int[] cards = new int[1];
+		final int[] tricks = new int[4];
+		GameListener listener = new GameAdapter()
+		{
+			@Override
+			public void onBid(GameEngine pEngine, int pPlayer, Bid pBid)
+			{
+				bids[0]++;
+			}
+
+			@Override
+			public void onCardPlayed(GameEngine pEngine, int pPlayer, Card pCard)
+			{
+				assertEquals(pCard, pEngine.getLastCardPlayed());
+				cards[0]++;
+			}
+
+			@Override
+			public void onTrickEnd(GameEngine pEngine, int pWinner)
+			{
+				tricks[pWinner]++;
+			}
+		};
+		aEngine.addListener(listener);
+		aEngine.newGame();
+		aEngine.deal();
+		aEngine.bid();
+		while (aEngine.allPasses())
+		{
+			aEngine.deal();
+			aEngine.bid();
+		}
+		assertEquals(0, bids[0] % 4);
+		aEngine.exchange();
+		aEngine.playTrick();
+		assertEquals(4, cards[0]);
+		assertEquals(1, tricks[aEngine.getTrickWinner()]);
+
+		// A removed listener no longer receives events.
+		aEngine.removeListener(listener);
+		aEngine.playTrick();
+		assertEquals(4, cards[0]);
+	}
 }
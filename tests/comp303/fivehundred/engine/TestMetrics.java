@@ -0,0 +1,75 @@
+package comp303.fivehundred.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test methods for Metrics and the instrumentation of GameEngine.
+ * @author Jake Shamash
+ *
+ */
+public class TestMetrics
+{
+	private static final String[] NAMES = {"A", "B", "C", "D"};
+	private static final int[] TYPES = {GameEngine.BASIC_AI, GameEngine.ADVANCED_AI, GameEngine.BASIC_AI, GameEngine.ADVANCED_AI};
+
+	@Test
+	public void testEngine()
+	{
+		GameEngine lEngine = new GameEngine(NAMES, TYPES);
+		assertNull(lEngine.getMetrics());
+		Metrics lMetrics = new Metrics();
+		lEngine.setMetrics(lMetrics);
+		for (int i = 0; i < 3; i++)
+		{
+			lEngine.setSeed(i);
+			Driver.playGame(lEngine);
+		}
+
+		long lDeals = lMetrics.get(Metrics.Counter.DEALS);
+		long lRounds = lDeals - lMetrics.get(Metrics.Counter.PASSED_OUT);
+		assertEquals(3, lMetrics.get(Metrics.Counter.GAMES));
+		assertEquals(10 * lRounds, lMetrics.get(Metrics.Counter.TRICKS));
+		assertEquals(lDeals, lMetrics.get(Metrics.Phase.DEAL).getCount());
+		assertEquals(lDeals, lMetrics.get(Metrics.Phase.BID).getCount());
+		assertEquals(lRounds, lMetrics.get(Metrics.Phase.EXCHANGE).getCount());
+		assertEquals(lRounds, lMetrics.get(Metrics.Phase.SCORE).getCount());
+		assertEquals(10 * lRounds, lMetrics.get(Metrics.Phase.PLAY_TRICK).getCount());
+
+		long lDiscards = 0;
+		for (int i = 0; i < 4; i++)
+		{
+			assertEquals(lDeals, lMetrics.get(Metrics.Decision.BID, i).getCount());
+			assertEquals(10 * lRounds, lMetrics.get(Metrics.Decision.PLAY, i).getCount());
+			lDiscards += lMetrics.get(Metrics.Decision.DISCARD, i).getCount();
+		}
+		assertEquals(lRounds, lDiscards);
+
+		Metrics.Histogram lPlays = lMetrics.get(Metrics.Decision.PLAY, 1);
+		assertTrue(lPlays.getTotalNanos() > 0);
+		assertTrue(lPlays.getPercentileNanos(0.5) <= lPlays.getPercentileNanos(0.99));
+		assertTrue(lPlays.getPercentileNanos(0.99) <= lPlays.getMaxNanos());
+		assertTrue(lPlays.getMeanNanos() <= lPlays.getMaxNanos());
+
+		String lText = lMetrics.snapshot(Metrics.Format.TEXT);
+		assertTrue(lText.contains("PLAY 1 Advanced"));
+		String lJson = lMetrics.snapshot(Metrics.Format.JSON);
+		assertTrue(lJson.startsWith("{\"counters\":{\"GAMES\":3,"));
+		assertTrue(lJson.contains("{\"seat\":0,\"level\":\"Basic\",\"BID\":{\"count\":" + lDeals + ","));
+		assertTrue(lJson.endsWith("}]}"));
+	}
+
+	@Test
+	public void testTournament()
+	{
+		Tournament lTournament = new Tournament(NAMES, TYPES, 2, 7);
+		Metrics lMetrics = new Metrics();
+		lTournament.setMetrics(lMetrics);
+		lTournament.play(6);
+		assertEquals(6, lMetrics.get(Metrics.Counter.GAMES));
+		assertEquals(lMetrics.get(Metrics.Counter.DEALS), lMetrics.get(Metrics.Decision.BID, 3).getCount());
+	}
+}
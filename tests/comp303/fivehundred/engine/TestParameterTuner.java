@@ -0,0 +1,91 @@
+package comp303.fivehundred.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import comp303.fivehundred.ai.AIParameters;
+
+/**
+ * Test methods for ParameterTuner and the parameters of the robots.
+ * @author Jake Shamash
+ *
+ */
+public class TestParameterTuner
+{
+	private static AIParameters tune(String pLevel, File pFile) throws IOException
+	{
+		String[] lArgs = {"--level", pLevel, "--iterations", "3", "--games", "8", "--threads", "2", "--seed", "303",
+				"--output", pFile.getPath()};
+		ParameterTuner lTuner = new ParameterTuner(lArgs);
+		lTuner.setQuiet(true);
+		AIParameters lTuned = lTuner.run();
+		Reader lIn = new InputStreamReader(new FileInputStream(pFile), StandardCharsets.UTF_8);
+		try
+		{
+			assertEquals(lTuned, AIParameters.load(lIn));
+		}
+		finally
+		{
+			lIn.close();
+		}
+		return lTuned;
+	}
+
+	@Test
+	public void testTune() throws IOException
+	{
+		File lFile = File.createTempFile("tuned", ".properties");
+		lFile.deleteOnExit();
+		AIParameters lTuned = tune("advanced", lFile);
+		// The same seed tunes to the same parameters, whatever the scheduling of the workers.
+		assertEquals(lTuned, tune("advanced", lFile));
+		assertNotEquals(AIParameters.DEFAULTS, lTuned);
+		// The parameters of the other level do not move.
+		for (AIParameters.Parameter lParameter : AIParameters.Parameter.values())
+		{
+			if (lParameter.getLevel() != GameEngine.ADVANCED_AI)
+			{
+				assertEquals(AIParameters.DEFAULTS.get(lParameter), lTuned.get(lParameter), 0);
+			}
+		}
+	}
+
+	@Test
+	public void testMatch()
+	{
+		ParameterTuner lTuner = new ParameterTuner(new String[] {"--level", "basic", "--games", "6", "--threads", "2"});
+		// Both sides play the same seeds from both pairs of seats: identical sides win the same games.
+		assertEquals(0, lTuner.match(AIParameters.DEFAULTS, AIParameters.DEFAULTS, 7), 0);
+
+		double[] lValues = AIParameters.DEFAULTS.toArray();
+		lValues[AIParameters.Parameter.HIGH_JOKER_POINTS.ordinal()] = 0;
+		lValues[AIParameters.Parameter.LOW_JOKER_POINTS.ordinal()] = 0;
+		AIParameters lWeak = new AIParameters(lValues);
+		assertEquals(-lTuner.match(lWeak, AIParameters.DEFAULTS, 7), lTuner.match(AIParameters.DEFAULTS, lWeak, 7), 1e-9);
+	}
+
+	@Test
+	public void testTournament()
+	{
+		// Parameters equal to the defaults play exactly the same games as the defaults.
+		String[] lNames = {"A", "B", "C", "D"};
+		int[] lTypes = {GameEngine.ADVANCED_AI, GameEngine.BASIC_AI, GameEngine.ADVANCED_AI, GameEngine.BASIC_AI};
+		Tournament lTournament = new Tournament(lNames, lTypes, 2, 11);
+		GameStatistics lDefaults = lTournament.play(6);
+		lTournament.setParameters(0, new AIParameters(AIParameters.DEFAULTS.toArray()));
+		lTournament.setParameters(1, new AIParameters(AIParameters.DEFAULTS.toArray()));
+		GameStatistics lCopies = lTournament.play(6);
+		assertEquals(lDefaults.getGamesWon(0), lCopies.getGamesWon(0));
+		assertEquals(lDefaults.getTotalScore(0), lCopies.getTotalScore(0));
+		assertEquals(lDefaults.getTotalScore(1), lCopies.getTotalScore(1));
+	}
+}
@@ -0,0 +1,163 @@
+package comp303.fivehundred.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Test;
+
+import comp303.fivehundred.logger.RecordReader;
+import comp303.fivehundred.logger.RecordWriter;
+import comp303.fivehundred.model.Bid;
+import comp303.fivehundred.util.Card;
+
+/**
+ * Test methods for Replayer and the replay mode of GameEngine.
+ * @author Jake Shamash
+ *
+ */
+public class TestReplayer
+{
+	private static final String[] NAMES = {"A", "B", "C", "D"};
+
+	/* Writes down every event of the engine. */
+	private static class Transcript extends GameAdapter
+	{
+		private final StringBuilder aText = new StringBuilder();
+
+		@Override
+		public void onNewGame(GameEngine pEngine, int pDealer)
+		{
+			aText.append("new ").append(pDealer).append('\n');
+		}
+
+		@Override
+		public void onDeal(GameEngine pEngine, int pDealer)
+		{
+			aText.append("deal ").append(pDealer);
+			for (int i = 0; i < 4; i++)
+			{
+				aText.append(' ').append(pEngine.getHandMask(i));
+			}
+			aText.append(' ').append(pEngine.getDiscards().getMask()).append('\n');
+		}
+
+		@Override
+		public void onBid(GameEngine pEngine, int pPlayer, Bid pBid)
+		{
+			aText.append("bid ").append(pPlayer).append(' ').append(pBid).append('\n');
+		}
+
+		@Override
+		public void onContract(GameEngine pEngine, int pContractHolder, Bid pContract)
+		{
+			aText.append("contract ").append(pContractHolder).append(' ').append(pContract).append('\n');
+		}
+
+		@Override
+		public void onExchange(GameEngine pEngine, int pContractHolder)
+		{
+			aText.append("exchange ").append(pEngine.getDiscards().getMask()).append('\n');
+		}
+
+		@Override
+		public void onCardPlayed(GameEngine pEngine, int pPlayer, Card pCard)
+		{
+			aText.append("play ").append(pPlayer).append(' ').append(pCard).append('\n');
+		}
+
+		@Override
+		public void onTrickEnd(GameEngine pEngine, int pWinner)
+		{
+			aText.append("trick ").append(pWinner).append('\n');
+		}
+
+		@Override
+		public void onScore(GameEngine pEngine, int pContractHolder, boolean pContractMade)
+		{
+			aText.append("score ").append(pContractHolder).append(' ').append(pContractMade);
+			for (int i = 0; i < 4; i++)
+			{
+				aText.append(' ').append(pEngine.getGameScore(i));
+			}
+			aText.append('\n');
+		}
+
+		@Override
+		public void onGameOver(GameEngine pEngine, int pWinner)
+		{
+			aText.append("over ").append(pWinner).append('\n');
+		}
+	}
+
+	@Test
+	public void testReplay() throws IOException
+	{
+		File lFile = File.createTempFile("replay", ".bin");
+		lFile.deleteOnExit();
+		int[] lTypes = {GameEngine.BASIC_AI, GameEngine.ADVANCED_AI, GameEngine.BASIC_AI, GameEngine.ADVANCED_AI};
+		GameEngine lEngine = new GameEngine(NAMES, lTypes);
+		Transcript lPlayed = new Transcript();
+		GameStatistics lPlayedStatistics = new GameStatistics();
+		lEngine.addListener(lPlayed);
+		lEngine.addListener(lPlayedStatistics);
+		RecordWriter lWriter = new RecordWriter(lFile.toPath());
+		lEngine.addListener(lWriter);
+		for (int i = 0; i < 4; i++)
+		{
+			lEngine.setSeed(i);
+			Driver.playGame(lEngine);
+		}
+		lWriter.close();
+
+		// Random players would play other cards: the replay must not ask them anything.
+		int[] lRandom = {GameEngine.RANDOM_AI, GameEngine.RANDOM_AI, GameEngine.RANDOM_AI, GameEngine.RANDOM_AI};
+		GameEngine lReplay = new GameEngine(NAMES, lRandom);
+		Transcript lReplayed = new Transcript();
+		GameStatistics lReplayedStatistics = new GameStatistics();
+		lReplay.addListener(lReplayed);
+		lReplay.addListener(lReplayedStatistics);
+		RecordReader lReader = new RecordReader(lFile.toPath());
+		try
+		{
+			assertEquals(4, new Replayer(lReplay).replay(lReader));
+		}
+		finally
+		{
+			lReader.close();
+		}
+		assertFalse(lReplay.isReplaying());
+		assertEquals(lPlayed.aText.toString(), lReplayed.aText.toString());
+		for (int i = 0; i < 4; i++)
+		{
+			assertEquals(lPlayedStatistics.getGamesWon(i), lReplayedStatistics.getGamesWon(i));
+			assertEquals(lPlayedStatistics.getTotalScore(i), lReplayedStatistics.getTotalScore(i));
+		}
+	}
+
+	@Test(expected = GameException.class)
+	public void testIncompleteGame() throws IOException
+	{
+		File lFile = File.createTempFile("replay", ".bin");
+		lFile.deleteOnExit();
+		int[] lTypes = {GameEngine.BASIC_AI, GameEngine.BASIC_AI, GameEngine.BASIC_AI, GameEngine.BASIC_AI};
+		GameEngine lEngine = new GameEngine(NAMES, lTypes);
+		RecordWriter lWriter = new RecordWriter(lFile.toPath());
+		lEngine.addListener(lWriter);
+		lEngine.setSeed(1);
+		Driver.playGame(lEngine);
+		lWriter.close();
+
+		RecordReader lReader = new RecordReader(lFile.toPath());
+		try
+		{
+			new Replayer(new GameEngine(NAMES, lTypes)).replay(lReader, 0, lReader.size() - 1);
+		}
+		finally
+		{
+			lReader.close();
+		}
+	}
+}
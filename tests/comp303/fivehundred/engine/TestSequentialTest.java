@@ -0,0 +1,93 @@
+package comp303.fivehundred.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test methods for SequentialTest and the early stop of tournaments.
+ * @author Jake Shamash
+ *
+ */
+public class TestSequentialTest
+{
+	private static final String[] NAMES = {"A", "B", "C", "D"};
+	private static final int[] MIXED = {GameEngine.ADVANCED_AI, GameEngine.BASIC_AI, GameEngine.ADVANCED_AI,
+			GameEngine.BASIC_AI};
+	private static final int[] BASIC = {GameEngine.BASIC_AI, GameEngine.BASIC_AI, GameEngine.BASIC_AI,
+			GameEngine.BASIC_AI};
+
+	@Test
+	public void testQuantile()
+	{
+		assertEquals(1.95996, SequentialTest.quantile(0.975), 1e-4);
+		assertEquals(0, SequentialTest.quantile(0.5), 1e-6);
+		assertEquals(-2.32635, SequentialTest.quantile(0.01), 1e-4);
+	}
+
+	@Test
+	public void testAcceptH1()
+	{
+		// The advanced robots win about three games out of four against the basic ones.
+		SequentialTest lTest = SequentialTest.sprt(SequentialTest.Metric.WINS, 0.5, 0.6, 0.05, 0.05, 20);
+		Tournament lTournament = new Tournament(NAMES, MIXED, 2, 303);
+		lTournament.setSequentialTest(lTest);
+		GameStatistics lStatistics = lTournament.play(1000);
+
+		assertEquals(SequentialTest.Decision.ACCEPT_H1, lTest.getDecision());
+		assertTrue(lTest.getStatistic() >= lTest.getUpperBound());
+		assertEquals(lStatistics.getGamesPlayed(), lTest.getGames());
+		assertEquals(0, lTest.getGames() % 20);
+		assertEquals(1000 - lTest.getGames(), lTest.getGamesSaved());
+		assertTrue(lTest.toString().contains("ACCEPT_H1"));
+
+		// The games played are the first games of the same tournament without a test.
+		GameStatistics lExpected = new Tournament(NAMES, MIXED, 1, 303).play(lTest.getGames());
+		assertEquals(lExpected.getGamesWon(0), lStatistics.getGamesWon(0));
+		assertEquals(lExpected.getTotalScore(1), lStatistics.getTotalScore(1));
+		assertEquals(lExpected.getScoreMarginSquares(), lStatistics.getScoreMarginSquares());
+	}
+
+	@Test
+	public void testAcceptH0()
+	{
+		SequentialTest lTest = SequentialTest.sprt(SequentialTest.Metric.WINS, 0.5, 0.7, 0.05, 0.05, 25);
+		Tournament lTournament = new Tournament(NAMES, BASIC, 2, 42);
+		lTournament.setSequentialTest(lTest);
+		lTournament.play(1000);
+		assertEquals(SequentialTest.Decision.ACCEPT_H0, lTest.getDecision());
+		assertTrue(lTest.getStatistic() <= lTest.getLowerBound());
+		assertTrue(lTest.getGamesSaved() > 0);
+	}
+
+	@Test
+	public void testInterval()
+	{
+		SequentialTest lTest = SequentialTest.interval(SequentialTest.Metric.SCORE, 10, 0.05, 30);
+		Tournament lTournament = new Tournament(NAMES, MIXED, 2, 7);
+		lTournament.setSequentialTest(lTest);
+		lTournament.play(600);
+		assertEquals(SequentialTest.Decision.ACCEPT_H1, lTest.getDecision());
+		assertTrue(lTest.getMean() - lTest.getStatistic() > 0);
+	}
+
+	@Test
+	public void testUndecided()
+	{
+		SequentialTest lTest = SequentialTest.sprt(SequentialTest.Metric.SCORE, 0, 1, 0.01, 0.01, 10);
+		Tournament lTournament = new Tournament(NAMES, BASIC, 1, 5);
+		lTournament.setSequentialTest(lTest);
+		GameStatistics lStatistics = lTournament.play(25);
+		assertEquals(SequentialTest.Decision.CONTINUE, lTest.getDecision());
+		assertEquals(25, lStatistics.getGamesPlayed());
+		assertEquals(0, lTest.getGamesSaved());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDuplicate()
+	{
+		// The games of a board are not independent, so the error bounds of the tests would not hold.
+		new BatchRunner(new String[] {"--duplicate", "2", "--sprt", "wins,0.5,0.6"});
+	}
+}
@@ -0,0 +1,108 @@
+package comp303.fivehundred.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import comp303.fivehundred.util.CardSet;
+
+/**
+ * Test methods for ShardedStatistics.
+ * @author Jake Shamash
+ *
+ */
+public class TestShardedStatistics
+{
+	private static final String[] NAMES = {"BasicA", "AdvancedA", "BasicB", "AdvancedB"};
+	private static final int[] TYPES = {GameEngine.BASIC_AI, GameEngine.ADVANCED_AI, GameEngine.BASIC_AI, GameEngine.ADVANCED_AI};
+
+	@Test
+	public void testTournament()
+	{
+		Tournament lTournament = new Tournament(NAMES, TYPES, 4, 303);
+		ShardedStatistics lSharded = new ShardedStatistics();
+		lTournament.addListener(lSharded);
+		GameStatistics lStatistics = lTournament.play(40);
+		ShardedStatistics.Snapshot lSnapshot = lSharded.getSnapshot();
+
+		assertEquals(40, lSnapshot.getGamesPlayed());
+		for (int i = 0; i < 4; i++)
+		{
+			assertEquals(lStatistics.getGamesWon(i), lSnapshot.getGamesWon(i));
+			assertEquals(lStatistics.getTotalScore(i), lSnapshot.getTotalScore(i));
+		}
+		assertEquals(40, lSnapshot.getGamesWon(0) + lSnapshot.getGamesWon(1));
+
+		long lContracts = 0;
+		for (int i = 0; i < 4; i++)
+		{
+			for (int lBid = 0; lBid < 25; lBid++)
+			{
+				assertTrue(lSnapshot.getContractsMade(i, lBid) <= lSnapshot.getContracts(i, lBid));
+				lContracts += lSnapshot.getContracts(i, lBid);
+			}
+		}
+		assertEquals(lSnapshot.getRoundsPlayed(), lContracts);
+		long lTrumpRounds = 0;
+		for (int lTrump = 0; lTrump < CardSet.NUM_TRUMP_STATES; lTrump++)
+		{
+			lTrumpRounds += lSnapshot.getTrumpRounds(lTrump);
+		}
+		assertEquals(lContracts, lTrumpRounds);
+
+		long lGames = 0;
+		long lRounds = 0;
+		for (int i = 0; i <= ShardedStatistics.MAX_ROUNDS; i++)
+		{
+			lGames += lSnapshot.getGamesOfLength(i);
+			lRounds += i * lSnapshot.getGamesOfLength(i);
+		}
+		assertEquals(40, lGames);
+		assertEquals(lSnapshot.getRoundsPlayed(), lRounds);
+		assertTrue(lSnapshot.getLengthPercentile(0.5) <= lSnapshot.getLengthPercentile(0.9));
+		assertTrue(lSnapshot.getLengthPercentile(0.5) > 0);
+
+		for (int lTeam = 0; lTeam < 2; lTeam++)
+		{
+			long lFinal = 0;
+			for (int lScore = ShardedStatistics.MIN_SCORE; lScore <= ShardedStatistics.MAX_SCORE; lScore += ShardedStatistics.SCORE_BUCKET)
+			{
+				lFinal += lSnapshot.getFinalScores(lTeam, lScore);
+			}
+			assertEquals(40, lFinal);
+		}
+	}
+
+	@Test
+	public void testLiveSnapshots() throws InterruptedException
+	{
+		final ShardedStatistics lSharded = new ShardedStatistics();
+		final AtomicBoolean lDone = new AtomicBoolean();
+		final long[] lLast = new long[1];
+		final boolean[] lMonotonic = {true};
+		Thread lReader = new Thread()
+		{
+			@Override
+			public void run()
+			{
+				while (!lDone.get())
+				{
+					long lGames = lSharded.getSnapshot().getGamesPlayed();
+					lMonotonic[0] &= lGames >= lLast[0];
+					lLast[0] = lGames;
+				}
+			}
+		};
+		lReader.start();
+		Tournament lTournament = new Tournament(NAMES, TYPES, 3, 42);
+		lTournament.addListener(lSharded);
+		lTournament.play(30);
+		lDone.set(true);
+		lReader.join();
+		assertTrue(lMonotonic[0]);
+		assertEquals(30, lSharded.getSnapshot().getGamesPlayed());
+	}
+}
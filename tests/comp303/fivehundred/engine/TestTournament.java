@@ -0,0 +1,54 @@
+package comp303.fivehundred.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test methods for Tournament.
+ * @author Jake Shamash
+ *
+ */
+public class TestTournament
+{
+	String[] aNames = {"BasicA", "AdvancedA", "BasicB", "AdvancedB"};
+	int[] aTypes = {2, 3, 2, 3};
+
+	@Test
+	public void testParallelMatchesSequential()
+	{
+		GameStatistics sequential = new Tournament(aNames, aTypes, 1, 303).play(60);
+		GameStatistics parallel = new Tournament(aNames, aTypes, 4, 303).play(60);
+
+		assertEquals(60, sequential.getGamesPlayed());
+		assertEquals(60, parallel.getGamesPlayed());
+
+		// The same seed must produce exactly the same games, whatever the number of threads.
+		for (int i = 0; i < 4; i++)
+		{
+			assertEquals(sequential.getGamesWon(i), parallel.getGamesWon(i));
+			assertEquals(sequential.getTotalScore(i), parallel.getTotalScore(i));
+		}
+	}
+
+	@Test
+	public void testMerge()
+	{
+		Tournament tournament = new Tournament(aNames, aTypes, 3, 42);
+		GameStatistics stats = tournament.play(30);
+
+		// Partners win the same games, and every game has exactly one winning team.
+		assertEquals(stats.getGamesWon(0), stats.getGamesWon(2));
+		assertEquals(stats.getGamesWon(1), stats.getGamesWon(3));
+		assertEquals(30, stats.getGamesWon(0) + stats.getGamesWon(1));
+		assertTrue(tournament.getGamesPerSecond() > 0);
+	}
+
+	@Test(expected = GameException.class)
+	public void testNoHumans()
+	{
+		int[] types = {0, 2, 2, 2};
+		new Tournament(aNames, types, 2, 1);
+	}
+}
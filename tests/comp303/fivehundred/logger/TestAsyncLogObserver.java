@@ -0,0 +1,129 @@
+package comp303.fivehundred.logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+import org.junit.Test;
+
+import comp303.fivehundred.engine.Driver;
+import comp303.fivehundred.engine.GameAdapter;
+import comp303.fivehundred.engine.GameEngine;
+import comp303.fivehundred.util.Card;
+
+/**
+ * Test methods for AsyncLogObserver.
+ * @author Jake Shamash
+ *
+ */
+public class TestAsyncLogObserver
+{
+	private static final String[] NAMES = {"A", "B", "C", "D"};
+	private static final int[] TYPES = {GameEngine.BASIC_AI, GameEngine.BASIC_AI, GameEngine.BASIC_AI, GameEngine.BASIC_AI};
+
+	/* Counts the cards played. */
+	private static class Counter extends GameAdapter
+	{
+		private int aCards;
+
+		@Override
+		public void onCardPlayed(GameEngine pEngine, int pPlayer, Card pCard)
+		{
+			aCards++;
+		}
+	}
+
+	/* A writer that takes its time, so that the buffer fills up. */
+	private static class SlowWriter extends StringWriter
+	{
+		@Override
+		public void flush()
+		{
+			try
+			{
+				Thread.sleep(1);
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private static int count(String pText, String pWord)
+	{
+		int lCount = 0;
+		for (int i = pText.indexOf(pWord); i >= 0; i = pText.indexOf(pWord, i + 1))
+		{
+			lCount++;
+		}
+		return lCount;
+	}
+
+	private static String play(AsyncLogObserver pLogger, Writer pOut, int pGames, Counter pCounter) throws IOException
+	{
+		GameEngine lEngine = new GameEngine(NAMES, TYPES);
+		lEngine.addListener(pLogger);
+		lEngine.addListener(pCounter);
+		for (int i = 0; i < pGames; i++)
+		{
+			lEngine.setSeed(i);
+			Driver.playGame(lEngine);
+		}
+		pLogger.close();
+		return pOut.toString();
+	}
+
+	@Test
+	public void testBlock() throws IOException
+	{
+		StringWriter lOut = new StringWriter();
+		Counter lCounter = new Counter();
+		// A tiny buffer wraps around many times.
+		AsyncLogObserver lLogger = new AsyncLogObserver(lOut, 10, AsyncLogObserver.Policy.BLOCK, 1);
+		String lLog = play(lLogger, lOut, 3, lCounter);
+		assertEquals(0, lLogger.getDropped());
+		assertEquals(3, count(lLog, "NEW GAME"));
+		assertEquals(3, count(lLog, "win the game!"));
+		assertEquals(lCounter.aCards, count(lLog, " plays: "));
+		assertTrue(lLog.contains("A cards: "));
+	}
+
+	@Test
+	public void testSampleRate() throws IOException
+	{
+		StringWriter lOut = new StringWriter();
+		AsyncLogObserver lLogger = new AsyncLogObserver(lOut, AsyncLogObserver.DEFAULT_CAPACITY,
+				AsyncLogObserver.Policy.BLOCK, 2);
+		String lLog = play(lLogger, lOut, 4, new Counter());
+		assertEquals(2, count(lLog, "NEW GAME"));
+		assertEquals(2, count(lLog, "win the game!"));
+	}
+
+	@Test
+	public void testDrop() throws IOException
+	{
+		SlowWriter lOut = new SlowWriter();
+		Counter lCounter = new Counter();
+		AsyncLogObserver lLogger = new AsyncLogObserver(lOut, 4, AsyncLogObserver.Policy.DROP, 1);
+		String lLog = play(lLogger, lOut, 2, lCounter);
+		assertTrue(lLogger.getDropped() > 0);
+		assertTrue(count(lLog, " plays: ") < lCounter.aCards);
+	}
+
+	@Test
+	public void testSample() throws IOException
+	{
+		SlowWriter lOut = new SlowWriter();
+		AsyncLogObserver lLogger = new AsyncLogObserver(lOut, 64, AsyncLogObserver.Policy.SAMPLE, 1);
+		String lLog = play(lLogger, lOut, 6, new Counter());
+		assertEquals(0, lLogger.getDropped());
+		assertTrue(lLogger.getSkippedGames() > 0);
+		// Only whole games are logged.
+		assertEquals(6 - lLogger.getSkippedGames(), count(lLog, "NEW GAME"));
+		assertEquals(6 - lLogger.getSkippedGames(), count(lLog, "win the game!"));
+	}
+}
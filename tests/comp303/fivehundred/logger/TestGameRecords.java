@@ -0,0 +1,182 @@
+package comp303.fivehundred.logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import comp303.fivehundred.engine.Driver;
+import comp303.fivehundred.engine.GameAdapter;
+import comp303.fivehundred.engine.GameEngine;
+import comp303.fivehundred.model.Bid;
+import comp303.fivehundred.util.Card;
+import comp303.fivehundred.util.CardSet;
+
+/**
+ * Test methods for RoundRecord, RecordWriter and RecordReader.
+ * @author Jake Shamash
+ *
+ */
+public class TestGameRecords
+{
+	private static final String[] NAMES = {"A", "B", "C", "D"};
+	private static final int[] TYPES = {GameEngine.BASIC_AI, GameEngine.ADVANCED_AI, GameEngine.BASIC_AI, GameEngine.ADVANCED_AI};
+
+	/* Remembers every round as the engine plays it. */
+	private static class Round
+	{
+		private int aDealer;
+		private boolean aNewGame;
+		private final long[] aHands = new long[4];
+		private long aWidow;
+		private final Bid[] aBids = new Bid[4];
+		private long aDiscards;
+		private final List<Integer> aSeats = new ArrayList<Integer>();
+		private final List<Integer> aCards = new ArrayList<Integer>();
+	}
+
+	private static class Capture extends GameAdapter
+	{
+		private final List<Round> aRounds = new ArrayList<Round>();
+		private boolean aNewGame;
+
+		@Override
+		public void onNewGame(GameEngine pEngine, int pDealer)
+		{
+			aNewGame = true;
+		}
+
+		@Override
+		public void onDeal(GameEngine pEngine, int pDealer)
+		{
+			Round lRound = new Round();
+			lRound.aDealer = pDealer;
+			lRound.aNewGame = aNewGame;
+			for (int i = 0; i < 4; i++)
+			{
+				lRound.aHands[i] = pEngine.getHandMask(i);
+			}
+			lRound.aWidow = pEngine.getDiscards().getMask();
+			aRounds.add(lRound);
+			aNewGame = false;
+		}
+
+		@Override
+		public void onBid(GameEngine pEngine, int pPlayer, Bid pBid)
+		{
+			current().aBids[pPlayer] = pBid;
+		}
+
+		@Override
+		public void onExchange(GameEngine pEngine, int pContractHolder)
+		{
+			current().aDiscards = pEngine.getDiscards().getMask();
+		}
+
+		@Override
+		public void onCardPlayed(GameEngine pEngine, int pPlayer, Card pCard)
+		{
+			current().aSeats.add(pPlayer);
+			current().aCards.add(pCard.ordinal());
+		}
+
+		private Round current()
+		{
+			return aRounds.get(aRounds.size() - 1);
+		}
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException
+	{
+		File lFile = File.createTempFile("rounds", ".bin");
+		lFile.deleteOnExit();
+		GameEngine lEngine = new GameEngine(NAMES, TYPES);
+		Capture lCapture = new Capture();
+		lEngine.addListener(lCapture);
+		RecordWriter lWriter = new RecordWriter(lFile.toPath());
+		lEngine.addListener(lWriter);
+		for (int i = 0; i < 5; i++)
+		{
+			lEngine.setSeed(i);
+			Driver.playGame(lEngine);
+		}
+		lWriter.close();
+		assertEquals(lCapture.aRounds.size(), lWriter.getWritten());
+		assertEquals((long) RoundRecord.SIZE * lWriter.getWritten(), lFile.length());
+
+		RecordReader lReader = new RecordReader(lFile.toPath());
+		try
+		{
+			assertEquals(lCapture.aRounds.size(), lReader.size());
+			RoundRecord lRecord = new RoundRecord();
+			for (int i = 0; i < lReader.size(); i++)
+			{
+				lReader.read(i, lRecord);
+				Round lRound = lCapture.aRounds.get(i);
+				assertEquals(lRound.aDealer, lRecord.getDealer());
+				assertEquals(lRound.aNewGame, lRecord.isNewGame());
+				for (int j = 0; j < 4; j++)
+				{
+					assertEquals(lRound.aHands[j], lRecord.getHand(j));
+					assertEquals(lRound.aBids[j], lRecord.getBid(j));
+				}
+				assertEquals(lRound.aWidow, lRecord.getWidow());
+				assertEquals(lRound.aDiscards, lRecord.getDiscards());
+				assertEquals(lRound.aCards.size(), lRecord.getNumPlays());
+				for (int j = 0; j < lRecord.getNumPlays(); j++)
+				{
+					assertEquals((int) lRound.aSeats.get(j), lRecord.getSeat(j));
+					assertEquals((int) lRound.aCards.get(j), lRecord.getCard(j));
+				}
+				assertEquals(lRound.aCards.isEmpty(), lRecord.isPassedOut());
+			}
+			assertTrue(lReader.size() > 5);
+		}
+		finally
+		{
+			lReader.close();
+		}
+	}
+
+	@Test
+	public void testPassedOut()
+	{
+		long[] lHands = new long[4];
+		for (int i = 0; i < 4; i++)
+		{
+			lHands[i] = ((1L << 10) - 1) << (10 * i);
+		}
+		RoundRecord lRecord = new RoundRecord();
+		lRecord.startRound(3, true, lHands, CardSet.ALL & ~((1L << 40) - 1));
+		for (int i = 0; i < 4; i++)
+		{
+			lRecord.setBid(i, new Bid());
+		}
+		ByteBuffer lBuffer = ByteBuffer.allocate(RoundRecord.SIZE * 2);
+		lBuffer.position(RoundRecord.SIZE);
+		lRecord.encode(lBuffer);
+		assertEquals(RoundRecord.SIZE * 2, lBuffer.position());
+
+		RoundRecord lDecoded = new RoundRecord();
+		lDecoded.decode(lBuffer, RoundRecord.SIZE);
+		assertEquals(3, lDecoded.getDealer());
+		assertTrue(lDecoded.isNewGame());
+		assertTrue(lDecoded.isPassedOut());
+		assertEquals(-1, lDecoded.getContractHolder());
+		assertEquals(0, lDecoded.getNumPlays());
+		for (int i = 0; i < 4; i++)
+		{
+			assertEquals(lHands[i], lDecoded.getHand(i));
+			assertTrue(lDecoded.getBid(i).isPass());
+		}
+		assertEquals(CardSet.ALL & ~((1L << 40) - 1), lDecoded.getWidow());
+		assertEquals(CardSet.EMPTY, lDecoded.getDiscards());
+	}
+}
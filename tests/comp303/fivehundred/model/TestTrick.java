@@ -10,6 +10,9 @@ import comp303.fivehundred.model.Trick;
 import comp303.fivehundred.util.AllCards;
 import comp303.fivehundred.util.Card;
 import comp303.fivehundred.util.Card.Suit;
+import comp303.fivehundred.util.CardList;
+import comp303.fivehundred.util.Deck;
+import comp303.fivehundred.util.SplitMixRandom;
 
 /**
  * Unit tests for Trick.java
@@ -135,7 +138,7 @@ public class TestTrick
 		tNoTrump.remove(AllCards.aLJo);
 		tNoTrump.add(AllCards.a5H);
 		
-		assertEquals(tNoTrump.highest(), AllCards.a5H);
+		assertEquals(tNoTrump.highest(), AllCards.aAD);
 		
 		Trick tSpadesTrump = new Trick(new Bid(8, Suit.SPADES));
 		
@@ -181,4 +184,88 @@ public class TestTrick
 		
 		assertEquals(tSpadesTrump.winnerIndex(), 2);
 	}
+	
+	@Test
+	public void testReset()
+	{
+		Trick t = new Trick(new Bid(8, Suit.SPADES));
+		t.add(AllCards.a8S);
+		t.add(AllCards.aJC);
+		
+		// The same trick, played again in no trump.
+		t.reset(new Bid(7, null));
+		assertEquals(0, t.size());
+		assertNull(t.getTrumpSuit());
+		t.add(AllCards.a6D);
+		t.add(AllCards.aJC);
+		t.add(AllCards.aAD);
+		assertEquals(AllCards.aAD, t.highest());
+		assertEquals(2, t.winnerIndex());
+		
+		try
+		{
+			t.reset(new Bid());
+			fail();
+		}
+		catch (ModelException e)
+		{
+		}
+	}
+	
+	@Test
+	public void testIncrementalWinner()
+	{
+		// The incremental winner must agree with sorting the cards that follow suit or trump, for every trump.
+		Suit[] trumps = {Suit.SPADES, Suit.CLUBS, Suit.DIAMONDS, Suit.HEARTS, null};
+		Deck deck = new Deck(new SplitMixRandom(500));
+		for (int i = 0; i < 2000; i++)
+		{
+			deck.shuffle();
+			Suit trump = trumps[i % trumps.length];
+			Trick trick = new Trick(new Bid(6, trump));
+			for (int j = 0; j < 4; j++)
+			{
+				Card card = deck.draw();
+				assertEquals(referenceHighest(trick, card).equals(card), trick.wouldWin(card));
+				trick.add(card);
+				assertEquals(referenceHighest(trick, null), trick.highest());
+				assertEquals(trick.highest(), trick.get(trick.winnerIndex()));
+			}
+			
+			// Removing a card recomputes the winner.
+			trick.remove(trick.highest());
+			assertEquals(referenceHighest(trick, null), trick.highest());
+		}
+	}
+	
+	/*
+	 * The winner of pTrick with pExtra added, computed by sorting the candidate cards.
+	 */
+	private static Card referenceHighest(Trick pTrick, Card pExtra)
+	{
+		CardList cards = pTrick.clone();
+		if (pExtra != null)
+		{
+			cards.add(pExtra);
+		}
+		Suit trump = pTrick.getTrumpSuit();
+		Suit lead = null;
+		if (!cards.getFirst().isJoker())
+		{
+			lead = cards.getFirst().getSuit();
+		}
+		CardList candidates = new CardList();
+		for (Card card : cards)
+		{
+			if (card.isJoker() || (trump != null && card.getEffectiveSuit(trump) == trump) || card.getSuit() == lead)
+			{
+				candidates.add(card);
+			}
+		}
+		if (trump == null)
+		{
+			return candidates.sort(new Card.BySuitNoTrumpComparator()).getLast();
+		}
+		return candidates.sort(new Card.BySuitComparator(trump)).getLast();
+	}
 }
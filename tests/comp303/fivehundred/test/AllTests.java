@@ -3,13 +3,30 @@ package comp303.fivehundred.test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
+import comp303.fivehundred.ai.TestAIParameters;
+import comp303.fivehundred.ai.TestAdvancedCardExchangeStrategy;
 import comp303.fivehundred.ai.TestBasicBiddingStrategy;
 import comp303.fivehundred.ai.TestBasicCardExchangeStrategy;
 import comp303.fivehundred.ai.TestBasicPlayingStrategy;
+import comp303.fivehundred.ai.TestDoubleDummySolver;
+import comp303.fivehundred.ai.TestHandEvaluator;
+import comp303.fivehundred.ai.TestMonteCarloPlayingStrategy;
 import comp303.fivehundred.ai.TestRandomBiddingStrategy;
 import comp303.fivehundred.ai.TestRandomCardExchangeStrategy;
 import comp303.fivehundred.ai.TestRandomPlayingStrategy;
+import comp303.fivehundred.ai.TestSimulationBiddingStrategy;
+import comp303.fivehundred.engine.TestAllocation;
+import comp303.fivehundred.engine.TestBatchRunner;
+import comp303.fivehundred.engine.TestDuplicateStatistics;
 import comp303.fivehundred.engine.TestGameEngine;
+import comp303.fivehundred.engine.TestMetrics;
+import comp303.fivehundred.engine.TestParameterTuner;
+import comp303.fivehundred.engine.TestReplayer;
+import comp303.fivehundred.engine.TestSequentialTest;
+import comp303.fivehundred.engine.TestShardedStatistics;
+import comp303.fivehundred.engine.TestTournament;
+import comp303.fivehundred.logger.TestAsyncLogObserver;
+import comp303.fivehundred.logger.TestGameRecords;
 import comp303.fivehundred.model.TestBid;
 import comp303.fivehundred.model.TestHand;
 import comp303.fivehundred.model.TestTrick;
@@ -18,26 +35,45 @@ import comp303.fivehundred.util.TestBySuitComparator;
 import comp303.fivehundred.util.TestBySuitNoTrumpComparator;
 import comp303.fivehundred.util.TestCard;
 import comp303.fivehundred.util.TestCardList;
+import comp303.fivehundred.util.TestCardSet;
 import comp303.fivehundred.util.TestDeck;
 
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
-	/*TestCard.class, 
-	TestDeck.class,
-	TestBid.class,
-	TestTrick.class,
-	TestCardList.class,
+	/*TestBid.class,
 	TestHand.class,
 	TestByRankComparator.class,
-	TestBySuitComparator.class,
 	TestBySuitNoTrumpComparator.class,
 	TestRandomCardExchangeStrategy.class,
 	TestRandomPlayingStrategy.class,
 	TestRandomBiddingStrategy.class,*/
+	TestAIParameters.class,
+	TestAdvancedCardExchangeStrategy.class,
 	TestBasicBiddingStrategy.class,
 	TestBasicCardExchangeStrategy.class,
 	TestBasicPlayingStrategy.class,
-	TestGameEngine.class
+	TestMonteCarloPlayingStrategy.class,
+	TestDoubleDummySolver.class,
+	TestHandEvaluator.class,
+	TestSimulationBiddingStrategy.class,
+	TestAllocation.class,
+	TestBatchRunner.class,
+	TestDuplicateStatistics.class,
+	TestGameEngine.class,
+	TestMetrics.class,
+	TestParameterTuner.class,
+	TestReplayer.class,
+	TestSequentialTest.class,
+	TestShardedStatistics.class,
+	TestTournament.class,
+	TestGameRecords.class,
+	TestAsyncLogObserver.class,
+	TestCard.class,
+	TestCardList.class,
+	TestCardSet.class,
+	TestDeck.class,
+	TestTrick.class,
+	TestBySuitComparator.class
 	})
 public class AllTests
 {
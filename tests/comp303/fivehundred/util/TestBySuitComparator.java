@@ -1,7 +1,7 @@
 package comp303.fivehundred.util;
 
-import static comp303.fivehundred.util.AllCards.aHJo;
-import static comp303.fivehundred.util.AllCards.aLJo;
+import static comp303.fivehundred.util.AllCards.*;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
@@ -66,4 +66,100 @@ public class TestBySuitComparator
 		Collections.sort(aList, new Card.BySuitComparator(lTrump));
 		assertTrue(TestComparators.compareLists(sortedList, aList));
 	}
+
+	@Test
+	public void testHigherMasks()
+	{
+		// The masks of CardRanking agree with orders written out independently of the comparators, which use the same
+		// tables.
+		Suit[] lTrumps = {Suit.SPADES, Suit.CLUBS, Suit.DIAMONDS, Suit.HEARTS, null};
+		for (Suit lTrump : lTrumps)
+		{
+			int lTrumpState = CardSet.trumpIndex(lTrump);
+			for (int i = 0; i < CardSet.NUM_CARDS; i++)
+			{
+				Card lCard = Card.ofOrdinal(i);
+				for (int j = 0; j < CardSet.NUM_CARDS; j++)
+				{
+					Card lOther = Card.ofOrdinal(j);
+					if (i != j)
+					{
+						assertEquals(suitKey(lOther, lTrump) > suitKey(lCard, lTrump),
+								CardSet.contains(CardRanking.higher(lTrumpState, lCard), lOther));
+						assertEquals(rankKey(lOther) > rankKey(lCard),
+								CardSet.contains(CardRanking.higherRank(lCard), lOther));
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testHigherExamples()
+	{
+		int lSpades = CardSet.trumpIndex(Suit.SPADES);
+		int lHearts = CardSet.trumpIndex(Suit.HEARTS);
+		int lNoTrump = CardSet.trumpIndex(null);
+		long lJokers = CardSet.of(aHJo) | CardSet.of(aLJo);
+
+		// The bowers rank below the jokers only, the right bower above the left one.
+		assertEquals(lJokers, CardRanking.higher(lSpades, aJS));
+		assertEquals(lJokers | CardSet.of(aJS), CardRanking.higher(lSpades, aJC));
+		assertEquals(lJokers | CardSet.of(aJS) | CardSet.of(aJC), CardRanking.higher(lSpades, aAS));
+		assertEquals(CardSet.of(aHJo), CardRanking.higher(lSpades, aLJo));
+		assertEquals(CardSet.EMPTY, CardRanking.higher(lSpades, aHJo));
+
+		// Below the trumps, the suits come in the order of their ordinals, without the left bower.
+		assertEquals(CardSet.rawSuit(Suit.HEARTS) | CardSet.of(aJD) | lJokers, CardRanking.higher(lHearts, aAD));
+		assertEquals(CardSet.rawSuit(Suit.HEARTS) | lJokers | CardSet.rawSuit(Suit.DIAMONDS) | CardSet.of(aQC)
+				| CardSet.of(aKC) | CardSet.of(aAC), CardRanking.higher(lHearts, aJC));
+
+		// In no trump, the jacks are ordinary cards and the last suit is the highest.
+		assertEquals(lJokers, CardRanking.higher(lNoTrump, aAH));
+		assertEquals(lJokers | CardSet.of(aAH) | CardSet.of(aKH) | CardSet.of(aQH), CardRanking.higher(lNoTrump, aJH));
+	}
+
+	/*
+	 * The position of a card in the order of the suits, as the rules define it: the jokers, the right and left bowers,
+	 * the other trumps by rank, then the other suits by ordinal and rank. In no trump, the suits by ordinal and rank
+	 * below the jokers.
+	 */
+	private static int suitKey(Card pCard, Suit pTrump)
+	{
+		final int lNumRanks = Rank.values().length;
+		final int lJoker = 1000;
+		final int lRightBower = 900;
+		final int lLeftBower = 899;
+		final int lTrump = 800;
+		if (pCard.isJoker())
+		{
+			return lJoker + pCard.getJokerValue().ordinal();
+		}
+		if (pTrump != null && pCard.getRank() == Rank.JACK && pCard.getSuit() == pTrump)
+		{
+			return lRightBower;
+		}
+		if (pTrump != null && pCard.getRank() == Rank.JACK && pCard.getSuit() == pTrump.getConverse())
+		{
+			return lLeftBower;
+		}
+		if (pCard.getSuit() == pTrump)
+		{
+			return lTrump + pCard.getRank().ordinal();
+		}
+		return pCard.getSuit().ordinal() * lNumRanks + pCard.getRank().ordinal();
+	}
+
+	/*
+	 * The position of a card in the order of Card.compareTo(): the jokers, then by rank, then by suit.
+	 */
+	private static int rankKey(Card pCard)
+	{
+		final int lJoker = 1000;
+		if (pCard.isJoker())
+		{
+			return lJoker + pCard.getJokerValue().ordinal();
+		}
+		return pCard.getRank().ordinal() * Suit.values().length + pCard.getSuit().ordinal();
+	}
 }
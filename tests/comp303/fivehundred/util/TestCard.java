@@ -65,14 +65,14 @@ public class TestCard
 	@Test
 	public void testToString()
 	{
-		assertEquals( "ACE of CLUBS", aAC.toString());
-		assertEquals( "TEN of CLUBS", aTC.toString());
-		assertEquals( "JACK of CLUBS", aJC.toString());
-		assertEquals( "QUEEN of HEARTS", aQH.toString());
-		assertEquals( "KING of SPADES", aKS.toString());
-		assertEquals( "QUEEN of DIAMONDS", aQD.toString());
-		assertEquals( "HIGH Joker", aHJo.toString());
-		assertEquals( "LOW Joker", aLJo.toString());
+		assertEquals( "AC", aAC.toString());
+		assertEquals( "TC", aTC.toString());
+		assertEquals( "JC", aJC.toString());
+		assertEquals( "QH", aQH.toString());
+		assertEquals( "KS", aKS.toString());
+		assertEquals( "QD", aQD.toString());
+		assertEquals( "HJ", aHJo.toString());
+		assertEquals( "LJ", aLJo.toString());
 	}
 	
 	@Test
@@ -134,4 +134,33 @@ public class TestCard
 	}
 	
 	
+
+	@Test
+	public void testCanonicalInstances()
+	{
+		// Every card has exactly one shared instance, reachable by rank and suit or by ordinal.
+		for (int i = 0; i < 46; i++)
+		{
+			Card lCard = Card.ofOrdinal(i);
+			assertEquals(i, lCard.ordinal());
+			if (lCard.isJoker())
+			{
+				assertSame(lCard, Card.valueOf(lCard.getJokerValue()));
+			}
+			else
+			{
+				assertSame(lCard, Card.valueOf(lCard.getRank(), lCard.getSuit()));
+			}
+		}
+		assertSame(Card.valueOf(Rank.ACE, Suit.CLUBS), Card.stringToCard("AC"));
+		assertSame(Card.valueOf(Joker.HIGH), Card.stringToCard("HJ"));
+
+		// Cards built with the constructors are still equal to their canonical instance.
+		assertEquals(Card.valueOf(Rank.ACE, Suit.CLUBS), aAC);
+		assertEquals(aAC, aAC2);
+		assertEquals(Card.valueOf(Rank.ACE, Suit.CLUBS).hashCode(), aAC2.hashCode());
+		assertFalse(aLJo.equals(aHJo));
+		assertTrue(aLJo.compareTo(aHJo) < 0);
+		assertTrue(aAC.compareTo(aLJo) < 0);
+	}
 }
@@ -100,6 +100,22 @@ public class TestCardList
 		assertEquals(1, r.size());
 	}
 	
+	@Test
+	public void testClear()
+	{
+		CardList c = new CardList();
+		c.add(a6D);
+		c.add(aHJo);
+		c.clear();
+		assertEquals(0, c.size());
+		assertEquals(0, c.getMask());
+		assertFalse(c.contains(a6D));
+		
+		c.add(a6D);
+		assertEquals(1, c.size());
+		assertTrue(c.contains(a6D));
+	}
+	
 	@Test
 	public void testClone()
 	{
@@ -145,7 +161,7 @@ public class TestCardList
 		ts.add(aAS);
 		ts.add(aHJo);
 		
-		assertEquals("{[FOUR of DIAMONDS][SEVEN of HEARTS][ACE of SPADES][HIGH Joker]}", ts.toString());
+		assertEquals("4D 7H AS HJ ", ts.toString());
 	}
 	
 	@Test
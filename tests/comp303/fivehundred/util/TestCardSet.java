@@ -0,0 +1,108 @@
+package comp303.fivehundred.util;
+
+import static comp303.fivehundred.util.AllCards.*;
+import static org.junit.Assert.*;
+
+import java.util.Iterator;
+
+import org.junit.Test;
+
+import comp303.fivehundred.util.Card.Suit;
+
+/**
+ * Unit tests for CardSet.java
+ * @author Jake Shamash
+ */
+public class TestCardSet
+{
+	@Test
+	public void testOrdinals()
+	{
+		// Every card of the deck has a distinct ordinal between 0 and 45.
+		Deck lDeck = new Deck();
+		long lAll = CardSet.EMPTY;
+		while (lDeck.size() > 0)
+		{
+			Card lCard = lDeck.draw();
+			assertFalse(CardSet.contains(lAll, lCard));
+			lAll |= CardSet.of(lCard);
+		}
+		assertEquals(CardSet.ALL, lAll);
+		assertEquals(46, CardSet.size(lAll));
+		assertEquals(CardSet.of(aAC), CardSet.of(aAC2));
+	}
+
+	@Test
+	public void testSuitMasks()
+	{
+		// The precomputed masks must agree with Card.getEffectiveSuit for every card and trump.
+		Suit[] lTrumps = {Suit.SPADES, Suit.CLUBS, Suit.DIAMONDS, Suit.HEARTS, null};
+		Deck lDeck = new Deck();
+		while (lDeck.size() > 0)
+		{
+			Card lCard = lDeck.draw();
+			for (Suit lTrump : lTrumps)
+			{
+				for (Suit lSuit : Suit.values())
+				{
+					assertEquals(lCard.getEffectiveSuit(lTrump) == lSuit, CardSet.contains(CardSet.suit(lSuit, lTrump), lCard));
+				}
+			}
+		}
+
+		assertTrue(CardSet.contains(CardSet.trumps(Suit.SPADES), aJC));
+		assertTrue(CardSet.contains(CardSet.trumps(Suit.SPADES), aHJo));
+		assertFalse(CardSet.contains(CardSet.trumps(Suit.SPADES), aJD));
+		assertEquals(CardSet.JOKERS, CardSet.trumps(null));
+		assertFalse(CardSet.contains(CardSet.rawSuit(Suit.SPADES), aJC));
+		assertEquals(14, CardSet.size(CardSet.trumps(Suit.HEARTS)));
+	}
+
+	@Test
+	public void testCardListMask()
+	{
+		CardList lList = new CardList();
+		lList.add(aJC);
+		lList.add(aLJo);
+		lList.add(a4H);
+		assertEquals(CardSet.of(aJC) | CardSet.of(aLJo) | CardSet.of(a4H), lList.getMask());
+
+		lList.remove(aLJo);
+		assertFalse(lList.contains(aLJo));
+		assertEquals(2, CardSet.size(lList.getMask()));
+
+		// Removing through the iterator keeps the mask in sync.
+		Iterator<Card> lIterator = lList.iterator();
+		lIterator.next();
+		lIterator.remove();
+		assertFalse(lList.contains(aJC));
+		assertTrue(lList.contains(a4H));
+
+		// Filtering keeps the order of the list.
+		lList.add(aKS);
+		lList.add(a5H);
+		CardList lHearts = lList.filter(CardSet.rawSuit(Suit.HEARTS));
+		assertEquals("4H 5H ", lHearts.toString());
+	}
+
+	@Test
+	public void testPlayable()
+	{
+		long lHand = CardSet.of(aJC) | CardSet.of(aLJo) | CardSet.of(a4H) | CardSet.of(aKS);
+
+		// Spades trump: the left bower and the joker follow trump, the king of spades too.
+		assertEquals(CardSet.of(aJC) | CardSet.of(aLJo) | CardSet.of(aKS), CardSet.playable(lHand, Suit.SPADES, Suit.SPADES));
+		// The left bower does not follow clubs when spades are trump.
+		assertEquals(lHand, CardSet.playable(lHand, Suit.CLUBS, Suit.SPADES));
+		assertEquals(CardSet.of(a4H), CardSet.playable(lHand, Suit.HEARTS, Suit.SPADES));
+		// No trump: the jack of clubs follows clubs, and nothing follows a joker lead.
+		assertEquals(CardSet.of(aJC), CardSet.playable(lHand, Suit.CLUBS, null));
+		assertEquals(lHand, CardSet.playable(lHand, null, null));
+
+		assertEquals(lHand & ~CardSet.of(aLJo), CardSet.leadable(lHand, true));
+		assertEquals(lHand, CardSet.leadable(lHand, false));
+		assertEquals(CardSet.of(aLJo), CardSet.leadable(CardSet.of(aLJo), true));
+		assertEquals(CardSet.first(lHand), CardSet.get(lHand, 0));
+		assertEquals(aLJo, CardSet.get(lHand, 3));
+	}
+}
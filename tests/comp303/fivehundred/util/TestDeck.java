@@ -1,6 +1,8 @@
 package comp303.fivehundred.util;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 
 import org.junit.Test;
 
@@ -19,4 +21,68 @@ public class TestDeck
 		}
 		assertEquals(0, deck.size());
 	}
+	
+	@Test
+	public void testShuffle()
+	{
+		// Every reshuffle gives back each of the 46 cards exactly once.
+		Deck deck = new Deck(new SplitMixRandom(7));
+		for( int lRound = 0; lRound < 3; lRound++ )
+		{
+			long lSeen = CardSet.EMPTY;
+			deck.shuffle();
+			deck.draw();
+			deck.shuffle();
+			while( deck.size() > 0 )
+			{
+				Card lCard = deck.draw();
+				assertFalse(CardSet.contains(lSeen, lCard));
+				lSeen |= CardSet.of(lCard);
+			}
+			assertEquals(CardSet.ALL, lSeen);
+		}
+	}
+	
+	@Test
+	public void testSeeded()
+	{
+		// Decks shuffled by generators with the same seed are identical.
+		Deck deck1 = new Deck(new SplitMixRandom(303));
+		Deck deck2 = new Deck(new SplitMixRandom(303));
+		while( deck1.size() > 0 )
+		{
+			assertSame(deck1.draw(), deck2.draw());
+		}
+		
+		SplitMixRandom lRandom = new SplitMixRandom(303);
+		deck1.shuffle(lRandom);
+		lRandom.setSeed(303);
+		deck2.shuffle(lRandom);
+		while( deck1.size() > 0 )
+		{
+			assertSame(deck1.draw(), deck2.draw());
+		}
+	}
+	
+	@Test
+	public void testSplitMixRandom()
+	{
+		SplitMixRandom lRandom = new SplitMixRandom(1);
+		SplitMixRandom lSplit = lRandom.split();
+		SplitMixRandom lOther = new SplitMixRandom(1);
+		lOther.split();
+		// Splitting advances the parent in the same way every time.
+		assertEquals(lOther.nextLong(), lRandom.nextLong());
+		assertFalse(lSplit.nextLong() == lRandom.nextLong());
+		
+		int[] lCounts = new int[3];
+		for( int i = 0; i < 3000; i++ )
+		{
+			lCounts[lRandom.nextInt(3)]++;
+		}
+		for( int lCount : lCounts )
+		{
+			assertFalse(lCount < 900 || lCount > 1100);
+		}
+	}
 }